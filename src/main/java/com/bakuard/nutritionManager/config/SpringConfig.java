@@ -7,10 +7,13 @@ import com.bakuard.nutritionManager.dal.*;
 import com.bakuard.nutritionManager.dal.impl.*;
 import com.bakuard.nutritionManager.dto.DtoMapper;
 import com.bakuard.nutritionManager.service.AuthService;
+import com.bakuard.nutritionManager.service.DishPriceSummaryService;
 import com.bakuard.nutritionManager.service.EmailService;
 import com.bakuard.nutritionManager.service.ImageUploaderService;
 import com.bakuard.nutritionManager.service.JwsService;
+import com.bakuard.nutritionManager.service.menuGenerator.MenuGenerationJobService;
 import com.bakuard.nutritionManager.service.menuGenerator.MenuGeneratorService;
+import com.bakuard.nutritionManager.service.menuGenerator.MilpSolverRegistry;
 import com.bakuard.nutritionManager.service.report.ReportService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.zaxxer.hikari.HikariConfig;
@@ -114,6 +117,11 @@ public class SpringConfig implements WebMvcConfigurer {
         return new MenuRepositoryPostgres(dataSource, appConfiguration, dishRepository);
     }
 
+    @Bean
+    public DishPriceSummaryRepository dishPriceSummaryRepository(DataSource dataSource) {
+        return new DishPriceSummaryPostgres(dataSource);
+    }
+
     @Bean
     public UserRepository userRepository(DataSource dataSource) {
         return new UserRepositoryPostgres(dataSource);
@@ -161,8 +169,27 @@ public class SpringConfig implements WebMvcConfigurer {
     }
 
     @Bean
-    public MenuGeneratorService menuGeneratorService(ConfigData configData) {
-        return new MenuGeneratorService(configData);
+    public MilpSolverRegistry milpSolverRegistry(ConfigData configData) {
+        return MilpSolverRegistry.createDefault(configData.menuGenerator());
+    }
+
+    @Bean
+    public MenuGeneratorService menuGeneratorService(ConfigData configData, MilpSolverRegistry milpSolverRegistry) {
+        return new MenuGeneratorService(configData, milpSolverRegistry);
+    }
+
+    @Bean(destroyMethod = "close")
+    public MenuGenerationJobService menuGenerationJobService(MenuGeneratorService menuGeneratorService,
+                                                             PlatformTransactionManager transactionManager,
+                                                             ConfigData configData,
+                                                             Clock clock) {
+        return new MenuGenerationJobService(menuGeneratorService, transactionManager, configData, clock);
+    }
+
+    @Bean
+    public DishPriceSummaryService dishPriceSummaryService(DishPriceSummaryRepository dishPriceSummaryRepository,
+                                                          DishRepository dishRepository) {
+        return new DishPriceSummaryService(dishPriceSummaryRepository, dishRepository);
     }
 
     @Bean
@@ -178,6 +205,7 @@ public class SpringConfig implements WebMvcConfigurer {
                                ProductRepository productRepository,
                                DishRepository dishRepository,
                                MenuRepository menuRepository,
+                               DishPriceSummaryService dishPriceSummaryService,
                                MessageSource messageSource,
                                ConfigData appConfiguration,
                                Clock clock) {
@@ -186,6 +214,7 @@ public class SpringConfig implements WebMvcConfigurer {
                 productRepository,
                 dishRepository,
                 menuRepository,
+                dishPriceSummaryService,
                 messageSource,
                 appConfiguration,
                 clock);
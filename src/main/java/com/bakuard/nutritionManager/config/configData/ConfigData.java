@@ -10,5 +10,7 @@ public record ConfigData(Decimal decimal,
                          DataBase database,
                          Aws aws,
                          Pagination pagination,
-                         Jws jws) {}
+                         Jws jws,
+                         ProductCatalog productCatalog,
+                         MenuGenerator menuGenerator) {}
 
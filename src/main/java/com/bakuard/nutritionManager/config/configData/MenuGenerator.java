@@ -0,0 +1,13 @@
+package com.bakuard.nutritionManager.config.configData;
+
+public record MenuGenerator(long solveBudgetMillis,
+                            int jobThreads,
+                            int jobQueueCapacity,
+                            long finishedJobLifeTimeInMinutes,
+                            String solver,
+                            int solverThreads,
+                            int solverQueueCapacity,
+                            int branchAndBoundThreads,
+                            long branchAndBoundMaxNodes,
+                            int relaxAndFixMinDishes,
+                            double relaxAndFixMargin) {}
@@ -0,0 +1,5 @@
+package com.bakuard.nutritionManager.config.configData;
+
+public record ProductCatalog(boolean enabled,
+                             long maxMemoryBytes,
+                             boolean offHeap) {}
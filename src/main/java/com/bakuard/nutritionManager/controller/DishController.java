@@ -245,12 +245,35 @@ public class DishController {
     @GetMapping("/getByFilter")
     @Transactional
     public ResponseEntity<Page<DishForListResponse>> getByFilter(
-            @RequestParam("page")
-            @Parameter(description = "Номер страницы выборки. Нумерация начинается с нуля. Не может быть null.", required = true)
+            @RequestParam(value = "page", defaultValue = "0")
+            @Parameter(description = """
+                    Номер страницы выборки. Нумерация начинается с нуля. Игнорируется, если указан параметр cursor.
+                    """,
+                    schema = @Schema(defaultValue = "0"))
             int page,
             @RequestParam("size")
             @Parameter(description = "Размер страницы выборки. Диапазон значений - [1, 30]. Не может быть null.", required = true)
             int size,
+            @RequestParam(value = "cursor", required = false)
+            @Parameter(description = """
+                    Курсор страницы выборки - значение metadata.nextCursor предыдущей страницы. Пустая строка
+                     задает первую страницу. Если параметр указан, страница выбирается по значениям полей
+                     сортировки последнего элемента предыдущей страницы, а не по номеру, и время её получения
+                     не зависит от номера страницы. Курсор действителен только для тех же параметров сортировки
+                     и фильтрации, с которыми была получена предыдущая страница.
+                    """)
+            String cursor,
+            @RequestParam(value = "countMode", required = false)
+            @Parameter(description = """
+                    Способ подсчета общего кол-ва элементов выборки (без учета регистра символов):
+                    <ol>
+                        <li>exact - точный подсчет (значение по умолчанию)</li>
+                        <li>estimated - оценка по статистике СУБД, выполняется быстрее точного подсчета</li>
+                        <li>none - общее кол-во не подсчитывается, поля metadata.totalItems и metadata.totalPages
+                         равны null, а наличие следующей страницы определяется полем metadata.last</li>
+                    </ol>
+                    """)
+            String countMode,
             @RequestParam(value = "sort", required = false)
             @Parameter(description = """
                     Задает порядок сортировки
@@ -292,13 +315,15 @@ public class DishController {
             List<String> tags) {
         UUID userId = requestContext.getCurrentJwsBodyAs(UUID.class);
 
-        logger.info("Get dishes for list by filter: user={}, page={}, size={}, userId={}, " +
+        logger.info("Get dishes for list by filter: user={}, page={}, size={}, cursor={}, countMode={}, userId={}, " +
                         "sortRule={}, productCategories={}, tags={}",
-                userId, page, size, userId, sortRule, productCategories, tags);
+                userId, page, size, cursor, countMode, userId, sortRule, productCategories, tags);
 
         Criteria criteria = mapper.toDishCriteria(
                 page,
                 size,
+                cursor,
+                countMode,
                 userId,
                 sortRule,
                 productCategories,
@@ -11,8 +11,8 @@ import com.bakuard.nutritionManager.dto.menus.fields.MenuFieldsResponse;
 import com.bakuard.nutritionManager.model.Menu;
 import com.bakuard.nutritionManager.model.util.Page;
 import com.bakuard.nutritionManager.service.ImageUploaderService;
-import com.bakuard.nutritionManager.service.menuGenerator.Input;
-import com.bakuard.nutritionManager.service.menuGenerator.MenuGeneratorService;
+import com.bakuard.nutritionManager.service.menuGenerator.MenuGenerationJob;
+import com.bakuard.nutritionManager.service.menuGenerator.MenuGenerationJobService;
 import com.bakuard.nutritionManager.service.report.ReportService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -33,11 +33,14 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.net.URL;
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 @Tag(name = "Контроллер меню")
 @RestController
@@ -45,6 +48,7 @@ import java.util.UUID;
 public class MenuController {
 
     private static final Logger logger = LoggerFactory.getLogger(MenuController.class.getName());
+    private static final long GENERATION_JOB_EVENTS_TIMEOUT_MILLIS = 10 * 60 * 1000;
 
 
     private DtoMapper mapper;
@@ -53,7 +57,7 @@ public class MenuController {
     private ImageUploaderService imageUploaderService;
     private ReportService reportService;
 
-    private MenuGeneratorService menuGeneratorService;
+    private MenuGenerationJobService menuGenerationJobService;
     private RequestContext requestContext;
 
     @Autowired
@@ -61,13 +65,13 @@ public class MenuController {
                           MenuRepository repository,
                           ImageUploaderService imageUploaderService,
                           ReportService reportService,
-                          MenuGeneratorService menuGeneratorService,
+                          MenuGenerationJobService menuGenerationJobService,
                           RequestContext requestContext) {
         this.mapper = mapper;
         this.repository = repository;
         this.imageUploaderService = imageUploaderService;
         this.reportService = reportService;
-        this.menuGeneratorService = menuGeneratorService;
+        this.menuGenerationJobService = menuGenerationJobService;
         this.requestContext = requestContext;
     }
 
@@ -149,35 +153,151 @@ public class MenuController {
         return ResponseEntity.ok(mapper.toSuccessResponse("menu.update", response));
     }
 
-    @Operation(summary = "Генерирует новое меню на основе заданных ограничений")
+    @Operation(summary = """
+            Ставит в очередь задачу генерации нового меню на основе заданных ограничений и возвращает ее.
+             Если для пользователя уже выполняется задача генерации меню с таким же наименованием - возвращает ее.
+             Ход выполнения задачи и ее результат можно получить с помощью /menus/getGenerationJob или
+             /menus/getGenerationJobEvents.
+            """)
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200"),
             @ApiResponse(responseCode = "400",
-                    description = """
-                                    Если нарушен хотя бы один из инвариантов связанный с телом запроса или
-                                     невозможно создать меню удовлетворяющее заданным ограничениям.
-                                    """,
+                    description = "Если не указано наименование меню",
                     content = @Content(mediaType = "application/json",
                             schema = @Schema(implementation = ExceptionResponse.class))),
             @ApiResponse(responseCode = "401",
                     description = "Если передан некорректный токен или токен не указан",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ExceptionResponse.class))),
+            @ApiResponse(responseCode = "429",
+                    description = "Если очередь задач генерации меню заполнена",
                     content = @Content(mediaType = "application/json",
                             schema = @Schema(implementation = ExceptionResponse.class)))
     })
     @SecurityRequirement(name = "commonToken")
     @PostMapping("/generate")
-    @Transactional
-    public ResponseEntity<SuccessResponse<MenuResponse>> generate(@RequestBody GenerateMenuRequest dto) {
+    public ResponseEntity<SuccessResponse<MenuGenerationJobResponse>> generate(@RequestBody GenerateMenuRequest dto) {
         UUID userId = requestContext.getCurrentJwsBodyAs(UUID.class);
         logger.info("Generate menu for user={}. dto={}", userId, dto);
 
-        Input input = mapper.toInput(userId, dto);
-        Menu menu = menuGeneratorService.generate(input);
-        MenuResponse response = mapper.toMenuResponse(menu);
+        MenuGenerationJob job = menuGenerationJobService.submit(
+                userId,
+                dto.getMenuName(),
+                () -> mapper.toInput(userId, dto)
+        );
+        MenuGenerationJobResponse response = mapper.toMenuGenerationJobResponse(job);
 
         return ResponseEntity.ok(mapper.toSuccessResponse("menu.generate", response));
     }
 
+    @Operation(summary = """
+            Возвращает задачу генерации меню. Если задача завершена успешно - ответ содержит сгенерированное
+             меню, если задача завершилась неудачей - причины неудачи.
+            """)
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200"),
+            @ApiResponse(responseCode = "401",
+                    description = "Если передан некорректный токен или токен не указан",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ExceptionResponse.class))),
+            @ApiResponse(responseCode = "404",
+                    description = "Если не удалось найти задачу с таким ID или срок ее хранения истек",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ExceptionResponse.class)))
+    })
+    @SecurityRequirement(name = "commonToken")
+    @GetMapping("/getGenerationJob")
+    public ResponseEntity<SuccessResponse<MenuGenerationJobResponse>> getGenerationJob(
+            @RequestParam("id")
+            @Parameter(description = "Уникальный идентификатор задачи в формате UUID. Не может быть null.", required = true)
+            UUID id) {
+        UUID userId = requestContext.getCurrentJwsBodyAs(UUID.class);
+        logger.info("Get menu generation job for user={}. id={}", userId, id);
+
+        MenuGenerationJob job = menuGenerationJobService.tryGetJob(userId, id);
+        MenuGenerationJobResponse response = mapper.toMenuGenerationJobResponse(job);
+
+        return ResponseEntity.ok(mapper.toSuccessResponse("menu.getGenerationJob", response));
+    }
+
+    @Operation(summary = """
+            Подписывает на изменения этапа выполнения задачи генерации меню (server-sent events). Каждое событие
+             имеет имя равное этапу выполнения задачи и содержит данные задачи в том же формате, что и
+             /menus/getGenerationJob. Первое событие соответствует текущему этапу задачи. После завершения задачи
+             поток событий закрывается.
+            """)
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200"),
+            @ApiResponse(responseCode = "401",
+                    description = "Если передан некорректный токен или токен не указан",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ExceptionResponse.class))),
+            @ApiResponse(responseCode = "404",
+                    description = "Если не удалось найти задачу с таким ID или срок ее хранения истек",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ExceptionResponse.class)))
+    })
+    @SecurityRequirement(name = "commonToken")
+    @GetMapping(value = "/getGenerationJobEvents", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter getGenerationJobEvents(
+            @RequestParam("id")
+            @Parameter(description = "Уникальный идентификатор задачи в формате UUID. Не может быть null.", required = true)
+            UUID id) {
+        UUID userId = requestContext.getCurrentJwsBodyAs(UUID.class);
+        logger.info("Subscribe to menu generation job events for user={}. id={}", userId, id);
+
+        MenuGenerationJob job = menuGenerationJobService.tryGetJob(userId, id);
+        SseEmitter emitter = new SseEmitter(GENERATION_JOB_EVENTS_TIMEOUT_MILLIS);
+        Consumer<MenuGenerationJob> listener = new Consumer<>() {
+            @Override
+            public void accept(MenuGenerationJob changedJob) {
+                try {
+                    emitter.send(
+                            SseEmitter.event().
+                                    name(changedJob.getStage().name()).
+                                    data(mapper.toMenuGenerationJobResponse(changedJob), MediaType.APPLICATION_JSON)
+                    );
+                    if(changedJob.getStage().isFinal()) emitter.complete();
+                } catch(IOException | IllegalStateException e) {
+                    job.removeListener(this);
+                    emitter.completeWithError(e);
+                }
+            }
+        };
+        emitter.onCompletion(() -> job.removeListener(listener));
+        emitter.onTimeout(() -> job.removeListener(listener));
+        job.addListener(listener);
+
+        return emitter;
+    }
+
+    @Operation(summary = "Отменяет задачу генерации меню. Если задача уже завершена - ничего не делает.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200"),
+            @ApiResponse(responseCode = "401",
+                    description = "Если передан некорректный токен или токен не указан",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ExceptionResponse.class))),
+            @ApiResponse(responseCode = "404",
+                    description = "Если не удалось найти задачу с таким ID или срок ее хранения истек",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ExceptionResponse.class)))
+    })
+    @SecurityRequirement(name = "commonToken")
+    @DeleteMapping("/cancelGenerationJob")
+    public ResponseEntity<SuccessResponse<MenuGenerationJobResponse>> cancelGenerationJob(
+            @RequestParam("id")
+            @Parameter(description = "Уникальный идентификатор задачи в формате UUID. Не может быть null.", required = true)
+            UUID id) {
+        UUID userId = requestContext.getCurrentJwsBodyAs(UUID.class);
+        logger.info("Cancel menu generation job for user={}. id={}", userId, id);
+
+        MenuGenerationJob job = menuGenerationJobService.cancel(userId, id);
+        MenuGenerationJobResponse response = mapper.toMenuGenerationJobResponse(job);
+
+        return ResponseEntity.ok(mapper.toSuccessResponse("menu.cancelGenerationJob", response));
+    }
+
     @Operation(summary = "Удаление меню")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200"),
@@ -282,12 +402,35 @@ public class MenuController {
     @GetMapping("/getByFilter")
     @Transactional
     public ResponseEntity<Page<MenuForListResponse>> getByFilter(
-            @RequestParam("page")
-            @Parameter(description = "Номер страницы выборки. Нумерация начинается с нуля. Не может быть null.", required = true)
+            @RequestParam(value = "page", defaultValue = "0")
+            @Parameter(description = """
+                    Номер страницы выборки. Нумерация начинается с нуля. Игнорируется, если указан параметр cursor.
+                    """,
+                    schema = @Schema(defaultValue = "0"))
             int page,
             @RequestParam("size")
             @Parameter(description = "Размер страницы выборки. Диапазон значений - [1, 30]. Не может быть null.", required = true)
             int size,
+            @RequestParam(value = "cursor", required = false)
+            @Parameter(description = """
+                    Курсор страницы выборки - значение metadata.nextCursor предыдущей страницы. Пустая строка
+                     задает первую страницу. Если параметр указан, страница выбирается по значениям полей
+                     сортировки последнего элемента предыдущей страницы, а не по номеру, и время её получения
+                     не зависит от номера страницы. Курсор действителен только для тех же параметров сортировки
+                     и фильтрации, с которыми была получена предыдущая страница.
+                    """)
+            String cursor,
+            @RequestParam(value = "countMode", required = false)
+            @Parameter(description = """
+                    Способ подсчета общего кол-ва элементов выборки (без учета регистра символов):
+                    <ol>
+                        <li>exact - точный подсчет (значение по умолчанию)</li>
+                        <li>estimated - оценка по статистике СУБД, выполняется быстрее точного подсчета</li>
+                        <li>none - общее кол-во не подсчитывается, поля metadata.totalItems и metadata.totalPages
+                         равны null, а наличие следующей страницы определяется полем metadata.last</li>
+                    </ol>
+                    """)
+            String countMode,
             @RequestParam(value = "sort", required = false)
             @Parameter(description = """
                     Задает порядок сортировки
@@ -327,13 +470,15 @@ public class MenuController {
                      """)
             List<String> tags) {
         UUID userId = requestContext.getCurrentJwsBodyAs(UUID.class);
-        logger.info("Get menus for list by filter: user={}, page={}, size={}, userId={}, " +
+        logger.info("Get menus for list by filter: user={}, page={}, size={}, cursor={}, countMode={}, userId={}, " +
                         "sortRule={}, dishNames={}, tags={}",
-                userId, page, size, userId, sortRule, dishNames, tags);
+                userId, page, size, cursor, countMode, userId, sortRule, dishNames, tags);
 
         Criteria criteria = mapper.toMenuCriteria(
                 page,
                 size,
+                cursor,
+                countMode,
                 userId,
                 sortRule,
                 dishNames,
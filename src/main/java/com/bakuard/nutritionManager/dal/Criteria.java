@@ -2,6 +2,7 @@ package com.bakuard.nutritionManager.dal;
 
 import com.bakuard.nutritionManager.model.filters.Filter;
 import com.bakuard.nutritionManager.model.filters.Sort;
+import com.bakuard.nutritionManager.model.util.CountMode;
 import com.bakuard.nutritionManager.model.util.Pageable;
 import com.bakuard.nutritionManager.validation.Validator;
 
@@ -14,9 +15,10 @@ public class Criteria {
     private Pageable pageable;
     private Sort sort;
     private Filter filter;
+    private CountMode countMode;
 
     public Criteria() {
-
+        countMode = CountMode.EXACT;
     }
 
     public Criteria setPageable(Pageable pageable) {
@@ -34,6 +36,11 @@ public class Criteria {
         return this;
     }
 
+    public Criteria setCountMode(CountMode countMode) {
+        this.countMode = countMode == null ? CountMode.EXACT : countMode;
+        return this;
+    }
+
     public <T extends Pageable> T getPageable(Class<T> type) {
         return type.cast(pageable);
     }
@@ -46,6 +53,10 @@ public class Criteria {
         return filter;
     }
 
+    public CountMode getCountMode() {
+        return countMode;
+    }
+
     public <T extends Pageable> T tryGetPageable(Class<T> type) {
         Validator.check("Criteria.pageable", notNull(pageable));
 
@@ -71,12 +82,13 @@ public class Criteria {
         Criteria criteria = (Criteria) o;
         return Objects.equals(pageable, criteria.pageable) &&
                 Objects.equals(sort, criteria.sort) &&
-                Objects.equals(filter, criteria.filter);
+                Objects.equals(filter, criteria.filter) &&
+                countMode == criteria.countMode;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(pageable, sort, filter);
+        return Objects.hash(pageable, sort, filter, countMode);
     }
 
     @Override
@@ -85,6 +97,7 @@ public class Criteria {
                 "pageable=" + pageable +
                 ", sort=" + sort +
                 ", filter=" + filter +
+                ", countMode=" + countMode +
                 '}';
     }
 
@@ -0,0 +1,53 @@
+package com.bakuard.nutritionManager.dal;
+
+import com.bakuard.nutritionManager.dal.projection.DishPriceSummary;
+import com.bakuard.nutritionManager.model.Dish;
+import com.bakuard.nutritionManager.validation.ValidateException;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Репозиторий предварительно рассчитанных данных о стоимости блюд ({@link DishPriceSummary}). Для каждого
+ * блюда хранится минимальная, максимальная и средняя стоимость одной порции (см. {@link Dish#getMinPrice()},
+ * {@link Dish#getMaxPrice()}, {@link Dish#getAveragePrice()}) и кол-во подходящих ингредиентам продуктов.<br/>
+ * Данные о стоимости блюда помечаются как устаревшие при сохранении самого блюда, а также при добавлении,
+ * изменении или удалении любого продукта, который соответствует хотя бы одному из ингредиентов блюда. При
+ * каждой такой пометке номер версии данных ({@link DishPriceSummary#version()}) увеличивается на единицу.
+ * Устаревшие данные пересчитываются в фоновом режиме.
+ */
+public interface DishPriceSummaryRepository {
+
+    /**
+     * Возвращает не более maxNumber устаревших записей о стоимости блюд. Возвращенные записи блокируются до
+     * конца текущей транзакции и не будут возвращены этим методом в других транзакциях.
+     * @param maxNumber максимальное кол-во возвращаемых записей.
+     * @return устаревшие записи о стоимости блюд.
+     * @throws ValidateException если maxNumber меньше или равен нулю.
+     */
+    public List<DishPriceSummary> getStale(int maxNumber);
+
+    /**
+     * Сохраняет пересчитанные данные о стоимости блюд и снимает с них пометку об устаревании. Данные
+     * блюда сохраняются, только если номер версии этих данных в БД совпадает с {@link DishPriceSummary#version()},
+     * т.е. если с момента их получения методом {@link #getStale(int)} они не были повторно помечены как
+     * устаревшие.
+     * @param summaries пересчитанные данные о стоимости блюд.
+     * @return кол-во блюд, для которых данные о стоимости были сохранены.
+     * @throws ValidateException если summaries или один из его элементов имеет значение null.
+     */
+    public int refresh(List<DishPriceSummary> summaries);
+
+    /**
+     * Возвращает актуальные данные о стоимости указанных блюд пользователя. Элемент итогового списка
+     * соответствует блюду с тем же индексом. Если данные о стоимости некоторого блюда устарели или
+     * отсутствуют - для него возвращается пустой Optional.
+     * @param userId идентификатор пользователя, которому принадлежат блюда.
+     * @param dishIds идентификаторы блюд.
+     * @return актуальные данные о стоимости каждого из блюд.
+     * @throws ValidateException если userId, dishIds или один из элементов dishIds имеет значение null.
+     */
+    public List<Optional<DishPriceSummary>> getActual(UUID userId, List<UUID> dishIds);
+
+}
@@ -2,8 +2,11 @@ package com.bakuard.nutritionManager.dal;
 
 import com.bakuard.nutritionManager.validation.ValidateException;
 import com.bakuard.nutritionManager.model.*;
+import com.bakuard.nutritionManager.model.filters.Sort;
+import com.bakuard.nutritionManager.model.util.CountMode;
 import com.bakuard.nutritionManager.model.util.Page;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -99,13 +102,25 @@ public interface DishRepository {
 
     /**
      * Возвращает упорядоченную выборку блюд из множества всех блюд с учетом заданных ограничений
-     * в виде criteria (см. {@link Criteria}).
+     * в виде criteria (см. {@link Criteria}). Способ подсчета общего кол-ва блюд выборки задается
+     * {@link Criteria#setCountMode(CountMode)}.
      * @param criteria критерий формирования выборки блюд.
      * @return выборку блюд удовлетворяющую ограничениям criteria.
      * @throws ValidateException если criteria является null.
      */
     public Page<Dish> getDishes(Criteria criteria);
 
+    /**
+     * Возвращает все блюда указанного пользователя, упорядоченные по умолчанию (см. {@link Sort#dishDefaultSort()}).
+     * В отличие от {@link #getDishes(Criteria)} блюда не разбиваются на страницы и загружаются фиксированным
+     * кол-вом запросов, не зависящим от кол-ва блюд. Если у пользователя нет ни одного блюда - возвращает
+     * пустой список.
+     * @param userId уникальный идентификатор пользователя.
+     * @return все блюда пользователя.
+     * @throws ValidateException если userId является null.
+     */
+    public List<Dish> getAllDishes(UUID userId);
+
     /**
      * Возвращает выборку тегов блюд упорядоченную по значению в возрастающем порядке ({@link Tag#getValue()}).
      * Выборка будет формироваться только из тех тегов, блюда которых удовлетворяют ограничению criteria
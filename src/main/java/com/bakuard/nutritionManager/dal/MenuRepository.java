@@ -2,6 +2,7 @@ package com.bakuard.nutritionManager.dal;
 
 import com.bakuard.nutritionManager.model.Menu;
 import com.bakuard.nutritionManager.model.Tag;
+import com.bakuard.nutritionManager.model.util.CountMode;
 import com.bakuard.nutritionManager.model.util.Page;
 import com.bakuard.nutritionManager.validation.ValidateException;
 
@@ -101,7 +102,8 @@ public interface MenuRepository {
 
     /**
      * Возвращает упорядоченную выборку меню из множества всех меню с учетом заданных ограничений
-     * в виде criteria (см. {@link Criteria}).
+     * в виде criteria (см. {@link Criteria}). Способ подсчета общего кол-ва меню выборки задается
+     * {@link Criteria#setCountMode(CountMode)}.
      * @param criteria критерий формирования выборки меню.
      * @return выборку меню удовлетворяющую ограничениям criteria.
      * @throws ValidateException если criteria является null.
@@ -2,13 +2,18 @@ package com.bakuard.nutritionManager.dal;
 
 import com.bakuard.nutritionManager.dal.projection.ProductField;
 import com.bakuard.nutritionManager.dal.projection.ProductFields;
+import com.bakuard.nutritionManager.dal.projection.ProductPriceRange;
 import com.bakuard.nutritionManager.model.Product;
 import com.bakuard.nutritionManager.model.ProductContext;
 import com.bakuard.nutritionManager.model.Tag;
+import com.bakuard.nutritionManager.model.filters.Filter;
+import com.bakuard.nutritionManager.model.util.CountMode;
 import com.bakuard.nutritionManager.model.util.Page;
+import com.bakuard.nutritionManager.model.util.PageableByNumber;
 import com.bakuard.nutritionManager.validation.ValidateException;
 
 import java.math.BigDecimal;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -75,13 +80,49 @@ public interface ProductRepository {
 
     /**
      * Возвращает упорядоченную выборку продуктов из множества всех продуктов с учетом заданных ограничений
-     * в виде criteria (см. {@link Criteria}).
+     * в виде criteria (см. {@link Criteria}). Способ подсчета общего кол-ва продуктов выборки задается
+     * {@link Criteria#setCountMode(CountMode)}.
      * @param criteria критерий формирования выборки продуктов.
      * @return выборку продуктов удовлетворяющую ограничениям criteria.
      * @throws ValidateException если criteria является null.
      */
     public Page<Product> getProducts(Criteria criteria);
 
+    /**
+     * Пакетный вариант метода {@link #getProducts(Criteria)}: возвращает по одной странице продуктов для каждого
+     * элемента criteria, выполняя при этом ровно один запрос к БД. Каждая страница в возвращаемом списке
+     * соответствует элементу criteria с тем же индексом и содержит те же данные, которые вернул бы для этого
+     * элемента метод {@link #getProducts(Criteria)}. Особые случаи:<br/>
+     * 1. Если criteria пуст - возвращает пустой список.<br/>
+     * 2. Если некоторому элементу criteria не соответствует ни один продукт - для него будет возвращена
+     *    пустая страница ({@link Page#empty()}).
+     * @param criteria критерии формирования выборок продуктов. Для каждого элемента обязательно должны быть
+     *                 заданы фильтр, правила сортировки и параметры пагинации ({@link PageableByNumber}).
+     * @return список страниц продуктов, по одной на каждый элемент criteria.
+     * @throws ValidateException если выполняется хотя бы одно из следующих условий:<br/>
+     *         1. если criteria является null.<br/>
+     *         2. если один из элементов criteria является null.<br/>
+     *         3. если для одного из элементов criteria не задан фильтр, правила сортировки или параметры пагинации.<br/>
+     *         4. если фильтр одного из элементов criteria не содержит ровно одного ограничения на пользователя.
+     */
+    public List<Page<Product>> getProductPages(List<Criteria> criteria);
+
+    /**
+     * Для каждого фильтра из filters возвращает самый дешевый и самый дорогой из удовлетворяющих ему продуктов,
+     * а также общее кол-во таких продуктов. Продукты упорядочиваются по цене, а при равной цене - по
+     * идентификатору. Данные для всех фильтров получаются одним запросом к БД. Элемент итогового списка
+     * соответствует фильтру с тем же индексом. Особые случаи:<br/>
+     * 1. Если filters пуст - возвращает пустой список.<br/>
+     * 2. Если некоторому фильтру не соответствует ни один продукт - для него будет возвращен пустой Optional.
+     * @param filters фильтры задающие множества продуктов.
+     * @return диапазон цен продуктов для каждого фильтра.
+     * @throws ValidateException если выполняется хотя бы одно из следующих условий:<br/>
+     *         1. если filters является null.<br/>
+     *         2. если один из элементов filters является null.<br/>
+     *         3. если один из элементов filters не содержит ровно одного ограничения на пользователя.
+     */
+    public List<Optional<ProductPriceRange>> getProductPriceRanges(List<Filter> filters);
+
     /**
      * Возвращает выборку тегов удовлетворяющую ограничению criteria упорядоченную по значению({@link Tag#getValue()})
      * в порядке возрастания (см. {@link Criteria}).
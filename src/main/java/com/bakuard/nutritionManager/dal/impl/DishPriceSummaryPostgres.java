@@ -0,0 +1,137 @@
+package com.bakuard.nutritionManager.dal.impl;
+
+import com.bakuard.nutritionManager.dal.DishPriceSummaryRepository;
+import com.bakuard.nutritionManager.dal.projection.DishPriceSummary;
+import com.bakuard.nutritionManager.validation.Validator;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+
+import static com.bakuard.nutritionManager.validation.Rule.*;
+
+public class DishPriceSummaryPostgres implements DishPriceSummaryRepository {
+
+    private JdbcTemplate statement;
+
+    public DishPriceSummaryPostgres(DataSource dataSource) {
+        statement = new JdbcTemplate(dataSource);
+    }
+
+    @Override
+    public List<DishPriceSummary> getStale(int maxNumber) {
+        Validator.check("DishPriceSummaryRepository.maxNumber", positiveValue(maxNumber));
+
+        return statement.query(
+                """
+                        SELECT * FROM DishPriceSummary
+                            WHERE stale
+                            ORDER BY dishId
+                            LIMIT ?
+                            FOR UPDATE SKIP LOCKED;
+                        """,
+                (PreparedStatement ps) -> ps.setInt(1, maxNumber),
+                (ResultSet rs) -> {
+                    List<DishPriceSummary> result = new ArrayList<>();
+                    while(rs.next()) result.add(mapToSummary(rs));
+                    return result;
+                }
+        );
+    }
+
+    @Override
+    public int refresh(List<DishPriceSummary> summaries) {
+        Validator.check(
+                "DishPriceSummaryRepository.summaries", notNull(summaries).
+                        and(() -> notContainsNull(summaries))
+        );
+
+        int[] updated = statement.batchUpdate(
+                """
+                        UPDATE DishPriceSummary SET
+                            minPrice=?,
+                            maxPrice=?,
+                            averagePrice=?,
+                            productsNumber=?,
+                            stale=FALSE
+                        WHERE dishId=? AND version=?;
+                        """,
+                new BatchPreparedStatementSetter() {
+
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        DishPriceSummary summary = summaries.get(i);
+                        ps.setBigDecimal(1, summary.minPrice());
+                        ps.setBigDecimal(2, summary.maxPrice());
+                        ps.setBigDecimal(3, summary.averagePrice());
+                        ps.setInt(4, summary.productsNumber());
+                        ps.setObject(5, summary.dishId());
+                        ps.setLong(6, summary.version());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return summaries.size();
+                    }
+
+                }
+        );
+
+        return Arrays.stream(updated).map(count -> Math.max(count, 0)).sum();
+    }
+
+    @Override
+    public List<Optional<DishPriceSummary>> getActual(UUID userId, List<UUID> dishIds) {
+        Validator.check(
+                "DishPriceSummaryRepository.userId", notNull(userId),
+                "DishPriceSummaryRepository.dishIds", notNull(dishIds).
+                        and(() -> notContainsNull(dishIds))
+        );
+
+        if(dishIds.isEmpty()) return List.of();
+
+        Map<UUID, DishPriceSummary> summaries = statement.query(
+                (Connection con) -> {
+                    PreparedStatement ps = con.prepareStatement("""
+                            SELECT * FROM DishPriceSummary
+                                WHERE userId = ? AND dishId = ANY(?) AND NOT stale;
+                            """);
+                    ps.setObject(1, userId);
+                    ps.setArray(2, con.createArrayOf("uuid", dishIds.toArray()));
+                    return ps;
+                },
+                (ResultSet rs) -> {
+                    Map<UUID, DishPriceSummary> result = new HashMap<>();
+                    while(rs.next()) {
+                        DishPriceSummary summary = mapToSummary(rs);
+                        result.put(summary.dishId(), summary);
+                    }
+                    return result;
+                }
+        );
+
+        return dishIds.stream().
+                map(dishId -> Optional.ofNullable(summaries.get(dishId))).
+                toList();
+    }
+
+
+    private DishPriceSummary mapToSummary(ResultSet rs) throws SQLException {
+        return new DishPriceSummary(
+                (UUID) rs.getObject("dishId"),
+                (UUID) rs.getObject("userId"),
+                rs.getBigDecimal("minPrice"),
+                rs.getBigDecimal("maxPrice"),
+                rs.getBigDecimal("averagePrice"),
+                rs.getInt("productsNumber"),
+                rs.getLong("version"),
+                rs.getBoolean("stale")
+        );
+    }
+
+}
@@ -3,6 +3,7 @@ package com.bakuard.nutritionManager.dal.impl;
 import com.bakuard.nutritionManager.config.configData.ConfigData;
 import com.bakuard.nutritionManager.dal.Criteria;
 import com.bakuard.nutritionManager.dal.DishRepository;
+import com.bakuard.nutritionManager.dal.impl.mappers.CursorMapper;
 import com.bakuard.nutritionManager.dal.impl.mappers.DishFilterMapper;
 import com.bakuard.nutritionManager.dal.impl.mappers.ProductFilterJsonMapper;
 import com.bakuard.nutritionManager.dal.impl.mappers.ProductFilterMapper;
@@ -11,24 +12,31 @@ import com.bakuard.nutritionManager.model.DishIngredient;
 import com.bakuard.nutritionManager.model.Tag;
 import com.bakuard.nutritionManager.model.User;
 import com.bakuard.nutritionManager.model.filters.Sort;
+import com.bakuard.nutritionManager.model.util.CountMode;
 import com.bakuard.nutritionManager.model.util.Page;
+import com.bakuard.nutritionManager.model.util.Pageable;
+import com.bakuard.nutritionManager.model.util.PageableByCursor;
 import com.bakuard.nutritionManager.model.util.PageableByNumber;
 import com.bakuard.nutritionManager.validation.Constraint;
 import com.bakuard.nutritionManager.validation.Rule;
 import com.bakuard.nutritionManager.validation.ValidateException;
 import com.bakuard.nutritionManager.validation.Validator;
+import org.jooq.Condition;
+import org.jooq.Select;
 import org.jooq.SortField;
+import org.jooq.impl.DSL;
 import org.springframework.dao.DuplicateKeyException;
 import org.springframework.jdbc.core.BatchPreparedStatementSetter;
 import org.springframework.jdbc.core.JdbcTemplate;
 
 import javax.sql.DataSource;
 import java.math.BigDecimal;
-import java.sql.Connection;
+import java.math.BigInteger;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.*;
+import java.util.stream.Collectors;
 
 import static com.bakuard.nutritionManager.model.filters.Filter.Type.USER;
 import static com.bakuard.nutritionManager.validation.Rule.*;
@@ -42,6 +50,8 @@ public class DishRepositoryPostgres implements DishRepository {
     private ProductFilterMapper filterMapper;
     private ProductFilterJsonMapper filterJsonMapper;
     private DishFilterMapper dishFilterMapper;
+    private CursorMapper cursorMapper;
+    private RowCountEstimator rowCountEstimator;
 
     public DishRepositoryPostgres(DataSource dataSource,
                                   ConfigData conf,
@@ -52,6 +62,8 @@ public class DishRepositoryPostgres implements DishRepository {
         filterMapper = new ProductFilterMapper();
         filterJsonMapper = new ProductFilterJsonMapper();
         dishFilterMapper = new DishFilterMapper();
+        cursorMapper = new CursorMapper();
+        rowCountEstimator = new RowCountEstimator(statement);
     }
 
     @Override
@@ -61,6 +73,8 @@ public class DishRepositoryPostgres implements DishRepository {
         try {
             if(doesDishExist(dish.getId())) updateDish(dish);
             else addNewDish(dish);
+            matchWithProducts(dish);
+            markDishPriceSummaryAsStale(dish);
         } catch(DuplicateKeyException e) {
             throw new ValidateException("Fail to save dish", e).
                     addReason(Rule.of("DishRepository.dish", failure(Constraint.ENTITY_MUST_BE_UNIQUE_IN_DB)));
@@ -74,88 +88,20 @@ public class DishRepositoryPostgres implements DishRepository {
                 "DishRepository.dishId", notNull(dishId)
         );
 
-        return statement.query(
-                (Connection con) -> con.prepareStatement(
-                        """
-                                SELECT Dishes.*, DishTags.*,
-                                       Users.userId,
-                                       Users.name as userName,
-                                       Users.passwordHash as userPassHash,
-                                       Users.email as userEmail,
-                                       Users.salt as userSalt,
-                                       DishIngredients.ingredientId as ingredientId,
-                                       DishIngredients.name as ingredientName,
-                                       DishIngredients.quantity as ingredientQuantity,
-                                       DishIngredients.filter as ingredientFilter
-                                    FROM Dishes
-                                    LEFT JOIN Users
-                                        ON Dishes.userId = Users.userId
-                                    LEFT JOIN DishTags
-                                        ON Dishes.dishId = DishTags.dishId
-                                    LEFT JOIN DishIngredients
-                                        ON Dishes.dishId = DishIngredients.dishId
-                                    WHERE Dishes.dishId = ? AND Dishes.userId = ?
-                                    ORDER BY DishTags.index, DishIngredients.index;
-                                """
-                ),
-                (PreparedStatement ps) -> {
-                    ps.setObject(1, dishId);
-                    ps.setObject(2, userId);
-                },
-                (ResultSet rs) -> {
-                    Dish.Builder builder = null;
-                    HashSet<String> tags = new HashSet<>();
-                    HashSet<UUID> ingredients = new HashSet<>();
-
-                    while(rs.next()) {
-                        if(builder == null) {
-                            builder = new Dish.Builder().
-                                    setId(dishId).
-                                    setUser(
-                                            new User.LoadBuilder().
-                                                    setId((UUID) rs.getObject("userId")).
-                                                    setName(rs.getString("userName")).
-                                                    setEmail(rs.getString("userEmail")).
-                                                    setPasswordHash(rs.getString("userPassHash")).
-                                                    setSalt(rs.getString("userSalt")).
-                                                    tryBuild()
-                                    ).
-                                    setName(rs.getString("name")).
-                                    setServingSize(rs.getBigDecimal("servingSize")).
-                                    setUnit(rs.getString("unit")).
-                                    setDescription(rs.getString("description")).
-                                    setImageUrl(rs.getString("imagePath")).
-                                    setConfig(conf).
-                                    setRepository(productRepository);
-                        }
-
-                        String tagValue = rs.getString("tagValue");
-                        if(!rs.wasNull() && !tags.contains(tagValue)) {
-                            builder.addTag(tagValue);
-                            tags.add(tagValue);
-                        }
-
-                        UUID ingredientId = (UUID) rs.getObject("ingredientId");
-                        if(!rs.wasNull()) {
-                            if(!ingredients.contains(ingredientId)) {
-                                builder.addIngredient(
-                                        new DishIngredient.Builder().
-                                                setId(ingredientId).
-                                                setName(rs.getString("ingredientName")).
-                                                setQuantity(rs.getBigDecimal("ingredientQuantity")).
-                                                setFilter(filterJsonMapper.toFilter(rs.getString("ingredientFilter"))).
-                                                setConfig(conf)
-                                );
-                                ingredients.add(ingredientId);
-                            }
-                        }
-                    }
-
-                    return builder == null ?
-                            Optional.empty() :
-                            Optional.ofNullable(builder.tryBuild());
-                }
-        );
+        String dishesQuery =
+                select(field("Dishes.*"),
+                        field("Users.name as userName"),
+                        field("Users.email as userEmail"),
+                        field("Users.passwordHash as userPasswordHash"),
+                        field("Users.salt as userSalt")).
+                        from("Dishes").
+                        join("Users").
+                            on(field("Dishes.userId").eq(field("Users.userId"))).
+                        where(field("Dishes.dishId").eq(val(dishId)).
+                                and(field("Dishes.userId").eq(val(userId)))).
+                        getSQL();
+
+        return loadDishAggregates(dishesQuery, dishId, userId).stream().findFirst();
     }
 
     @Override
@@ -165,88 +111,20 @@ public class DishRepositoryPostgres implements DishRepository {
                 "DishRepository.name", notNull(name)
         );
 
-        return statement.query(
-                (Connection con) -> con.prepareStatement(
-                        """
-                                SELECT Dishes.*, DishTags.*,
-                                       Users.userId,
-                                       Users.name as userName,
-                                       Users.passwordHash as userPassHash,
-                                       Users.email as userEmail,
-                                       Users.salt as userSalt,
-                                       DishIngredients.ingredientId as ingredientId,
-                                       DishIngredients.name as ingredientName,
-                                       DishIngredients.quantity as ingredientQuantity,
-                                       DishIngredients.filter as ingredientFilter
-                                    FROM Dishes
-                                    LEFT JOIN Users
-                                        ON Dishes.userId = Users.userId
-                                    LEFT JOIN DishTags
-                                        ON Dishes.dishId = DishTags.dishId
-                                    LEFT JOIN DishIngredients
-                                        ON Dishes.dishId = DishIngredients.dishId
-                                    WHERE Dishes.name = ? AND Dishes.userId = ?
-                                    ORDER BY DishTags.index, DishIngredients.index;
-                                """
-                ),
-                (PreparedStatement ps) -> {
-                    ps.setObject(1, name);
-                    ps.setObject(2, userId);
-                },
-                (ResultSet rs) -> {
-                    Dish.Builder builder = null;
-                    HashSet<String> tags = new HashSet<>();
-                    HashSet<UUID> ingredients = new HashSet<>();
-
-                    while(rs.next()) {
-                        if(builder == null) {
-                            builder = new Dish.Builder().
-                                    setId((UUID) rs.getObject("dishId")).
-                                    setUser(
-                                            new User.LoadBuilder().
-                                                    setId((UUID) rs.getObject("userId")).
-                                                    setName(rs.getString("userName")).
-                                                    setEmail(rs.getString("userEmail")).
-                                                    setPasswordHash(rs.getString("userPassHash")).
-                                                    setSalt(rs.getString("userSalt")).
-                                                    tryBuild()
-                                    ).
-                                    setName(name).
-                                    setServingSize(rs.getBigDecimal("servingSize")).
-                                    setUnit(rs.getString("unit")).
-                                    setDescription(rs.getString("description")).
-                                    setImageUrl(rs.getString("imagePath")).
-                                    setConfig(conf).
-                                    setRepository(productRepository);
-                        }
-
-                        String tagValue = rs.getString("tagValue");
-                        if(!rs.wasNull() && !tags.contains(tagValue)) {
-                            builder.addTag(tagValue);
-                            tags.add(tagValue);
-                        }
-
-                        UUID ingredientId = (UUID) rs.getObject("ingredientId");
-                        if(!rs.wasNull()) {
-                            if(!ingredients.contains(ingredientId)) {
-                                builder.addIngredient(
-                                        new DishIngredient.Builder().
-                                                setId(ingredientId).
-                                                setName(rs.getString("ingredientName")).
-                                                setQuantity(rs.getBigDecimal("ingredientQuantity")).
-                                                setFilter(filterJsonMapper.toFilter(rs.getString("ingredientFilter"))).
-                                                setConfig(conf)
-                                );
-                                ingredients.add(ingredientId);
-                            }
-                        }
-                    }
-
-                    return builder == null ?
-                            Optional.empty() :
-                            Optional.ofNullable(builder.tryBuild());
-                }
-        );
+        String dishesQuery =
+                select(field("Dishes.*"),
+                        field("Users.name as userName"),
+                        field("Users.email as userEmail"),
+                        field("Users.passwordHash as userPasswordHash"),
+                        field("Users.salt as userSalt")).
+                        from("Dishes").
+                        join("Users").
+                            on(field("Dishes.userId").eq(field("Users.userId"))).
+                        where(field("Dishes.name").eq(val(name)).
+                                and(field("Dishes.userId").eq(val(userId)))).
+                        getSQL();
+
+        return loadDishAggregates(dishesQuery, name, userId).stream().findFirst();
     }
 
     @Override
@@ -288,46 +166,54 @@ public class DishRepositoryPostgres implements DishRepository {
 
     @Override
     public Page<Dish> getDishes(Criteria criteria) {
-        int dishesNumber = getDishesNumber(criteria);
-        Page.Metadata metadata = criteria.getPageable(PageableByNumber.class).
-                createPageMetadata(dishesNumber, conf.pagination().itemsMaxPageSize());
+        Validator.check(
+                "DishRepository.criteria", notNull(criteria).
+                        and(() -> isTrue(criteria.tryGetFilter().matchingTypesNumber(USER) == 1))
+        );
+
+        BigInteger dishesNumber = countDishes(criteria);
+        if(criteria.getPageable(Pageable.class) instanceof PageableByCursor pageable) {
+            return getDishesByCursor(criteria, pageable, dishesNumber);
+        }
+
+        PageableByNumber pageable = criteria.getPageable(PageableByNumber.class);
+        if(criteria.getCountMode() != CountMode.EXACT) {
+            return getDishesWithoutCount(criteria, pageable, dishesNumber);
+        }
+
+        Page.Metadata metadata = pageable.createPageMetadata(dishesNumber, conf.pagination().itemsMaxPageSize());
 
         if(metadata.isEmpty()) return Page.empty();
 
-        String query =
-                select(field("D.*"),
-                        field("DishIngredients.ingredientId as ingredientId"),
-                        field("DishIngredients.name as ingredientName"),
-                        field("DishIngredients.quantity as ingredientQuantity"),
-                        field("DishIngredients.filter as ingredientFilter"),
-                        field("DishTags.tagValue as tagValue"),
-                        field("Users.userId as userId"),
+        List<Dish> dishes = loadDishes(criteria, noCondition(), metadata.getActualSize(), metadata.getOffset());
+
+        return metadata.createPage(dishes);
+    }
+
+    @Override
+    public List<Dish> getAllDishes(UUID userId) {
+        Validator.check("DishRepository.userId", notNull(userId));
+
+        String dishesQuery =
+                select(field("Dishes.*"),
                         field("Users.name as userName"),
                         field("Users.email as userEmail"),
                         field("Users.passwordHash as userPasswordHash"),
                         field("Users.salt as userSalt")).
-                        from(
-                            select(field("*")).
-                                from("Dishes").
-                                where(dishFilterMapper.toCondition(criteria.getFilter())).
-                                orderBy(getOrderFields(criteria.getSort(), "Dishes")).
-                                limit(inline(metadata.getActualSize())).
-                                offset(inline(metadata.getOffset())).
-                                asTable("{D}")
-                        ).
-                        leftJoin("DishTags").
-                            on(field("D.dishId").eq(field("DishTags.dishId"))).
-                        leftJoin("DishIngredients").
-                            on(field("D.dishId").eq(field("DishIngredients.dishId"))).
-                        leftJoin("Users").
-                            on(field("D.userId").eq(field("Users.userId"))).
-                        orderBy(getOrderFields(criteria.getSort(), "D")).
-                        getSQL().
-                        replace("\"{D}\"", "as D");
-
-        List<Dish> dishes = statement.query(query, this::mapToDishes);
-
-        return metadata.createPage(dishes);
+                        from("Dishes").
+                        join("Users").
+                            on(field("Dishes.userId").eq(field("Users.userId"))).
+                        where(field("Dishes.userId").eq(val(userId))).
+                        orderBy(getOrderFields(Sort.dishDefaultSort(), "Dishes")).
+                        getSQL();
+
+        return loadDishAggregates(
+                dishesQuery,
+                new Object[]{userId},
+                field("dishId").in(select(field("Dishes.dishId")).
+                        from("Dishes").
+                        where(field("Dishes.userId").eq(val(userId))))
+        );
     }
 
     @Override
@@ -509,66 +395,28 @@ public class DishRepositoryPostgres implements DishRepository {
     }
 
 
-    List<Dish> mapToDishes(ResultSet rs) throws SQLException {
-        List<Dish> result = new ArrayList<>();
-
-        Dish.Builder builder = null;
-        HashSet<String> tags = new HashSet<>();
-        HashSet<UUID> ingredients = new HashSet<>();
-        UUID lastDishId = null;
-        while(rs.next()) {
-            UUID dishId = (UUID)rs.getObject("dishId");
-            if(!dishId.equals(lastDishId)) {
-                if (builder != null) result.add(builder.tryBuild());
-                builder = new Dish.Builder().
-                        setId(dishId).
-                        setUser(
-                                new User.LoadBuilder().
-                                        setId((UUID) rs.getObject("userId")).
-                                        setName(rs.getString("userName")).
-                                        setEmail(rs.getString("userEmail")).
-                                        setPasswordHash(rs.getString("userPasswordHash")).
-                                        setSalt(rs.getString("userSalt")).
-                                        tryBuild()
-                        ).
-                        setName(rs.getString("name")).
-                        setServingSize(rs.getBigDecimal("servingSize")).
-                        setUnit(rs.getString("unit")).
-                        setDescription(rs.getString("description")).
-                        setImageUrl(rs.getString("imagePath")).
-                        setConfig(conf).
-                        setRepository(productRepository);
-
-                lastDishId = dishId;
-                tags.clear();
-                ingredients.clear();
-            }
-
-            String tagValue = rs.getString("tagValue");
-            if(!rs.wasNull() && !tags.contains(tagValue)) {
-                builder.addTag(tagValue);
-                tags.add(tagValue);
-            }
-
-            UUID ingredientId = (UUID) rs.getObject("ingredientId");
-            if(!rs.wasNull()) {
-                if(!ingredients.contains(ingredientId)) {
-                    builder.addIngredient(
-                            new DishIngredient.Builder().
-                                    setId(ingredientId).
-                                    setName(rs.getString("ingredientName")).
-                                    setQuantity(rs.getBigDecimal("ingredientQuantity")).
-                                    setFilter(filterJsonMapper.toFilter(rs.getString("ingredientFilter"))).
-                                    setConfig(conf)
-                    );
-                    ingredients.add(ingredientId);
-                }
-            }
-        }
+    /*
+     * Возвращает блюда с указанными идентификаторами вместе с их тегами и ингредиентами. Используется
+     * MenuRepositoryPostgres, чтобы загрузить блюда всех элементов сразу нескольких меню фиксированным
+     * кол-вом запросов.
+     */
+    Map<UUID, Dish> getDishesByIds(Collection<UUID> dishIds) {
+        if(dishIds.isEmpty()) return Map.of();
 
-        if(builder != null) result.add(builder.tryBuild());
-
-        return result;
+        String dishesQuery =
+                select(field("Dishes.*"),
+                        field("Users.name as userName"),
+                        field("Users.email as userEmail"),
+                        field("Users.passwordHash as userPasswordHash"),
+                        field("Users.salt as userSalt")).
+                        from("Dishes").
+                        join("Users").
+                            on(field("Dishes.userId").eq(field("Users.userId"))).
+                        where(field("Dishes.dishId").in(dishIds.stream().map(DSL::inline).toList())).
+                        getSQL();
+
+        return loadDishAggregates(dishesQuery).stream().
+                collect(Collectors.toMap(Dish::getId, dish -> dish));
     }
 
 
@@ -621,26 +469,20 @@ public class DishRepositoryPostgres implements DishRepository {
 
         statement.batchUpdate(
                 """
-                        INSERT INTO DishIngredients(ingredientId, dishId, name, quantity, filter, filterQuery, index)
-                          VALUES(?,?,?,?,jsonb(?),?,?);
+                        INSERT INTO DishIngredients(ingredientId, dishId, name, quantity, filter, index)
+                          VALUES(?,?,?,?,jsonb(?),?);
                         """,
                 new BatchPreparedStatementSetter() {
 
                     @Override
                     public void setValues(PreparedStatement ps, int i) throws SQLException {
                         DishIngredient ingredient = dish.getIngredients().get(i);
-                        String filterQuery = """
-                                select * from Products
-                                    where %s
-                                """.formatted(filterMapper.toCondition(ingredient.getFilter()));
-
                         ps.setObject(1, ingredient.getId());
                         ps.setObject(2, dish.getId());
                         ps.setString(3, ingredient.getName());
                         ps.setBigDecimal(4, ingredient.getNecessaryQuantity(BigDecimal.ONE));
                         ps.setString(5, filterJsonMapper.toJson(ingredient.getFilter()));
-                        ps.setString(6, filterQuery);
-                        ps.setInt(7, i);
+                        ps.setInt(6, i);
                     }
 
                     @Override
@@ -719,26 +561,20 @@ public class DishRepositoryPostgres implements DishRepository {
 
         statement.batchUpdate(
                 """
-                        INSERT INTO DishIngredients(ingredientId, dishId, name, quantity, filter, filterQuery, index)
-                          VALUES(?,?,?,?,jsonb(?),?,?);
+                        INSERT INTO DishIngredients(ingredientId, dishId, name, quantity, filter, index)
+                          VALUES(?,?,?,?,jsonb(?),?);
                         """,
                 new BatchPreparedStatementSetter() {
 
                     @Override
                     public void setValues(PreparedStatement ps, int i) throws SQLException {
                         DishIngredient ingredient = newVersion.getIngredients().get(i);
-                        String filterQuery = """
-                                select * from Products
-                                    where %s
-                                """.formatted(filterMapper.toCondition(ingredient.getFilter()));
-
                         ps.setObject(1, ingredient.getId());
                         ps.setObject(2, newVersion.getId());
                         ps.setString(3, ingredient.getName());
                         ps.setBigDecimal(4, ingredient.getNecessaryQuantity(BigDecimal.ONE));
                         ps.setString(5, filterJsonMapper.toJson(ingredient.getFilter()));
-                        ps.setString(6, filterQuery);
-                        ps.setInt(7, i);
+                        ps.setInt(6, i);
                     }
 
                     @Override
@@ -750,6 +586,48 @@ public class DishRepositoryPostgres implements DishRepository {
         );
     }
 
+    /*
+     * Заполняет таблицу IngredientProductMatches для всех ингредиентов указанного блюда: фильтр каждого
+     * ингредиента проверяется по продуктам пользователя одним запросом. Устаревшие записи удаляются каскадно
+     * вместе с предыдущей версией ингредиентов блюда.
+     */
+    private void matchWithProducts(Dish dish) {
+        if(dish.getIngredients().isEmpty()) return;
+
+        String matchesQuery = dish.getIngredients().stream().
+                map(ingredient -> """
+                        select '%s'::uuid as ingredientId, '%s'::uuid as dishId, productId, price, category
+                            from Products
+                            where %s
+                        """.formatted(
+                                ingredient.getId(),
+                                dish.getId(),
+                                filterMapper.toCondition(ingredient.getFilter())
+                        )).
+                collect(Collectors.joining(" union all "));
+
+        statement.update(
+                "INSERT INTO IngredientProductMatches(ingredientId, dishId, productId, price, category) " +
+                        matchesQuery + ";"
+        );
+    }
+
+    private void markDishPriceSummaryAsStale(Dish dish) {
+        statement.update(
+                """
+                        INSERT INTO DishPriceSummary(dishId, userId, productsNumber, version, stale)
+                            VALUES(?, ?, 0, 0, TRUE)
+                        ON CONFLICT (dishId) DO UPDATE SET
+                            stale=TRUE,
+                            version=DishPriceSummary.version + 1;
+                        """,
+                (PreparedStatement ps) -> {
+                    ps.setObject(1, dish.getId());
+                    ps.setObject(2, dish.getUser().getId());
+                }
+        );
+    }
+
     private boolean doesDishExist(UUID dishId) {
         return statement.query(
                 "select count(*) > 0 as doesDishExist from Dishes where dishId = ?;",
@@ -763,6 +641,187 @@ public class DishRepositoryPostgres implements DishRepository {
     }
 
 
+    private BigInteger countDishes(Criteria criteria) {
+        return switch(criteria.getCountMode()) {
+            case EXACT -> BigInteger.valueOf(getDishesNumber(criteria));
+            case ESTIMATED -> rowCountEstimator.estimate(
+                    selectOne().
+                            from("Dishes").
+                            where(dishFilterMapper.toCondition(criteria.getFilter())).
+                            getSQL()
+            );
+            case NONE -> null;
+        };
+    }
+
+    /*
+     * Если общее кол-во блюд не подсчитывается точно, запрашивается на одно блюдо больше размера
+     * страницы, чтобы определить наличие следующей страницы.
+     */
+    private Page<Dish> getDishesWithoutCount(Criteria criteria, PageableByNumber pageable, BigInteger dishesNumber) {
+        int maxPageSize = conf.pagination().itemsMaxPageSize();
+        int pageSize = pageable.getPageSize(maxPageSize);
+
+        List<Dish> dishes = loadDishes(criteria, noCondition(), pageSize + 1, pageable.getOffset(maxPageSize));
+        boolean hasNext = dishes.size() > pageSize;
+        if(hasNext) dishes = dishes.subList(0, pageSize);
+
+        return pageable.
+                createPageMetadata(criteria.getCountMode(), dishesNumber, maxPageSize, dishes.size(), hasNext).
+                createPage(dishes);
+    }
+
+    /*
+     * Вместо смещения страница выбирается условием на поля сортировки и идентификатор последнего блюда
+     * предыдущей страницы, поэтому СУБД не нужно пропускать строки всех предыдущих страниц.
+     */
+    private Page<Dish> getDishesByCursor(Criteria criteria, PageableByCursor pageable, BigInteger dishesNumber) {
+        int maxPageSize = conf.pagination().itemsMaxPageSize();
+        int pageSize = pageable.getPageSize(maxPageSize);
+
+        List<Dish> dishes = List.of();
+        if(criteria.getCountMode() != CountMode.EXACT || dishesNumber.signum() > 0) {
+            dishes = loadDishes(
+                    criteria,
+                    cursorMapper.toCondition(pageable, criteria.getSort(), "Dishes", "dishId"),
+                    pageSize + 1,
+                    BigInteger.ZERO
+            );
+        }
+        boolean hasNext = dishes.size() > pageSize;
+        if(hasNext) dishes = dishes.subList(0, pageSize);
+
+        List<String> lastKeys = null;
+        if(!dishes.isEmpty()) {
+            Dish last = dishes.get(dishes.size() - 1);
+            lastKeys = cursorMapper.toKeys(
+                    criteria.getSort(),
+                    param -> "name".equals(param) ? last.getName() : last.getId(),
+                    last.getId()
+            );
+        }
+        return pageable.
+                createPageMetadata(
+                        criteria.getCountMode(), dishesNumber, maxPageSize, dishes.size(), hasNext, lastKeys
+                ).
+                createPage(dishes);
+    }
+
+    private List<Dish> loadDishes(Criteria criteria, Condition cursorCondition, int limit, BigInteger offset) {
+        String dishesQuery =
+                select(field("D.*"),
+                        field("Users.name as userName"),
+                        field("Users.email as userEmail"),
+                        field("Users.passwordHash as userPasswordHash"),
+                        field("Users.salt as userSalt")).
+                        from(
+                            select(field("*")).
+                                from("Dishes").
+                                where(dishFilterMapper.toCondition(criteria.getFilter()).and(cursorCondition)).
+                                orderBy(getOrderFields(criteria.getSort(), "Dishes")).
+                                limit(inline(limit)).
+                                offset(inline(offset)).
+                                asTable("{D}")
+                        ).
+                        join("Users").
+                            on(field("D.userId").eq(field("Users.userId"))).
+                        orderBy(getOrderFields(criteria.getSort(), "D")).
+                        getSQL().
+                        replace("\"{D}\"", "as D");
+
+        return loadDishAggregates(dishesQuery);
+    }
+
+    /*
+     * Загружает блюда выбираемые запросом dishesQuery с аргументами args вместе с их тегами и ингредиентами.
+     * Теги и ингредиенты загружаются по идентификаторам уже полученных блюд.
+     */
+    private List<Dish> loadDishAggregates(String dishesQuery, Object... args) {
+        return loadDishAggregates(dishesQuery, args, null);
+    }
+
+    /*
+     * Загружает блюда выбираемые запросом dishesQuery с аргументами args вместе с их тегами и ингредиентами. Теги и
+     * ингредиенты загружаются отдельными запросами, а не соединением с блюдами, поэтому каждая строка DishTags и
+     * DishIngredients читается и разбирается ровно один раз. childrenCondition - условие отбора строк DishTags и
+     * DishIngredients по их столбцу dishId. Оно должно отбирать строки всех блюд выбранных dishesQuery. Если
+     * childrenCondition равен null - строки отбираются по идентификаторам полученных блюд. Запрос dishesQuery должен
+     * возвращать все столбцы таблицы Dishes, а также столбцы userName, userEmail, userPasswordHash и userSalt.
+     * Порядок блюд в результате совпадает с порядком строк возвращаемых dishesQuery.
+     */
+    private List<Dish> loadDishAggregates(String dishesQuery, Object[] args, Condition childrenCondition) {
+        Map<UUID, Dish.Builder> builders = new LinkedHashMap<>();
+        statement.query(
+                dishesQuery,
+                (ResultSet rs) -> {
+                    UUID dishId = (UUID) rs.getObject("dishId");
+                    builders.put(
+                            dishId,
+                            new Dish.Builder().
+                                    setId(dishId).
+                                    setUser(
+                                            new User.LoadBuilder().
+                                                    setId((UUID) rs.getObject("userId")).
+                                                    setName(rs.getString("userName")).
+                                                    setEmail(rs.getString("userEmail")).
+                                                    setPasswordHash(rs.getString("userPasswordHash")).
+                                                    setSalt(rs.getString("userSalt")).
+                                                    tryBuild()
+                                    ).
+                                    setName(rs.getString("name")).
+                                    setServingSize(rs.getBigDecimal("servingSize")).
+                                    setUnit(rs.getString("unit")).
+                                    setDescription(rs.getString("description")).
+                                    setImageUrl(rs.getString("imagePath")).
+                                    setConfig(conf).
+                                    setRepository(productRepository)
+                    );
+                },
+                args
+        );
+
+        if(builders.isEmpty()) return List.of();
+
+        Condition condition = childrenCondition != null ?
+                childrenCondition :
+                field("dishId").in(builders.keySet().stream().map(DSL::inline).toList());
+
+        Select<?> tagsQuery = select(field("DishTags.dishId"), field("DishTags.tagValue")).
+                from("DishTags").
+                where(condition).
+                orderBy(field("DishTags.dishId"), field("DishTags.index"));
+        statement.query(
+                tagsQuery.getSQL(),
+                (ResultSet rs) -> {
+                    builders.get((UUID) rs.getObject("dishId")).addTag(rs.getString("tagValue"));
+                },
+                tagsQuery.getBindValues().toArray()
+        );
+
+        Select<?> ingredientsQuery = select(field("DishIngredients.*")).
+                from("DishIngredients").
+                where(condition).
+                orderBy(field("DishIngredients.dishId"), field("DishIngredients.index"));
+        statement.query(
+                ingredientsQuery.getSQL(),
+                (ResultSet rs) -> {
+                    builders.get((UUID) rs.getObject("dishId")).addIngredient(
+                            new DishIngredient.Builder().
+                                    setId((UUID) rs.getObject("ingredientId")).
+                                    setName(rs.getString("name")).
+                                    setQuantity(rs.getBigDecimal("quantity")).
+                                    setFilter(filterJsonMapper.toFilter(rs.getString("filter"))).
+                                    setConfig(conf)
+                    );
+                },
+                ingredientsQuery.getBindValues().toArray()
+        );
+
+        return builders.values().stream().
+                map(Dish.Builder::tryBuild).
+                toList();
+    }
+
     private List<SortField<?>> getOrderFields(Sort dishSort,
                                               String tableName) {
         ArrayList<SortField<?>> fields = new ArrayList<>();
@@ -773,10 +832,6 @@ public class DishRepositoryPostgres implements DishRepository {
         });
 
         fields.add(field(tableName + ".dishId").asc());
-        if("D".equals(tableName)) {
-            fields.add(field("DishIngredients.index").asc());
-            fields.add(field("DishTags.index").asc());
-        }
         return fields;
     }
 
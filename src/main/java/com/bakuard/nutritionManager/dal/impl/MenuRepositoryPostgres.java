@@ -3,22 +3,30 @@ package com.bakuard.nutritionManager.dal.impl;
 import com.bakuard.nutritionManager.config.configData.ConfigData;
 import com.bakuard.nutritionManager.dal.Criteria;
 import com.bakuard.nutritionManager.dal.MenuRepository;
+import com.bakuard.nutritionManager.dal.impl.mappers.CursorMapper;
 import com.bakuard.nutritionManager.dal.impl.mappers.MenuFilterMapper;
 import com.bakuard.nutritionManager.model.*;
 import com.bakuard.nutritionManager.model.filters.Sort;
+import com.bakuard.nutritionManager.model.util.CountMode;
 import com.bakuard.nutritionManager.model.util.Page;
+import com.bakuard.nutritionManager.model.util.Pageable;
+import com.bakuard.nutritionManager.model.util.PageableByCursor;
 import com.bakuard.nutritionManager.model.util.PageableByNumber;
 import com.bakuard.nutritionManager.validation.Constraint;
 import com.bakuard.nutritionManager.validation.Rule;
 import com.bakuard.nutritionManager.validation.ValidateException;
 import com.bakuard.nutritionManager.validation.Validator;
+import org.jooq.Condition;
+import org.jooq.Param;
 import org.jooq.SortField;
+import org.jooq.impl.DSL;
 import org.springframework.dao.DuplicateKeyException;
 import org.springframework.jdbc.core.BatchPreparedStatementSetter;
 import org.springframework.jdbc.core.JdbcTemplate;
 
 import javax.sql.DataSource;
 import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
@@ -34,6 +42,8 @@ public class MenuRepositoryPostgres implements MenuRepository {
     private ConfigData conf;
     private DishRepositoryPostgres dishRepository;
     private MenuFilterMapper menuFilterMapper;
+    private CursorMapper cursorMapper;
+    private RowCountEstimator rowCountEstimator;
 
     public MenuRepositoryPostgres(DataSource dataSource,
                                   ConfigData conf,
@@ -42,6 +52,8 @@ public class MenuRepositoryPostgres implements MenuRepository {
         this.dishRepository = dishRepository;
         this.conf = conf;
         menuFilterMapper = new MenuFilterMapper();
+        cursorMapper = new CursorMapper();
+        rowCountEstimator = new RowCountEstimator(statement);
     }
 
     @Override
@@ -85,115 +97,20 @@ public class MenuRepositoryPostgres implements MenuRepository {
                 "MenuRepository.menuId", notNull(menuId)
         );
 
-        Menu.Builder result = statement.query(
-                connection -> connection.prepareStatement("""
-                        SELECT Menus.*,
-                               MenuItems.*,
-                               MenuTags.*,
-                               Users.userId,
-                               Users.name as userName,
-                               Users.passwordHash as userPasswordHash,
-                               Users.email as userEmail,
-                               Users.salt as userSalt
-                            FROM Menus
-                            LEFT JOIN MenuItems
-                                ON Menus.menuId = MenuItems.menuId
-                            LEFT JOIN MenuTags
-                                ON Menus.menuId = MenuTags.menuId
-                            LEFT JOIN Users
-                                ON Menus.userId = Users.userId
-                            WHERE Menus.menuId = ? AND Menus.userId = ?
-                            ORDER BY MenuItems.index, MenuTags.index;
-                        """),
-                ps -> {
-                    ps.setObject(1, menuId);
-                    ps.setObject(2, userId);
-                },
-                rs -> {
-                    Menu.Builder builder = null;
-                    HashSet<String> tags = new HashSet<>();
-                    HashSet<UUID> items = new HashSet<>();
-
-                    while(rs.next()) {
-                        if(builder == null) {
-                            builder = new Menu.Builder().
-                                    setId(menuId).
-                                    setUser(
-                                            new User.LoadBuilder().
-                                                    setId((UUID) rs.getObject("userID")).
-                                                    setName(rs.getString("userName")).
-                                                    setPasswordHash(rs.getString("userPasswordHash")).
-                                                    setEmail(rs.getString("userEmail")).
-                                                    setSalt(rs.getString("userSalt")).
-                                                    tryBuild()
-                                    ).
-                                    setName(rs.getString("name")).
-                                    setDescription(rs.getString("description")).
-                                    setImageUrl(rs.getString("imagePath")).
-                                    setConfig(conf);
-                        }
-
-                        String tagValue = rs.getString("tagValue");
-                        if(!rs.wasNull() && !tags.contains(tagValue)) {
-                            builder.addTag(tagValue);
-                            tags.add(tagValue);
-                        }
-
-                        UUID itemId = (UUID) rs.getObject("itemId");
-                        if(!rs.wasNull() && !items.contains(itemId)) {
-                            builder.addItem(
-                                    new MenuItem.LoadBuilder().
-                                            setId(itemId).
-                                            setConfig(conf).
-                                            setQuantity(rs.getBigDecimal("quantity"))
-                            );
-                            items.add(itemId);
-                        }
-                    }
-
-                    return builder;
-                }
-        );
-
-        if(result != null) {
-            List<Dish> dishes = statement.query(
-                    connection -> connection.prepareStatement("""
-                            SELECT MenuItems.menuId,
-                                   MenuItems.index,
-                                   Dishes.*,
-                                   DishTags.*,
-                                   Users.userId,
-                                   Users.name as userName,
-                                   Users.passwordHash as userPasswordHash,
-                                   Users.email as userEmail,
-                                   Users.salt as userSalt,
-                                   DishIngredients.ingredientId as ingredientId,
-                                   DishIngredients.name as ingredientName,
-                                   DishIngredients.quantity as ingredientQuantity,
-                                   DishIngredients.filter as ingredientFilter
-                                FROM MenuItems
-                                INNER JOIN Menus
-                                    ON MenuItems.menuId = Menus.menuId
-                                INNER JOIN Users
-                                    ON Menus.userId = Users.userId
-                                INNER JOIN Dishes
-                                    ON MenuItems.dishId = Dishes.dishId
-                                LEFT JOIN DishTags
-                                    ON MenuItems.dishId = DishTags.dishId
-                                LEFT JOIN DishIngredients
-                                    ON MenuItems.dishId = DishIngredients.dishId
-                                WHERE MenuItems.menuId = ?
-                                ORDER BY MenuItems.index, DishTags.index, DishIngredients.index;
-                            """),
-                    ps -> ps.setObject(1, menuId),
-                    dishRepository::mapToDishes
-            );
-
-            for(int i = 0; i < result.getItems().size(); i++)
-                ((MenuItem.LoadBuilder) result.getItems().get(i)).setDish(dishes.get(i));
-        }
-
-        return Optional.ofNullable(result == null ? null : result.tryBuild());
+        String menusQuery =
+                select(field("Menus.*"),
+                        field("Users.name as userName"),
+                        field("Users.email as userEmail"),
+                        field("Users.passwordHash as userPasswordHash"),
+                        field("Users.salt as userSalt")).
+                        from("Menus").
+                        join("Users").
+                            on(field("Menus.userId").eq(field("Users.userId"))).
+                        where(field("Menus.menuId").eq(val(menuId)).
+                                and(field("Menus.userId").eq(val(userId)))).
+                        getSQL();
+
+        return loadMenuAggregates(menusQuery, menuId, userId).stream().findFirst();
     }
 
     @Override
@@ -203,117 +120,20 @@ public class MenuRepositoryPostgres implements MenuRepository {
                 "MenuRepository.name", notNull(name)
         );
 
-        Menu.Builder result = statement.query(
-                connection -> connection.prepareStatement("""
-                        SELECT Menus.*,
-                               MenuItems.*,
-                               MenuTags.*,
-                               Users.userId,
-                               Users.name as userName,
-                               Users.passwordHash as userPasswordHash,
-                               Users.email as userEmail,
-                               Users.salt as userSalt
-                            FROM Menus
-                            LEFT JOIN MenuItems
-                                ON Menus.menuId = MenuItems.menuId
-                            LEFT JOIN MenuTags
-                                ON Menus.menuId = MenuTags.menuId
-                            LEFT JOIN Users
-                                ON Menus.userId = Users.userId
-                            WHERE Menus.name = ? AND Menus.userId = ?
-                            ORDER BY MenuItems.index, MenuTags.index;
-                        """),
-                ps -> {
-                    ps.setObject(1, name);
-                    ps.setObject(2, userId);
-                },
-                rs -> {
-                    Menu.Builder builder = null;
-                    HashSet<String> tags = new HashSet<>();
-                    HashSet<UUID> items = new HashSet<>();
-
-                    while(rs.next()) {
-                        if(builder == null) {
-                            builder = new Menu.Builder().
-                                    setId((UUID) rs.getObject("menuId")).
-                                    setUser(
-                                            new User.LoadBuilder().
-                                                    setId((UUID) rs.getObject("userID")).
-                                                    setName(rs.getString("userName")).
-                                                    setPasswordHash(rs.getString("userPasswordHash")).
-                                                    setEmail(rs.getString("userEmail")).
-                                                    setSalt(rs.getString("userSalt")).
-                                                    tryBuild()
-                                    ).
-                                    setName(rs.getString("name")).
-                                    setDescription(rs.getString("description")).
-                                    setImageUrl(rs.getString("imagePath")).
-                                    setConfig(conf);
-                        }
-
-                        String tagValue = rs.getString("tagValue");
-                        if(!rs.wasNull() && !tags.contains(tagValue)) {
-                            builder.addTag(tagValue);
-                            tags.add(tagValue);
-                        }
-
-                        UUID itemId = (UUID) rs.getObject("itemId");
-                        if(!rs.wasNull() && !items.contains(itemId)) {
-                            builder.addItem(
-                                    new MenuItem.LoadBuilder().
-                                            setId(itemId).
-                                            setConfig(conf).
-                                            setQuantity(rs.getBigDecimal("quantity"))
-                            );
-                            items.add(itemId);
-                        }
-                    }
-
-                    return builder;
-                }
-        );
-
-        if(result != null) {
-            List<Dish> dishes = statement.query(
-                    connection -> connection.prepareStatement("""
-                            SELECT MenuItems.index,
-                                   Dishes.*,
-                                   DishTags.*,
-                                   Users.userId,
-                                   Users.name as userName,
-                                   Users.passwordHash as userPasswordHash,
-                                   Users.email as userEmail,
-                                   Users.salt as userSalt,
-                                   DishIngredients.ingredientId as ingredientId,
-                                   DishIngredients.name as ingredientName,
-                                   DishIngredients.quantity as ingredientQuantity,
-                                   DishIngredients.filter as ingredientFilter
-                                FROM MenuItems
-                                INNER JOIN Menus
-                                    ON MenuItems.menuId = Menus.menuId
-                                INNER JOIN Users
-                                    ON Menus.userId = Users.userId
-                                INNER JOIN Dishes
-                                    ON MenuItems.dishId = Dishes.dishId
-                                LEFT JOIN DishTags
-                                    ON MenuItems.dishId = DishTags.dishId
-                                LEFT JOIN DishIngredients
-                                    ON MenuItems.dishId = DishIngredients.dishId
-                                WHERE Menus.name = ? AND Menus.userId = ?
-                                ORDER BY MenuItems.index, DishTags.index, DishIngredients.index;
-                            """),
-                    ps -> {
-                        ps.setString(1, name);
-                        ps.setObject(2, userId);
-                    },
-                    dishRepository::mapToDishes
-            );
-
-            for(int i = 0; i < dishes.size(); i++)
-                ((MenuItem.LoadBuilder) result.getItems().get(i)).setDish(dishes.get(i));
-        }
-
-        return Optional.ofNullable(result == null ? null : result.tryBuild());
+        String menusQuery =
+                select(field("Menus.*"),
+                        field("Users.name as userName"),
+                        field("Users.email as userEmail"),
+                        field("Users.passwordHash as userPasswordHash"),
+                        field("Users.salt as userSalt")).
+                        from("Menus").
+                        join("Users").
+                            on(field("Menus.userId").eq(field("Users.userId"))).
+                        where(field("Menus.name").eq(val(name)).
+                                and(field("Menus.userId").eq(val(userId)))).
+                        getSQL();
+
+        return loadMenuAggregates(menusQuery, name, userId).stream().findFirst();
     }
 
     @Override
@@ -336,142 +156,28 @@ public class MenuRepositoryPostgres implements MenuRepository {
 
     @Override
     public Page<Menu> getMenus(Criteria criteria) {
-        int menusNumber = getMenusNumber(criteria);
-        Page.Metadata metadata = criteria.getPageable(PageableByNumber.class).
-                createPageMetadata(menusNumber, conf.pagination().menuMaxPageSize());
-
-        if(metadata.isEmpty()) return Page.empty();
-
-        String query =
-                select(field("M.*"),
-                        field("MenuItems.itemId as itemId"),
-                        field("MenuItems.quantity as itemQuantity"),
-                        field("MenuTags.tagValue as tagValue"),
-                        field("Users.userId as userId"),
-                        field("Users.name as userName"),
-                        field("Users.email as userEmail"),
-                        field("Users.passwordHash as userPasswordHash"),
-                        field("Users.salt as userSalt")).
-                        from(
-                                select(field("*")).
-                                        from("Menus").
-                                        where(menuFilterMapper.toCondition(criteria.getFilter())).
-                                        orderBy(getOrderFields(criteria.getSort(), "Menus")).
-                                        limit(inline(metadata.getActualSize())).
-                                        offset(inline(metadata.getOffset())).
-                                        asTable("{M}")
-                        ).
-                        innerJoin("Users").
-                            on(field("M.userId").eq(field("Users.userId"))).
-                        leftJoin("MenuTags").
-                            on(field("M.menuId").eq(field("MenuTags.menuId"))).
-                        leftJoin("MenuItems").
-                            on(field("M.menuId").eq(field("MenuItems.menuId"))).
-                        orderBy(getOrderFields(criteria.getSort(), "M")).
-                        getSQL().
-                        replace("\"{M}\"", "as M");
-
-        List<Menu.Builder> result = statement.query(
-                query,
-                rs -> {
-                    ArrayList<Menu.Builder> builders = new ArrayList<>();
+        Validator.check(
+                "MenuRepository.criteria", notNull(criteria).
+                        and(() -> isTrue(criteria.tryGetFilter().matchingTypesNumber(USER) == 1))
+        );
 
-                    Menu.Builder builder = null;
-                    HashSet<String> tags = new HashSet<>();
-                    HashSet<UUID> items = new HashSet<>();
-                    UUID lastMenuId = null;
-                    while(rs.next()) {
-                        UUID menuId = (UUID)rs.getObject("menuId");
-                        if(!menuId.equals(lastMenuId)) {
-                            if(builder != null) builders.add(builder);
-                            builder = new Menu.Builder().
-                                    setId(menuId).
-                                    setUser(
-                                            new User.LoadBuilder().
-                                                    setId((UUID) rs.getObject("userID")).
-                                                    setName(rs.getString("userName")).
-                                                    setPasswordHash(rs.getString("userPasswordHash")).
-                                                    setEmail(rs.getString("userEmail")).
-                                                    setSalt(rs.getString("userSalt")).
-                                                    tryBuild()
-                                    ).
-                                    setName(rs.getString("name")).
-                                    setDescription(rs.getString("description")).
-                                    setImageUrl(rs.getString("imagePath")).
-                                    setConfig(conf);
-
-                            lastMenuId = menuId;
-                            tags.clear();
-                            items.clear();
-                        }
-
-                        String tagValue = rs.getString("tagValue");
-                        if(!rs.wasNull() && !tags.contains(tagValue)) {
-                            builder.addTag(tagValue);
-                            tags.add(tagValue);
-                        }
-
-                        UUID itemId = (UUID) rs.getObject("itemId");
-                        if(!rs.wasNull() && !items.contains(itemId)) {
-                            builder.addItem(
-                                    new MenuItem.LoadBuilder().
-                                            setId(itemId).
-                                            setConfig(conf).
-                                            setQuantity(rs.getBigDecimal("itemQuantity"))
-                            );
-                            items.add(itemId);
-                        }
-                    }
+        BigInteger menusNumber = countMenus(criteria);
+        if(criteria.getPageable(Pageable.class) instanceof PageableByCursor pageable) {
+            return getMenusByCursor(criteria, pageable, menusNumber);
+        }
 
-                    if(builder != null) builders.add(builder);
+        PageableByNumber pageable = criteria.getPageable(PageableByNumber.class);
+        if(criteria.getCountMode() != CountMode.EXACT) {
+            return getMenusWithoutCount(criteria, pageable, menusNumber);
+        }
 
-                    return builders;
-                }
-        );
+        Page.Metadata metadata = pageable.createPageMetadata(menusNumber, conf.pagination().menuMaxPageSize());
 
-        for(Menu.Builder builder : result) {
-            if(!builder.getItems().isEmpty()) {
-                List<Dish> dishes = statement.query(
-                        connection -> connection.prepareStatement("""
-                                SELECT MenuItems.index,
-                                       MenuItems.menuId,
-                                       Dishes.*,
-                                       DishTags.*,
-                                       Users.userId,
-                                       Users.name as userName,
-                                       Users.passwordHash as userPasswordHash,
-                                       Users.email as userEmail,
-                                       Users.salt as userSalt,
-                                       DishIngredients.ingredientId as ingredientId,
-                                       DishIngredients.name as ingredientName,
-                                       DishIngredients.quantity as ingredientQuantity,
-                                       DishIngredients.filter as ingredientFilter
-                                    FROM MenuItems
-                                    INNER JOIN Menus
-                                        ON MenuItems.menuId = Menus.menuId
-                                    INNER JOIN Users
-                                        ON Menus.userId = Users.userId
-                                    INNER JOIN Dishes
-                                        ON MenuItems.dishId = Dishes.dishId
-                                    LEFT JOIN DishTags
-                                        ON MenuItems.dishId = DishTags.dishId
-                                    LEFT JOIN DishIngredients
-                                        ON MenuItems.dishId = DishIngredients.dishId
-                                    WHERE MenuItems.menuId = ?
-                                    ORDER BY MenuItems.index, DishTags.index, DishIngredients.index;
-                                """),
-                        ps -> ps.setObject(1, builder.getId()),
-                        dishRepository::mapToDishes
-                );
+        if(metadata.isEmpty()) return Page.empty();
 
-                for(int i = 0; i < dishes.size(); i++)
-                    ((MenuItem.LoadBuilder) builder.getItems().get(i)).setDish(dishes.get(i));
-            }
-        }
+        List<Menu> menus = loadMenus(criteria, noCondition(), metadata.getActualSize(), metadata.getOffset());
 
-        return metadata.createPage(
-                result.stream().map(Menu.Builder::tryBuild).toList()
-        );
+        return metadata.createPage(menus);
     }
 
     @Override
@@ -793,6 +499,175 @@ public class MenuRepositoryPostgres implements MenuRepository {
     }
 
 
+    private BigInteger countMenus(Criteria criteria) {
+        return switch(criteria.getCountMode()) {
+            case EXACT -> BigInteger.valueOf(getMenusNumber(criteria));
+            case ESTIMATED -> rowCountEstimator.estimate(
+                    selectOne().
+                            from("Menus").
+                            where(menuFilterMapper.toCondition(criteria.getFilter())).
+                            getSQL()
+            );
+            case NONE -> null;
+        };
+    }
+
+    /*
+     * Если общее кол-во меню не подсчитывается точно, запрашивается на одно меню больше размера
+     * страницы, чтобы определить наличие следующей страницы.
+     */
+    private Page<Menu> getMenusWithoutCount(Criteria criteria, PageableByNumber pageable, BigInteger menusNumber) {
+        int maxPageSize = conf.pagination().menuMaxPageSize();
+        int pageSize = pageable.getPageSize(maxPageSize);
+
+        List<Menu> menus = loadMenus(criteria, noCondition(), pageSize + 1, pageable.getOffset(maxPageSize));
+        boolean hasNext = menus.size() > pageSize;
+        if(hasNext) menus = menus.subList(0, pageSize);
+
+        return pageable.
+                createPageMetadata(criteria.getCountMode(), menusNumber, maxPageSize, menus.size(), hasNext).
+                createPage(menus);
+    }
+
+    /*
+     * Вместо смещения страница выбирается условием на поля сортировки и идентификатор последнего меню
+     * предыдущей страницы, поэтому СУБД не нужно пропускать строки всех предыдущих страниц.
+     */
+    private Page<Menu> getMenusByCursor(Criteria criteria, PageableByCursor pageable, BigInteger menusNumber) {
+        int maxPageSize = conf.pagination().menuMaxPageSize();
+        int pageSize = pageable.getPageSize(maxPageSize);
+
+        List<Menu> menus = List.of();
+        if(criteria.getCountMode() != CountMode.EXACT || menusNumber.signum() > 0) {
+            menus = loadMenus(
+                    criteria,
+                    cursorMapper.toCondition(pageable, criteria.getSort(), "Menus", "menuId"),
+                    pageSize + 1,
+                    BigInteger.ZERO
+            );
+        }
+        boolean hasNext = menus.size() > pageSize;
+        if(hasNext) menus = menus.subList(0, pageSize);
+
+        List<String> lastKeys = null;
+        if(!menus.isEmpty()) {
+            Menu last = menus.get(menus.size() - 1);
+            lastKeys = cursorMapper.toKeys(
+                    criteria.getSort(),
+                    param -> "name".equals(param) ? last.getName() : last.getId(),
+                    last.getId()
+            );
+        }
+        return pageable.
+                createPageMetadata(
+                        criteria.getCountMode(), menusNumber, maxPageSize, menus.size(), hasNext, lastKeys
+                ).
+                createPage(menus);
+    }
+
+    private List<Menu> loadMenus(Criteria criteria, Condition cursorCondition, int limit, BigInteger offset) {
+        String menusQuery =
+                select(field("M.*"),
+                        field("Users.name as userName"),
+                        field("Users.email as userEmail"),
+                        field("Users.passwordHash as userPasswordHash"),
+                        field("Users.salt as userSalt")).
+                        from(
+                                select(field("*")).
+                                        from("Menus").
+                                        where(menuFilterMapper.toCondition(criteria.getFilter()).and(cursorCondition)).
+                                        orderBy(getOrderFields(criteria.getSort(), "Menus")).
+                                        limit(inline(limit)).
+                                        offset(inline(offset)).
+                                        asTable("{M}")
+                        ).
+                        innerJoin("Users").
+                            on(field("M.userId").eq(field("Users.userId"))).
+                        orderBy(getOrderFields(criteria.getSort(), "M")).
+                        getSQL().
+                        replace("\"{M}\"", "as M");
+
+        return loadMenuAggregates(menusQuery);
+    }
+
+    /*
+     * Загружает меню выбираемые запросом menusQuery с аргументами args вместе с их тегами, элементами и блюдами
+     * элементов. Каждая дочерняя коллекция читается одним запросом по идентификаторам уже полученных меню, а
+     * блюда - одним набором запросов по идентификаторам блюд всех элементов (см.
+     * DishRepositoryPostgres#getDishesByIds). Блюдо назначается элементу меню по идентификатору блюда, а не по
+     * позиции элемента. Запрос menusQuery должен возвращать все столбцы таблицы Menus, а также столбцы userName,
+     * userEmail, userPasswordHash и userSalt.
+     * Порядок меню в результате совпадает с порядком строк возвращаемых menusQuery.
+     */
+    private List<Menu> loadMenuAggregates(String menusQuery, Object... args) {
+        Map<UUID, Menu.Builder> builders = new LinkedHashMap<>();
+        statement.query(
+                menusQuery,
+                (ResultSet rs) -> {
+                    UUID menuId = (UUID) rs.getObject("menuId");
+                    builders.put(
+                            menuId,
+                            new Menu.Builder().
+                                    setId(menuId).
+                                    setUser(
+                                            new User.LoadBuilder().
+                                                    setId((UUID) rs.getObject("userId")).
+                                                    setName(rs.getString("userName")).
+                                                    setPasswordHash(rs.getString("userPasswordHash")).
+                                                    setEmail(rs.getString("userEmail")).
+                                                    setSalt(rs.getString("userSalt")).
+                                                    tryBuild()
+                                    ).
+                                    setName(rs.getString("name")).
+                                    setDescription(rs.getString("description")).
+                                    setImageUrl(rs.getString("imagePath")).
+                                    setConfig(conf)
+                    );
+                },
+                args
+        );
+
+        if(builders.isEmpty()) return List.of();
+
+        List<Param<UUID>> menuIds = builders.keySet().stream().map(DSL::inline).toList();
+
+        statement.query(
+                select(field("MenuTags.menuId"), field("MenuTags.tagValue")).
+                        from("MenuTags").
+                        where(field("MenuTags.menuId").in(menuIds)).
+                        orderBy(field("MenuTags.menuId"), field("MenuTags.index")).
+                        getSQL(),
+                (ResultSet rs) -> {
+                    builders.get((UUID) rs.getObject("menuId")).addTag(rs.getString("tagValue"));
+                }
+        );
+
+        Map<UUID, List<MenuItem.LoadBuilder>> itemsByDishId = new HashMap<>();
+        statement.query(
+                select(field("MenuItems.*")).
+                        from("MenuItems").
+                        where(field("MenuItems.menuId").in(menuIds)).
+                        orderBy(field("MenuItems.menuId"), field("MenuItems.index")).
+                        getSQL(),
+                (ResultSet rs) -> {
+                    MenuItem.LoadBuilder item = new MenuItem.LoadBuilder().
+                            setId((UUID) rs.getObject("itemId")).
+                            setConfig(conf).
+                            setQuantity(rs.getBigDecimal("quantity"));
+                    builders.get((UUID) rs.getObject("menuId")).addItem(item);
+                    itemsByDishId.computeIfAbsent((UUID) rs.getObject("dishId"), dishId -> new ArrayList<>()).
+                            add(item);
+                }
+        );
+
+        Map<UUID, Dish> dishes = dishRepository.getDishesByIds(itemsByDishId.keySet());
+        itemsByDishId.forEach((dishId, items) -> items.forEach(item -> item.setDish(dishes.get(dishId))));
+
+        return builders.values().stream().
+                map(Menu.Builder::tryBuild).
+                toList();
+    }
+
     private List<SortField<?>> getOrderFields(Sort menuSort,
                                               String tableName) {
         ArrayList<SortField<?>> fields = new ArrayList<>();
@@ -803,10 +678,6 @@ public class MenuRepositoryPostgres implements MenuRepository {
         });
 
         fields.add(field(tableName + ".menuId").asc());
-        if("M".equals(tableName)) {
-            fields.add(field("MenuItems.index").asc());
-            fields.add(field("MenuTags.index").asc());
-        }
         return fields;
     }
 
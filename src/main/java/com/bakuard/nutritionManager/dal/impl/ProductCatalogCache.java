@@ -0,0 +1,75 @@
+package com.bakuard.nutritionManager.dal.impl;
+
+import com.bakuard.nutritionManager.model.Product;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Хранит снимки каталогов продуктов пользователей (см. {@link ProductCatalogSnapshot}). Снимок каталога
+ * пользователя создается при первом обращении и используется до тех пор, пока не изменится версия каталога
+ * этого пользователя. Версию каталога хранит БД (таблица ProductCatalogVersions): она увеличивается триггерами
+ * при любом изменении продуктов пользователя, в том числе каскадном удалении и изменениях выполненных другими
+ * экземплярами приложения. Суммарный объем памяти занимаемый снимками ограничен: при превышении ограничения
+ * удаляются снимки, к которым дольше всего не обращались.
+ */
+class ProductCatalogCache {
+
+    private final long maxMemoryBytes;
+    private final boolean offHeap;
+    private final LinkedHashMap<UUID, VersionedSnapshot> snapshots;
+    private long usedMemoryBytes;
+
+    public ProductCatalogCache(long maxMemoryBytes, boolean offHeap) {
+        this.maxMemoryBytes = maxMemoryBytes;
+        this.offHeap = offHeap;
+        snapshots = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Возвращает снимок каталога продуктов пользователя соответствующий указанной версии каталога. Если такого
+     * снимка нет - создает его по продуктам возвращаемым loader и, если позволяет ограничение памяти, сохраняет
+     * вместо снимка другой версии. Версия каталога должна быть прочитана до вызова loader - тогда изменения
+     * продуктов, выполненные после чтения версии, увеличат версию и снимок будет создан повторно.
+     * @param userId уникальный идентификатор пользователя.
+     * @param version текущая версия каталога продуктов пользователя.
+     * @param loader загружает все продукты пользователя.
+     * @return снимок каталога продуктов пользователя.
+     */
+    public ProductCatalogSnapshot getOrLoad(UUID userId, long version, Function<UUID, List<Product>> loader) {
+        synchronized(this) {
+            VersionedSnapshot cached = snapshots.get(userId);
+            if(cached != null && cached.version() == version) return cached.snapshot();
+        }
+
+        ProductCatalogSnapshot snapshot = ProductCatalogSnapshot.build(userId, loader.apply(userId), offHeap);
+
+        synchronized(this) {
+            if(snapshot.getMemorySize() <= maxMemoryBytes) {
+                remove(userId);
+                snapshots.put(userId, new VersionedSnapshot(snapshot, version));
+                usedMemoryBytes += snapshot.getMemorySize();
+                evict();
+            }
+        }
+
+        return snapshot;
+    }
+
+    private void remove(UUID userId) {
+        VersionedSnapshot removed = snapshots.remove(userId);
+        if(removed != null) usedMemoryBytes -= removed.snapshot().getMemorySize();
+    }
+
+    private void evict() {
+        Iterator<VersionedSnapshot> iterator = snapshots.values().iterator();
+        while(usedMemoryBytes > maxMemoryBytes && iterator.hasNext()) {
+            usedMemoryBytes -= iterator.next().snapshot().getMemorySize();
+            iterator.remove();
+        }
+    }
+
+
+    private record VersionedSnapshot(ProductCatalogSnapshot snapshot, long version) {}
+
+}
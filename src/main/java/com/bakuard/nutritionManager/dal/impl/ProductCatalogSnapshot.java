@@ -0,0 +1,394 @@
+package com.bakuard.nutritionManager.dal.impl;
+
+import com.bakuard.nutritionManager.config.configData.ConfigData;
+import com.bakuard.nutritionManager.dal.projection.ProductPriceRange;
+import com.bakuard.nutritionManager.model.Product;
+import com.bakuard.nutritionManager.model.Tag;
+import com.bakuard.nutritionManager.model.User;
+import com.bakuard.nutritionManager.model.filters.*;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Неизменяемый снимок всех продуктов одного пользователя, хранящий данные продуктов по столбцам:
+ * строковые поля (категория, магазин, сорт, производитель, единица измерения) кодируются номерами в
+ * словаре значений, цена, размер упаковки и кол-во хранятся как целые числа с фиксированной точкой
+ * (масштаб {@link #SCALE}, соответствует типу NUMERIC(16, 6) этих столбцов в БД). Числовые столбцы могут
+ * размещаться как в куче, так и вне её.<br/><br/>
+ * Для каждого значения категории, магазина, сорта, производителя и тега снимок хранит инвертированный
+ * индекс - битовое множество номеров строк (продуктов) с этим значением. Поэтому {@link AnyFilter} вычисляется
+ * как объединение, а {@link MinTagsFilter} - как пересечение битовых множеств без просмотра всех продуктов.<br/><br/>
+ * Снимок позволяет проверять продукты на соответствие ограничениям, подсчитывать их кол-во и определять
+ * диапазон цен продуктов без обращения к БД. Объекты {@link Product} создаются только для возвращаемых продуктов.
+ */
+class ProductCatalogSnapshot {
+
+    static final int SCALE = 6;
+
+    /**
+     * Создает снимок указанных продуктов пользователя.
+     * @param userId уникальный идентификатор пользователя, к которому относятся все продукты.
+     * @param products все продукты пользователя.
+     * @param offHeap true - числовые столбцы размещаются вне кучи (в direct ByteBuffer).
+     * @throws ArithmeticException если цена, размер упаковки или кол-во одного из продуктов не может быть
+     *                             без потерь представлено числом с фиксированной точкой масштаба {@link #SCALE}.
+     */
+    static ProductCatalogSnapshot build(UUID userId, List<Product> products, boolean offHeap) {
+        return new ProductCatalogSnapshot(userId, products, offHeap);
+    }
+
+
+    private final UUID userId;
+    private final int size;
+    private final LongBuffer productIds;
+    private final DictionaryColumn categories;
+    private final DictionaryColumn shops;
+    private final DictionaryColumn grades;
+    private final DictionaryColumn manufacturers;
+    private final DictionaryColumn units;
+    private final LongBuffer prices;
+    private final LongBuffer packingSizes;
+    private final LongBuffer quantities;
+    private final Dictionary tags;
+    private final IntBuffer tagOffsets;
+    private final IntBuffer tagCodes;
+    private final String[] descriptions;
+    private final String[] imageUrls;
+    private final long memorySize;
+
+    private ProductCatalogSnapshot(UUID userId, List<Product> products, boolean offHeap) {
+        this.userId = userId;
+        this.size = products.size();
+
+        productIds = allocateLongs(size * 2, offHeap);
+        prices = allocateLongs(size, offHeap);
+        packingSizes = allocateLongs(size, offHeap);
+        quantities = allocateLongs(size, offHeap);
+        categories = new DictionaryColumn(products, p -> p.getContext().getCategory(), offHeap);
+        shops = new DictionaryColumn(products, p -> p.getContext().getShop(), offHeap);
+        grades = new DictionaryColumn(products, p -> p.getContext().getGrade(), offHeap);
+        manufacturers = new DictionaryColumn(products, p -> p.getContext().getManufacturer(), offHeap);
+        units = new DictionaryColumn(products, p -> p.getContext().getUnit(), offHeap);
+        descriptions = new String[size];
+        imageUrls = new String[size];
+
+        tags = new Dictionary();
+        int tagsNumber = 0;
+        for(Product product : products) tagsNumber += product.getContext().getTags().size();
+        tagOffsets = allocateInts(size + 1, offHeap);
+        tagCodes = allocateInts(tagsNumber, offHeap);
+
+        int tagIndex = 0;
+        for(int row = 0; row < size; row++) {
+            Product product = products.get(row);
+            productIds.put(row * 2, product.getId().getMostSignificantBits());
+            productIds.put(row * 2 + 1, product.getId().getLeastSignificantBits());
+            prices.put(row, toFixedPoint(product.getContext().getPrice()));
+            packingSizes.put(row, toFixedPoint(product.getContext().getPackingSize()));
+            quantities.put(row, toFixedPoint(product.getQuantity()));
+            descriptions[row] = product.getDescription();
+            imageUrls[row] = product.getImageUrl() == null ? null : product.getImageUrl().toString();
+
+            tagOffsets.put(row, tagIndex);
+            for(Tag tag : product.getContext().getTags()) {
+                tagCodes.put(tagIndex++, tags.encode(tag.getValue(), row));
+            }
+        }
+        tagOffsets.put(size, tagIndex);
+
+        memorySize = calculateMemorySize();
+    }
+
+    public UUID getUserId() {
+        return userId;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Возвращает приблизительный объем памяти занимаемый данным снимком в байтах.
+     */
+    public long getMemorySize() {
+        return memorySize;
+    }
+
+    /**
+     * Возвращает кол-во продуктов удовлетворяющих ограничению filter.
+     * @throws UnsupportedOperationException если filter содержит ограничения неприменимые к продуктам.
+     */
+    public int count(Filter filter) {
+        return match(filter).cardinality();
+    }
+
+    /**
+     * Возвращает множество номеров строк снимка (продуктов), удовлетворяющих ограничению filter.
+     * Семантика ограничений совпадает с SQL условием формируемым {@link com.bakuard.nutritionManager.dal.impl.mappers.ProductFilterMapper}.
+     * @throws UnsupportedOperationException если filter содержит ограничения неприменимые к продуктам.
+     */
+    public BitSet match(Filter filter) {
+        switch(filter.getType()) {
+            case AND -> {
+                BitSet result = match(filter.getOperands().get(0));
+                for(int i = 1; i < filter.getOperands().size() && !result.isEmpty(); i++) {
+                    result.and(match(filter.getOperands().get(i)));
+                }
+                return result;
+            }
+            case OR -> {
+                BitSet result = match(filter.getOperands().get(0));
+                for(int i = 1; i < filter.getOperands().size() && result.cardinality() < size; i++) {
+                    result.or(match(filter.getOperands().get(i)));
+                }
+                return result;
+            }
+            case CATEGORY -> {
+                return categories.match((AnyFilter) filter);
+            }
+            case SHOPS -> {
+                return shops.match((AnyFilter) filter);
+            }
+            case GRADES -> {
+                return grades.match((AnyFilter) filter);
+            }
+            case MANUFACTURER -> {
+                return manufacturers.match((AnyFilter) filter);
+            }
+            case MIN_TAGS -> {
+                return matchTags((MinTagsFilter) filter);
+            }
+            case USER -> {
+                BitSet result = new BitSet(size);
+                if(userId.equals(((UserFilter) filter).getUserId())) result.set(0, size);
+                return result;
+            }
+            case MIN_QUANTITY -> {
+                return matchQuantity((QuantityFilter) filter);
+            }
+            default -> throw new UnsupportedOperationException(
+                    "Unsupported operation for " + filter.getType() + " constraint");
+        }
+    }
+
+    /**
+     * Возвращает диапазон цен продуктов удовлетворяющих ограничению filter. Самым дешевым (самым дорогим)
+     * считается продукт с наименьшей (наибольшей) ценой, а при равенстве цен - с наименьшим (наибольшим)
+     * идентификатором в порядке сравнения типа UUID в БД.
+     * @param filter ограничение, которому должны удовлетворять продукты.
+     * @param user владелец каталога продуктов, используется при создании возвращаемых продуктов.
+     * @param conf общие настройки приложения, используются при создании возвращаемых продуктов.
+     * @return диапазон цен или пустой Optional, если ни один продукт не удовлетворяет ограничению.
+     */
+    public Optional<ProductPriceRange> getPriceRange(Filter filter, User user, ConfigData conf) {
+        BitSet rows = match(filter);
+        if(rows.isEmpty()) return Optional.empty();
+
+        int cheapest = rows.nextSetBit(0);
+        int mostExpensive = cheapest;
+        for(int row = rows.nextSetBit(cheapest + 1); row >= 0; row = rows.nextSetBit(row + 1)) {
+            if(compareByPrice(row, cheapest) < 0) cheapest = row;
+            if(compareByPrice(row, mostExpensive) > 0) mostExpensive = row;
+        }
+
+        return Optional.of(
+                new ProductPriceRange(
+                        toProduct(cheapest, user, conf),
+                        toProduct(mostExpensive, user, conf),
+                        rows.cardinality()
+                )
+        );
+    }
+
+    /**
+     * Создает объект продукта по данным указанной строки снимка.
+     */
+    public Product toProduct(int row, User user, ConfigData conf) {
+        Product.Builder builder = new Product.Builder().
+                setAppConfiguration(conf).
+                setId(new UUID(productIds.get(row * 2), productIds.get(row * 2 + 1))).
+                setUser(user).
+                setCategory(categories.get(row)).
+                setShop(shops.get(row)).
+                setGrade(grades.get(row)).
+                setManufacturer(manufacturers.get(row)).
+                setUnit(units.get(row)).
+                setPrice(BigDecimal.valueOf(prices.get(row), SCALE)).
+                setPackingSize(BigDecimal.valueOf(packingSizes.get(row), SCALE)).
+                setQuantity(BigDecimal.valueOf(quantities.get(row), SCALE)).
+                setDescription(descriptions[row]).
+                setImageUrl(imageUrls[row]);
+        for(int i = tagOffsets.get(row); i < tagOffsets.get(row + 1); i++) {
+            builder.addTag(tags.decode(tagCodes.get(i)));
+        }
+        return builder.tryBuild();
+    }
+
+
+    private BitSet matchTags(MinTagsFilter filter) {
+        BitSet result = null;
+        for(Tag tag : filter.getTags()) {
+            int code = tags.find(tag.getValue());
+            if(code < 0) return new BitSet(size);
+
+            if(result == null) result = (BitSet) tags.getRows(code).clone();
+            else result.and(tags.getRows(code));
+        }
+        return result;
+    }
+
+    private BitSet matchQuantity(QuantityFilter filter) {
+        BigDecimal quantity = filter.getQuantity().movePointRight(SCALE);
+        long floor = toLongSaturated(quantity.setScale(0, RoundingMode.FLOOR));
+        long ceiling = toLongSaturated(quantity.setScale(0, RoundingMode.CEILING));
+        boolean exact = floor == ceiling;
+
+        BitSet result = new BitSet(size);
+        for(int row = 0; row < size; row++) {
+            long value = quantities.get(row);
+            boolean matches = switch(filter.getRelative()) {
+                case LESS -> value < ceiling;
+                case LESS_OR_EQUAL -> value <= floor;
+                case GREATER -> value > floor;
+                case GREATER_OR_EQUAL -> value >= ceiling;
+                case EQUAL -> exact && value == floor;
+            };
+            if(matches) result.set(row);
+        }
+        return result;
+    }
+
+    private int compareByPrice(int a, int b) {
+        int result = Long.compare(prices.get(a), prices.get(b));
+        if(result == 0) {
+            result = Long.compareUnsigned(productIds.get(a * 2), productIds.get(b * 2));
+        }
+        if(result == 0) {
+            result = Long.compareUnsigned(productIds.get(a * 2 + 1), productIds.get(b * 2 + 1));
+        }
+        return result;
+    }
+
+    private long calculateMemorySize() {
+        long result = (long) productIds.capacity() * Long.BYTES +
+                (long) prices.capacity() * Long.BYTES * 3 +
+                (long) tagOffsets.capacity() * Integer.BYTES +
+                (long) tagCodes.capacity() * Integer.BYTES +
+                categories.getMemorySize() +
+                shops.getMemorySize() +
+                grades.getMemorySize() +
+                manufacturers.getMemorySize() +
+                units.getMemorySize() +
+                tags.getMemorySize();
+        for(int row = 0; row < size; row++) {
+            result += stringSize(descriptions[row]) + stringSize(imageUrls[row]);
+        }
+        return result;
+    }
+
+    private static long stringSize(String value) {
+        return value == null ? 0 : 40L + value.length() * 2L;
+    }
+
+    private static long toFixedPoint(BigDecimal value) {
+        return value.setScale(SCALE).unscaledValue().longValueExact();
+    }
+
+    private static long toLongSaturated(BigDecimal value) {
+        if(value.compareTo(BigDecimal.valueOf(Long.MAX_VALUE)) > 0) return Long.MAX_VALUE;
+        if(value.compareTo(BigDecimal.valueOf(Long.MIN_VALUE)) < 0) return Long.MIN_VALUE;
+        return value.longValueExact();
+    }
+
+    private static LongBuffer allocateLongs(int capacity, boolean offHeap) {
+        if(offHeap) {
+            return ByteBuffer.allocateDirect(capacity * Long.BYTES).order(ByteOrder.nativeOrder()).asLongBuffer();
+        }
+        return LongBuffer.allocate(capacity);
+    }
+
+    private static IntBuffer allocateInts(int capacity, boolean offHeap) {
+        if(offHeap) {
+            return ByteBuffer.allocateDirect(capacity * Integer.BYTES).order(ByteOrder.nativeOrder()).asIntBuffer();
+        }
+        return IntBuffer.allocate(capacity);
+    }
+
+
+    private static class Dictionary {
+
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+        private final List<BitSet> rows = new ArrayList<>();
+
+        public int encode(String value, int row) {
+            Integer code = codes.get(value);
+            if(code == null) {
+                code = values.size();
+                codes.put(value, code);
+                values.add(value);
+                rows.add(new BitSet());
+            }
+            rows.get(code).set(row);
+            return code;
+        }
+
+        public BitSet getRows(int code) {
+            return rows.get(code);
+        }
+
+        public int find(String value) {
+            return codes.getOrDefault(value, -1);
+        }
+
+        public String decode(int code) {
+            return values.get(code);
+        }
+
+        public long getMemorySize() {
+            return values.stream().mapToLong(value -> stringSize(value) * 2).sum() +
+                    rows.stream().mapToLong(bits -> bits.size() / Byte.SIZE).sum();
+        }
+
+    }
+
+    private static class DictionaryColumn {
+
+        private final Dictionary dictionary;
+        private final IntBuffer rows;
+
+        public DictionaryColumn(List<Product> products, Function<Product, String> field, boolean offHeap) {
+            dictionary = new Dictionary();
+            rows = allocateInts(products.size(), offHeap);
+            for(int row = 0; row < products.size(); row++) {
+                rows.put(row, dictionary.encode(field.apply(products.get(row)), row));
+            }
+        }
+
+        public String get(int row) {
+            return dictionary.decode(rows.get(row));
+        }
+
+        public BitSet match(AnyFilter filter) {
+            BitSet result = new BitSet(rows.capacity());
+            for(String value : filter.getValues()) {
+                int code = dictionary.find(value);
+                if(code >= 0) result.or(dictionary.getRows(code));
+            }
+            return result;
+        }
+
+        public long getMemorySize() {
+            return (long) rows.capacity() * Integer.BYTES + dictionary.getMemorySize();
+        }
+
+    }
+
+}
@@ -3,15 +3,24 @@ package com.bakuard.nutritionManager.dal.impl;
 import com.bakuard.nutritionManager.config.configData.ConfigData;
 import com.bakuard.nutritionManager.dal.Criteria;
 import com.bakuard.nutritionManager.dal.ProductRepository;
+import com.bakuard.nutritionManager.dal.impl.mappers.CursorMapper;
+import com.bakuard.nutritionManager.dal.impl.mappers.ProductFilterJsonMapper;
 import com.bakuard.nutritionManager.dal.impl.mappers.ProductFilterMapper;
 import com.bakuard.nutritionManager.dal.projection.ProductField;
 import com.bakuard.nutritionManager.dal.projection.ProductFields;
+import com.bakuard.nutritionManager.dal.projection.ProductPriceRange;
 import com.bakuard.nutritionManager.model.Product;
 import com.bakuard.nutritionManager.model.Tag;
 import com.bakuard.nutritionManager.model.User;
+import com.bakuard.nutritionManager.model.filters.Filter;
+import com.bakuard.nutritionManager.model.filters.IterableFilter;
+import com.bakuard.nutritionManager.model.filters.ProductFilterCompiler;
 import com.bakuard.nutritionManager.model.filters.Sort;
 import com.bakuard.nutritionManager.model.filters.UserFilter;
+import com.bakuard.nutritionManager.model.util.CountMode;
 import com.bakuard.nutritionManager.model.util.Page;
+import com.bakuard.nutritionManager.model.util.Pageable;
+import com.bakuard.nutritionManager.model.util.PageableByCursor;
 import com.bakuard.nutritionManager.model.util.PageableByNumber;
 import com.bakuard.nutritionManager.validation.Constraint;
 import com.bakuard.nutritionManager.validation.Rule;
@@ -24,11 +33,14 @@ import org.springframework.jdbc.core.PreparedStatementCreator;
 
 import javax.sql.DataSource;
 import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.*;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
 import java.util.stream.Stream;
 
 import static com.bakuard.nutritionManager.model.filters.Filter.Type.CATEGORY;
@@ -38,14 +50,38 @@ import static org.jooq.impl.DSL.*;
 
 public class ProductRepositoryPostgres implements ProductRepository {
 
+    private static final Set<Filter.Type> INGREDIENT_FILTER_TYPES = EnumSet.of(
+            Filter.Type.AND,
+            Filter.Type.OR,
+            Filter.Type.MIN_TAGS,
+            Filter.Type.CATEGORY,
+            Filter.Type.SHOPS,
+            Filter.Type.GRADES,
+            Filter.Type.MANUFACTURER,
+            Filter.Type.USER
+    );
+
     private JdbcTemplate statement;
     private ConfigData conf;
     private ProductFilterMapper filterMapper;
+    private ProductFilterJsonMapper filterJsonMapper;
+    private CursorMapper cursorMapper;
+    private RowCountEstimator rowCountEstimator;
+    private ProductCatalogCache catalogCache;
 
     public ProductRepositoryPostgres(DataSource dataSource, ConfigData conf) {
         statement = new JdbcTemplate(dataSource);
         this.conf = conf;
         filterMapper = new ProductFilterMapper();
+        filterJsonMapper = new ProductFilterJsonMapper();
+        cursorMapper = new CursorMapper();
+        rowCountEstimator = new RowCountEstimator(statement);
+        if(conf.productCatalog().enabled()) {
+            catalogCache = new ProductCatalogCache(
+                    conf.productCatalog().maxMemoryBytes(),
+                    conf.productCatalog().offHeap()
+            );
+        }
     }
 
     @Override
@@ -53,8 +89,14 @@ public class ProductRepositoryPostgres implements ProductRepository {
         Validator.check("ProductRepository.product", notNull(product));
 
         try {
-            if(doesProductExist(product.getId())) updateProduct(product);
-            else addNewProduct(product);
+            if(doesProductExist(product.getId())) {
+                markDishPriceSummariesAsStale(product.getId());
+                updateProduct(product);
+            } else {
+                addNewProduct(product);
+            }
+            matchWithIngredients(product);
+            markDishPriceSummariesAsStale(product.getId());
         } catch(DuplicateKeyException e) {
             throw new ValidateException("Fail to save product").
                     addReason(Rule.of("ProductRepository.product", failure(Constraint.ENTITY_MUST_BE_UNIQUE_IN_DB)));
@@ -69,6 +111,7 @@ public class ProductRepositoryPostgres implements ProductRepository {
                                 addReason(Rule.of("ProductRepository.productId", failure(Constraint.ENTITY_MUST_EXISTS_IN_DB)))
                 );
 
+        markDishPriceSummariesAsStale(productId);
         statement.update(
                 "DELETE FROM Products WHERE productId = ? AND userId = ?;",
                 (PreparedStatement ps) -> {
@@ -127,49 +170,175 @@ public class ProductRepositoryPostgres implements ProductRepository {
 
     @Override
     public Page<Product> getProducts(Criteria criteria) {
-        int productsNumber = getProductsNumber(criteria);
-        Page.Metadata metadata = criteria.tryGetPageable(PageableByNumber.class).
-                createPageMetadata(productsNumber, conf.pagination().productMaxPageSize());
+        Validator.check(
+                "ProductRepository.criteria", notNull(criteria).
+                        and(() -> isTrue(criteria.tryGetFilter().matchingTypesNumber(USER) == 1))
+        );
+
+        Map<Filter, UUID> ingredientIds = findIngredientIds(List.of(criteria.getFilter()));
+        String condition = toCondition(criteria.getFilter(), ingredientIds);
+
+        BigInteger productsNumber = countProducts(criteria, ingredientIds);
+        if(criteria.tryGetPageable(Pageable.class) instanceof PageableByCursor pageable) {
+            return getProductsByCursor(criteria, condition, pageable, productsNumber);
+        }
+
+        PageableByNumber pageable = criteria.tryGetPageable(PageableByNumber.class);
+        if(criteria.getCountMode() != CountMode.EXACT) {
+            return getProductsWithoutCount(criteria, condition, pageable, productsNumber);
+        }
+
+        Page.Metadata metadata = pageable.createPageMetadata(productsNumber, conf.pagination().productMaxPageSize());
 
         if(metadata.isEmpty()) return Page.empty();
 
-        final String aggregateRootQuery = """
-                select * from Products
-                    where %s
-                    order by %s
-                    limit %s
-                    offset %s
-                """.formatted(
-                        filterMapper.toCondition(criteria.getFilter()),
-                        getOrderFields(criteria.tryGetSort()),
-                        metadata.getActualSize(),
-                        metadata.getOffset()
-                );
+        return metadata.createPage(
+                loadProducts(
+                        criteria,
+                        productsQuery(criteria, condition, "true", metadata.getActualSize(), metadata.getOffset())
+                )
+        );
+    }
 
-        List<Product> products = Stream.of(new ProductAggregateRootBuilders()).
-                peek(aggregateRootBuilders -> loadAndFillProductAggregateRoot(
-                        con -> con.prepareStatement(aggregateRootQuery),
-                        aggregateRootBuilders
-                )).
-                filter(aggregateRootBuilders -> !aggregateRootBuilders.isEmpty()).
-                peek(aggregateRootBuilders -> loadUser(criteria.getFilter().
-                        <UserFilter>findAny(USER).
-                        orElseThrow().
-                        getUserId()).
-                        ifPresent(user -> aggregateRootBuilders.products().forEach(p -> p.setUser(user)))).
-                peek(aggregateRootBuilders -> loadAndFillProductTags(
-                        con -> con.prepareStatement("""
-                            select * from ProductTags
-                             inner join (%s) as TempTable
-                              on ProductTags.productId = TempTable.productId
-                             order by ProductTags.index;
-                            """.formatted(aggregateRootQuery)),
-                        aggregateRootBuilders)).
-                flatMap(aggregateRootBuilders -> aggregateRootBuilders.products().stream().
-                        map(Product.Builder::tryBuild)).
+    @Override
+    public List<Page<Product>> getProductPages(List<Criteria> criteria) {
+        Validator.check(
+                "ProductRepository.criteria", notNull(criteria).
+                        and(() -> notContainsNull(criteria)).
+                        and(() -> doesNotThrows(criteria, c -> {
+                            c.tryGetPageable(PageableByNumber.class);
+                            c.tryGetSort();
+                            Validator.check(
+                                    "ProductRepository.criteria.filter",
+                                    isTrue(c.tryGetFilter().matchingTypesNumber(USER) == 1)
+                            );
+                        }))
+        );
+
+        if(criteria.isEmpty()) return List.of();
+
+        /*
+         * Одинаковые выборки (совпадают фильтр и сортировка), для которых запрашиваются разные страницы,
+         * ранжируются в запросе только один раз.
+         */
+        List<ProductSelection> selections = criteria.stream().
+                map(c -> new ProductSelection(c.getFilter(), c.getSort())).
+                distinct().
+                toList();
+        Map<Filter, UUID> ingredientIds = findIngredientIds(
+                selections.stream().map(ProductSelection::filter).toList()
+        );
+
+        String rankedProducts = IntStream.range(0, selections.size()).
+                mapToObj(selectionIndex -> """
+                        select %d as selectionIndex,
+                               row_number() over (order by %s) - 1 as productIndex,
+                               count(*) over () as productsNumber,
+                               Products.*
+                            from Products
+                            where %s
+                        """.formatted(
+                                selectionIndex,
+                                getOrderFields(selections.get(selectionIndex).sort()),
+                                toCondition(selections.get(selectionIndex).filter(), ingredientIds)
+                        )
+                ).
+                collect(Collectors.joining(" union all "));
+
+        String requestedPages = criteria.stream().
+                map(c -> {
+                    int selectionIndex = selections.indexOf(new ProductSelection(c.getFilter(), c.getSort()));
+                    PageableByNumber pageable = c.getPageable(PageableByNumber.class);
+                    int pageSize = Math.min(
+                            Math.max(pageable.getExpectedPageSize(), 1),
+                            conf.pagination().productMaxPageSize()
+                    );
+                    String offset = "least(%s, greatest((RankedProducts.productsNumber - 1) / %d, 0)) * %d".
+                            formatted(pageable.getExpectedPageNumber().max(BigInteger.ZERO), pageSize, pageSize);
+
+                    return """
+                            (RankedProducts.selectionIndex = %d
+                             and RankedProducts.productIndex >= %s
+                             and RankedProducts.productIndex < %s + %d)
+                            """.formatted(selectionIndex, offset, offset, pageSize);
+                }).
+                collect(Collectors.joining(" or "));
+
+        String query = selectRankedProducts(rankedProducts, requestedPages);
+
+        List<Integer> productsNumbers = new ArrayList<>(Collections.nCopies(selections.size(), 0));
+        List<Map<Long, Product>> productsByIndex = Stream.<Map<Long, Product>>generate(HashMap::new).
+                limit(selections.size()).
                 collect(Collectors.toCollection(ArrayList::new));
+        statement.query(
+                query,
+                (ResultSet rs) -> {
+                    int selectionIndex = rs.getInt("selectionIndex");
+                    productsNumbers.set(selectionIndex, rs.getInt("productsNumber"));
+                    productsByIndex.get(selectionIndex).put(rs.getLong("productIndex"), mapRankedProduct(rs));
+                }
+        );
 
-        return metadata.createPage(products);
+        return criteria.stream().
+                map(c -> {
+                    int selectionIndex = selections.indexOf(new ProductSelection(c.getFilter(), c.getSort()));
+                    Page.Metadata metadata = c.getPageable(PageableByNumber.class).
+                            createPageMetadata(productsNumbers.get(selectionIndex), conf.pagination().productMaxPageSize());
+
+                    if(metadata.isEmpty()) return Page.<Product>empty();
+
+                    long offset = metadata.getOffset().longValueExact();
+                    return metadata.createPage(
+                            LongStream.range(offset, offset + metadata.getActualSize()).
+                                    mapToObj(productIndex -> productsByIndex.get(selectionIndex).get(productIndex)).
+                                    toList()
+                    );
+                }).
+                toList();
+    }
+
+    @Override
+    public List<Optional<ProductPriceRange>> getProductPriceRanges(List<Filter> filters) {
+        Validator.check(
+                "ProductRepository.filters", notNull(filters).
+                        and(() -> notContainsNull(filters)).
+                        and(() -> doesNotThrows(filters, filter -> Validator.check(
+                                "ProductRepository.filter",
+                                isTrue(filter.matchingTypesNumber(USER) == 1)
+                        )))
+        );
+
+        if(filters.isEmpty()) return List.of();
+
+        List<Filter> distinctFilters = filters.stream().distinct().toList();
+        Map<Filter, UUID> ingredientIds = findIngredientIds(distinctFilters);
+
+        /*
+         * Диапазоны цен для фильтров сохраненных ингредиентов определяются по таблице IngredientProductMatches,
+         * для остальных фильтров - по снимку каталога продуктов, если он используется.
+         */
+        Map<Filter, Optional<ProductPriceRange>> priceRanges = new HashMap<>();
+        List<Filter> queryFilters = distinctFilters;
+        List<Filter> otherFilters = distinctFilters.stream().
+                filter(filter -> !ingredientIds.containsKey(filter)).
+                toList();
+        Optional<UUID> catalogUserId = getSingleUserId(otherFilters);
+        if(catalogCache != null && catalogUserId.isPresent()) {
+            /*
+             * Фильтры преобразуются в SQL условия только для проверки их структуры - так же, как и при
+             * выполнении запроса к БД.
+             */
+            otherFilters.forEach(filterMapper::toCondition);
+            ProductCatalogSnapshot snapshot = getCatalog(catalogUserId.get());
+            User user = snapshot.size() == 0 ? null : loadUser(catalogUserId.get()).orElse(null);
+            otherFilters.forEach(filter -> priceRanges.put(filter, snapshot.getPriceRange(filter, user, conf)));
+            queryFilters = distinctFilters.stream().filter(ingredientIds::containsKey).toList();
+        }
+        priceRanges.putAll(loadPriceRanges(queryFilters, ingredientIds));
+
+        return filters.stream().
+                map(priceRanges::get).
+                toList();
     }
 
     @Override
@@ -457,12 +626,7 @@ public class ProductRepositoryPostgres implements ProductRepository {
                         and(() -> isTrue(criteria.tryGetFilter().matchingTypesNumber(USER) == 1))
         );
 
-        String query = selectCount().
-                from("Products").
-                where(filterMapper.toCondition(criteria.getFilter())).
-                getSQL();
-
-        return statement.queryForObject(query, Integer.class);
+        return getProductsNumber(criteria.getFilter(), findIngredientIds(List.of(criteria.getFilter())));
     }
 
     @Override
@@ -720,6 +884,276 @@ public class ProductRepositoryPostgres implements ProductRepository {
         );
     }
 
+    /*
+     * Помечает как устаревшие данные о стоимости всех блюд, хотя бы одному ингредиенту которых
+     * соответствует указанный продукт (согласно таблице IngredientProductMatches).
+     */
+    private void markDishPriceSummariesAsStale(UUID productId) {
+        statement.update(
+                """
+                        UPDATE DishPriceSummary SET
+                            stale=TRUE,
+                            version=version + 1
+                        WHERE dishId IN (
+                            SELECT DishIngredients.dishId FROM DishIngredients
+                                INNER JOIN IngredientProductMatches
+                                    ON IngredientProductMatches.ingredientId = DishIngredients.ingredientId
+                                WHERE IngredientProductMatches.productId = ?
+                        );
+                        """,
+                (PreparedStatement ps) -> ps.setObject(1, productId)
+        );
+    }
+
+    /*
+     * Пересчитывает список ингредиентов, которым соответствует указанный продукт. Продукт проверяется на
+     * соответствие фильтрам всех ингредиентов всех блюд его пользователя в памяти, при этом каждый из
+     * различающихся фильтров разбирается и проверяется только один раз.
+     */
+    private void matchWithIngredients(Product product) {
+        statement.update(
+                "DELETE FROM IngredientProductMatches WHERE productId = ?;",
+                (PreparedStatement ps) -> ps.setObject(1, product.getId())
+        );
+
+        ProductFilterCompiler compiler = new ProductFilterCompiler(List.of(product));
+        Map<String, Boolean> matchesByFilter = new HashMap<>();
+        List<MatchedIngredient> matchedIngredients = new ArrayList<>();
+        statement.query(
+                """
+                        SELECT DishIngredients.ingredientId, DishIngredients.dishId, DishIngredients.filter
+                            FROM DishIngredients
+                            INNER JOIN Dishes ON Dishes.dishId = DishIngredients.dishId
+                            WHERE Dishes.userId = ?;
+                        """,
+                (PreparedStatement ps) -> ps.setObject(1, product.getUser().getId()),
+                (ResultSet rs) -> {
+                    boolean matches = matchesByFilter.computeIfAbsent(
+                            rs.getString("filter"),
+                            json -> compiler.compile(filterJsonMapper.toFilter(json)).test(product)
+                    );
+                    if(matches) {
+                        matchedIngredients.add(new MatchedIngredient(
+                                (UUID) rs.getObject("ingredientId"),
+                                (UUID) rs.getObject("dishId")
+                        ));
+                    }
+                }
+        );
+
+        statement.batchUpdate(
+                """
+                        INSERT INTO IngredientProductMatches(ingredientId, dishId, productId, price, category)
+                          VALUES(?,?,?,?,?);
+                        """,
+                new BatchPreparedStatementSetter() {
+
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        MatchedIngredient ingredient = matchedIngredients.get(i);
+                        ps.setObject(1, ingredient.ingredientId());
+                        ps.setObject(2, ingredient.dishId());
+                        ps.setObject(3, product.getId());
+                        ps.setBigDecimal(4, product.getContext().getPrice());
+                        ps.setString(5, product.getContext().getCategory());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return matchedIngredients.size();
+                    }
+                }
+        );
+    }
+
+    /*
+     * Для каждого из ограничений filters ищет сохраненный ингредиент с точно таким же фильтром продуктов -
+     * все продукты удовлетворяющие такому ограничению уже перечислены в таблице IngredientProductMatches.
+     * Ограничения, для которых такого ингредиента нет (например, ингредиенты еще не сохраненного или
+     * измененного блюда), не попадают в итоговый результат.
+     */
+    private Map<Filter, UUID> findIngredientIds(List<Filter> filters) {
+        List<Filter> ingredientFilters = filters.stream().
+                distinct().
+                filter(filter -> filter.bfs().allMatch(f -> INGREDIENT_FILTER_TYPES.contains(f.filter().getType()))).
+                toList();
+        if(ingredientFilters.isEmpty()) return Map.of();
+
+        String filterValues = IntStream.range(0, ingredientFilters.size()).
+                mapToObj(filterIndex -> "(%d, ?::jsonb)".formatted(filterIndex)).
+                collect(Collectors.joining(", "));
+
+        return statement.query(
+                """
+                        select F.filterIndex,
+                               (select DishIngredients.ingredientId
+                                    from DishIngredients
+                                    where DishIngredients.filter = F.filter
+                                    limit 1) as ingredientId
+                            from (values %s) as F(filterIndex, filter);
+                        """.formatted(filterValues),
+                (PreparedStatement ps) -> {
+                    for(int i = 0; i < ingredientFilters.size(); i++) {
+                        ps.setString(i + 1, filterJsonMapper.toJson(ingredientFilters.get(i)));
+                    }
+                },
+                (ResultSet rs) -> {
+                    Map<Filter, UUID> result = new HashMap<>();
+                    while(rs.next()) {
+                        UUID ingredientId = (UUID) rs.getObject("ingredientId");
+                        if(ingredientId != null) {
+                            result.put(ingredientFilters.get(rs.getInt("filterIndex")), ingredientId);
+                        }
+                    }
+                    return result;
+                }
+        );
+    }
+
+    /*
+     * Возвращает SQL условие выборки продуктов удовлетворяющих ограничению filter. Для ограничений сохраненных
+     * ингредиентов (см. findIngredientIds()) условие выбирает продукты по таблице IngredientProductMatches.
+     */
+    private String toCondition(Filter filter, Map<Filter, UUID> ingredientIds) {
+        UUID ingredientId = ingredientIds.get(filter);
+        if(ingredientId == null) return filterMapper.toCondition(filter);
+
+        return """
+                Products.productId in (
+                    select IngredientProductMatches.productId
+                        from IngredientProductMatches
+                        where IngredientProductMatches.ingredientId = '%s'
+                )
+                """.formatted(ingredientId);
+    }
+
+    private int getProductsNumber(Filter filter, Map<Filter, UUID> ingredientIds) {
+        UUID ingredientId = ingredientIds.get(filter);
+        if(ingredientId != null) {
+            return statement.queryForObject(
+                    "select count(*) from IngredientProductMatches where ingredientId = ?;",
+                    Integer.class,
+                    ingredientId
+            );
+        }
+
+        String condition = filterMapper.toCondition(filter);
+
+        Optional<UUID> catalogUserId = getSingleUserId(List.of(filter));
+        if(catalogCache != null && catalogUserId.isPresent()) {
+            return getCatalog(catalogUserId.get()).count(filter);
+        }
+
+        String query = selectCount().
+                from("Products").
+                where(condition).
+                getSQL();
+
+        return statement.queryForObject(query, Integer.class);
+    }
+
+    private Map<Filter, Optional<ProductPriceRange>> loadPriceRanges(List<Filter> filters,
+                                                                    Map<Filter, UUID> ingredientIds) {
+        if(filters.isEmpty()) return Map.of();
+
+        String rankedProducts = IntStream.range(0, filters.size()).
+                mapToObj(filterIndex -> """
+                        select %d as filterIndex,
+                               row_number() over (order by Products.price asc, Products.productId asc) as cheapestRank,
+                               row_number() over (order by Products.price desc, Products.productId desc) as mostExpensiveRank,
+                               count(*) over () as productsNumber,
+                               Products.*
+                            from Products
+                            where %s
+                        """.formatted(filterIndex, toCondition(filters.get(filterIndex), ingredientIds))
+                ).
+                collect(Collectors.joining(" union all "));
+
+        String query = selectRankedProducts(
+                rankedProducts,
+                "RankedProducts.cheapestRank = 1 or RankedProducts.mostExpensiveRank = 1"
+        );
+
+        Product[] cheapest = new Product[filters.size()];
+        Product[] mostExpensive = new Product[filters.size()];
+        int[] productsNumbers = new int[filters.size()];
+        statement.query(
+                query,
+                (ResultSet rs) -> {
+                    int filterIndex = rs.getInt("filterIndex");
+                    Product product = mapRankedProduct(rs);
+                    if(rs.getLong("cheapestRank") == 1) cheapest[filterIndex] = product;
+                    if(rs.getLong("mostExpensiveRank") == 1) mostExpensive[filterIndex] = product;
+                    productsNumbers[filterIndex] = rs.getInt("productsNumber");
+                }
+        );
+
+        Map<Filter, Optional<ProductPriceRange>> result = new HashMap<>();
+        for(int filterIndex = 0; filterIndex < filters.size(); filterIndex++) {
+            final int index = filterIndex;
+            result.put(
+                    filters.get(index),
+                    Optional.ofNullable(cheapest[index]).
+                            map(product -> new ProductPriceRange(product, mostExpensive[index], productsNumbers[index]))
+            );
+        }
+        return result;
+    }
+
+    /*
+     * Возвращает снимок каталога продуктов пользователя, актуальный на момент вызова. Версия каталога
+     * увеличивается триггерами таблиц Products и ProductTags (см. миграцию V7) и отсутствует, если
+     * продукты пользователя еще ни разу не изменялись.
+     */
+    private ProductCatalogSnapshot getCatalog(UUID userId) {
+        long version = statement.query(
+                "select version from ProductCatalogVersions where userId = ?;",
+                (PreparedStatement ps) -> ps.setObject(1, userId),
+                (ResultSet rs) -> rs.next() ? rs.getLong("version") : 0L
+        );
+        return catalogCache.getOrLoad(userId, version, this::loadAllProducts);
+    }
+
+    private Optional<UUID> getSingleUserId(List<Filter> filters) {
+        Set<UUID> userIds = filters.stream().
+                flatMap(Filter::bfs).
+                map(IterableFilter::filter).
+                filter(filter -> filter.typeIs(USER)).
+                map(filter -> ((UserFilter) filter).getUserId()).
+                collect(Collectors.toSet());
+        return userIds.size() == 1 ? userIds.stream().findAny() : Optional.empty();
+    }
+
+    private List<Product> loadAllProducts(UUID userId) {
+        return Stream.of(new ProductAggregateRootBuilders()).
+                peek(aggregateRootBuilders -> loadAndFillProductAggregateRoot(con -> {
+                            PreparedStatement ps = con.prepareStatement("""
+                                    SELECT * FROM Products
+                                        WHERE Products.userId = ?
+                                        ORDER BY Products.productId;
+                                    """);
+                            ps.setObject(1, userId);
+                            return ps;
+                        },
+                        aggregateRootBuilders)).
+                filter(aggregateRootBuilders -> !aggregateRootBuilders.isEmpty()).
+                peek(aggregateRootBuilders -> loadUser(userId).
+                        ifPresent(user -> aggregateRootBuilders.products().forEach(p -> p.setUser(user)))).
+                peek(aggregateRootBuilders -> loadAndFillProductTags(con -> {
+                    PreparedStatement ps = con.prepareStatement("""
+                            select * from ProductTags
+                             inner join Products on ProductTags.productId = Products.productId
+                             where Products.userId = ?
+                             order by ProductTags.index;
+                            """);
+                    ps.setObject(1, userId);
+                    return ps;
+                }, aggregateRootBuilders)).
+                flatMap(aggregateRootBuilders -> aggregateRootBuilders.products().stream().
+                        map(Product.Builder::tryBuild)).
+                toList();
+    }
+
     private Optional<User> loadUser(UUID userId) {
         return statement.query("""
                 select * from users where users.userId = ?;
@@ -742,6 +1176,51 @@ public class ProductRepositoryPostgres implements ProductRepository {
                 });
     }
 
+    private String selectRankedProducts(String rankedProducts, String condition) {
+        return """
+                select RankedProducts.*,
+                       Users.name as userName,
+                       Users.email as userEmail,
+                       Users.passwordHash as userPasswordHash,
+                       Users.salt as userSalt,
+                       array(select ProductTags.tagValue
+                                from ProductTags
+                                where ProductTags.productId = RankedProducts.productId
+                                order by ProductTags.index) as productTags
+                    from (%s) as RankedProducts
+                    inner join Users on Users.userId = RankedProducts.userId
+                    where %s;
+                """.formatted(rankedProducts, condition);
+    }
+
+    private Product mapRankedProduct(ResultSet rs) throws SQLException {
+        Product.Builder builder = new Product.Builder().
+                setAppConfiguration(conf).
+                setId((UUID) rs.getObject("productId")).
+                setUser(
+                        new User.LoadBuilder().
+                                setId((UUID) rs.getObject("userId")).
+                                setName(rs.getString("userName")).
+                                setEmail(rs.getString("userEmail")).
+                                setPasswordHash(rs.getString("userPasswordHash")).
+                                setSalt(rs.getString("userSalt")).
+                                tryBuild()
+                ).
+                setCategory(rs.getString("category")).
+                setShop(rs.getString("shop")).
+                setGrade(rs.getString("grade")).
+                setManufacturer(rs.getString("manufacturer")).
+                setUnit(rs.getString("unit")).
+                setPrice(rs.getBigDecimal("price")).
+                setPackingSize(rs.getBigDecimal("packingSize")).
+                setQuantity(rs.getBigDecimal("quantity")).
+                setDescription(rs.getString("description")).
+                setImageUrl(rs.getString("imagePath"));
+        for(String tag : (String[]) rs.getArray("productTags").getArray()) builder.addTag(tag);
+
+        return builder.tryBuild();
+    }
+
     private void loadAndFillProductAggregateRoot(PreparedStatementCreator queryCreate,
                                                  ProductAggregateRootBuilders aggregateRootBuilders) {
         statement.query(
@@ -780,6 +1259,138 @@ public class ProductRepositoryPostgres implements ProductRepository {
     }
 
 
+    /*
+     * Для ограничений сохраненных ингредиентов и при использовании снимка каталога продуктов точный подсчет
+     * не требует просмотра таблицы Products, поэтому выполняется вместо приблизительной оценки.
+     */
+    private BigInteger countProducts(Criteria criteria, Map<Filter, UUID> ingredientIds) {
+        Filter filter = criteria.getFilter();
+        return switch(criteria.getCountMode()) {
+            case EXACT -> BigInteger.valueOf(getProductsNumber(filter, ingredientIds));
+            case ESTIMATED -> ingredientIds.containsKey(filter) ||
+                    (catalogCache != null && getSingleUserId(List.of(filter)).isPresent()) ?
+                    BigInteger.valueOf(getProductsNumber(filter, ingredientIds)) :
+                    rowCountEstimator.estimate("select * from Products where " + filterMapper.toCondition(filter));
+            case NONE -> null;
+        };
+    }
+
+    /*
+     * Если общее кол-во продуктов не подсчитывается точно, запрашивается на один продукт больше размера
+     * страницы, чтобы определить наличие следующей страницы.
+     */
+    private Page<Product> getProductsWithoutCount(Criteria criteria,
+                                                  String condition,
+                                                  PageableByNumber pageable,
+                                                  BigInteger productsNumber) {
+        int maxPageSize = conf.pagination().productMaxPageSize();
+        int pageSize = pageable.getPageSize(maxPageSize);
+
+        List<Product> products = loadProducts(
+                criteria,
+                productsQuery(criteria, condition, "true", pageSize + 1, pageable.getOffset(maxPageSize))
+        );
+        boolean hasNext = products.size() > pageSize;
+        if(hasNext) products = products.subList(0, pageSize);
+
+        return pageable.
+                createPageMetadata(criteria.getCountMode(), productsNumber, maxPageSize, products.size(), hasNext).
+                createPage(products);
+    }
+
+    /*
+     * Вместо смещения страница выбирается условием на поля сортировки и идентификатор последнего продукта
+     * предыдущей страницы, поэтому СУБД не нужно пропускать строки всех предыдущих страниц.
+     */
+    private Page<Product> getProductsByCursor(Criteria criteria,
+                                              String condition,
+                                              PageableByCursor pageable,
+                                              BigInteger productsNumber) {
+        Sort sort = criteria.tryGetSort();
+        int maxPageSize = conf.pagination().productMaxPageSize();
+        int pageSize = pageable.getPageSize(maxPageSize);
+
+        List<Product> products = List.of();
+        if(criteria.getCountMode() != CountMode.EXACT || productsNumber.signum() > 0) {
+            products = loadProducts(
+                    criteria,
+                    productsQuery(
+                            criteria,
+                            condition,
+                            cursorMapper.toCondition(pageable, sort, "Products", "productId").toString(),
+                            pageSize + 1,
+                            BigInteger.ZERO
+                    )
+            );
+        }
+        boolean hasNext = products.size() > pageSize;
+        if(hasNext) products = products.subList(0, pageSize);
+
+        List<String> lastKeys = products.isEmpty() ? null : getCursorKeys(sort, products.get(products.size() - 1));
+        return pageable.
+                createPageMetadata(
+                        criteria.getCountMode(), productsNumber, maxPageSize, products.size(), hasNext, lastKeys
+                ).
+                createPage(products);
+    }
+
+    private String productsQuery(Criteria criteria,
+                                 String condition,
+                                 String cursorCondition,
+                                 int limit,
+                                 BigInteger offset) {
+        return """
+                select * from Products
+                    where (%s) and (%s)
+                    order by %s
+                    limit %s
+                    offset %s
+                """.formatted(
+                        condition,
+                        cursorCondition,
+                        getOrderFields(criteria.tryGetSort()),
+                        limit,
+                        offset
+                );
+    }
+
+    private List<Product> loadProducts(Criteria criteria, String aggregateRootQuery) {
+        return Stream.of(new ProductAggregateRootBuilders()).
+                peek(aggregateRootBuilders -> loadAndFillProductAggregateRoot(
+                        con -> con.prepareStatement(aggregateRootQuery),
+                        aggregateRootBuilders
+                )).
+                filter(aggregateRootBuilders -> !aggregateRootBuilders.isEmpty()).
+                peek(aggregateRootBuilders -> loadUser(criteria.getFilter().
+                        <UserFilter>findAny(USER).
+                        orElseThrow().
+                        getUserId()).
+                        ifPresent(user -> aggregateRootBuilders.products().forEach(p -> p.setUser(user)))).
+                peek(aggregateRootBuilders -> loadAndFillProductTags(
+                        con -> con.prepareStatement("""
+                            select * from ProductTags
+                             inner join (%s) as TempTable
+                              on ProductTags.productId = TempTable.productId
+                             order by ProductTags.index;
+                            """.formatted(aggregateRootQuery)),
+                        aggregateRootBuilders)).
+                flatMap(aggregateRootBuilders -> aggregateRootBuilders.products().stream().
+                        map(Product.Builder::tryBuild)).
+                collect(Collectors.toCollection(ArrayList::new));
+    }
+
+    private List<String> getCursorKeys(Sort productSort, Product product) {
+        return cursorMapper.toKeys(
+                productSort,
+                param -> switch(param) {
+                    case "category" -> product.getContext().getCategory();
+                    case "price" -> product.getContext().getPrice();
+                    default -> product.getId();
+                },
+                product.getId()
+        );
+    }
+
     private String getOrderFields(Sort productSort) {
         return productSort.getParametersAsStream().
                 map(param -> "Products." + param.param() + " " + param.getDirectionAsString()).
@@ -789,6 +1400,10 @@ public class ProductRepositoryPostgres implements ProductRepository {
     }
 
 
+    private record ProductSelection(Filter filter, Sort sort) {}
+
+    private record MatchedIngredient(UUID ingredientId, UUID dishId) {}
+
     private record ProductAggregateRootBuilders(List<Product.Builder> products,
                                                 Map<UUID, Product.Builder> productsById) {
 
@@ -0,0 +1,41 @@
+package com.bakuard.nutritionManager.dal.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigInteger;
+
+/**
+ * Оценивает кол-во строк, возвращаемых запросом, по плану его выполнения (EXPLAIN), не выполняя сам запрос.
+ * Точность оценки зависит от актуальности статистики таблиц, которую собирает СУБД. Используется вместо
+ * count(*), если точное общее кол-во элементов выборки не требуется (см.
+ * {@link com.bakuard.nutritionManager.model.util.CountMode#ESTIMATED}).
+ */
+class RowCountEstimator {
+
+    private final JdbcTemplate statement;
+    private final ObjectMapper mapper;
+
+    public RowCountEstimator(JdbcTemplate statement) {
+        this.statement = statement;
+        this.mapper = new ObjectMapper();
+    }
+
+    /**
+     * Возвращает оценку кол-ва строк, которые вернет запрос query.
+     * @param query SQL запрос вида select ... from ... where ...
+     * @return оценка кол-ва строк. Не может быть отрицательной.
+     */
+    public BigInteger estimate(String query) {
+        String plan = statement.queryForObject("explain (format json) " + query, String.class);
+        try {
+            JsonNode rows = mapper.readTree(plan).path(0).path("Plan").path("Plan Rows");
+            return BigInteger.valueOf(Math.max(0, rows.asLong()));
+        } catch(JsonProcessingException e) {
+            throw new IllegalStateException("Fail to parse query plan: " + plan, e);
+        }
+    }
+
+}
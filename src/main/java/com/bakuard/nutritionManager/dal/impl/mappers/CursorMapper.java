@@ -0,0 +1,86 @@
+package com.bakuard.nutritionManager.dal.impl.mappers;
+
+import com.bakuard.nutritionManager.model.filters.Sort;
+import com.bakuard.nutritionManager.model.util.PageableByCursor;
+import com.bakuard.nutritionManager.validation.Constraint;
+import com.bakuard.nutritionManager.validation.Rule;
+import com.bakuard.nutritionManager.validation.ValidateException;
+import org.jooq.Condition;
+import org.jooq.Field;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+import static org.jooq.impl.DSL.*;
+
+public class CursorMapper {
+
+    public CursorMapper() {
+
+    }
+
+    public Condition toCondition(PageableByCursor pageable, Sort sort, String tableName, String idParam) {
+        if(pageable.isFirst()) return noCondition();
+
+        List<Sort.Param> params = new ArrayList<>(sort.getParameters());
+        params.add(new Sort.Param(idParam, true));
+
+        List<String> keys = pageable.getKeys();
+        if(keys.size() != params.size()) throw incorrectCursor(pageable, null);
+
+        List<Field<Object>> fields = new ArrayList<>();
+        List<Field<Object>> values = new ArrayList<>();
+        for(int i = 0; i < params.size(); i++) {
+            fields.add(field(tableName + "." + params.get(i).param()));
+            values.add(toValue(pageable, params.get(i).param(), keys.get(i)));
+        }
+
+        if(params.stream().allMatch(Sort.Param::isAscending)) {
+            return row(fields).gt(row(values));
+        }
+
+        Condition condition = noCondition();
+        for(int i = params.size() - 1; i >= 0; i--) {
+            Condition after = params.get(i).isAscending() ?
+                    fields.get(i).gt(values.get(i)) :
+                    fields.get(i).lt(values.get(i));
+            condition = i == params.size() - 1 ?
+                    after :
+                    after.or(fields.get(i).eq(values.get(i)).and(condition));
+        }
+        return condition;
+    }
+
+    public List<String> toKeys(Sort sort, Function<String, Object> valueByParam, UUID id) {
+        List<String> keys = new ArrayList<>();
+        sort.forEachParam(param -> keys.add(toKey(valueByParam.apply(param.param()))));
+        keys.add(id.toString());
+        return keys;
+    }
+
+
+    private String toKey(Object value) {
+        return value instanceof BigDecimal decimal ? decimal.toPlainString() : value.toString();
+    }
+
+    private Field<Object> toValue(PageableByCursor pageable, String param, String key) {
+        try {
+            return switch(param) {
+                case "price" -> inline((Object) new BigDecimal(key));
+                case "productId", "dishId", "menuId" -> inline((Object) UUID.fromString(key));
+                default -> inline((Object) key);
+            };
+        } catch(IllegalArgumentException e) {
+            throw incorrectCursor(pageable, e);
+        }
+    }
+
+    private ValidateException incorrectCursor(PageableByCursor pageable, Exception cause) {
+        return new ValidateException("Cursor doesn't match sort parameters: " + pageable, cause).
+                addReason(Rule.of("PageableByCursor.cursor", Rule.failure(Constraint.CORRECT_STRUCTURE)));
+    }
+
+}
@@ -8,7 +8,6 @@ import org.jooq.impl.DSL;
 import java.util.List;
 
 import static org.jooq.impl.DSL.*;
-import static org.jooq.impl.DSL.array;
 
 public class DishFilterMapper {
 
@@ -60,17 +59,14 @@ public class DishFilterMapper {
     }
 
     private Condition ingredientsFilter(AnyFilter filter) {
-        List<Param<String>> arrayData = filter.getValues().stream().
+        List<Param<String>> categories = filter.getValues().stream().
                 map(DSL::inline).
                 toList();
 
         return field("dishId").in(
-                select(field("DishIngredients.dishId")).
-                        from(table("DishIngredients")).
-                        where(
-                                "existProductsForFilter(?, DishIngredients.filterQuery)",
-                                array(arrayData)
-                        )
+                select(field("IngredientProductMatches.dishId")).
+                        from(table("IngredientProductMatches")).
+                        where(field("IngredientProductMatches.category").in(categories))
         );
     }
 
@@ -0,0 +1,13 @@
+package com.bakuard.nutritionManager.dal.projection;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+public record DishPriceSummary(UUID dishId,
+                               UUID userId,
+                               BigDecimal minPrice,
+                               BigDecimal maxPrice,
+                               BigDecimal averagePrice,
+                               int productsNumber,
+                               long version,
+                               boolean stale) {}
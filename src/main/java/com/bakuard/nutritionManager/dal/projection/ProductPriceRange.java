@@ -0,0 +1,5 @@
+package com.bakuard.nutritionManager.dal.projection;
+
+import com.bakuard.nutritionManager.model.Product;
+
+public record ProductPriceRange(Product cheapest, Product mostExpensive, int productsNumber) {}
@@ -23,28 +23,39 @@ import com.bakuard.nutritionManager.model.filters.AnyFilter;
 import com.bakuard.nutritionManager.model.filters.Filter;
 import com.bakuard.nutritionManager.model.filters.MinTagsFilter;
 import com.bakuard.nutritionManager.model.filters.Sort;
+import com.bakuard.nutritionManager.model.util.CountMode;
 import com.bakuard.nutritionManager.model.util.Page;
+import com.bakuard.nutritionManager.model.util.Pageable;
+import com.bakuard.nutritionManager.model.util.PageableByCursor;
 import com.bakuard.nutritionManager.model.util.PageableByNumber;
+import com.bakuard.nutritionManager.service.DishPriceSummaryService;
+import com.bakuard.nutritionManager.service.menuGenerator.GeneratedMenu;
 import com.bakuard.nutritionManager.service.menuGenerator.Input;
+import com.bakuard.nutritionManager.service.menuGenerator.MenuGenerationJob;
 import com.bakuard.nutritionManager.service.report.ReportService;
 import com.bakuard.nutritionManager.validation.Constraint;
 import com.bakuard.nutritionManager.validation.RuleException;
 import com.bakuard.nutritionManager.validation.ValidateException;
+import com.bakuard.nutritionManager.validation.Validator;
 import org.springframework.context.MessageSource;
 import org.springframework.context.i18n.LocaleContextHolder;
 import org.springframework.http.HttpStatus;
 
 import java.math.BigDecimal;
 import java.time.Clock;
+import java.time.Duration;
 import java.util.*;
 import java.util.stream.IntStream;
 
+import static com.bakuard.nutritionManager.validation.Rule.anyMatch;
+
 public class DtoMapper {
 
     private UserRepository userRepository;
     private ProductRepository productRepository;
     private DishRepository dishRepository;
     private MenuRepository menuRepository;
+    private DishPriceSummaryService dishPriceSummaryService;
     private ConfigData conf;
     private MessageSource messageSource;
     private Clock clock;
@@ -53,6 +64,7 @@ public class DtoMapper {
                      ProductRepository productRepository,
                      DishRepository dishRepository,
                      MenuRepository menuRepository,
+                     DishPriceSummaryService dishPriceSummaryService,
                      MessageSource messageSource,
                      ConfigData conf,
                      Clock clock) {
@@ -60,6 +72,7 @@ public class DtoMapper {
         this.productRepository = productRepository;
         this.dishRepository = dishRepository;
         this.menuRepository = menuRepository;
+        this.dishPriceSummaryService = dishPriceSummaryService;
         this.messageSource = messageSource;
         this.conf = conf;
         this.clock = clock;
@@ -192,6 +205,8 @@ public class DtoMapper {
 
     public Criteria toProductCriteria(int page,
                                       int size,
+                                      String cursor,
+                                      String countMode,
                                       UUID userId,
                                       String sortRule,
                                       boolean onlyFridge,
@@ -214,7 +229,8 @@ public class DtoMapper {
         else filter = Filter.and(filters);
 
         return new Criteria().
-                setPageable(PageableByNumber.of(size, page)).
+                setPageable(toPageable(page, size, cursor)).
+                setCountMode(toCountMode(countMode)).
                 setSort(Sort.products(sortRule)).
                 setFilter(filter);
     }
@@ -321,7 +337,14 @@ public class DtoMapper {
     }
 
     public Page<DishForListResponse> toDishesResponse(Page<Dish> dishes) {
-        return dishes.map(this::toDishForListResponse);
+        List<Dish> content = dishes.getContent();
+        List<Optional<BigDecimal>> averagePrices = dishPriceSummaryService.getAveragePrices(content);
+
+        return dishes.getMetadata().createPage(
+                IntStream.range(0, content.size()).
+                        mapToObj(i -> toDishForListResponse(content.get(i), averagePrices.get(i))).
+                        toList()
+        );
     }
 
     public DishProductsResponse toDishProductsResponse(UUID userId, UUID dishId, BigDecimal servingNumber) {
@@ -367,6 +390,8 @@ public class DtoMapper {
 
     public Criteria toDishCriteria(int page,
                                    int size,
+                                   String cursor,
+                                   String countMode,
                                    UUID userId,
                                    String sortRule,
                                    List<String> productCategories,
@@ -386,7 +411,8 @@ public class DtoMapper {
         else filter = Filter.and(filters);
 
         return new Criteria().
-                setPageable(PageableByNumber.of(size, page)).
+                setPageable(toPageable(page, size, cursor)).
+                setCountMode(toCountMode(countMode)).
                 setSort(Sort.dishes(sortRule)).
                 setFilter(filter);
     }
@@ -409,6 +435,28 @@ public class DtoMapper {
         return response;
     }
 
+    public GeneratedMenuResponse toGeneratedMenuResponse(GeneratedMenu generatedMenu) {
+        GeneratedMenuResponse response = new GeneratedMenuResponse();
+        response.setMenu(toMenuResponse(generatedMenu.menu()));
+        response.setOptimal(generatedMenu.optimal());
+        response.setOptimalityGap(generatedMenu.optimalityGap());
+        return response;
+    }
+
+    public MenuGenerationJobResponse toMenuGenerationJobResponse(MenuGenerationJob job) {
+        MenuGenerationJobResponse response = new MenuGenerationJobResponse();
+        response.setId(job.getId());
+        response.setMenuName(job.getMenuName());
+        response.setStage(job.getStage().name());
+        job.getResult().ifPresent(result -> response.setResult(toGeneratedMenuResponse(result)));
+        job.getError().ifPresent(error -> response.setError(
+                error instanceof ValidateException e ?
+                        toExceptionResponse(e) :
+                        toExceptionResponse(HttpStatus.INTERNAL_SERVER_ERROR, "internalServerError")
+        ));
+        return response;
+    }
+
     public Menu toMenu(UUID userId, MenuAddRequest dto) {
         User user = userRepository.tryGetById(userId);
 
@@ -446,7 +494,14 @@ public class DtoMapper {
     }
 
     public Page<MenuForListResponse> toMenusResponse(Page<Menu> menus) {
-        return menus.map(this::toMenuForListResponse);
+        List<Menu> content = menus.getContent();
+        List<Optional<BigDecimal>> averagePrices = Menu.getAveragePrices(content);
+
+        return menus.getMetadata().createPage(
+                IntStream.range(0, content.size()).
+                        mapToObj(i -> toMenuForListResponse(content.get(i), averagePrices.get(i))).
+                        toList()
+        );
     }
 
     public MenuFieldsResponse toMenuFieldsResponse(UUID userId) {
@@ -535,6 +590,8 @@ public class DtoMapper {
 
     public Criteria toMenuCriteria(int page,
                                    int size,
+                                   String cursor,
+                                   String countMode,
                                    UUID userId,
                                    String sortRule,
                                    List<String> dishNames,
@@ -554,7 +611,8 @@ public class DtoMapper {
         else filter = Filter.and(filters);
 
         return new Criteria().
-                setPageable(PageableByNumber.of(size, page)).
+                setPageable(toPageable(page, size, cursor)).
+                setCountMode(toCountMode(countMode)).
                 setSort(Sort.menus(sortRule)).
                 setFilter(filter);
     }
@@ -565,8 +623,11 @@ public class DtoMapper {
                 setGeneratedMenuName(dto.getMenuName()).
                 setMinMealsNumber(dto.getMinMealsNumber()).
                 setServingNumberPerMeal(dto.getServingNumberPerMeal()).
+                setSolver(dto.getSolver()).
+                setSolveBudget(Optional.ofNullable(dto.getSolveBudgetMillis()).map(Duration::ofMillis).orElse(null)).
                 setDishRepository(dishRepository).
-                setMenuRepository(menuRepository);
+                setMenuRepository(menuRepository).
+                setDishPriceSummaryService(dishPriceSummaryService);
 
         dto.getDishTagConstraints().ifPresent(tagConstraints ->
                 tagConstraints.forEach(tc ->
@@ -627,6 +688,10 @@ public class DtoMapper {
             httpStatus = HttpStatus.FORBIDDEN;
         } else if(e.containsConstraint(Constraint.ENTITY_MUST_EXISTS_IN_DB)) {
             httpStatus = HttpStatus.NOT_FOUND;
+        } else if(e.containsConstraint(Constraint.SOLUTION_FOUND_IN_TIME)) {
+            httpStatus = HttpStatus.SERVICE_UNAVAILABLE;
+        } else if(e.containsConstraint(Constraint.QUEUE_NOT_FULL)) {
+            httpStatus = HttpStatus.TOO_MANY_REQUESTS;
         }
 
         ExceptionResponse response = new ExceptionResponse(httpStatus, clock);
@@ -636,6 +701,20 @@ public class DtoMapper {
 
 
 
+    private Pageable toPageable(int page, int size, String cursor) {
+        return cursor == null ? PageableByNumber.of(size, page) : PageableByCursor.of(size, cursor);
+    }
+
+    private CountMode toCountMode(String countMode) {
+        if(countMode == null) return CountMode.EXACT;
+
+        Validator.check("CountMode",
+                anyMatch(List.of("exact", "estimated", "none"), mode -> mode.equalsIgnoreCase(countMode))
+        );
+
+        return CountMode.valueOf(countMode.toUpperCase());
+    }
+
     private ConstraintResponse toConstraintResponse(RuleException ruleException) {
         ConstraintResponse dto = new ConstraintResponse();
         dto.setTitle(getMessage("constraintTitle", "Reason"));
@@ -691,14 +770,14 @@ public class DtoMapper {
         return response;
     }
 
-    private DishForListResponse toDishForListResponse(Dish dish) {
+    private DishForListResponse toDishForListResponse(Dish dish, Optional<BigDecimal> averagePrice) {
         DishForListResponse response = new DishForListResponse();
         response.setId(dish.getId());
         response.setImageUrl(dish.getImageUrl());
         response.setName(dish.getName());
         response.setServingSize(dish.getServingSize());
         response.setUnit(dish.getUnit());
-        response.setAveragePrice(dish.getAveragePrice().orElse(null));
+        response.setAveragePrice(averagePrice.orElse(null));
         response.setTags(toTagsResponse(dish.getTags()));
         return response;
     }
@@ -847,11 +926,11 @@ public class DtoMapper {
                 setUserId(userId);
     }
 
-    private MenuForListResponse toMenuForListResponse(Menu menu) {
+    private MenuForListResponse toMenuForListResponse(Menu menu, Optional<BigDecimal> averagePrice) {
         MenuForListResponse response = new MenuForListResponse();
         response.setId(menu.getId());
         response.setName(menu.getName());
-        response.setAveragePrice(menu.getAveragePrice().orElse(null));
+        response.setAveragePrice(averagePrice.orElse(null));
         response.setImageUrl(menu.getImageUrl());
         response.setItems(
                 IntStream.range(0, menu.getMenuItemNumbers()).
@@ -39,6 +39,17 @@ public class GenerateMenuRequest {
             пустым или иметь значение null.
             """)
     private List<GenerateMenuDishTagRequest> dishTagConstraints;
+    @Schema(description = """
+            Решатель, используемый для подбора меню. Допустимые значения: ssc, branchAndBound. Если не
+            указан - используется решатель заданный в настройках приложения.
+            """)
+    private String solver;
+    @Schema(description = """
+            Максимальное время подбора меню в миллисекундах. Если не указано или превышает время заданное в
+            настройках приложения - используется время заданное в настройках приложения. Ограничения: <br/>
+            1. Если указано - должно быть больше нуля. <br/>
+            """)
+    private Long solveBudgetMillis;
 
     public GenerateMenuRequest() {
 
@@ -84,6 +95,22 @@ public class GenerateMenuRequest {
         this.dishTagConstraints = dishTagConstraints;
     }
 
+    public String getSolver() {
+        return solver;
+    }
+
+    public void setSolver(String solver) {
+        this.solver = solver;
+    }
+
+    public Long getSolveBudgetMillis() {
+        return solveBudgetMillis;
+    }
+
+    public void setSolveBudgetMillis(Long solveBudgetMillis) {
+        this.solveBudgetMillis = solveBudgetMillis;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -93,13 +120,15 @@ public class GenerateMenuRequest {
                 Objects.equals(menuName, that.menuName) &&
                 Objects.equals(servingNumberPerMeal, that.servingNumberPerMeal) &&
                 Objects.equals(productConstraints, that.productConstraints) &&
-                Objects.equals(dishTagConstraints, that.dishTagConstraints);
+                Objects.equals(dishTagConstraints, that.dishTagConstraints) &&
+                Objects.equals(solver, that.solver) &&
+                Objects.equals(solveBudgetMillis, that.solveBudgetMillis);
     }
 
     @Override
     public int hashCode() {
         return Objects.hash(menuName, minMealsNumber, servingNumberPerMeal,
-                productConstraints, dishTagConstraints);
+                productConstraints, dishTagConstraints, solver, solveBudgetMillis);
     }
 
     @Override
@@ -110,6 +139,8 @@ public class GenerateMenuRequest {
                 ", servingNumberPerMeal=" + servingNumberPerMeal +
                 ", productConstraints=" + productConstraints +
                 ", dishTagConstraints=" + dishTagConstraints +
+                ", solver='" + solver + '\'' +
+                ", solveBudgetMillis=" + solveBudgetMillis +
                 '}';
     }
 
@@ -0,0 +1,85 @@
+package com.bakuard.nutritionManager.dto.menus;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.math.BigDecimal;
+import java.util.Objects;
+
+@Schema(description = """
+        Возвращаемые данные о сгенерированном меню.
+        """)
+public class GeneratedMenuResponse {
+
+    @Schema(description = "Поле указывающее тип данного объекта. Всегда имеет значение GeneratedMenu.")
+    private String type;
+    @Schema(description = "Сгенерированное меню.")
+    private MenuResponse menu;
+    @Schema(description = """
+            true - если сгенерированное меню имеет минимальную стоимость среди всех меню удовлетворяющих
+             заданным ограничениям, false - если время отведенное на генерацию меню истекло раньше и возвращено
+             лучшее из найденных к этому моменту меню.
+            """)
+    private boolean optimal;
+    @Schema(description = """
+            Относительная разница между стоимостью сгенерированного меню и нижней оценкой стоимости
+             оптимального меню (значение от 0 до 1). Для оптимального меню равна нулю.
+            """)
+    private BigDecimal optimalityGap;
+
+    public GeneratedMenuResponse() {
+        type = "GeneratedMenu";
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public MenuResponse getMenu() {
+        return menu;
+    }
+
+    public void setMenu(MenuResponse menu) {
+        this.menu = menu;
+    }
+
+    public boolean isOptimal() {
+        return optimal;
+    }
+
+    public void setOptimal(boolean optimal) {
+        this.optimal = optimal;
+    }
+
+    public BigDecimal getOptimalityGap() {
+        return optimalityGap;
+    }
+
+    public void setOptimalityGap(BigDecimal optimalityGap) {
+        this.optimalityGap = optimalityGap;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        GeneratedMenuResponse that = (GeneratedMenuResponse) o;
+        return optimal == that.optimal &&
+                Objects.equals(menu, that.menu) &&
+                Objects.equals(optimalityGap, that.optimalityGap);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(menu, optimal, optimalityGap);
+    }
+
+    @Override
+    public String toString() {
+        return "GeneratedMenuResponse{" +
+                "menu=" + menu +
+                ", optimal=" + optimal +
+                ", optimalityGap=" + optimalityGap +
+                '}';
+    }
+
+}
@@ -0,0 +1,109 @@
+package com.bakuard.nutritionManager.dto.menus;
+
+import com.bakuard.nutritionManager.dto.exceptions.ExceptionResponse;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.Objects;
+import java.util.UUID;
+
+@Schema(description = """
+        Возвращаемые данные о задаче генерации меню.
+        """)
+public class MenuGenerationJobResponse {
+
+    @Schema(description = "Поле указывающее тип данного объекта. Всегда имеет значение MenuGenerationJob.")
+    private String type;
+    @Schema(description = "Уникальный идентификатор задачи.")
+    private UUID id;
+    @Schema(description = "Наименование генерируемого меню.")
+    private String menuName;
+    @Schema(description = """
+            Текущий этап выполнения задачи. Допустимые значения: QUEUED, LOADING, PRESOLVE, SOLVING, DONE,
+             FAILED, CANCELLED.
+            """)
+    private String stage;
+    @Schema(description = "Сгенерированное меню. Имеет значение null, если этап выполнения задачи не DONE.")
+    private GeneratedMenuResponse result;
+    @Schema(description = """
+            Причины, по которым не удалось сгенерировать меню. Имеет значение null, если этап выполнения
+             задачи не FAILED.
+            """)
+    private ExceptionResponse error;
+
+    public MenuGenerationJobResponse() {
+        type = "MenuGenerationJob";
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
+    public String getMenuName() {
+        return menuName;
+    }
+
+    public void setMenuName(String menuName) {
+        this.menuName = menuName;
+    }
+
+    public String getStage() {
+        return stage;
+    }
+
+    public void setStage(String stage) {
+        this.stage = stage;
+    }
+
+    public GeneratedMenuResponse getResult() {
+        return result;
+    }
+
+    public void setResult(GeneratedMenuResponse result) {
+        this.result = result;
+    }
+
+    public ExceptionResponse getError() {
+        return error;
+    }
+
+    public void setError(ExceptionResponse error) {
+        this.error = error;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        MenuGenerationJobResponse that = (MenuGenerationJobResponse) o;
+        return Objects.equals(id, that.id) &&
+                Objects.equals(menuName, that.menuName) &&
+                Objects.equals(stage, that.stage) &&
+                Objects.equals(result, that.result) &&
+                Objects.equals(error, that.error);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, menuName, stage, result, error);
+    }
+
+    @Override
+    public String toString() {
+        return "MenuGenerationJobResponse{" +
+                "id=" + id +
+                ", menuName='" + menuName + '\'' +
+                ", stage='" + stage + '\'' +
+                ", result=" + result +
+                ", error=" + error +
+                '}';
+    }
+
+}
@@ -3,9 +3,11 @@ package com.bakuard.nutritionManager.model;
 import com.bakuard.nutritionManager.config.configData.ConfigData;
 import com.bakuard.nutritionManager.dal.Criteria;
 import com.bakuard.nutritionManager.dal.ProductRepository;
+import com.bakuard.nutritionManager.dal.projection.ProductPriceRange;
 import com.bakuard.nutritionManager.model.filters.Filter;
 import com.bakuard.nutritionManager.model.filters.Sort;
 import com.bakuard.nutritionManager.model.filters.UserFilter;
+import com.bakuard.nutritionManager.model.util.FixedPointPricing;
 import com.bakuard.nutritionManager.model.util.Page;
 import com.bakuard.nutritionManager.model.util.PageableById;
 import com.bakuard.nutritionManager.model.util.PageableByNumber;
@@ -18,6 +20,7 @@ import java.net.URL;
 import java.util.*;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import static com.bakuard.nutritionManager.validation.Rule.*;
 
@@ -432,10 +435,12 @@ public class Dish implements Entity<Dish> {
      *         2. Если один из элементов constraints имеет значение null. <br/>
      */
     public List<IngredientProduct> getProductForEachIngredient(List<ProductConstraint> constraints) {
-        return checkAndCorrectConstraints(constraints).
-                stream().
-                map(c -> getProduct(c.ingredientIndex(), c.productIndex()).orElseThrow()).
-                toList();
+        Validator.check(
+                "Dish.constrains",
+                notNull(constraints).and(() -> notContainsNull(constraints))
+        );
+
+        return getProductForEachIngredient(List.of(this), List.of(constraints)).get(0);
     }
 
     /**
@@ -670,9 +675,7 @@ public class Dish implements Entity<Dish> {
 
         List<ProductGroup> groups = groupByProduct(ingredients);
 
-        return groups.stream().
-                map(value -> getLackPackageQuantityPrice(value, servingNumber)).
-                reduce(BigDecimal::add);
+        return calculateLackPackagesPrice(groups, servingNumber);
     }
 
     /**
@@ -695,13 +698,18 @@ public class Dish implements Entity<Dish> {
     /**
      * Возвращает кол-во всех возможных комбинаций состава данного блюда. Если для данного блюда не было
      * указанно ни одного ингредиента или любому ингредиенту не соответствует ни один продукт - возвращает 0.
+     * Кол-во продуктов всех ингредиентов запрашивается одним обращением к {@link ProductRepository}.
      * @return кол-во всех возможных комбинаций состава данного блюда.
      */
     public BigInteger getNumberIngredientCombinations() {
-        return IntStream.range(0, ingredients.size()).
-                map(i -> getProductsNumber(i).orElseThrow()).
-                filter(i -> i > 0).
-                mapToObj(BigInteger::valueOf).
+        if(ingredients.isEmpty()) return BigInteger.ZERO;
+
+        List<Criteria> criteria = IntStream.range(0, ingredients.size()).
+                mapToObj(i -> getProductCriteria(new ProductConstraint(i, 0))).
+                toList();
+        return productRepository.getProductPages(criteria).stream().
+                map(page -> page.getMetadata().getTotalItems()).
+                filter(productsNumber -> productsNumber.signum() > 0).
                 reduce(BigInteger::multiply).
                 orElse(BigInteger.ZERO);
     }
@@ -716,15 +724,7 @@ public class Dish implements Entity<Dish> {
      * @return минимально возможная стоимость данного блюда.
      */
     public Optional<BigDecimal> getMinPrice() {
-        List<ProductConstraint> constraints = IntStream.range(0, getIngredientNumber()).
-                        mapToObj(i -> new ProductConstraint(i, 0)).
-                        toList();
-
-        List<IngredientProduct> ingredientProducts = getProductForEachIngredient(constraints);
-
-        return groupByProduct(ingredientProducts).stream().
-                map(value -> getNecessaryPackageQuantityPrice(value, BigDecimal.ONE)).
-                reduce(BigDecimal::add);
+        return calculatePrice(getProductPriceRanges(List.of(this)).get(0), false);
     }
 
     /**
@@ -737,28 +737,7 @@ public class Dish implements Entity<Dish> {
      * @return максимально возможная стоимость данного блюда.
      */
     public Optional<BigDecimal> getMaxPrice() {
-        /*
-         * Если в метод getProduct(ingredientIndex, productIndex) в качестве productIndex передать
-         * значение, которое больше или равно кол-ву всех продуктов соответствующих указанному
-         * ингредиенту - то метод вернет последний из продуктов. Здесь мы берем заведомо большее
-         * значение для productIndex, чтобы получить последний продукт.
-         */
-        List<IngredientProduct> ingredientProducts = IntStream.range(0, getIngredientNumber()).
-                mapToObj(ingredientIndex -> {
-                    DishIngredient ingredient = ingredients.get(ingredientIndex);
-                    int productIndex = 100000;
-
-                    Page<Product> page = getProductPageBy(ingredient, productIndex);
-                    Optional<Product> product = page.getByGlobalIndex(
-                            page.getMetadata().getTotalItems().subtract(BigInteger.ONE)
-                    );
-                    return new IngredientProduct(product, ingredient.getId(), ingredientIndex, productIndex);
-                }).
-                toList();
-
-        return groupByProduct(ingredientProducts).stream().
-                map(value -> getNecessaryPackageQuantityPrice(value, BigDecimal.ONE)).
-                reduce(BigDecimal::add);
+        return calculatePrice(getProductPriceRanges(List.of(this)).get(0), true);
     }
 
     /**
@@ -771,10 +750,55 @@ public class Dish implements Entity<Dish> {
      * @return средняя стоимость данного блюда.
      */
     public Optional<BigDecimal> getAveragePrice() {
-        Optional<BigDecimal> max = getMaxPrice();
-        Optional<BigDecimal> min = getMinPrice();
-        Optional<BigDecimal> sum = min.map(vMin -> vMin.add(max.orElseThrow()));
-        return sum.map(vSum -> vSum.divide(new BigDecimal(2), config.decimal().mathContext()));
+        return calculateAveragePrice(getProductPriceRanges(List.of(this)).get(0));
+    }
+
+    /**
+     * Пакетный вариант метода {@link #getAveragePrice()}: возвращает среднюю стоимость одной порции для
+     * каждого из указанных блюд. Элемент итогового списка соответствует блюду с тем же индексом. Данные о
+     * продуктах для всех ингредиентов всех блюд запрашиваются одним обращением к {@link ProductRepository}.
+     * Если dishes пуст - возвращает пустой список.
+     * @param dishes блюда, для которых рассчитывается средняя стоимость.
+     * @return средняя стоимость каждого из блюд.
+     * @throws ValidateException если dishes или один из его элементов имеет значение null.
+     */
+    public static List<Optional<BigDecimal>> getAveragePrices(List<Dish> dishes) {
+        Validator.check("Dish.dishes", notNull(dishes).and(() -> notContainsNull(dishes)));
+
+        List<List<Optional<ProductPriceRange>>> priceRanges = getProductPriceRanges(dishes);
+        return IntStream.range(0, dishes.size()).
+                mapToObj(i -> dishes.get(i).calculateAveragePrice(priceRanges.get(i))).
+                toList();
+    }
+
+    /**
+     * Возвращает для каждого из указанных блюд минимальную, максимальную и среднюю стоимость одной порции,
+     * а также кол-во подходящих ингредиентам блюда продуктов. Элемент итогового списка соответствует блюду с
+     * тем же индексом. Данные о продуктах для всех ингредиентов всех блюд запрашиваются одним обращением к
+     * {@link ProductRepository}. Если dishes пуст - возвращает пустой список.
+     * @param dishes блюда, для которых рассчитывается стоимость.
+     * @return данные о стоимости каждого из блюд.
+     * @throws ValidateException если dishes или один из его элементов имеет значение null.
+     */
+    public static List<Prices> getPrices(List<Dish> dishes) {
+        Validator.check("Dish.dishes", notNull(dishes).and(() -> notContainsNull(dishes)));
+
+        List<List<Optional<ProductPriceRange>>> priceRanges = getProductPriceRanges(dishes);
+        return IntStream.range(0, dishes.size()).
+                mapToObj(i -> {
+                    Dish dish = dishes.get(i);
+                    List<Optional<ProductPriceRange>> dishPriceRanges = priceRanges.get(i);
+                    return new Prices(
+                            dish.calculatePrice(dishPriceRanges, false),
+                            dish.calculatePrice(dishPriceRanges, true),
+                            dish.calculateAveragePrice(dishPriceRanges),
+                            dishPriceRanges.stream().
+                                    flatMap(Optional::stream).
+                                    mapToInt(ProductPriceRange::productsNumber).
+                                    sum()
+                    );
+                }).
+                toList();
     }
 
     /**
@@ -812,26 +836,237 @@ public class Dish implements Entity<Dish> {
     }
 
 
-    private List<ProductConstraint> checkAndCorrectConstraints(List<ProductConstraint> constraints) {
-        Validator.check(
-                "Dish.constrains", 
-                notNull(constraints).and(() -> notContainsNull(constraints))
-        );
+    /**
+     * Пакетный вариант метода {@link #getProductForEachIngredient(List)} для нескольких блюд сразу: элемент
+     * итогового списка с индексом i содержит результат для блюда dishes[i] и ограничений constraints[i].
+     * Продукты для всех ингредиентов всех блюд запрашиваются одним обращением к {@link ProductRepository}.
+     * Метод не проверяет входные данные - это должен делать вызывающий код.
+     */
+    static List<List<IngredientProduct>> getProductForEachIngredient(List<Dish> dishes,
+                                                                     List<List<ProductConstraint>> constraints) {
+        /*
+         * Для каждого ингредиента перебираются все подходящие ему ограничения (в порядке их следования) и, в конце,
+         * самый дешевый продукт.
+         */
+        List<List<ProductConstraint>> candidates = IntStream.range(0, dishes.size()).
+                mapToObj(dishIndex -> IntStream.range(0, dishes.get(dishIndex).ingredients.size()).
+                        boxed().
+                        flatMap(ingredientIndex -> Stream.concat(
+                                constraints.get(dishIndex).stream().
+                                        filter(c -> c.ingredientIndex() == ingredientIndex && c.productIndex() >= 0),
+                                Stream.of(new ProductConstraint(ingredientIndex, 0))
+                        ).distinct()).
+                        toList()).
+                toList();
+
+        List<Criteria> criteria = IntStream.range(0, dishes.size()).
+                boxed().
+                flatMap(dishIndex -> candidates.get(dishIndex).stream().
+                        map(c -> dishes.get(dishIndex).getProductCriteria(c))).
+                toList();
+        if(criteria.isEmpty()) return dishes.stream().map(dish -> List.<IngredientProduct>of()).toList();
+
+        List<Page<Product>> pages = dishes.get(0).productRepository.getProductPages(criteria);
+
+        List<List<IngredientProduct>> result = new ArrayList<>();
+        int offset = 0;
+        for(int dishIndex = 0; dishIndex < dishes.size(); dishIndex++) {
+            List<ProductConstraint> dishCandidates = candidates.get(dishIndex);
+            result.add(
+                    dishes.get(dishIndex).selectProducts(
+                            dishCandidates,
+                            pages.subList(offset, offset + dishCandidates.size())
+                    )
+            );
+            offset += dishCandidates.size();
+        }
+        return result;
+    }
+
+    /**
+     * Возвращает диапазон цен продуктов для каждого ингредиента каждого из блюд dishes: элемент итогового
+     * списка с индексом i содержит данные для ингредиентов блюда dishes[i]. Данные для всех ингредиентов
+     * всех блюд запрашиваются одним обращением к {@link ProductRepository}.
+     */
+    static List<List<Optional<ProductPriceRange>>> getProductPriceRanges(List<Dish> dishes) {
+        List<Filter> filters = dishes.stream().
+                flatMap(dish -> dish.ingredients.stream()).
+                map(DishIngredient::getFilter).
+                toList();
+        if(filters.isEmpty()) return dishes.stream().map(dish -> List.<Optional<ProductPriceRange>>of()).toList();
+
+        List<Optional<ProductPriceRange>> priceRanges = dishes.get(0).productRepository.getProductPriceRanges(filters);
+
+        List<List<Optional<ProductPriceRange>>> result = new ArrayList<>();
+        int offset = 0;
+        for(Dish dish : dishes) {
+            result.add(priceRanges.subList(offset, offset + dish.ingredients.size()));
+            offset += dish.ingredients.size();
+        }
+        return result;
+    }
+
+    private Criteria getProductCriteria(ProductConstraint candidate) {
+        return new Criteria().
+                setPageable(PageableByNumber.ofIndex(1, candidate.productIndex())).
+                setSort(ingredientProductsSort).
+                setFilter(ingredients.get(candidate.ingredientIndex()).getFilter());
+    }
 
+    private List<IngredientProduct> selectProducts(List<ProductConstraint> candidates, List<Page<Product>> pages) {
         return IntStream.range(0, ingredients.size()).
                 mapToObj(ingredientIndex -> {
-                    int productIndex = constraints.stream().
-                            filter(c -> c.ingredientIndex() == ingredientIndex).
-                            mapToInt(ProductConstraint::productIndex).
-                            filter(pIndex -> pIndex >= 0 && pIndex < getProductsNumber(ingredientIndex).orElseThrow()).
+                    UUID ingredientId = ingredients.get(ingredientIndex).getId();
+
+                    return IntStream.range(0, candidates.size()).
+                            filter(i -> candidates.get(i).ingredientIndex() == ingredientIndex).
+                            filter(i -> BigInteger.valueOf(candidates.get(i).productIndex()).
+                                    compareTo(pages.get(i).getMetadata().getTotalItems()) < 0).
+                            mapToObj(i -> new IngredientProduct(
+                                    pages.get(i).getByGlobalIndex(candidates.get(i).productIndex()),
+                                    ingredientId,
+                                    ingredientIndex,
+                                    candidates.get(i).productIndex()
+                            )).
                             findFirst().
-                            orElse(0);
-
-                    return new ProductConstraint(ingredientIndex, productIndex);
+                            orElseGet(() -> new IngredientProduct(Optional.empty(), ingredientId, ingredientIndex, 0));
                 }).
                 toList();
     }
 
+    private Optional<BigDecimal> calculateAveragePrice(List<Optional<ProductPriceRange>> priceRanges) {
+        Optional<BigDecimal> max = calculatePrice(priceRanges, true);
+        Optional<BigDecimal> min = calculatePrice(priceRanges, false);
+        if(min.isEmpty()) return Optional.empty();
+
+        FixedPointPricing pricing = new FixedPointPricing(config.decimal());
+        if(pricing.isApplicable() &&
+                min.get().scale() == pricing.scale() &&
+                max.orElseThrow().scale() == pricing.scale()) {
+            try {
+                return Optional.of(pricing.average(pricing.toUnscaled(min.get()), pricing.toUnscaled(max.get())));
+            } catch(ArithmeticException e) {
+                /* значение не может быть рассчитано без округления - используется BigDecimal */
+            }
+        }
+
+        Optional<BigDecimal> sum = min.map(vMin -> vMin.add(max.orElseThrow()));
+        return sum.map(vSum -> vSum.divide(new BigDecimal(2), config.decimal().mathContext()));
+    }
+
+    private Optional<BigDecimal> calculatePrice(List<Optional<ProductPriceRange>> priceRanges, boolean mostExpensive) {
+        List<IngredientProduct> ingredientProducts = IntStream.range(0, ingredients.size()).
+                mapToObj(ingredientIndex -> new IngredientProduct(
+                        priceRanges.get(ingredientIndex).
+                                map(range -> mostExpensive ? range.mostExpensive() : range.cheapest()),
+                        ingredients.get(ingredientIndex).getId(),
+                        ingredientIndex,
+                        priceRanges.get(ingredientIndex).
+                                map(range -> mostExpensive ? range.productsNumber() - 1 : 0).
+                                orElse(0)
+                )).
+                toList();
+
+        return calculateNecessaryPackagesPrice(groupByProduct(ingredientProducts), BigDecimal.ONE);
+    }
+
+    /*
+     * Суммарная стоимость необходимого кол-ва упаковок всех продуктов. Сначала расчет выполняется над
+     * числами с фиксированной точкой (см. FixedPointPricing), и только если это невозможно без округления -
+     * над BigDecimal. Результаты обоих способов совпадают.
+     */
+    private Optional<BigDecimal> calculateNecessaryPackagesPrice(List<ProductGroup> groups,
+                                                                 BigDecimal servingNumber) {
+        FixedPointPricing pricing = new FixedPointPricing(config.decimal());
+        if(!groups.isEmpty() && pricing.isApplicable()) {
+            try {
+                long serving = pricing.toUnscaledWithOwnScale(servingNumber);
+                int quantityScale = pricing.scale() + servingNumber.scale();
+                long total = 0;
+                for(ProductGroup group : groups) {
+                    ProductContext context = group.product().getContext();
+                    long packages = pricing.packagesNumber(
+                            calculateNecessaryQuantity(pricing, group, serving),
+                            quantityScale,
+                            pricing.toUnscaled(context.getPackingSize())
+                    );
+                    total = Math.addExact(total, pricing.multiply(pricing.toUnscaled(context.getPrice()), packages));
+                }
+                return Optional.of(pricing.toBigDecimal(total, pricing.scale()));
+            } catch(ArithmeticException e) {
+                /* значение не может быть рассчитано без округления - используется BigDecimal */
+            }
+        }
+
+        return groups.stream().
+                map(value -> getNecessaryPackageQuantityPrice(value, servingNumber)).
+                reduce(BigDecimal::add);
+    }
+
+    /*
+     * Суммарная стоимость недостающего кол-ва упаковок всех продуктов. Сначала расчет выполняется над
+     * числами с фиксированной точкой (см. FixedPointPricing), и только если это невозможно без округления -
+     * над BigDecimal. Результаты обоих способов совпадают, включая масштаб итогового значения.
+     */
+    private Optional<BigDecimal> calculateLackPackagesPrice(List<ProductGroup> groups,
+                                                            BigDecimal servingNumber) {
+        FixedPointPricing pricing = new FixedPointPricing(config.decimal());
+        if(!groups.isEmpty() && pricing.isApplicable()) {
+            try {
+                long serving = pricing.toUnscaledWithOwnScale(servingNumber);
+                int quantityScale = pricing.scale() + servingNumber.scale();
+                long total = 0;
+                int totalScale = pricing.scale();
+                for(ProductGroup group : groups) {
+                    Product product = group.product();
+                    long lack = Math.subtractExact(
+                            calculateNecessaryQuantity(pricing, group, serving),
+                            pricing.align(pricing.toUnscaled(product.getQuantity()), pricing.scale(), quantityScale)
+                    );
+                    if(lack > 0) {
+                        long packages = pricing.packagesNumber(
+                                lack,
+                                quantityScale,
+                                pricing.toUnscaled(product.getContext().getPackingSize())
+                        );
+                        total = Math.addExact(
+                                total,
+                                pricing.multiply(pricing.toUnscaled(product.getContext().getPrice()), packages)
+                        );
+                    } else if(lack == 0) {
+                        totalScale = Math.max(totalScale, pricing.scale() + quantityScale);
+                    }
+                }
+                return Optional.of(pricing.toBigDecimal(
+                        pricing.align(total, pricing.scale(), totalScale),
+                        totalScale
+                ));
+            } catch(ArithmeticException e) {
+                /* значение не может быть рассчитано без округления - используется BigDecimal */
+            }
+        }
+
+        return groups.stream().
+                map(value -> getLackPackageQuantityPrice(value, servingNumber)).
+                reduce(BigDecimal::add);
+    }
+
+    /*
+     * Аналог getNecessaryQuantity(ProductGroup, BigDecimal) над числами с фиксированной точкой.
+     * Масштаб результата - сумма pricing.scale() и масштаба кол-ва порций.
+     */
+    private long calculateNecessaryQuantity(FixedPointPricing pricing, ProductGroup group, long serving) {
+        long result = 0;
+        for(IngredientProduct ingredientProduct : group.ingredients()) {
+            DishIngredient ingredient = ingredients.get(ingredientProduct.ingredientIndex());
+            result = Math.addExact(
+                    result,
+                    pricing.multiply(pricing.toUnscaled(ingredient.getNecessaryQuantity(BigDecimal.ONE)), serving)
+            );
+        }
+        return result;
+    }
+
     private BigDecimal calculateNecessaryQuantityInUnits(IngredientProduct ingredientProduct, BigDecimal servingNumber) {
         return ingredients.get(ingredientProduct.ingredientIndex()).getNecessaryQuantity(servingNumber);
     }
@@ -904,6 +1139,18 @@ public class Dish implements Entity<Dish> {
      */
     public record ProductGroup(Product product, List<IngredientProduct> ingredients) {}
 
+    /**
+     * Данные о стоимости одной порции блюда (см. {@link #getPrices(List)}).
+     * @param minPrice минимальная стоимость порции блюда (см. {@link #getMinPrice()}).
+     * @param maxPrice максимальная стоимость порции блюда (см. {@link #getMaxPrice()}).
+     * @param averagePrice средняя стоимость порции блюда (см. {@link #getAveragePrice()}).
+     * @param productsNumber суммарное по всем ингредиентам блюда кол-во подходящих им продуктов.
+     */
+    public record Prices(Optional<BigDecimal> minPrice,
+                         Optional<BigDecimal> maxPrice,
+                         Optional<BigDecimal> averagePrice,
+                         int productsNumber) {}
+
     /**
      * Реализация паттерна "Builder" для блюда ({@link Dish}).
      */
@@ -1,11 +1,11 @@
 package com.bakuard.nutritionManager.model;
 
 import com.bakuard.nutritionManager.config.configData.ConfigData;
-import com.bakuard.nutritionManager.model.util.Page;
+import com.bakuard.nutritionManager.dal.projection.ProductPriceRange;
+import com.bakuard.nutritionManager.model.util.FixedPointPricing;
 import com.bakuard.nutritionManager.validation.*;
 
 import java.math.BigDecimal;
-import java.math.BigInteger;
 import java.math.RoundingMode;
 import java.net.URL;
 import java.util.*;
@@ -169,7 +169,8 @@ public class Menu implements Entity<Menu> {
      * 3. Если некоторое блюдо этого меню не содержит ни одного ингредиента - то для этого блюда не будет добавлен
      *    ни один элемент в итоговый список. <br/>
      * 4. Если {@link ProductConstraint#dishName()} одного из элементов указывает на блюдо, которого нет в данном
-     *    меню - этот элемент будет отброшен и не будет принимать участия в формировании конечного результата. <br/>
+     *    меню или имеет значение null - этот элемент будет отброшен и не будет принимать участия в формировании
+     *    конечного результата. <br/>
      * 5. Если {@link ProductConstraint#ingredientIndex()} некоторого элемента < 0 - этот элемент будет отброшен
      *    и не будет принимать участия в формировании конечного результата. <br/>
      * 6. Если {@link ProductConstraint#ingredientIndex()} некоторого элемента >= кол-во всех ингредиентов
@@ -199,26 +200,31 @@ public class Menu implements Entity<Menu> {
                 "Menu.constrains", notNull(constraints).and(() -> notContainsNull(constraints))
         );
 
-        ArrayList<MenuItemProduct> result = new ArrayList<>();
-        for(int itemIndex = 0; itemIndex < items.size(); itemIndex++) {
-            Dish dish = items.get(itemIndex).getDish();
-            for(int i = 0; i < dish.getIngredientNumber(); i++) {
-                final int ingredientIndex = i;
-                int productIndex = constraints.stream().
-                        filter(c -> c.ingredientIndex() == ingredientIndex && dish.getName().equals(c.dishName())).
-                        mapToInt(ProductConstraint::productIndex).
-                        filter(pIndex -> pIndex >= 0 && pIndex < dish.getProductsNumber(ingredientIndex).orElseThrow()).
-                        findFirst().
-                        orElse(0);
-
-                Dish.IngredientProduct product = dish.getProduct(ingredientIndex, productIndex).orElseThrow();
-
-                MenuItemProduct menuItemProduct = new MenuItemProduct(
-                        product.product(), itemIndex, ingredientIndex, productIndex);
-                result.add(menuItemProduct);
-            }
-        }
-        return result;
+        Map<String, List<Dish.ProductConstraint>> constraintsByDish = constraints.stream().
+                filter(c -> c.dishName() != null).
+                collect(Collectors.groupingBy(
+                        ProductConstraint::dishName,
+                        Collectors.mapping(
+                                c -> new Dish.ProductConstraint(c.ingredientIndex(), c.productIndex()),
+                                Collectors.toList()
+                        )
+                ));
+
+        List<List<Dish.IngredientProduct>> ingredientProducts = Dish.getProductForEachIngredient(
+                items.stream().map(MenuItem::getDish).toList(),
+                items.stream().map(item -> constraintsByDish.getOrDefault(item.getDishName(), List.of())).toList()
+        );
+
+        return IntStream.range(0, items.size()).
+                boxed().
+                flatMap(itemIndex -> ingredientProducts.get(itemIndex).stream().
+                        map(product -> new MenuItemProduct(
+                                product.product(),
+                                itemIndex,
+                                product.ingredientIndex(),
+                                product.productIndex()
+                        ))).
+                toList();
     }
 
     /**
@@ -470,9 +476,7 @@ public class Menu implements Entity<Menu> {
 
         List<ProductGroup> groups = groupByProduct(products);
 
-        return groups.stream().
-                map(value -> getLackPackageQuantityPrice(value, menuNumber)).
-                reduce(BigDecimal::add);
+        return calculateLackPackagesPrice(groups, menuNumber);
     }
 
     /**
@@ -486,20 +490,7 @@ public class Menu implements Entity<Menu> {
      * @return минимально возможная стоимость данного меню.
      */
     public Optional<BigDecimal> getMinPrice() {
-        List<ProductConstraint> constraints = items.stream().
-                flatMap(item -> {
-                    String dishName = item.getDishName();
-                    return IntStream.range(0, item.getDish().getIngredientNumber()).
-                            mapToObj(ingredientIndex ->
-                                    new Menu.ProductConstraint(dishName, ingredientIndex, 0));
-                }).
-                toList();
-
-        List<MenuItemProduct> menuItems = getMenuItemProducts(constraints);
-
-        return groupByProduct(menuItems).stream().
-                map(value -> getNecessaryPackageQuantityPrice(value, BigDecimal.ONE)).
-                reduce(BigDecimal::add);
+        return calculatePrice(getProductPriceRanges(), false);
     }
 
     /**
@@ -513,33 +504,7 @@ public class Menu implements Entity<Menu> {
      * @return максимально возможная стоимость данного меню.
      */
     public Optional<BigDecimal> getMaxPrice() {
-        List<MenuItemProduct> menuItems = new ArrayList<>();
-        for(int itemIndex = 0; itemIndex < items.size(); itemIndex++) {
-            Dish dish = items.get(itemIndex).getDish();
-            for(int ingredientIndex = 0; ingredientIndex < dish.getIngredientNumber(); ingredientIndex++) {
-                /*
-                 * Если метод dish.getProducts(ingredientIndex, pageNumber) в качестве pageNumber получит значение,
-                 * большее или равное кол-ву всех страниц на которые разбита исходная выборка - то метод вернет
-                 * последнюю страницу выборки. Здесь мы берем значение, которое точно будет больше числа страниц любой
-                 * выборки (вряд ли у какого-то пользователя наберется 30000 продуктов).
-                 */
-                int latsPageNumber = 10000;
-                Page<Dish.IngredientProduct> page = dish.getProducts(ingredientIndex, latsPageNumber).
-                        orElseThrow();
-                int lastProductIndex = page.getMetadata().getTotalItems().
-                        subtract(BigInteger.ONE).
-                        intValueExact();
-                Optional<Product> lastProduct = page.getByGlobalIndex(lastProductIndex).
-                        flatMap(Dish.IngredientProduct::product);
-
-                MenuItemProduct item = new MenuItemProduct(lastProduct, itemIndex, ingredientIndex, lastProductIndex);
-                menuItems.add(item);
-            }
-        }
-
-        return groupByProduct(menuItems).stream().
-                map(value -> getNecessaryPackageQuantityPrice(value, BigDecimal.ONE)).
-                reduce(BigDecimal::add);
+        return calculatePrice(getProductPriceRanges(), true);
     }
 
     /**
@@ -553,10 +518,35 @@ public class Menu implements Entity<Menu> {
      * @return средняя стоимость данного меню.
      */
     public Optional<BigDecimal> getAveragePrice() {
-        Optional<BigDecimal> max = getMaxPrice();
-        Optional<BigDecimal> min = getMinPrice();
-        Optional<BigDecimal> sum = min.map(vMin -> vMin.add(max.orElseThrow()));
-        return sum.map(vSum -> vSum.divide(new BigDecimal(2), config.decimal().mathContext()));
+        return calculateAveragePrice(getProductPriceRanges());
+    }
+
+    /**
+     * Пакетный вариант метода {@link #getAveragePrice()}: возвращает среднюю стоимость для каждого из указанных
+     * меню. Элемент итогового списка соответствует меню с тем же индексом. Данные о продуктах для всех
+     * ингредиентов всех блюд всех меню запрашиваются одним обращением к репозиторию продуктов. Если menus
+     * пуст - возвращает пустой список.
+     * @param menus меню, для которых рассчитывается средняя стоимость.
+     * @return средняя стоимость каждого из меню.
+     * @throws ValidateException если menus или один из его элементов имеет значение null.
+     */
+    public static List<Optional<BigDecimal>> getAveragePrices(List<Menu> menus) {
+        Validator.check("Menu.menus", notNull(menus).and(() -> notContainsNull(menus)));
+
+        List<List<Optional<ProductPriceRange>>> priceRanges = Dish.getProductPriceRanges(
+                menus.stream().
+                        flatMap(menu -> menu.items.stream()).
+                        map(MenuItem::getDish).
+                        toList()
+        );
+
+        List<Optional<BigDecimal>> result = new ArrayList<>();
+        int offset = 0;
+        for(Menu menu : menus) {
+            result.add(menu.calculateAveragePrice(priceRanges.subList(offset, offset + menu.items.size())));
+            offset += menu.items.size();
+        }
+        return result;
     }
 
     @Override
@@ -586,6 +576,147 @@ public class Menu implements Entity<Menu> {
     }
 
 
+    private List<List<Optional<ProductPriceRange>>> getProductPriceRanges() {
+        return Dish.getProductPriceRanges(items.stream().map(MenuItem::getDish).toList());
+    }
+
+    private Optional<BigDecimal> calculateAveragePrice(List<List<Optional<ProductPriceRange>>> priceRanges) {
+        Optional<BigDecimal> max = calculatePrice(priceRanges, true);
+        Optional<BigDecimal> min = calculatePrice(priceRanges, false);
+        if(min.isEmpty()) return Optional.empty();
+
+        FixedPointPricing pricing = new FixedPointPricing(config.decimal());
+        if(pricing.isApplicable() &&
+                min.get().scale() == pricing.scale() &&
+                max.orElseThrow().scale() == pricing.scale()) {
+            try {
+                return Optional.of(pricing.average(pricing.toUnscaled(min.get()), pricing.toUnscaled(max.get())));
+            } catch(ArithmeticException e) {
+                /* значение не может быть рассчитано без округления - используется BigDecimal */
+            }
+        }
+
+        Optional<BigDecimal> sum = min.map(vMin -> vMin.add(max.orElseThrow()));
+        return sum.map(vSum -> vSum.divide(new BigDecimal(2), config.decimal().mathContext()));
+    }
+
+    private Optional<BigDecimal> calculatePrice(List<List<Optional<ProductPriceRange>>> priceRanges,
+                                                boolean mostExpensive) {
+        List<MenuItemProduct> menuItems = IntStream.range(0, items.size()).
+                boxed().
+                flatMap(itemIndex -> IntStream.range(0, priceRanges.get(itemIndex).size()).
+                        mapToObj(ingredientIndex -> {
+                            Optional<ProductPriceRange> range = priceRanges.get(itemIndex).get(ingredientIndex);
+                            return new MenuItemProduct(
+                                    range.map(r -> mostExpensive ? r.mostExpensive() : r.cheapest()),
+                                    itemIndex,
+                                    ingredientIndex,
+                                    range.map(r -> mostExpensive ? r.productsNumber() - 1 : 0).orElse(0)
+                            );
+                        })).
+                toList();
+
+        return calculateNecessaryPackagesPrice(groupByProduct(menuItems), BigDecimal.ONE);
+    }
+
+    /*
+     * Суммарная стоимость необходимого кол-ва упаковок всех продуктов. Сначала расчет выполняется над
+     * числами с фиксированной точкой (см. FixedPointPricing), и только если это невозможно без округления -
+     * над BigDecimal. Результаты обоих способов совпадают.
+     */
+    private Optional<BigDecimal> calculateNecessaryPackagesPrice(List<ProductGroup> groups,
+                                                                 BigDecimal menuNumber) {
+        FixedPointPricing pricing = new FixedPointPricing(config.decimal());
+        if(!groups.isEmpty() && pricing.isApplicable()) {
+            try {
+                long menus = pricing.toUnscaledWithOwnScale(menuNumber);
+                long total = 0;
+                for(ProductGroup group : groups) {
+                    Product product = group.product();
+                    long packages = pricing.packagesNumber(
+                            calculateNecessaryQuantity(pricing, group, menus, menuNumber.scale()),
+                            pricing.scale(),
+                            pricing.toUnscaled(product.getContext().getPackingSize())
+                    );
+                    total = Math.addExact(total, pricing.multiply(pricing.toUnscaled(product.getContext().getPrice()), packages));
+                }
+                return Optional.of(pricing.toBigDecimal(total, pricing.scale()));
+            } catch(ArithmeticException e) {
+                /* значение не может быть рассчитано без округления - используется BigDecimal */
+            }
+        }
+
+        return groups.stream().
+                map(value -> getNecessaryPackageQuantityPrice(value, menuNumber)).
+                reduce(BigDecimal::add);
+    }
+
+    /*
+     * Суммарная стоимость недостающего кол-ва упаковок всех продуктов. Сначала расчет выполняется над
+     * числами с фиксированной точкой (см. FixedPointPricing), и только если это невозможно без округления -
+     * над BigDecimal. Результаты обоих способов совпадают, включая масштаб итогового значения.
+     */
+    private Optional<BigDecimal> calculateLackPackagesPrice(List<ProductGroup> groups,
+                                                            BigDecimal menuNumber) {
+        FixedPointPricing pricing = new FixedPointPricing(config.decimal());
+        if(!groups.isEmpty() && pricing.isApplicable()) {
+            try {
+                long menus = pricing.toUnscaledWithOwnScale(menuNumber);
+                long total = 0;
+                int totalScale = pricing.scale();
+                for(ProductGroup group : groups) {
+                    Product product = group.product();
+                    long lack = Math.subtractExact(
+                            calculateNecessaryQuantity(pricing, group, menus, menuNumber.scale()),
+                            pricing.toUnscaled(product.getQuantity())
+                    );
+                    if(lack > 0) {
+                        long packages = pricing.packagesNumber(
+                                lack,
+                                pricing.scale(),
+                                pricing.toUnscaled(product.getContext().getPackingSize())
+                        );
+                        total = Math.addExact(
+                                total,
+                                pricing.multiply(pricing.toUnscaled(product.getContext().getPrice()), packages)
+                        );
+                    } else if(lack == 0) {
+                        totalScale = Math.max(totalScale, pricing.scale() * 2);
+                    }
+                }
+                return Optional.of(pricing.toBigDecimal(
+                        pricing.align(total, pricing.scale(), totalScale),
+                        totalScale
+                ));
+            } catch(ArithmeticException e) {
+                /* значение не может быть рассчитано без округления - используется BigDecimal */
+            }
+        }
+
+        return groups.stream().
+                map(value -> getLackPackageQuantityPrice(value, menuNumber)).
+                reduce(BigDecimal::add);
+    }
+
+    /*
+     * Аналог getNecessaryQuantity(ProductGroup, BigDecimal) над числами с фиксированной точкой.
+     * Масштаб результата - pricing.scale().
+     */
+    private long calculateNecessaryQuantity(FixedPointPricing pricing,
+                                            ProductGroup group,
+                                            long menus,
+                                            int menusScale) {
+        long result = 0;
+        for(MenuItemProduct itemProduct : group.items()) {
+            MenuItem item = items.get(itemProduct.itemIndex());
+            DishIngredient ingredient = item.getDish().tryGetIngredient(itemProduct.ingredientIndex());
+            long dishesNumber = pricing.multiply(pricing.toUnscaled(item.getNecessaryQuantity(BigDecimal.ONE)), menus);
+            long quantity = pricing.multiply(pricing.toUnscaled(ingredient.getNecessaryQuantity(BigDecimal.ONE)), dishesNumber);
+            result = Math.addExact(result, pricing.rescale(quantity, pricing.scale() * 2 + menusScale));
+        }
+        return result;
+    }
+
     private BigDecimal calculateLackQuantityInUnits(Product product,
                                                     BigDecimal necessaryQuantity) {
         return necessaryQuantity.subtract(product.getQuantity()).max(BigDecimal.ZERO);
@@ -0,0 +1,254 @@
+package com.bakuard.nutritionManager.model.filters;
+
+import com.bakuard.nutritionManager.model.Product;
+import com.bakuard.nutritionManager.model.ProductContext;
+import com.bakuard.nutritionManager.model.Tag;
+import com.bakuard.nutritionManager.validation.ValidateException;
+import com.bakuard.nutritionManager.validation.Validator;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import static com.bakuard.nutritionManager.validation.Rule.*;
+
+/**
+ * Преобразует ограничение {@link Filter} в предикат {@link Predicate}, позволяющий проверять продукты на
+ * соответствие ограничению в памяти без обращения к БД. Итоговый предикат эквивалентен SQL условию
+ * формируемому для того же ограничения при выборке продуктов из БД.<br/><br/>
+ * При компиляции:<br/>
+ * 1. значения каждого {@link AnyFilter} заранее помещаются в хеш-множество;<br/>
+ * 2. теги каждого {@link MinTagsFilter} заменяются битовой маской, а наличие всех тегов у продукта проверяется
+ *    сравнением с битовой маской тегов продукта, вычисленной один раз при создании компилятора (см.
+ *    {@link #ProductFilterCompiler(List)});<br/>
+ * 3. операнды {@link AndFilter} упорядочиваются по возрастанию доли подходящих продуктов, а операнды
+ *    {@link OrFilter} - по убыванию, чтобы вычисление как можно раньше прерывалось.<br/><br/>
+ * Объекты данного класса не изменяемы и могут использоваться из нескольких потоков.
+ */
+public class ProductFilterCompiler {
+
+    private static final double DEFAULT_USER_SELECTIVITY = 0.9;
+    private static final double DEFAULT_VALUE_SELECTIVITY = 0.1;
+    private static final double DEFAULT_TAG_SELECTIVITY = 0.5;
+    private static final double DEFAULT_QUANTITY_SELECTIVITY = 0.5;
+
+    private final Map<Tag, Integer> tagCodes;
+    private final Map<Product, long[]> tagMasks;
+
+    /**
+     * Создает компилятор без заранее вычисленных битовых масок тегов. Наличие тегов у продукта проверяется
+     * поиском по списку тегов продукта.
+     */
+    public ProductFilterCompiler() {
+        this(List.of());
+    }
+
+    /**
+     * Создает компилятор, который заранее нумерует все теги указанных продуктов и вычисляет для каждого из них
+     * битовую маску тегов. Предикаты {@link MinTagsFilter} для этих продуктов сводятся к сравнению битовых масок.
+     * Продукты сопоставляются с масками по ссылке. Остальные продукты также могут проверяться полученными
+     * предикатами - для них наличие тегов проверяется поиском по списку тегов продукта.
+     * @param products продукты, которые будут проверяться предикатами этого компилятора.
+     * @throws ValidateException если products или один из элементов products имеет значение null.
+     */
+    public ProductFilterCompiler(List<Product> products) {
+        Validator.check(
+                "ProductFilterCompiler.products", notNull(products).and(() -> notContainsNull(products))
+        );
+
+        Map<Tag, Integer> codes = new HashMap<>();
+        Map<Product, long[]> masks = new IdentityHashMap<>();
+        for(Product product : products) {
+            BitSet mask = new BitSet();
+            for(Tag tag : product.getContext().getTags()) {
+                mask.set(codes.computeIfAbsent(tag, t -> codes.size()));
+            }
+            masks.put(product, mask.toLongArray());
+        }
+        tagCodes = Collections.unmodifiableMap(codes);
+        tagMasks = Collections.unmodifiableMap(masks);
+    }
+
+    /**
+     * Компилирует ограничение filter в предикат для продуктов. Порядок проверки операндов AND и OR
+     * определяется эвристической оценкой избирательности каждого из ограничений.
+     * @param filter компилируемое ограничение.
+     * @return предикат, возвращающий true для продуктов удовлетворяющих ограничению filter.
+     * @throws ValidateException если filter имеет значение null.
+     * @throws UnsupportedOperationException если filter содержит ограничения неприменимые к продуктам
+     *                                       (например, {@link Filter.Type#DISHES}).
+     */
+    public Predicate<Product> compile(Filter filter) {
+        Validator.check("ProductFilterCompiler.filter", notNull(filter));
+
+        return compileRecursive(filter, null).predicate();
+    }
+
+    /**
+     * Компилирует ограничение filter в предикат для продуктов. Порядок проверки операндов AND и OR
+     * определяется долей продуктов из sample удовлетворяющих каждому из операндов. Имеет смысл использовать,
+     * если вызывающий код уже располагает списком продуктов, к которому будет применяться предикат.
+     * @param filter компилируемое ограничение.
+     * @param sample выборка продуктов по которой оценивается избирательность ограничений. Если выборка пуста,
+     *               используется эвристическая оценка (см. {@link #compile(Filter)}).
+     * @return предикат, возвращающий true для продуктов удовлетворяющих ограничению filter.
+     * @throws ValidateException если filter, sample или один из элементов sample имеет значение null.
+     * @throws UnsupportedOperationException если filter содержит ограничения неприменимые к продуктам
+     *                                       (например, {@link Filter.Type#DISHES}).
+     */
+    public Predicate<Product> compile(Filter filter, List<Product> sample) {
+        Validator.check(
+                "ProductFilterCompiler.filter", notNull(filter),
+                "ProductFilterCompiler.sample", notNull(sample).and(() -> notContainsNull(sample))
+        );
+
+        return compileRecursive(filter, sample.isEmpty() ? null : sample).predicate();
+    }
+
+
+    private CompiledFilter compileRecursive(Filter filter, List<Product> sample) {
+        CompiledFilter result;
+        switch(filter.getType()) {
+            case AND -> result = andFilter((AndFilter) filter, sample);
+            case OR -> result = orFilter((OrFilter) filter, sample);
+            case MIN_TAGS -> result = minTagsFilter((MinTagsFilter) filter);
+            case CATEGORY -> result = anyFilter((AnyFilter) filter, ProductContext::getCategory);
+            case SHOPS -> result = anyFilter((AnyFilter) filter, ProductContext::getShop);
+            case GRADES -> result = anyFilter((AnyFilter) filter, ProductContext::getGrade);
+            case MANUFACTURER -> result = anyFilter((AnyFilter) filter, ProductContext::getManufacturer);
+            case USER -> result = userFilter((UserFilter) filter);
+            case MIN_QUANTITY -> result = quantityFilter((QuantityFilter) filter);
+            default -> throw new UnsupportedOperationException(
+                    "Unsupported operation for " + filter.getType() + " constraint");
+        }
+
+        if(sample != null && !filter.typeIsOneOf(Filter.Type.AND, Filter.Type.OR)) {
+            result = new CompiledFilter(result.predicate(), measureSelectivity(result.predicate(), sample));
+        }
+        return result;
+    }
+
+    private CompiledFilter andFilter(AndFilter filter, List<Product> sample) {
+        List<CompiledFilter> operands = filter.getOperands().stream().
+                map(operand -> compileRecursive(operand, sample)).
+                sorted(Comparator.comparingDouble(CompiledFilter::selectivity)).
+                toList();
+
+        Predicate<Product>[] predicates = toArray(operands);
+        Predicate<Product> predicate = product -> {
+            boolean matches = true;
+            for(int i = 0; i < predicates.length && matches; i++) {
+                matches = predicates[i].test(product);
+            }
+            return matches;
+        };
+
+        double selectivity = 1;
+        for(CompiledFilter operand : operands) selectivity *= operand.selectivity();
+        return new CompiledFilter(predicate, selectivity);
+    }
+
+    private CompiledFilter orFilter(OrFilter filter, List<Product> sample) {
+        List<CompiledFilter> operands = filter.getOperands().stream().
+                map(operand -> compileRecursive(operand, sample)).
+                sorted(Comparator.comparingDouble(CompiledFilter::selectivity).reversed()).
+                toList();
+
+        Predicate<Product>[] predicates = toArray(operands);
+        Predicate<Product> predicate = product -> {
+            boolean matches = false;
+            for(int i = 0; i < predicates.length && !matches; i++) {
+                matches = predicates[i].test(product);
+            }
+            return matches;
+        };
+
+        double rejected = 1;
+        for(CompiledFilter operand : operands) rejected *= 1 - operand.selectivity();
+        return new CompiledFilter(predicate, 1 - rejected);
+    }
+
+    /*
+     * Если хотя бы один тег ограничения не встречается ни у одного продукта переданного конструктору,
+     * ни один из этих продуктов не может удовлетворять ограничению.
+     */
+    private CompiledFilter minTagsFilter(MinTagsFilter filter) {
+        List<Tag> tags = List.copyOf(new LinkedHashSet<>(filter.getTags()));
+
+        BitSet requiredTags = new BitSet();
+        boolean allTagsKnown = true;
+        for(Tag tag : tags) {
+            Integer code = tagCodes.get(tag);
+            if(code == null) allTagsKnown = false;
+            else requiredTags.set(code);
+        }
+        final long[] requiredMask = allTagsKnown ? requiredTags.toLongArray() : null;
+
+        Predicate<Product> predicate = product -> {
+            long[] productMask = tagMasks.get(product);
+            if(productMask == null) return product.getContext().getTags().containsAll(tags);
+            return requiredMask != null && containsAllBits(productMask, requiredMask);
+        };
+
+        return new CompiledFilter(predicate, Math.pow(DEFAULT_TAG_SELECTIVITY, tags.size()));
+    }
+
+    private CompiledFilter anyFilter(AnyFilter filter, Function<ProductContext, String> field) {
+        Set<String> values = new HashSet<>(filter.getValues());
+
+        Predicate<Product> predicate = product -> values.contains(field.apply(product.getContext()));
+
+        return new CompiledFilter(predicate, Math.min(1, DEFAULT_VALUE_SELECTIVITY * values.size()));
+    }
+
+    private CompiledFilter userFilter(UserFilter filter) {
+        UUID userId = filter.getUserId();
+
+        Predicate<Product> predicate = product -> userId.equals(product.getUser().getId());
+
+        return new CompiledFilter(predicate, DEFAULT_USER_SELECTIVITY);
+    }
+
+    private CompiledFilter quantityFilter(QuantityFilter filter) {
+        Predicate<Product> predicate;
+        switch(filter.getRelative()) {
+            case LESS -> predicate = product -> product.getQuantity().compareTo(filter.getQuantity()) < 0;
+            case LESS_OR_EQUAL -> predicate = product -> product.getQuantity().compareTo(filter.getQuantity()) <= 0;
+            case GREATER -> predicate = product -> product.getQuantity().compareTo(filter.getQuantity()) > 0;
+            case GREATER_OR_EQUAL -> predicate = product -> product.getQuantity().compareTo(filter.getQuantity()) >= 0;
+            case EQUAL -> predicate = product -> product.getQuantity().compareTo(filter.getQuantity()) == 0;
+            default -> throw new UnsupportedOperationException("Unknown relative = " + filter.getRelative());
+        }
+
+        return new CompiledFilter(predicate, DEFAULT_QUANTITY_SELECTIVITY);
+    }
+
+    private boolean containsAllBits(long[] mask, long[] requiredMask) {
+        if(mask.length < requiredMask.length) return false;
+
+        boolean result = true;
+        for(int i = 0; i < requiredMask.length && result; i++) {
+            result = (mask[i] & requiredMask[i]) == requiredMask[i];
+        }
+        return result;
+    }
+
+    private double measureSelectivity(Predicate<Product> predicate, List<Product> sample) {
+        int matched = 0;
+        for(Product product : sample) {
+            if(predicate.test(product)) ++matched;
+        }
+        return (double) matched / sample.size();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Predicate<Product>[] toArray(List<CompiledFilter> operands) {
+        Predicate<Product>[] predicates = new Predicate[operands.size()];
+        for(int i = 0; i < predicates.length; i++) predicates[i] = operands.get(i).predicate();
+        return predicates;
+    }
+
+
+    private record CompiledFilter(Predicate<Product> predicate, double selectivity) {}
+
+}
@@ -0,0 +1,26 @@
+package com.bakuard.nutritionManager.model.util;
+
+/**
+ * Способ определения общего кол-ва элементов выборки при получении страницы (см.
+ * {@link Page.Metadata#getTotalItems()}).
+ */
+public enum CountMode {
+
+    /**
+     * Общее кол-во элементов выборки подсчитывается точно отдельным запросом.
+     */
+    EXACT,
+
+    /**
+     * Общее кол-во элементов выборки оценивается планировщиком СУБД без выполнения запроса. Оценка может
+     * значительно отличаться от точного значения, но не бывает меньше кол-ва элементов уже полученных страниц.
+     */
+    ESTIMATED,
+
+    /**
+     * Общее кол-во элементов выборки не определяется. Наличие следующей страницы определяется запросом на один
+     * элемент больше размера страницы.
+     */
+    NONE
+
+}
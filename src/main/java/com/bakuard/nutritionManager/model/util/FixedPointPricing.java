@@ -0,0 +1,160 @@
+package com.bakuard.nutritionManager.model.util;
+
+import com.bakuard.nutritionManager.config.configData.Decimal;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Набор операций для расчета стоимости продуктов над числами с фиксированной точкой, представленными
+ * парой: целое число типа long (немасштабированное значение) и масштаб. Операции не создают промежуточных
+ * объектов {@link BigDecimal} и дают в точности тот же результат (значение и масштаб), что и соответствующие
+ * вычисления над {@link BigDecimal} с параметрами округления из {@link Decimal}.<br/><br/>
+ * Если результат операции не может быть получен без округления до заданной точности или выходит за пределы
+ * типа long, операция выбрасывает {@link ArithmeticException}. В этом случае вызывающий код должен выполнить
+ * расчет с использованием {@link BigDecimal}.<br/><br/>
+ * Объекты данного класса не изменяемы.
+ */
+public final class FixedPointPricing {
+
+    private static final long[] POWERS_OF_TEN = new long[19];
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for(int i = 1; i < POWERS_OF_TEN.length; i++) POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+    }
+
+    private final int scale;
+    private final long maxUnscaled;
+    private final boolean applicable;
+
+    /**
+     * Создает набор операций для указанных параметров округления. Операции применимы (см. {@link #isApplicable()})
+     * только если точность вычислений не превышает 18 знаков, масштаб не превышает 6 знаков, а режим округления -
+     * {@link RoundingMode#CEILING} или {@link RoundingMode#UP} (для положительных значений оба режима округляют
+     * в большую сторону).
+     * @param decimal параметры округления и точности вычислений.
+     */
+    public FixedPointPricing(Decimal decimal) {
+        int precision = decimal.mathContext().getPrecision();
+        scale = decimal.numberScale();
+        applicable = precision > 0 && precision < POWERS_OF_TEN.length &&
+                scale >= 0 && scale <= 6 &&
+                (decimal.roundingMode() == RoundingMode.CEILING || decimal.roundingMode() == RoundingMode.UP);
+        maxUnscaled = applicable ? POWERS_OF_TEN[precision] : 0;
+    }
+
+    /**
+     * Проверяет - могут ли операции данного класса использоваться при текущих параметрах округления.
+     */
+    public boolean isApplicable() {
+        return applicable;
+    }
+
+    /**
+     * Возвращает масштаб цен, кол-ва и размера упаковки продуктов.
+     */
+    public int scale() {
+        return scale;
+    }
+
+    /**
+     * Возвращает немасштабированное значение value для масштаба {@link #scale()}.
+     * @throws ArithmeticException если value не может быть представлено с масштабом {@link #scale()} без округления
+     *                             или выходит за пределы типа long.
+     */
+    public long toUnscaled(BigDecimal value) {
+        return value.setScale(scale).unscaledValue().longValueExact();
+    }
+
+    /**
+     * Возвращает немасштабированное значение value для его собственного масштаба.
+     * @throws ArithmeticException если масштаб value отрицательный или больше {@link #scale()}, или
+     *                             немасштабированное значение выходит за пределы типа long.
+     */
+    public long toUnscaledWithOwnScale(BigDecimal value) {
+        if(value.scale() < 0 || value.scale() > scale) {
+            throw new ArithmeticException("Unsupported scale " + value.scale());
+        }
+        return value.unscaledValue().longValueExact();
+    }
+
+    /**
+     * Создает объект BigDecimal по немасштабированному значению и масштабу.
+     */
+    public BigDecimal toBigDecimal(long unscaled, int scale) {
+        return BigDecimal.valueOf(unscaled, scale);
+    }
+
+    /**
+     * Аналог {@link BigDecimal#multiply(BigDecimal, java.math.MathContext)}. Масштаб результата равен сумме
+     * масштабов множителей.
+     * @throws ArithmeticException если результат требует округления до заданной точности.
+     */
+    public long multiply(long a, long b) {
+        return checkPrecision(Math.multiplyExact(a, b));
+    }
+
+    /**
+     * Аналог {@link BigDecimal#setScale(int, RoundingMode)} для положительного значения value с масштабом
+     * fromScale, приводимого к масштабу {@link #scale()}.
+     * @throws ArithmeticException если value не положительное или fromScale меньше {@link #scale()}.
+     */
+    public long rescale(long value, int fromScale) {
+        if(value <= 0 || fromScale < scale) throw new ArithmeticException("Unsupported value");
+        return ceilDiv(value, pow10(fromScale - scale));
+    }
+
+    /**
+     * Рассчитывает кол-во упаковок продукта необходимое для покрытия кол-ва quantity - аналог деления с заданной
+     * точностью и последующего округления до целого в большую сторону. Масштаб результата - 0.
+     * @param quantity положительное кол-во продукта с масштабом quantityScale.
+     * @param quantityScale масштаб quantity, не меньше {@link #scale()}.
+     * @param packingSize размер упаковки продукта с масштабом {@link #scale()}.
+     * @throws ArithmeticException если quantity или packingSize не положительные, или результат выходит за пределы
+     *                             заданной точности.
+     */
+    public long packagesNumber(long quantity, int quantityScale, long packingSize) {
+        if(quantity <= 0 || packingSize <= 0 || quantityScale < scale) {
+            throw new ArithmeticException("Unsupported value");
+        }
+        long divisor = Math.multiplyExact(packingSize, pow10(quantityScale - scale));
+        return checkPrecision(ceilDiv(quantity, divisor));
+    }
+
+    /**
+     * Приводит value с масштабом fromScale к большему масштабу toScale без изменения значения.
+     * @throws ArithmeticException если toScale меньше fromScale или результат выходит за пределы типа long.
+     */
+    public long align(long value, int fromScale, int toScale) {
+        if(toScale < fromScale) throw new ArithmeticException("Unsupported scale");
+        return Math.multiplyExact(value, pow10(toScale - fromScale));
+    }
+
+    /**
+     * Аналог вычисления (min + max) / 2 с заданной точностью для значений min и max с масштабом {@link #scale()}.
+     * @throws ArithmeticException если результат требует округления до заданной точности.
+     */
+    public BigDecimal average(long min, long max) {
+        long sum = Math.addExact(min, max);
+        if((sum & 1) == 0) return toBigDecimal(checkPrecision(sum / 2), scale);
+        return toBigDecimal(checkPrecision(Math.multiplyExact(sum, 5)), scale + 1);
+    }
+
+
+    private long checkPrecision(long value) {
+        if(value >= maxUnscaled || value <= -maxUnscaled) {
+            throw new ArithmeticException("Value " + value + " exceeds precision");
+        }
+        return value;
+    }
+
+    private long pow10(int exponent) {
+        if(exponent >= POWERS_OF_TEN.length) throw new ArithmeticException("Unsupported scale");
+        return POWERS_OF_TEN[exponent];
+    }
+
+    private static long ceilDiv(long a, long b) {
+        return -Math.floorDiv(-a, b);
+    }
+
+}
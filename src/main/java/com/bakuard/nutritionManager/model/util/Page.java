@@ -195,7 +195,7 @@ public final class Page<T> {
 
     /**
      * Объекты данного класса содержат метаданные о всей исходной выборке и конкретной странице определяемой
-     * {@link PageableByNumber}.
+     * {@link PageableByNumber} или {@link PageableByCursor}.
      */
     public static class Metadata {
 
@@ -203,10 +203,13 @@ public final class Page<T> {
 
 
         private final BigInteger totalItems;
+        private final CountMode countMode;
         private final BigInteger offset;
         private final BigInteger maxPageNumber;
         private final int actualSize;
         private final BigInteger actualNumber;
+        private final boolean hasNext;
+        private final String nextCursor;
 
         Metadata(BigInteger expectedPageNumber,
                  int expectedPageSize,
@@ -238,6 +241,50 @@ public final class Page<T> {
                     subtract(offset).
                     min(commonPageSize).
                     intValue();
+
+            countMode = CountMode.EXACT;
+            hasNext = !actualNumber.equals(maxPageNumber);
+            nextCursor = null;
+        }
+
+        /*
+         * Используется, если содержимое страницы получено до создания метаданных, а общее кол-во элементов
+         * выборки может быть неточным (см. CountMode.ESTIMATED) или неизвестным (totalItems равен null).
+         * Общее кол-во элементов не может быть меньше кол-ва элементов этой и всех предыдущих страниц.
+         */
+        Metadata(BigInteger offset,
+                 int pageSize,
+                 int actualSize,
+                 BigInteger totalItems,
+                 CountMode countMode,
+                 boolean hasNext,
+                 String nextCursor) {
+            if(pageSize < 1)
+                throw new IllegalArgumentException("pageSize must be greater or equal 1");
+            if(totalItems != null && totalItems.signum() < 0)
+                throw new IllegalArgumentException("totalItems can't be negative. totalItems = " + totalItems);
+
+            BigInteger commonPageSize = BigInteger.valueOf(pageSize);
+
+            this.countMode = Objects.requireNonNull(countMode, "countMode can't be null");
+            this.totalItems = totalItems == null ?
+                    null :
+                    totalItems.max(offset.add(BigInteger.valueOf(actualSize + (hasNext ? 1 : 0))));
+
+            maxPageNumber = this.totalItems == null ?
+                    null :
+                    this.totalItems.
+                            subtract(BigInteger.ONE).
+                            divide(commonPageSize).
+                            max(BigInteger.ZERO);
+
+            BigInteger number = offset.divide(commonPageSize);
+            actualNumber = maxPageNumber == null ? number : number.min(maxPageNumber);
+
+            this.offset = offset;
+            this.actualSize = actualSize;
+            this.hasNext = hasNext;
+            this.nextCursor = nextCursor;
         }
 
         /**
@@ -280,8 +327,10 @@ public final class Page<T> {
         }
 
         /**
-         * Возвращает общее кол-во всех элементов исходной выборки для которой выполняется пагинация.
-         * @return общее кол-во всех элементов исходной выборки для которой выполняется пагинация.
+         * Возвращает общее кол-во всех элементов исходной выборки для которой выполняется пагинация. Если
+         * {@link #getCountMode()} равен {@link CountMode#ESTIMATED} - возвращает оценку этого кол-ва, а если
+         * {@link CountMode#NONE} - возвращает null.
+         * @return общее кол-во всех элементов исходной выборки для которой выполняется пагинация или null.
          */
         public BigInteger getTotalItems() {
             return totalItems;
@@ -289,19 +338,29 @@ public final class Page<T> {
 
         /**
          * Возвращает кол-во всех не пустых страниц, на которые можно разбить исходную выборку. Если общее кол-во
-         * элементов в исходной выборке равно 0, то метод также вернет 0.
-         * @return кол-во всех не пустых страниц.
+         * элементов в исходной выборке равно 0, то метод также вернет 0. Если общее кол-во элементов выборки
+         * неизвестно (см. {@link #getTotalItems()}) - возвращает null.
+         * @return кол-во всех не пустых страниц или null.
          */
         public BigInteger getTotalPages() {
+            if(totalItems == null) return null;
             return totalItems.signum() == 0 ? BigInteger.ZERO : maxPageNumber.add(BigInteger.ONE);
         }
 
+        /**
+         * Возвращает способ, которым было определено общее кол-во элементов выборки (см. {@link #getTotalItems()}).
+         * @return способ определения общего кол-ва элементов выборки.
+         */
+        public CountMode getCountMode() {
+            return countMode;
+        }
+
         /**
          * Проверяет - является ли страница пустой.
          * @return true - если страница пустая, иначе - false.
          */
         public boolean isEmpty() {
-            return totalItems.signum() == 0;
+            return actualSize == 0;
         }
 
         /**
@@ -317,7 +376,17 @@ public final class Page<T> {
          * @return true - если страница является последней в выборке, иначе - false.
          */
         public boolean isLast() {
-            return actualNumber.equals(maxPageNumber);
+            return !hasNext;
+        }
+
+        /**
+         * Возвращает курсор, по которому можно получить следующую страницу выборки (см. {@link PageableByCursor}).
+         * Курсор доступен только для страниц полученных с помощью {@link PageableByCursor}.
+         * @return курсор следующей страницы или null, если страница получена не с помощью
+         *         {@link PageableByCursor} или является последней.
+         */
+        public String getNextCursor() {
+            return nextCursor;
         }
 
         /**
@@ -338,13 +407,16 @@ public final class Page<T> {
             if (o == null || getClass() != o.getClass()) return false;
             Metadata metadata = (Metadata) o;
             return actualSize == metadata.actualSize &&
-                    totalItems.equals(metadata.totalItems) &&
-                    actualNumber.equals(metadata.actualNumber);
+                    actualNumber.equals(metadata.actualNumber) &&
+                    Objects.equals(totalItems, metadata.totalItems) &&
+                    countMode == metadata.countMode &&
+                    hasNext == metadata.hasNext &&
+                    Objects.equals(nextCursor, metadata.nextCursor);
         }
 
         @Override
         public int hashCode() {
-            return Objects.hash(totalItems, actualSize, actualNumber);
+            return Objects.hash(totalItems, countMode, actualSize, actualNumber, hasNext, nextCursor);
         }
 
         @Override
@@ -352,9 +424,11 @@ public final class Page<T> {
             return "Metadata{" +
                     "offset=" + offset +
                     ", totalItems=" + totalItems +
+                    ", countMode=" + countMode +
                     ", maxPageNumber=" + maxPageNumber +
                     ", actualSize=" + actualSize +
                     ", actualNumber=" + actualNumber +
+                    ", nextCursor=" + nextCursor +
                     '}';
         }
 
@@ -0,0 +1,228 @@
+package com.bakuard.nutritionManager.model.util;
+
+import com.bakuard.nutritionManager.validation.Constraint;
+import com.bakuard.nutritionManager.validation.Rule;
+import com.bakuard.nutritionManager.validation.ValidateException;
+import com.google.common.collect.ImmutableList;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Используется для пагинации. Представляет собой запрос на получение страницы({@link Page}) данных, следующей
+ * за строкой выборки, на которой закончилась предыдущая страница. Такая строка задается курсором - непрозрачной
+ * для клиента строкой, которая содержит значения всех полей сортировки этой строки и её идентификатор (см.
+ * {@link Page.Metadata#getNextCursor()}). В отличие от {@link PageableByNumber}, страница выбирается условием
+ * на поля сортировки, а не смещением, поэтому время получения страницы не зависит от её удаленности от начала
+ * выборки.<br/>
+ * Объекты данного класса являются неизменяемыми.
+ */
+public final class PageableByCursor implements Pageable {
+
+    /**
+     * Создает и возвращает объект PageableByCursor указывающий на первую страницу выборки.
+     * @param expectedPageSize размер страницы. Фактический размер страницы может отличаться в следующих случаях:<br/>
+     *                 1. если страница является последней и оставшееся кол-во элементов меньше указанного
+     *                    значения.<br/>
+     *                 2. если заданный размер страницы меньше 1.
+     * @return новый объект PageableByCursor.
+     */
+    public static PageableByCursor first(int expectedPageSize) {
+        return new PageableByCursor(expectedPageSize, BigInteger.ZERO, ImmutableList.of());
+    }
+
+    /**
+     * Создает и возвращает объект PageableByCursor указывающий на страницу, следующую за строкой выборки
+     * заданной курсором cursor. Если cursor равен null или является пустой строкой - возвращает объект
+     * указывающий на первую страницу выборки.
+     * @param expectedPageSize размер страницы. Фактический размер страницы может отличаться в следующих случаях:<br/>
+     *                 1. если страница является последней и оставшееся кол-во элементов меньше указанного
+     *                    значения.<br/>
+     *                 2. если заданный размер страницы меньше 1.
+     * @param cursor курсор полученный из {@link Page.Metadata#getNextCursor()}.
+     * @return новый объект PageableByCursor.
+     * @throws ValidateException если cursor не является корректным курсором.
+     */
+    public static PageableByCursor of(int expectedPageSize, String cursor) {
+        if(cursor == null || cursor.isBlank()) return first(expectedPageSize);
+
+        try {
+            String[] parts = cursor.split("\\.");
+            if(parts.length < 2) throw new IllegalArgumentException("cursor must contain offset and id");
+
+            BigInteger offset = new BigInteger(decode(parts[0]));
+            if(offset.signum() < 0) throw new IllegalArgumentException("offset can't be negative");
+
+            ImmutableList.Builder<String> keys = ImmutableList.builder();
+            for(int i = 1; i < parts.length; i++) keys.add(decode(parts[i]));
+
+            return new PageableByCursor(expectedPageSize, offset, keys.build());
+        } catch(IllegalArgumentException e) {
+            throw new ValidateException("Incorrect cursor = '" + cursor + '\'', e).
+                    addReason(Rule.of("PageableByCursor.cursor", Rule.failure(Constraint.CORRECT_STRUCTURE)));
+        }
+    }
+
+    private static String encode(String value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decode(String value) {
+        return new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8);
+    }
+
+
+    private final int expectedPageSize;
+    private final BigInteger offset;
+    private final ImmutableList<String> keys;
+
+    private PageableByCursor(int expectedPageSize, BigInteger offset, ImmutableList<String> keys) {
+        this.expectedPageSize = expectedPageSize;
+        this.offset = offset;
+        this.keys = keys;
+    }
+
+    /**
+     * Возвращает ожидаемый размер страницы, которая будет получена с помощью данного объекта Pageable.
+     * @return ожидаемый размер страницы, которая будет получена с помощью данного объекта Pageable.
+     */
+    @Override
+    public int getExpectedPageSize() {
+        return expectedPageSize;
+    }
+
+    /**
+     * Возвращает фактический размер страницы с учетом максимально допустимого размера страницы maxPageSize.
+     * Именно это кол-во строк следует запрашивать из исходной выборки.
+     * @param maxPageSize максимально допустимый размер страницы.
+     * @return фактический размер страницы.
+     * @throws IllegalArgumentException если maxPageSize < 1
+     */
+    public int getPageSize(int maxPageSize) {
+        if(maxPageSize < 1)
+            throw new IllegalArgumentException("maxPageSize must be greater or equal 1");
+
+        return Math.min(Math.max(expectedPageSize, 1), maxPageSize);
+    }
+
+    /**
+     * Проверяет - указывает ли данный объект на первую страницу выборки.
+     * @return true - если данный объект указывает на первую страницу выборки, иначе - false.
+     */
+    public boolean isFirst() {
+        return keys.isEmpty();
+    }
+
+    /**
+     * Возвращает значения полей сортировки строки выборки, после которой начинается искомая страница, в порядке
+     * параметров сортировки. Последним значением всегда является идентификатор этой строки. Для первой страницы
+     * выборки возвращает пустой список.
+     * @return значения полей сортировки и идентификатор строки предшествующей искомой странице.
+     */
+    public ImmutableList<String> getKeys() {
+        return keys;
+    }
+
+    /**
+     * Возвращает кол-во элементов выборки, предшествующих искомой странице, на момент получения предыдущей
+     * страницы. Если выборка с тех пор изменилась, значение может быть неточным и используется только для
+     * заполнения метаданных страницы.
+     * @return кол-во элементов выборки, предшествующих искомой странице.
+     */
+    public BigInteger getOffset() {
+        return offset;
+    }
+
+    /**
+     * Создает и возвращает объект представляющий метаданные исходной выборки и уже полученной страницы. Общее
+     * кол-во элементов выборки считается точным (см. {@link CountMode#EXACT}), а наличие следующей страницы
+     * определяется по нему.
+     * @param totalItems общее кол-во всех элементов содержащихся в исходной выборке для которой проводится пагинация.
+     * @param maxPageSize максимально допустимый размер страницы (см. {@link #getPageSize(int)}).
+     * @param actualSize кол-во элементов полученной страницы.
+     * @param lastKeys значения полей сортировки и идентификатор последнего элемента полученной страницы в
+     *                 том же порядке, что и {@link #getKeys()}. Используются для создания курсора следующей
+     *                 страницы. Может быть null, если страница пуста.
+     * @return возвращает метаданные исходной выборки и страницы.
+     * @throws IllegalArgumentException если totalItems или actualSize меньше нуля или maxPageSize < 1.
+     */
+    public Page.Metadata createPageMetadata(int totalItems, int maxPageSize, int actualSize, List<String> lastKeys) {
+        BigInteger nextOffset = offset.add(BigInteger.valueOf(actualSize));
+        boolean hasNext = actualSize == getPageSize(maxPageSize) &&
+                nextOffset.compareTo(BigInteger.valueOf(totalItems)) < 0;
+
+        return createPageMetadata(
+                CountMode.EXACT,
+                BigInteger.valueOf(totalItems),
+                maxPageSize,
+                actualSize,
+                hasNext,
+                lastKeys
+        );
+    }
+
+    /**
+     * Создает и возвращает объект представляющий метаданные исходной выборки и уже полученной страницы.
+     * @param countMode способ, которым было определено общее кол-во элементов выборки.
+     * @param totalItems общее кол-во всех элементов содержащихся в исходной выборке или его оценка. Может быть
+     *                   null, если countMode равен {@link CountMode#NONE}.
+     * @param maxPageSize максимально допустимый размер страницы (см. {@link #getPageSize(int)}).
+     * @param actualSize кол-во элементов полученной страницы.
+     * @param hasNext true - если за полученной страницей в выборке есть еще элементы, иначе - false.
+     * @param lastKeys значения полей сортировки и идентификатор последнего элемента полученной страницы в
+     *                 том же порядке, что и {@link #getKeys()}. Используются для создания курсора следующей
+     *                 страницы. Может быть null, если страница пуста.
+     * @return возвращает метаданные исходной выборки и страницы.
+     * @throws NullPointerException если countMode равен null.
+     * @throws IllegalArgumentException если totalItems или actualSize меньше нуля или maxPageSize < 1.
+     */
+    public Page.Metadata createPageMetadata(CountMode countMode,
+                                           BigInteger totalItems,
+                                           int maxPageSize,
+                                           int actualSize,
+                                           boolean hasNext,
+                                           List<String> lastKeys) {
+        int pageSize = getPageSize(maxPageSize);
+        if(actualSize < 0 || actualSize > pageSize)
+            throw new IllegalArgumentException("actualSize must be in range [0, " + pageSize + "]");
+
+        String nextCursor = null;
+        if(hasNext && lastKeys != null) {
+            List<String> parts = new ArrayList<>();
+            parts.add(encode(offset.add(BigInteger.valueOf(actualSize)).toString()));
+            lastKeys.forEach(key -> parts.add(encode(key)));
+            nextCursor = String.join(".", parts);
+        }
+
+        return new Page.Metadata(offset, pageSize, actualSize, totalItems, countMode, nextCursor != null, nextCursor);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        PageableByCursor pageable = (PageableByCursor) o;
+        return expectedPageSize == pageable.expectedPageSize &&
+                offset.equals(pageable.offset) &&
+                keys.equals(pageable.keys);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(expectedPageSize, offset, keys);
+    }
+
+    @Override
+    public String toString() {
+        return "PageableByCursor{" +
+                "expectedPageSize=" + expectedPageSize +
+                ", offset=" + offset +
+                ", keys=" + keys +
+                '}';
+    }
+
+}
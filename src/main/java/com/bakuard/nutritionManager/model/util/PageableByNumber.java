@@ -156,6 +156,58 @@ public final class PageableByNumber implements Pageable {
         return new Page.Metadata(expectedPageNumber, expectedPageSize, totalItems, maxPageSize);
     }
 
+    /**
+     * Возвращает фактический размер страницы с учетом максимально допустимого размера страницы maxPageSize.
+     * @param maxPageSize максимально допустимый размер страницы.
+     * @return фактический размер страницы.
+     * @throws IllegalArgumentException если maxPageSize < 1
+     */
+    public int getPageSize(int maxPageSize) {
+        if(maxPageSize < 1)
+            throw new IllegalArgumentException("maxPageSize must be greater or equal 1");
+
+        return Math.min(Math.max(expectedPageSize, 1), maxPageSize);
+    }
+
+    /**
+     * Возвращает смещение перед первым элементом страницы без учета общего кол-ва элементов выборки.
+     * Используется, если общее кол-во элементов выборки заранее неизвестно (см. {@link CountMode}).
+     * @param maxPageSize максимально допустимый размер страницы.
+     * @return смещение перед первым элементом страницы.
+     * @throws IllegalArgumentException если maxPageSize < 1
+     */
+    public BigInteger getOffset(int maxPageSize) {
+        return expectedPageNumber.
+                max(BigInteger.ZERO).
+                multiply(BigInteger.valueOf(getPageSize(maxPageSize)));
+    }
+
+    /**
+     * Создает и возвращает объект представляющий метаданные исходной выборки и уже полученной страницы.
+     * Используется, если общее кол-во элементов выборки заранее неизвестно или является оценкой, и поэтому
+     * страница была получена до создания её метаданных по смещению {@link #getOffset(int)}.
+     * @param countMode способ, которым было определено общее кол-во элементов выборки.
+     * @param totalItems оценка общего кол-ва элементов выборки. Может быть null, если countMode равен
+     *                   {@link CountMode#NONE}.
+     * @param maxPageSize максимально допустимый размер страницы.
+     * @param actualSize кол-во элементов полученной страницы.
+     * @param hasNext true - если за полученной страницей в выборке есть еще элементы, иначе - false.
+     * @return возвращает метаданные исходной выборки и страницы.
+     * @throws NullPointerException если countMode равен null.
+     * @throws IllegalArgumentException если totalItems или actualSize меньше нуля или maxPageSize < 1.
+     */
+    public Page.Metadata createPageMetadata(CountMode countMode,
+                                           BigInteger totalItems,
+                                           int maxPageSize,
+                                           int actualSize,
+                                           boolean hasNext) {
+        int pageSize = getPageSize(maxPageSize);
+        if(actualSize < 0 || actualSize > pageSize)
+            throw new IllegalArgumentException("actualSize must be in range [0, " + pageSize + "]");
+
+        return new Page.Metadata(getOffset(maxPageSize), pageSize, actualSize, totalItems, countMode, hasNext, null);
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -0,0 +1,146 @@
+package com.bakuard.nutritionManager.service;
+
+import com.bakuard.nutritionManager.dal.DishPriceSummaryRepository;
+import com.bakuard.nutritionManager.dal.DishRepository;
+import com.bakuard.nutritionManager.dal.projection.DishPriceSummary;
+import com.bakuard.nutritionManager.model.Dish;
+import com.bakuard.nutritionManager.validation.ValidateException;
+import com.bakuard.nutritionManager.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static com.bakuard.nutritionManager.validation.Rule.*;
+
+/**
+ * Предоставляет данные о стоимости блюд с использованием предварительно рассчитанных значений
+ * (см. {@link DishPriceSummaryRepository}) и выполняет фоновый пересчет устаревших значений.
+ */
+public class DishPriceSummaryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DishPriceSummaryService.class);
+
+    private static final int REFRESH_BATCH_SIZE = 100;
+
+
+    private final DishPriceSummaryRepository summaryRepository;
+    private final DishRepository dishRepository;
+
+    public DishPriceSummaryService(DishPriceSummaryRepository summaryRepository,
+                                   DishRepository dishRepository) {
+        this.summaryRepository = summaryRepository;
+        this.dishRepository = dishRepository;
+    }
+
+    /**
+     * Возвращает минимальную стоимость одной порции каждого из указанных блюд (см. {@link Dish#getMinPrice()}).
+     * Элемент итогового списка соответствует блюду с тем же индексом. Для блюд с актуальными данными о
+     * стоимости используются предварительно рассчитанные значения, для остальных блюд стоимость рассчитывается
+     * одним пакетным запросом (см. {@link Dish#getPrices(List)}).
+     * @param dishes блюда, для которых запрашивается стоимость.
+     * @return минимальная стоимость каждого из блюд.
+     * @throws ValidateException если dishes или один из его элементов имеет значение null.
+     */
+    public List<Optional<BigDecimal>> getMinPrices(List<Dish> dishes) {
+        return getPrices(dishes).stream().map(Dish.Prices::minPrice).toList();
+    }
+
+    /**
+     * Возвращает среднюю стоимость одной порции каждого из указанных блюд (см. {@link Dish#getAveragePrice()}).
+     * Элемент итогового списка соответствует блюду с тем же индексом. Для блюд с актуальными данными о
+     * стоимости используются предварительно рассчитанные значения, для остальных блюд стоимость рассчитывается
+     * одним пакетным запросом (см. {@link Dish#getPrices(List)}).
+     * @param dishes блюда, для которых запрашивается стоимость.
+     * @return средняя стоимость каждого из блюд.
+     * @throws ValidateException если dishes или один из его элементов имеет значение null.
+     */
+    public List<Optional<BigDecimal>> getAveragePrices(List<Dish> dishes) {
+        return getPrices(dishes).stream().map(Dish.Prices::averagePrice).toList();
+    }
+
+    @Transactional
+    @Scheduled(fixedDelay = 1000 * 30)
+    public void refreshStaleSummaries() {
+        List<DishPriceSummary> staleSummaries = summaryRepository.getStale(REFRESH_BATCH_SIZE);
+        if(staleSummaries.isEmpty()) return;
+
+        List<DishPriceSummary> summaries = new ArrayList<>();
+        List<Dish> dishes = new ArrayList<>();
+        for(DishPriceSummary summary : staleSummaries) {
+            dishRepository.getById(summary.userId(), summary.dishId()).
+                    ifPresent(dish -> {
+                        summaries.add(summary);
+                        dishes.add(dish);
+                    });
+        }
+
+        List<Dish.Prices> prices = Dish.getPrices(dishes);
+        List<DishPriceSummary> refreshedSummaries = new ArrayList<>();
+        for(int i = 0; i < summaries.size(); i++) {
+            DishPriceSummary summary = summaries.get(i);
+            Dish.Prices dishPrices = prices.get(i);
+            refreshedSummaries.add(
+                    new DishPriceSummary(
+                            summary.dishId(),
+                            summary.userId(),
+                            dishPrices.minPrice().orElse(null),
+                            dishPrices.maxPrice().orElse(null),
+                            dishPrices.averagePrice().orElse(null),
+                            dishPrices.productsNumber(),
+                            summary.version(),
+                            false
+                    )
+            );
+        }
+
+        int refreshedNumber = summaryRepository.refresh(refreshedSummaries);
+        logger.info("Refresh stale dish price summaries. Refreshed number = " + refreshedNumber);
+    }
+
+
+    private List<Dish.Prices> getPrices(List<Dish> dishes) {
+        Validator.check(
+                "DishPriceSummaryService.dishes", notNull(dishes).
+                        and(() -> notContainsNull(dishes))
+        );
+
+        Map<UUID, DishPriceSummary> actualSummaries = new HashMap<>();
+        dishes.stream().
+                collect(Collectors.groupingBy(
+                        dish -> dish.getUser().getId(),
+                        Collectors.mapping(Dish::getId, Collectors.toList())
+                )).
+                forEach((userId, dishIds) -> summaryRepository.getActual(userId, dishIds).
+                        forEach(summary -> summary.ifPresent(s -> actualSummaries.put(s.dishId(), s))));
+
+        Iterator<Dish.Prices> calculatedPrices = Dish.getPrices(
+                dishes.stream().
+                        filter(dish -> !actualSummaries.containsKey(dish.getId())).
+                        toList()
+        ).iterator();
+
+        List<Dish.Prices> result = new ArrayList<>();
+        for(Dish dish : dishes) {
+            DishPriceSummary summary = actualSummaries.get(dish.getId());
+            if(summary == null) {
+                result.add(calculatedPrices.next());
+            } else {
+                result.add(
+                        new Dish.Prices(
+                                Optional.ofNullable(summary.minPrice()),
+                                Optional.ofNullable(summary.maxPrice()),
+                                Optional.ofNullable(summary.averagePrice()),
+                                summary.productsNumber()
+                        )
+                );
+            }
+        }
+        return result;
+    }
+
+}
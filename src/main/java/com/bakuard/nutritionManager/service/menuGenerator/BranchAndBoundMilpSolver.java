@@ -0,0 +1,296 @@
+package com.bakuard.nutritionManager.service.menuGenerator;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Встроенная реализация {@link MilpSolver} методом ветвей и границ. Нижние оценки рассчитываются симплекс-методом
+ * (см. {@link Simplex}) для задачи без требования целочисленности переменных. Узлы дерева поиска обрабатываются
+ * в порядке возрастания нижней оценки несколькими потоками {@link ForkJoinPool}, которые отсекают узлы по общему
+ * лучшему найденному решению. В каждом узле решение без требования целочисленности округляется вверх, после чего
+ * лишние порции убираются: для задачи подбора меню (неотрицательные коэффициенты ограничений "больше или равно")
+ * это быстро дает хорошее допустимое решение.
+ * <br/><br/>
+ * В отличие от {@link SscMilpSolver}, прерывание потока вызвавшего {@link #solve(MilpProblem)} прекращает поиск.
+ * Допустимое начальное решение (см. {@link #solve(MilpProblem, long[])}) становится лучшим найденным решением
+ * до начала поиска, поэтому узлы с не меньшей нижней оценкой отсекаются сразу.
+ */
+public class BranchAndBoundMilpSolver implements MilpSolver {
+
+    private static final double INTEGRALITY_EPSILON = 1e-6;
+    private static final double EPSILON = 1e-9;
+
+    /*
+     * Узел дерева поиска хранит только границу переменной, по которой выполнялось ветвление, и ссылку на
+     * родительский узел.
+     */
+    private record Node(Node parent, int variable, double lower, double upper, double bound) {}
+
+    private record Incumbent(long[] values, double objective) {}
+
+    private final ForkJoinPool pool;
+    private final long maxNodes;
+    private final Simplex simplex;
+
+    /**
+     * @param parallelism кол-во потоков, одновременно обрабатывающих узлы дерева поиска.
+     * @param maxNodes максимальное кол-во обрабатываемых узлов для одной задачи. Если оно превышено - возвращается
+     *                 лучшее найденное решение со статусом {@link MilpSolution.Status#FEASIBLE} или, если решение не
+     *                 найдено, {@link MilpSolution.Status#LIMIT_REACHED}.
+     */
+    public BranchAndBoundMilpSolver(int parallelism, long maxNodes) {
+        this.pool = new ForkJoinPool(parallelism);
+        this.maxNodes = maxNodes;
+        this.simplex = new Simplex();
+    }
+
+    @Override
+    public MilpSolution solve(MilpProblem problem) throws Exception {
+        return solve(problem, null);
+    }
+
+    @Override
+    public MilpSolution solve(MilpProblem problem, long[] start) throws Exception {
+        long startTime = System.nanoTime();
+        Search search = new Search(problem);
+
+        Node root = new Node(null, -1, 0, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY);
+        Simplex.Solution relaxed = search.relax(root);
+        if(relaxed.status() != MilpSolution.Status.OPTIMAL) {
+            return new MilpSolution(
+                    relaxed.status(),
+                    null,
+                    Double.NaN,
+                    Double.NaN,
+                    Duration.ofNanos(System.nanoTime() - startTime)
+            );
+        }
+        if(start != null && search.isFeasible(start)) search.offer(start.clone());
+        search.branch(root, relaxed);
+
+        List<ForkJoinTask<?>> workers = new ArrayList<>();
+        for(int i = 0; i < pool.getParallelism(); i++) workers.add(pool.submit(search::work));
+        try {
+            for(ForkJoinTask<?> worker : workers) worker.get();
+        } catch(InterruptedException e) {
+            search.stop();
+            throw e;
+        } catch(ExecutionException e) {
+            search.stop();
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        }
+
+        return search.result(relaxed.objective(), Duration.ofNanos(System.nanoTime() - startTime));
+    }
+
+
+    private class Search {
+
+        private final MilpProblem problem;
+        private final double[] upperBounds;
+        private final PriorityBlockingQueue<Node> open;
+        private final AtomicReference<Incumbent> incumbent;
+        private final AtomicInteger active;
+        private final AtomicLong nodes;
+        private volatile boolean stopped;
+        private volatile boolean limitReached;
+
+        public Search(MilpProblem problem) {
+            this.problem = problem;
+            this.upperBounds = Arrays.stream(problem.upperBounds()).
+                    map(bound -> Double.isNaN(bound) ? Double.POSITIVE_INFINITY : bound).
+                    toArray();
+            this.open = new PriorityBlockingQueue<>(64, Comparator.comparingDouble(Node::bound));
+            this.incumbent = new AtomicReference<>();
+            this.active = new AtomicInteger();
+            this.nodes = new AtomicLong();
+        }
+
+        public void work() {
+            while(!stopped) {
+                active.incrementAndGet();
+                Node node = open.poll();
+                if(node == null) {
+                    if(active.decrementAndGet() == 0 && open.isEmpty()) return;
+                    LockSupport.parkNanos(10_000L);
+                    continue;
+                }
+
+                try {
+                    process(node);
+                } finally {
+                    active.decrementAndGet();
+                }
+            }
+        }
+
+        public void stop() {
+            stopped = true;
+        }
+
+        public Simplex.Solution relax(Node node) {
+            double[] lower = new double[upperBounds.length];
+            double[] upper = upperBounds.clone();
+            for(Node current = node; current.parent() != null; current = current.parent()) {
+                int variable = current.variable();
+                lower[variable] = Math.max(lower[variable], current.lower());
+                upper[variable] = Math.min(upper[variable], current.upper());
+            }
+
+            return simplex.solve(
+                    problem.costs(),
+                    problem.coefficients(),
+                    problem.relations(),
+                    problem.rhs(),
+                    lower,
+                    upper
+            );
+        }
+
+        public void branch(Node node, Simplex.Solution relaxed) {
+            if(stopped || isPruned(relaxed.objective())) return;
+
+            double[] values = relaxed.values();
+            int variable = mostFractional(values);
+            if(variable == -1) {
+                offer(Arrays.stream(values).mapToLong(Math::round).toArray());
+                return;
+            }
+
+            long[] rounded = round(values);
+            if(rounded != null) offer(rounded);
+            if(stopped) return;
+
+            double value = values[variable];
+            open.add(new Node(node, variable, 0, Math.floor(value), relaxed.objective()));
+            open.add(new Node(node, variable, Math.ceil(value), Double.POSITIVE_INFINITY, relaxed.objective()));
+        }
+
+        public MilpSolution result(double relaxedObjective, Duration solveTime) {
+            Incumbent best = incumbent.get();
+            if(best == null) {
+                MilpSolution.Status status = limitReached ?
+                        MilpSolution.Status.LIMIT_REACHED : MilpSolution.Status.INFEASIBLE;
+                return new MilpSolution(status, null, Double.NaN, relaxedObjective, solveTime);
+            }
+
+            MilpSolution.Status status = limitReached || problem.justFeasible() ?
+                    MilpSolution.Status.FEASIBLE : MilpSolution.Status.OPTIMAL;
+            return new MilpSolution(status, best.values(), best.objective(), relaxedObjective, solveTime);
+        }
+
+
+        private void process(Node node) {
+            if(nodes.incrementAndGet() > maxNodes) {
+                limitReached = true;
+                stop();
+                return;
+            }
+            if(isPruned(node.bound())) return;
+
+            Simplex.Solution relaxed = relax(node);
+            if(relaxed.status() == MilpSolution.Status.OPTIMAL) branch(node, relaxed);
+        }
+
+        private boolean isPruned(double bound) {
+            Incumbent best = incumbent.get();
+            return best != null && bound >= best.objective() - EPSILON;
+        }
+
+        public boolean isFeasible(long[] values) {
+            if(values.length != upperBounds.length) return false;
+            for(int j = 0; j < values.length; j++) {
+                if(values[j] < 0 || values[j] > upperBounds[j]) return false;
+            }
+            for(int i = 0; i < problem.rhs().length; i++) {
+                double activity = 0;
+                for(int j = 0; j < values.length; j++) activity += problem.coefficients()[i][j] * values[j];
+                if(!isSatisfied(i, activity)) return false;
+            }
+            return true;
+        }
+
+        public void offer(long[] values) {
+            double objective = 0;
+            for(int i = 0; i < values.length; i++) objective += problem.costs()[i] * values[i];
+
+            Incumbent candidate = new Incumbent(values, objective);
+            Incumbent current = incumbent.get();
+            while((current == null || objective < current.objective() - EPSILON) &&
+                    !incumbent.compareAndSet(current, candidate)) {
+                current = incumbent.get();
+            }
+
+            if(problem.justFeasible()) stop();
+        }
+
+        private int mostFractional(double[] values) {
+            int result = -1;
+            double maxFraction = INTEGRALITY_EPSILON;
+            for(int i = 0; i < values.length; i++) {
+                double fraction = Math.abs(values[i] - Math.round(values[i]));
+                if(fraction > maxFraction) {
+                    maxFraction = fraction;
+                    result = i;
+                }
+            }
+            return result;
+        }
+
+        /*
+         * Округляет значения переменных вверх, а затем уменьшает значения округленных переменных в порядке убывания
+         * их стоимости, пока это не нарушает ограничений. Возвращает null, если округленное вверх решение
+         * недопустимо.
+         */
+        private long[] round(double[] values) {
+            double[][] coefficients = problem.coefficients();
+            long[] result = new long[values.length];
+            List<Integer> rounded = new ArrayList<>();
+            for(int j = 0; j < values.length; j++) {
+                result[j] = (long) Math.ceil(values[j] - INTEGRALITY_EPSILON);
+                if(result[j] > upperBounds[j]) return null;
+                if(result[j] > values[j] + INTEGRALITY_EPSILON) rounded.add(j);
+            }
+
+            double[] activities = new double[problem.rhs().length];
+            for(int i = 0; i < activities.length; i++) {
+                for(int j = 0; j < values.length; j++) activities[i] += coefficients[i][j] * result[j];
+                if(!isSatisfied(i, activities[i])) return null;
+            }
+
+            rounded.sort(Comparator.comparingDouble((Integer j) -> problem.costs()[j]).reversed());
+            for(int j : rounded) {
+                while(result[j] > 0 && canDecrease(j, activities)) {
+                    --result[j];
+                    for(int i = 0; i < activities.length; i++) activities[i] -= coefficients[i][j];
+                }
+            }
+            return result;
+        }
+
+        private boolean canDecrease(int variable, double[] activities) {
+            for(int i = 0; i < activities.length; i++) {
+                if(!isSatisfied(i, activities[i] - problem.coefficients()[i][variable])) return false;
+            }
+            return true;
+        }
+
+        private boolean isSatisfied(int row, double activity) {
+            double rhs = problem.rhs()[row];
+            double tolerance = EPSILON * Math.max(1, Math.abs(rhs));
+            return problem.relations()[row] == Relationship.GREATER_OR_EQUAL ?
+                    activity >= rhs - tolerance :
+                    activity <= rhs + tolerance;
+        }
+
+    }
+
+}
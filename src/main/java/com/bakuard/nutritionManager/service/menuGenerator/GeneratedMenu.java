@@ -0,0 +1,16 @@
+package com.bakuard.nutritionManager.service.menuGenerator;
+
+import com.bakuard.nutritionManager.model.Menu;
+
+import java.math.BigDecimal;
+
+/**
+ * Результат подбора меню (см. {@link MenuGeneratorService#generate(Input)}).
+ * @param menu подобранное меню.
+ * @param optimal true - если доказано, что подобранное меню имеет минимальную стоимость среди всех меню
+ *                удовлетворяющих заданным ограничениям, false - если время отведенное на подбор меню истекло
+ *                раньше и возвращено лучшее из найденных к этому моменту меню.
+ * @param optimalityGap относительная разница между стоимостью подобранного меню и нижней оценкой стоимости
+ *                      оптимального меню (значение от 0 до 1). Для оптимального меню равна нулю.
+ */
+public record GeneratedMenu(Menu menu, boolean optimal, BigDecimal optimalityGap) {}
@@ -4,18 +4,19 @@ import com.bakuard.nutritionManager.dal.Criteria;
 import com.bakuard.nutritionManager.dal.DishRepository;
 import com.bakuard.nutritionManager.dal.MenuRepository;
 import com.bakuard.nutritionManager.model.Dish;
+import com.bakuard.nutritionManager.model.DishIngredient;
 import com.bakuard.nutritionManager.model.Tag;
 import com.bakuard.nutritionManager.model.User;
 import com.bakuard.nutritionManager.model.filters.AnyFilter;
 import com.bakuard.nutritionManager.model.filters.Filter;
-import com.bakuard.nutritionManager.model.filters.Sort;
-import com.bakuard.nutritionManager.model.util.Page;
-import com.bakuard.nutritionManager.model.util.PageableByNumber;
+import com.bakuard.nutritionManager.service.DishPriceSummaryService;
+import com.bakuard.nutritionManager.validation.Result;
 import com.bakuard.nutritionManager.validation.ValidateException;
 import com.bakuard.nutritionManager.validation.Validator;
 import com.google.common.collect.ImmutableList;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.*;
 
 import static com.bakuard.nutritionManager.validation.Rule.*;
@@ -36,22 +37,25 @@ public class Input {
     /**
      * Ограничение на минимальное или максимальное кол-во продуктов одной конкретной категории.
      * @param productCategory категория продуктов.
+     * @param categoryIndex индекс категории продуктов - номер строки в {@link #getQuantityMatrix()}.
      * @param relation отношение "больше" или "меньше".
      * @param quantity кол-во продуктов.
      */
-    public record ProductConstraint(String productCategory, Relationship relation, BigDecimal quantity) {}
+    public record ProductConstraint(String productCategory,
+                                    int categoryIndex,
+                                    Relationship relation,
+                                    BigDecimal quantity) {}
 
     /**
      * Ограничение на минимальное или максимальное кол-во блюд с указанным тегом.
      * @param dishTag тег блюда.
+     * @param tagIndex индекс тега - номер строки в {@link #getDishTagMatrix()}.
      * @param relation отношение "больше" или "меньше".
      * @param quantity кол-во блюда.
      */
-    public record DishTagConstraint(Tag dishTag, Relationship relation, BigDecimal quantity) {}
+    public record DishTagConstraint(Tag dishTag, int tagIndex, Relationship relation, BigDecimal quantity) {}
 
 
-    private record ProductQuantity(Dish dish, String productCategory, BigDecimal quantity) {};
-
     private record ProductConstraintRaw(String category, String relation, BigDecimal quantity) {}
 
     private record DishTagConstraintRaw(String dishTag, String relation, BigDecimal quantity) {}
@@ -61,9 +65,19 @@ public class Input {
     private ImmutableList<ProductConstraint> productConstraints;
     private ImmutableList<DishTagConstraint> dishTagConstraints;
 
-    private ImmutableList<ProductQuantity> productQuantities;
+    private ImmutableList<String> productCategories;
+    private ImmutableList<Tag> dishTags;
+    private Map<Dish, Integer> dishIndexes;
+    private SparseMatrix quantityMatrix;
+    private SparseMatrix dishTagMatrix;
+    private ImmutableList<ProductConstraintRaw> productConstraintsRaw;
+    private ImmutableList<DishTagConstraintRaw> dishTagConstraintsRaw;
+    private int minMealsNumber;
+    private BigDecimal servingNumberPerMeal;
     private BigDecimal minServingNumber;
     private String generatedMenuName;
+    private String solver;
+    private Duration solveBudget;
     private User user;
 
     private Input(List<ProductConstraintRaw> productConstraints,
@@ -73,6 +87,9 @@ public class Input {
                   String generatedMenuName,
                   DishRepository dishRepository,
                   MenuRepository menuRepository,
+                  DishPriceSummaryService dishPriceSummaryService,
+                  String solver,
+                  Duration solveBudget,
                   User user) {
         Validator.check(
                 "Input.dishRepository", notNull(dishRepository),
@@ -80,7 +97,9 @@ public class Input {
                 "Input.user", notNull(user)
         );
 
-        this.dishMinPrices = ImmutableList.copyOf(getAllDishes(user.getId(), dishRepository));
+        this.dishMinPrices = ImmutableList.copyOf(
+                new MenuGeneratorDataLoader(dishRepository, dishPriceSummaryService).loadDishMinPrices(user.getId())
+        );
         Validator.check("Input.allUserDishes", notEmpty(dishMinPrices));
 
         List<Tag> allTags = getAllDishesTag(dishMinPrices);
@@ -95,34 +114,131 @@ public class Input {
                         and(() -> positiveValue(minMealsNumber)),
                 "Input.servingNumberPerMeal", notNull(servingNumberPerMeal).
                         and(() -> positiveValue(servingNumberPerMeal)),
-                "Input.products", doesNotThrows(productConstraints,
-                        (pc) -> Validator.check(
-                                "Input.product.category", notNull(pc.category()).
-                                        and(() -> anyMatch(allProductCategories, pc.category())),
-                                "Input.product.condition", notNull(pc.relation()).
-                                        and(() -> anyMatch(List.of("lessOrEqual", "greaterOrEqual"), pc.relation())),
-                                "Input.product.quantity", notNull(pc.quantity()).
-                                        and(() -> notNegative(pc.quantity()))
-                        )),
-                "Input.dishes", doesNotThrows(dishTagConstraints,
-                        (dc) -> Validator.check(
-                                "Input.dish.dishTag", notNull(dc.dishTag()).
-                                        and(() -> anyMatch(allTags, tag -> tag.getValue().equals(dc.dishTag()))),
-                                "Input.dish.condition", notNull(dc.relation()).
-                                        and(() -> anyMatch(List.of("lessOrEqual", "greaterOrEqual"), dc.relation())),
-                                "Input.dish.quantity", notNull(dc.quantity()).
-                                        and(() -> notNegative(dc.quantity()))
-                        ))
+                "Input.products", checkProductConstraints(productConstraints, allProductCategories),
+                "Input.dishes", checkDishTagConstraints(dishTagConstraints, allTags),
+                "Input.solver", isNull(solver).or(() -> notBlank(solver)),
+                "Input.solveBudget", isNull(solveBudget).or(() -> positiveValue(solveBudget.toMillis()))
         );
 
         this.generatedMenuName = generatedMenuName;
+        this.solver = solver;
+        this.solveBudget = solveBudget;
+        this.minMealsNumber = minMealsNumber;
+        this.servingNumberPerMeal = servingNumberPerMeal;
         this.minServingNumber = servingNumberPerMeal.multiply(BigDecimal.valueOf(minMealsNumber));
+        this.productConstraintsRaw = ImmutableList.copyOf(productConstraints);
+        this.dishTagConstraintsRaw = ImmutableList.copyOf(dishTagConstraints);
+        this.productCategories = ImmutableList.copyOf(allProductCategories);
+        this.dishTags = ImmutableList.copyOf(allTags);
+        this.dishIndexes = getDishIndexes(dishMinPrices);
+        this.quantityMatrix = getQuantityMatrix(allProductCategories, dishMinPrices);
+        this.dishTagMatrix = getDishTagMatrix(allTags, dishMinPrices);
         this.dishTagConstraints = getAllDishTagConstraints(dishTagConstraints, allTags);
-        this.productQuantities = getProductQuantities(allProductCategories, dishMinPrices);
         this.productConstraints = getAllProductConstraints(productConstraints, allProductCategories);
         this.user = user;
     }
 
+    private Input(Input other,
+                  List<ProductConstraintRaw> productConstraints,
+                  List<DishTagConstraintRaw> dishTagConstraints,
+                  int minMealsNumber) {
+        Validator.check(
+                "Input.minMeals", notNull(minMealsNumber).
+                        and(() -> positiveValue(minMealsNumber)),
+                "Input.products", checkProductConstraints(productConstraints, other.productCategories),
+                "Input.dishes", checkDishTagConstraints(dishTagConstraints, other.dishTags)
+        );
+
+        this.dishMinPrices = other.dishMinPrices;
+        this.generatedMenuName = other.generatedMenuName;
+        this.solver = other.solver;
+        this.solveBudget = other.solveBudget;
+        this.minMealsNumber = minMealsNumber;
+        this.servingNumberPerMeal = other.servingNumberPerMeal;
+        this.minServingNumber = other.servingNumberPerMeal.multiply(BigDecimal.valueOf(minMealsNumber));
+        this.productCategories = other.productCategories;
+        this.dishTags = other.dishTags;
+        this.dishIndexes = other.dishIndexes;
+        this.quantityMatrix = other.quantityMatrix;
+        this.dishTagMatrix = other.dishTagMatrix;
+        this.productConstraintsRaw = ImmutableList.copyOf(productConstraints);
+        this.dishTagConstraintsRaw = ImmutableList.copyOf(dishTagConstraints);
+        this.dishTagConstraints = getAllDishTagConstraints(dishTagConstraints, other.dishTags);
+        this.productConstraints = getAllProductConstraints(productConstraints, other.productCategories);
+        this.user = other.user;
+    }
+
+    /**
+     * Возвращает копию этих входных данных, в которой все ограничения на кол-во продуктов категории category
+     * с отношением relation заменены одним указанным ограничением. Остальные ограничения, а также данные о блюдах
+     * пользователя, повторно не загружаются и используются обеими копиями.
+     * @param category категория продуктов.
+     * @param relation отношение "lessOrEqual" или "greaterOrEqual".
+     * @param quantity кол-во продуктов.
+     * @return новые входные данные.
+     * @throws ValidateException если нарушено одно из условий 6-11 перечисленных для {@link Builder#tryBuild()}.
+     */
+    public Input withProductConstraint(String category, String relation, BigDecimal quantity) {
+        List<ProductConstraintRaw> result = new ArrayList<>(productConstraintsRaw);
+        result.removeIf(pc -> Objects.equals(pc.category(), category) && Objects.equals(pc.relation(), relation));
+        result.add(new ProductConstraintRaw(category, relation, quantity));
+        return new Input(this, result, dishTagConstraintsRaw, minMealsNumber);
+    }
+
+    /**
+     * Возвращает копию этих входных данных без ограничений на кол-во продуктов категории category с отношением
+     * relation (подробнее см. {@link #withProductConstraint(String, String, BigDecimal)}). Если таких ограничений
+     * нет - возвращает копию с теми же ограничениями.
+     * @param category категория продуктов.
+     * @param relation отношение "lessOrEqual" или "greaterOrEqual".
+     * @return новые входные данные.
+     */
+    public Input withoutProductConstraint(String category, String relation) {
+        List<ProductConstraintRaw> result = new ArrayList<>(productConstraintsRaw);
+        result.removeIf(pc -> Objects.equals(pc.category(), category) && Objects.equals(pc.relation(), relation));
+        return new Input(this, result, dishTagConstraintsRaw, minMealsNumber);
+    }
+
+    /**
+     * Возвращает копию этих входных данных, в которой все ограничения на кол-во блюд с тегом dishTag и
+     * отношением relation заменены одним указанным ограничением (подробнее см.
+     * {@link #withProductConstraint(String, String, BigDecimal)}).
+     * @param dishTag тег блюда.
+     * @param relation отношение "lessOrEqual" или "greaterOrEqual".
+     * @param quantity кол-во блюд.
+     * @return новые входные данные.
+     * @throws ValidateException если нарушено одно из условий 12-17 перечисленных для {@link Builder#tryBuild()}.
+     */
+    public Input withDishConstraint(String dishTag, String relation, BigDecimal quantity) {
+        List<DishTagConstraintRaw> result = new ArrayList<>(dishTagConstraintsRaw);
+        result.removeIf(dc -> Objects.equals(dc.dishTag(), dishTag) && Objects.equals(dc.relation(), relation));
+        result.add(new DishTagConstraintRaw(dishTag, relation, quantity));
+        return new Input(this, productConstraintsRaw, result, minMealsNumber);
+    }
+
+    /**
+     * Возвращает копию этих входных данных без ограничений на кол-во блюд с тегом dishTag и отношением
+     * relation. Если таких ограничений нет - возвращает копию с теми же ограничениями.
+     * @param dishTag тег блюда.
+     * @param relation отношение "lessOrEqual" или "greaterOrEqual".
+     * @return новые входные данные.
+     */
+    public Input withoutDishConstraint(String dishTag, String relation) {
+        List<DishTagConstraintRaw> result = new ArrayList<>(dishTagConstraintsRaw);
+        result.removeIf(dc -> Objects.equals(dc.dishTag(), dishTag) && Objects.equals(dc.relation(), relation));
+        return new Input(this, productConstraintsRaw, result, minMealsNumber);
+    }
+
+    /**
+     * Возвращает копию этих входных данных с другим минимальным кол-вом приемов пищи на одного человека.
+     * @param minMealsNumber минимальное кол-во приемов пищи на одного человека.
+     * @return новые входные данные.
+     * @throws ValidateException если minMealsNumber отрицательное значение или равен нулю.
+     */
+    public Input withMinMealsNumber(int minMealsNumber) {
+        return new Input(this, productConstraintsRaw, dishTagConstraintsRaw, minMealsNumber);
+    }
+
     /**
      * Возвращает данные о минимальной стоимости для каждого блюда пользователя.
      * @return данные о минимальной стоимости для каждого блюда пользователя.
@@ -151,6 +267,43 @@ public class Input {
         return dishTagConstraints;
     }
 
+    /**
+     * Возвращает все категории продуктов используемые в блюдах пользователя. Индекс категории в этом списке
+     * соответствует номеру строки в {@link #getQuantityMatrix()}.
+     * @return все категории продуктов используемые в блюдах пользователя.
+     */
+    public ImmutableList<String> getAllProductCategories() {
+        return productCategories;
+    }
+
+    /**
+     * Возвращает все теги блюд пользователя. Индекс тега в этом списке соответствует номеру строки в
+     * {@link #getDishTagMatrix()}.
+     * @return все теги блюд пользователя.
+     */
+    public ImmutableList<Tag> getAllDishTags() {
+        return dishTags;
+    }
+
+    /**
+     * Возвращает матрицу, строки которой соответствуют категориям продуктов (см. {@link #getAllProductCategories()}),
+     * а столбцы - блюдам (см. {@link #getAllDishMinPrices()}). Значение ячейки - кол-во продукта данной
+     * категории необходимого для приготовления одной порции данного блюда.
+     * @return матрица кол-ва продуктов по категориям для каждого блюда.
+     */
+    public SparseMatrix getQuantityMatrix() {
+        return quantityMatrix;
+    }
+
+    /**
+     * Возвращает матрицу, строки которой соответствуют тегам блюд (см. {@link #getAllDishTags()}), а столбцы -
+     * блюдам (см. {@link #getAllDishMinPrices()}). Значение ячейки равно 1, если блюдо содержит тег, иначе - 0.
+     * @return матрица принадлежности тегов блюдам.
+     */
+    public SparseMatrix getDishTagMatrix() {
+        return dishTagMatrix;
+    }
+
     /**
      * Возвращает кол-во продукта указанной категории необходимого для приготовления одной порции
      * указанного блюда. Если для указанного блюда не нужны продукты указанной категории - возвращает 0.
@@ -159,11 +312,10 @@ public class Input {
      * @return кол-во продукта указанной категории.
      */
     public BigDecimal getQuantity(Dish dish, String productCategory) {
-        return productQuantities.stream().
-                filter(pq -> pq.dish().equals(dish) && pq.productCategory().equals(productCategory)).
-                findFirst().
-                map(ProductQuantity::quantity).
-                orElse(BigDecimal.ZERO);
+        Integer dishIndex = dishIndexes.get(dish);
+        int categoryIndex = productCategories.indexOf(productCategory);
+        if(dishIndex == null || categoryIndex == -1) return BigDecimal.ZERO;
+        return quantityMatrix.get(categoryIndex, dishIndex);
     }
 
     /**
@@ -194,6 +346,23 @@ public class Input {
         return generatedMenuName;
     }
 
+    /**
+     * Возвращает наименование решателя, заданного для подбора меню.
+     * @return наименование решателя или пустой Optional, если используется решатель по умолчанию.
+     */
+    public Optional<String> getSolver() {
+        return Optional.ofNullable(solver);
+    }
+
+    /**
+     * Возвращает максимальное время подбора меню, заданное для этих входных данных.
+     * @return максимальное время подбора меню или пустой Optional, если используется время заданное
+     *         параметром conf.menuGenerator.solveBudgetMillis.
+     */
+    public Optional<Duration> getSolveBudget() {
+        return Optional.ofNullable(solveBudget);
+    }
+
     /**
      * Возвращает пользователя из данных которого составлены данные ограничения.
      * @return пользователь.
@@ -210,16 +379,19 @@ public class Input {
         return dishMinPrices.equals(input.dishMinPrices) &&
                 productConstraints.equals(input.productConstraints) &&
                 dishTagConstraints.equals(input.dishTagConstraints) &&
-                productQuantities.equals(input.productQuantities) &&
+                quantityMatrix.equals(input.quantityMatrix) &&
+                dishTagMatrix.equals(input.dishTagMatrix) &&
                 minServingNumber.equals(input.minServingNumber) &&
                 generatedMenuName.equals(input.generatedMenuName) &&
+                Objects.equals(solver, input.solver) &&
+                Objects.equals(solveBudget, input.solveBudget) &&
                 user.equals(input.user);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(dishMinPrices, productConstraints, dishTagConstraints, productQuantities,
-                minServingNumber, generatedMenuName, user);
+        return Objects.hash(dishMinPrices, productConstraints, dishTagConstraints, quantityMatrix,
+                dishTagMatrix, minServingNumber, generatedMenuName, solver, solveBudget, user);
     }
 
     @Override
@@ -228,38 +400,40 @@ public class Input {
                 "dishMinPrices=" + dishMinPrices +
                 ", productConstraints=" + productConstraints +
                 ", dishTagConstraints=" + dishTagConstraints +
-                ", productQuantities=" + productQuantities +
+                ", quantityMatrix=" + quantityMatrix +
+                ", dishTagMatrix=" + dishTagMatrix +
                 ", minServingNumber=" + minServingNumber +
                 ", generatedMenuName='" + generatedMenuName + '\'' +
+                ", solver='" + solver + '\'' +
+                ", solveBudget=" + solveBudget +
                 ", user=" + user +
                 '}';
     }
 
 
-    private List<DishMinPrice> getAllDishes(UUID userId, DishRepository dishRepository) {
-        List<DishMinPrice> result = new ArrayList<>();
-
-        PageableByNumber pageable = PageableByNumber.of(30, 0);
-        Criteria criteria = new Criteria().
-                setFilter(Filter.user(userId)).
-                setSort(Sort.dishDefaultSort()).
-                setPageable(pageable);
-
-        Page<Dish> page = dishRepository.getDishes(criteria);
-        while(!page.getMetadata().isLast()) {
-            for(Dish dish : page.getContent()) {
-                dish.getMinPrice().ifPresent(minPrice -> result.add(new DishMinPrice(dish, minPrice)));
-            }
-
-            pageable = pageable.next();
-            criteria.setPageable(pageable);
-            page = dishRepository.getDishes(criteria);
-        }
-        for(Dish dish : page.getContent()) {
-            dish.getMinPrice().ifPresent(minPrice -> result.add(new DishMinPrice(dish, minPrice)));
-        }
+    private Result checkProductConstraints(List<ProductConstraintRaw> productConstraints,
+                                           List<String> allProductCategories) {
+        return doesNotThrows(productConstraints,
+                (pc) -> Validator.check(
+                        "Input.product.category", notNull(pc.category()).
+                                and(() -> anyMatch(allProductCategories, pc.category())),
+                        "Input.product.condition", notNull(pc.relation()).
+                                and(() -> anyMatch(List.of("lessOrEqual", "greaterOrEqual"), pc.relation())),
+                        "Input.product.quantity", notNull(pc.quantity()).
+                                and(() -> notNegative(pc.quantity()))
+                ));
+    }
 
-        return result;
+    private Result checkDishTagConstraints(List<DishTagConstraintRaw> dishTagConstraints, List<Tag> allTags) {
+        return doesNotThrows(dishTagConstraints,
+                (dc) -> Validator.check(
+                        "Input.dish.dishTag", notNull(dc.dishTag()).
+                                and(() -> anyMatch(allTags, tag -> tag.getValue().equals(dc.dishTag()))),
+                        "Input.dish.condition", notNull(dc.relation()).
+                                and(() -> anyMatch(List.of("lessOrEqual", "greaterOrEqual"), dc.relation())),
+                        "Input.dish.quantity", notNull(dc.quantity()).
+                                and(() -> notNegative(dc.quantity()))
+                ));
     }
 
     private List<Tag> getAllDishesTag(List<DishMinPrice> dishMinPrices) {
@@ -273,16 +447,20 @@ public class Input {
                                                                       List<Tag> allTags) {
         List<DishTagConstraint> result = new ArrayList<>();
 
-        for(Tag tag : allTags) {
-            List<DishTagConstraintRaw> match = tagConstraints.stream().
-                    filter(dtc -> dtc.dishTag().equals(tag.getValue())).
-                    toList();
+        Map<String, List<DishTagConstraintRaw>> constraintsByTag = new HashMap<>();
+        for(DishTagConstraintRaw constraint : tagConstraints) {
+            constraintsByTag.computeIfAbsent(constraint.dishTag(), key -> new ArrayList<>()).add(constraint);
+        }
+
+        for(int tagIndex = 0; tagIndex < allTags.size(); tagIndex++) {
+            Tag tag = allTags.get(tagIndex);
+            List<DishTagConstraintRaw> match = constraintsByTag.getOrDefault(tag.getValue(), List.of());
             if(match.isEmpty()) {
-                result.add(new DishTagConstraint(tag, Relationship.GREATER_OR_EQUAL, BigDecimal.ZERO));
+                result.add(new DishTagConstraint(tag, tagIndex, Relationship.GREATER_OR_EQUAL, BigDecimal.ZERO));
             } else {
-                match.forEach(dtc ->
-                        result.add(new DishTagConstraint(tag, toRelation(dtc.relation()), dtc.quantity()))
-                );
+                for(DishTagConstraintRaw dtc : match) {
+                    result.add(new DishTagConstraint(tag, tagIndex, toRelation(dtc.relation()), dtc.quantity()));
+                }
             }
         }
 
@@ -299,48 +477,68 @@ public class Input {
                 toList();
     }
 
-    private ImmutableList<ProductQuantity> getProductQuantities(List<String> allProductCategories,
-                                                                List<DishMinPrice> dishMinPrices) {
-        List<ProductQuantity> result = new ArrayList<>();
-
-        for(String category : allProductCategories) {
-            for(DishMinPrice minPrice : dishMinPrices) {
-                ProductQuantity productQuantity = minPrice.dish().getIngredients().stream().
-                        filter(ingredient -> {
-                            return ingredient.getFilter().
-                                    <AnyFilter>findAny(Filter.Type.CATEGORY).
-                                    map(filter -> filter.getValues().get(0).equals(category)).
-                                    orElse(false);
-                        }).
-                        findFirst().
-                        map(ingredient ->
-                                new ProductQuantity(minPrice.dish(),
-                                        category,
-                                        ingredient.getNecessaryQuantity(BigDecimal.ONE))
-                        ).
-                        orElse(new ProductQuantity(minPrice.dish(), category, BigDecimal.ZERO));
-
-                result.add(productQuantity);
+    private Map<Dish, Integer> getDishIndexes(List<DishMinPrice> dishMinPrices) {
+        Map<Dish, Integer> result = new HashMap<>();
+        for(int dishIndex = 0; dishIndex < dishMinPrices.size(); dishIndex++) {
+            result.putIfAbsent(dishMinPrices.get(dishIndex).dish(), dishIndex);
+        }
+        return result;
+    }
+
+    private SparseMatrix getQuantityMatrix(List<String> allProductCategories,
+                                           List<DishMinPrice> dishMinPrices) {
+        Map<String, Integer> categoryIndexes = new HashMap<>();
+        for(int i = 0; i < allProductCategories.size(); i++) categoryIndexes.put(allProductCategories.get(i), i);
+
+        SparseMatrix.Builder builder = new SparseMatrix.Builder(allProductCategories.size(), dishMinPrices.size());
+        for(int dishIndex = 0; dishIndex < dishMinPrices.size(); dishIndex++) {
+            Set<Integer> filledCategories = new HashSet<>();
+            for(DishIngredient ingredient : dishMinPrices.get(dishIndex).dish().getIngredients()) {
+                Optional<AnyFilter> filter = ingredient.getFilter().findAny(Filter.Type.CATEGORY);
+                if(filter.isPresent()) {
+                    int categoryIndex = categoryIndexes.get(filter.get().getValues().get(0));
+                    if(filledCategories.add(categoryIndex)) {
+                        builder.set(categoryIndex, dishIndex, ingredient.getNecessaryQuantity(BigDecimal.ONE));
+                    }
+                }
             }
         }
 
-        return ImmutableList.copyOf(result);
+        return builder.build();
+    }
+
+    private SparseMatrix getDishTagMatrix(List<Tag> allTags, List<DishMinPrice> dishMinPrices) {
+        Map<Tag, Integer> tagIndexes = new HashMap<>();
+        for(int i = 0; i < allTags.size(); i++) tagIndexes.put(allTags.get(i), i);
+
+        SparseMatrix.Builder builder = new SparseMatrix.Builder(allTags.size(), dishMinPrices.size());
+        for(int dishIndex = 0; dishIndex < dishMinPrices.size(); dishIndex++) {
+            for(Tag tag : dishMinPrices.get(dishIndex).dish().getTags()) {
+                builder.set(tagIndexes.get(tag), dishIndex, BigDecimal.ONE);
+            }
+        }
+
+        return builder.build();
     }
 
     private ImmutableList<ProductConstraint> getAllProductConstraints(List<ProductConstraintRaw> productConstraints,
                                                                       List<String> allProductCategories) {
         List<ProductConstraint> result = new ArrayList<>();
 
-        for(String category : allProductCategories) {
-            List<ProductConstraintRaw> match = productConstraints.stream().
-                    filter(pcr -> pcr.category().equals(category)).
-                    toList();
+        Map<String, List<ProductConstraintRaw>> constraintsByCategory = new HashMap<>();
+        for(ProductConstraintRaw constraint : productConstraints) {
+            constraintsByCategory.computeIfAbsent(constraint.category(), key -> new ArrayList<>()).add(constraint);
+        }
+
+        for(int categoryIndex = 0; categoryIndex < allProductCategories.size(); categoryIndex++) {
+            String category = allProductCategories.get(categoryIndex);
+            List<ProductConstraintRaw> match = constraintsByCategory.getOrDefault(category, List.of());
             if(match.isEmpty()) {
-                result.add(new ProductConstraint(category, Relationship.GREATER_OR_EQUAL, BigDecimal.ZERO));
+                result.add(new ProductConstraint(category, categoryIndex, Relationship.GREATER_OR_EQUAL, BigDecimal.ZERO));
             } else {
-                match.forEach(pcr ->
-                        result.add(new ProductConstraint(category, toRelation(pcr.relation()), pcr.quantity()))
-                );
+                for(ProductConstraintRaw pcr : match) {
+                    result.add(new ProductConstraint(category, categoryIndex, toRelation(pcr.relation()), pcr.quantity()));
+                }
             }
         }
 
@@ -376,6 +574,9 @@ public class Input {
         private final List<DishTagConstraintRaw> dishConstraints;
         private DishRepository dishRepository;
         private MenuRepository menuRepository;
+        private DishPriceSummaryService dishPriceSummaryService;
+        private String solver;
+        private Duration solveBudget;
 
         public Builder() {
             productConstraints = new ArrayList<>();
@@ -460,6 +661,41 @@ public class Input {
             return this;
         }
 
+        /**
+         * Устанавливает сервис, предоставляющий предварительно рассчитанные данные о стоимости блюд. Если
+         * сервис не задан - минимальная стоимость блюд будет рассчитываться при каждом создании входных данных.
+         * @param dishPriceSummaryService сервис данных о стоимости блюд.
+         * @return ссылку на этот же объект.
+         */
+        public Builder setDishPriceSummaryService(DishPriceSummaryService dishPriceSummaryService) {
+            this.dishPriceSummaryService = dishPriceSummaryService;
+            return this;
+        }
+
+        /**
+         * Устанавливает решатель, используемый для подбора меню. Если решатель не задан - используется решатель
+         * заданный параметром conf.menuGenerator.solver. Наличие решателя с таким наименованием проверяется при
+         * подборе меню (см. {@link MilpSolverRegistry}).
+         * @param solver наименование решателя или null.
+         * @return ссылку на этот же объект.
+         */
+        public Builder setSolver(String solver) {
+            this.solver = solver;
+            return this;
+        }
+
+        /**
+         * Устанавливает максимальное время подбора меню для этих входных данных. Если время не задано -
+         * используется время заданное параметром conf.menuGenerator.solveBudgetMillis. Время большее этого
+         * параметра уменьшается до него при подборе меню (см. {@link MenuGeneratorService}).
+         * @param solveBudget максимальное время подбора меню или null.
+         * @return ссылку на этот же объект.
+         */
+        public Builder setSolveBudget(Duration solveBudget) {
+            this.solveBudget = solveBudget;
+            return this;
+        }
+
         /**
          * Создает и возвращает набор входных данных для генерации нового меню.
          * @return новое меню.
@@ -501,6 +737,8 @@ public class Input {
          *         21. Если user равен null. <br/>
          *         22. Если dishRepository равен null. <br/>
          *         23. Если menuRepository равен null. <br/>
+         *         24. Если solver не равен null и является пустой строкой. <br/>
+         *         25. Если solveBudget не равен null и меньше одной миллисекунды. <br/>
          */
         public Input tryBuild() {
             return new Input(
@@ -511,6 +749,9 @@ public class Input {
                     generatedMenuName,
                     dishRepository,
                     menuRepository,
+                    dishPriceSummaryService,
+                    solver,
+                    solveBudget,
                     user
             );
         }
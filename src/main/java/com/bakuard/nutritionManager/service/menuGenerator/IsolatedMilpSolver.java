@@ -0,0 +1,75 @@
+package com.bakuard.nutritionManager.service.menuGenerator;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Позволяет одновременно решать задачи в нескольких потоках с помощью {@link SscMilpSolver}. Библиотека it.ssc
+ * хранит состояние решения в статических полях (например, исходную задачу в MilpManager.pl_original_zero), поэтому
+ * два потока, одновременно решающие задачи с одними и теми же классами библиотеки, портят решения друг друга. Для
+ * каждого потока классы библиотеки it.ssc и {@link SscMilpSolver} (вместе с его вложенными классами) загружаются
+ * отдельным загрузчиком классов, поэтому статическое состояние библиотеки у каждого потока свое. Остальные классы
+ * (в том числе {@link MilpProblem} и {@link MilpSolution}) загружаются общим родительским загрузчиком классов.
+ * <br/><br/>
+ * Копия классов библиотеки живет столько же, сколько поток, которому она принадлежит. Поэтому данный решатель
+ * следует вызывать из потоков с большим временем жизни (например, из потоков пула фиксированного размера, которые
+ * не завершаются по простою), иначе каждый новый поток будет заново загружать классы библиотеки.
+ */
+class IsolatedMilpSolver implements MilpSolver {
+
+    private final ThreadLocal<MilpSolver> solvers;
+
+    public IsolatedMilpSolver() {
+        ClassLoader parent = IsolatedMilpSolver.class.getClassLoader();
+        solvers = ThreadLocal.withInitial(() -> {
+            try {
+                return (MilpSolver) new IsolatingClassLoader(parent).
+                        loadClass(SscMilpSolver.class.getName()).
+                        getConstructor().
+                        newInstance();
+            } catch(ReflectiveOperationException e) {
+                throw new IllegalStateException("Fail to load " + SscMilpSolver.class.getName(), e);
+            }
+        });
+    }
+
+    @Override
+    public MilpSolution solve(MilpProblem problem) throws Exception {
+        return solvers.get().solve(problem);
+    }
+
+
+    private static class IsolatingClassLoader extends ClassLoader {
+
+        public IsolatingClassLoader(ClassLoader parent) {
+            super(parent);
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            if(!isIsolated(name)) return super.loadClass(name, resolve);
+
+            synchronized(getClassLoadingLock(name)) {
+                Class<?> result = findLoadedClass(name);
+                if(result == null) {
+                    try(InputStream in = getParent().getResourceAsStream(name.replace('.', '/') + ".class")) {
+                        if(in == null) throw new ClassNotFoundException(name);
+                        byte[] bytes = in.readAllBytes();
+                        result = defineClass(name, bytes, 0, bytes.length);
+                    } catch(IOException e) {
+                        throw new ClassNotFoundException(name, e);
+                    }
+                }
+                if(resolve) resolveClass(result);
+                return result;
+            }
+        }
+
+        private boolean isIsolated(String name) {
+            String solverName = SscMilpSolver.class.getName();
+            return name.startsWith("it.ssc.") || name.equals(solverName) || name.startsWith(solverName + "$");
+        }
+
+    }
+
+}
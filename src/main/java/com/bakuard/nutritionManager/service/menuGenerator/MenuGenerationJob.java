@@ -0,0 +1,238 @@
+package com.bakuard.nutritionManager.service.menuGenerator;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+
+/**
+ * Задача подбора меню выполняемая асинхронно (см. {@link MenuGenerationJobService}). Хранит текущий этап
+ * выполнения задачи и, после ее завершения, подобранное меню или ошибку. Объекты данного класса потокобезопасны.
+ */
+public class MenuGenerationJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(MenuGenerationJob.class);
+
+    private final UUID id;
+    private final UUID userId;
+    private final String menuName;
+    private final List<Consumer<MenuGenerationJob>> listeners;
+    private final Executor notificationExecutor;
+    private final Queue<Runnable> notifications;
+    private boolean notifying;
+    private MenuGenerationStage stage;
+    private GeneratedMenu result;
+    private RuntimeException error;
+    private LocalDateTime finishedAt;
+    private Future<?> future;
+
+    MenuGenerationJob(UUID id, UUID userId, String menuName, Executor notificationExecutor) {
+        this.id = id;
+        this.userId = userId;
+        this.menuName = menuName;
+        this.listeners = new CopyOnWriteArrayList<>();
+        this.notificationExecutor = notificationExecutor;
+        this.notifications = new ArrayDeque<>();
+        this.stage = MenuGenerationStage.QUEUED;
+    }
+
+    private MenuGenerationJob(MenuGenerationJob other) {
+        this.id = other.id;
+        this.userId = other.userId;
+        this.menuName = other.menuName;
+        this.listeners = List.of();
+        this.notificationExecutor = other.notificationExecutor;
+        this.notifications = new ArrayDeque<>();
+        this.stage = other.stage;
+        this.result = other.result;
+        this.error = other.error;
+        this.finishedAt = other.finishedAt;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public UUID getUserId() {
+        return userId;
+    }
+
+    public String getMenuName() {
+        return menuName;
+    }
+
+    public synchronized MenuGenerationStage getStage() {
+        return stage;
+    }
+
+    /**
+     * Возвращает подобранное меню, если задача успешно завершена, иначе - пустой Optional.
+     */
+    public synchronized Optional<GeneratedMenu> getResult() {
+        return Optional.ofNullable(result);
+    }
+
+    /**
+     * Возвращает ошибку, из-за которой не удалось подобрать меню, если задача завершилась неудачей, иначе -
+     * пустой Optional.
+     */
+    public synchronized Optional<RuntimeException> getError() {
+        return Optional.ofNullable(error);
+    }
+
+    /**
+     * Добавляет слушателя, который будет вызываться при каждой смене этапа выполнения задачи. Слушатель
+     * сразу же вызывается для текущего этапа. Слушатель получает неизменяемую копию задачи на момент смены
+     * этапа и вызывается в отдельном потоке уведомлений (см. {@link MenuGenerationJobService}), а не в потоке
+     * сменившем этап. Поэтому слушатель может выполнять длительные операции: они не задерживают ни подбор меню,
+     * ни вызвавший данный метод поток, но задерживают уведомление всех слушателей этой задачи о следующих
+     * этапах. Каждый слушатель получает этапы в порядке их смены.
+     * @param listener добавляемый слушатель.
+     */
+    public void addListener(Consumer<MenuGenerationJob> listener) {
+        synchronized(this) {
+            listeners.add(listener);
+            MenuGenerationJob snapshot = new MenuGenerationJob(this);
+            notifications.add(() -> listener.accept(snapshot));
+        }
+        notifyListeners();
+    }
+
+    /**
+     * Удаляет ранее добавленного слушателя.
+     * @param listener удаляемый слушатель.
+     */
+    public void removeListener(Consumer<MenuGenerationJob> listener) {
+        listeners.remove(listener);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if(this == o) return true;
+        if(o == null || getClass() != o.getClass()) return false;
+        MenuGenerationJob that = (MenuGenerationJob) o;
+        return id.equals(that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id);
+    }
+
+    @Override
+    public String toString() {
+        return "MenuGenerationJob{" +
+                "id=" + id +
+                ", userId=" + userId +
+                ", menuName='" + menuName + '\'' +
+                ", stage=" + getStage() +
+                '}';
+    }
+
+
+    synchronized void setFuture(Future<?> future) {
+        this.future = future;
+    }
+
+    synchronized Optional<LocalDateTime> getFinishedAt() {
+        return Optional.ofNullable(finishedAt);
+    }
+
+    void moveTo(MenuGenerationStage stage) {
+        update(() -> this.stage = stage, null);
+    }
+
+    void done(GeneratedMenu result, LocalDateTime finishedAt) {
+        update(() -> {
+            this.result = result;
+            this.stage = MenuGenerationStage.DONE;
+        }, finishedAt);
+    }
+
+    void fail(RuntimeException error, LocalDateTime finishedAt) {
+        update(() -> {
+            this.error = error;
+            this.stage = MenuGenerationStage.FAILED;
+        }, finishedAt);
+    }
+
+    boolean cancel(LocalDateTime finishedAt) {
+        Future<?> future;
+        synchronized(this) {
+            if(stage.isFinal()) return false;
+            future = this.future;
+        }
+        update(() -> this.stage = MenuGenerationStage.CANCELLED, finishedAt);
+        if(future != null) future.cancel(true);
+        return true;
+    }
+
+    /*
+     * Изменение состояния задачи выполняется только если задача еще не завершена: это исключает смену этапа
+     * у отмененной задачи, поток которой еще не успел остановиться. Уведомления слушателей ставятся в очередь
+     * под той же блокировкой, чтобы каждый из них получал этапы в порядке их смены.
+     */
+    private void update(Runnable change, LocalDateTime finishedAt) {
+        synchronized(this) {
+            if(stage.isFinal()) return;
+            change.run();
+            if(stage.isFinal()) this.finishedAt = finishedAt;
+            MenuGenerationJob snapshot = new MenuGenerationJob(this);
+            listeners.forEach(listener -> notifications.add(() -> listener.accept(snapshot)));
+        }
+        notifyListeners();
+    }
+
+    /*
+     * Передает обработку очереди уведомлений потоку уведомлений. Одновременно очередь обрабатывает только один
+     * поток: если очередь уже обрабатывается, то добавленные уведомления выполнит тот же поток.
+     */
+    private void notifyListeners() {
+        synchronized(this) {
+            if(notifying || notifications.isEmpty()) return;
+            notifying = true;
+        }
+        try {
+            notificationExecutor.execute(this::runNotifications);
+        } catch(RejectedExecutionException e) {
+            synchronized(this) {
+                notifications.clear();
+                notifying = false;
+            }
+            logger.warn("Fail to notify listeners of job={}", this, e);
+        }
+    }
+
+    /*
+     * Выполняет уведомления из очереди вне блокировки задачи, пока очередь не опустеет.
+     */
+    private void runNotifications() {
+        while(true) {
+            Runnable notification;
+            synchronized(this) {
+                notification = notifications.poll();
+                if(notification == null) {
+                    notifying = false;
+                    return;
+                }
+            }
+            try {
+                notification.run();
+            } catch(RuntimeException e) {
+                logger.warn("Fail to notify listener of job={}", this, e);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,192 @@
+package com.bakuard.nutritionManager.service.menuGenerator;
+
+import com.bakuard.nutritionManager.config.configData.ConfigData;
+import com.bakuard.nutritionManager.validation.Constraint;
+import com.bakuard.nutritionManager.validation.Rule;
+import com.bakuard.nutritionManager.validation.ValidateException;
+import com.bakuard.nutritionManager.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+import static com.bakuard.nutritionManager.validation.Rule.*;
+
+/**
+ * Выполняет подбор меню асинхронно, в пуле потоков ограниченного размера с очередью ограниченной длины.
+ * Если очередь заполнена - новые задачи отклоняются. Для каждого пользователя и наименования меню
+ * одновременно может выполняться не более одной задачи: повторная постановка задачи с тем же наименованием
+ * меню возвращает уже выполняющуюся задачу. Завершенные задачи хранятся в памяти в течение времени заданного
+ * параметром conf.menuGenerator.finishedJobLifeTimeInMinutes. Слушатели задач (см.
+ * {@link MenuGenerationJob#addListener}) вызываются в отдельных потоках уведомлений, поэтому медленный
+ * слушатель не задерживает подбор меню.
+ */
+public class MenuGenerationJobService implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(MenuGenerationJobService.class);
+
+    private final MenuGeneratorService menuGeneratorService;
+    private final TransactionTemplate transactionTemplate;
+    private final ConfigData configData;
+    private final Clock clock;
+    private final ThreadPoolExecutor executor;
+    private final ExecutorService notificationExecutor;
+    private final Map<UUID, MenuGenerationJob> jobs;
+    private final Map<String, MenuGenerationJob> activeJobs;
+
+    public MenuGenerationJobService(MenuGeneratorService menuGeneratorService,
+                                    PlatformTransactionManager transactionManager,
+                                    ConfigData configData,
+                                    Clock clock) {
+        this.menuGeneratorService = menuGeneratorService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.configData = configData;
+        this.clock = clock;
+        this.executor = new ThreadPoolExecutor(
+                configData.menuGenerator().jobThreads(),
+                configData.menuGenerator().jobThreads(),
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(configData.menuGenerator().jobQueueCapacity()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "menu-generation-job");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+        );
+        this.notificationExecutor = Executors.newCachedThreadPool(
+                runnable -> {
+                    Thread thread = new Thread(runnable, "menu-generation-job-listener");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+        );
+        this.jobs = new ConcurrentHashMap<>();
+        this.activeJobs = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Ставит в очередь задачу подбора меню. Если для указанного пользователя уже выполняется задача подбора
+     * меню с таким же наименованием - возвращает ее.
+     * @param userId уникальный идентификатор пользователя, для которого подбирается меню.
+     * @param menuName наименование подбираемого меню.
+     * @param inputLoader загружает исходные данные для подбора меню. Вызывается в потоке выполняющем задачу,
+     *                    в рамках транзакции только для чтения. Исключения выброшенные inputLoader
+     *                    сохраняются как ошибка задачи.
+     * @return поставленная в очередь или уже выполняющаяся задача.
+     * @throws ValidateException если выполняется хотя бы одно из следующих условий: <br/>
+     *         1. Если userId равен null. <br/>
+     *         2. Если menuName равен null. <br/>
+     *         3. Если inputLoader равен null. <br/>
+     *         4. Если очередь задач заполнена. <br/>
+     */
+    public MenuGenerationJob submit(UUID userId, String menuName, Supplier<Input> inputLoader) {
+        Validator.check(
+                "MenuGenerationJobService.userId", notNull(userId),
+                "MenuGenerationJobService.menuName", notNull(menuName),
+                "MenuGenerationJobService.inputLoader", notNull(inputLoader)
+        );
+
+        removeExpiredJobs();
+
+        try {
+            return activeJobs.compute(key(userId, menuName), (key, current) -> {
+                if(current != null && !current.getStage().isFinal()) return current;
+
+                MenuGenerationJob job = new MenuGenerationJob(UUID.randomUUID(), userId, menuName, notificationExecutor);
+                job.setFuture(executor.submit(() -> run(job, inputLoader)));
+                jobs.put(job.getId(), job);
+                return job;
+            });
+        } catch(RejectedExecutionException e) {
+            throw new ValidateException("Menu generation queue is full").
+                    addReason(e).
+                    addReason(Rule.of("MenuGenerationJobService.submit", failure(Constraint.QUEUE_NOT_FULL)));
+        }
+    }
+
+    /**
+     * Возвращает задачу подбора меню по ее идентификатору.
+     * @param userId уникальный идентификатор пользователя, которому принадлежит задача.
+     * @param jobId уникальный идентификатор задачи.
+     * @return задача подбора меню.
+     * @throws ValidateException если у пользователя с идентификатором userId нет задачи с идентификатором jobId
+     *                           или срок хранения этой задачи истек.
+     */
+    public MenuGenerationJob tryGetJob(UUID userId, UUID jobId) {
+        MenuGenerationJob job = jobId != null ? jobs.get(jobId) : null;
+        if(job == null || !job.getUserId().equals(userId)) {
+            throw new ValidateException("Unknown menu generation job with id=" + jobId + " for userId=" + userId).
+                    addReason(Rule.of("MenuGenerationJobService.jobId", failure(Constraint.ENTITY_MUST_EXISTS_IN_DB)));
+        }
+        return job;
+    }
+
+    /**
+     * Отменяет задачу подбора меню. Если задача уже завершена - ничего не делает.
+     * @param userId уникальный идентификатор пользователя, которому принадлежит задача.
+     * @param jobId уникальный идентификатор задачи.
+     * @return отмененная задача.
+     * @throws ValidateException если у пользователя с идентификатором userId нет задачи с идентификатором jobId
+     *                           или срок хранения этой задачи истек.
+     */
+    public MenuGenerationJob cancel(UUID userId, UUID jobId) {
+        MenuGenerationJob job = tryGetJob(userId, jobId);
+        if(job.cancel(LocalDateTime.now(clock))) {
+            activeJobs.remove(key(job.getUserId(), job.getMenuName()), job);
+            executor.purge();
+        }
+        return job;
+    }
+
+    /**
+     * Прерывает все выполняющиеся задачи и останавливает пулы потоков задач и уведомлений.
+     */
+    @Override
+    public void close() {
+        executor.shutdownNow();
+        notificationExecutor.shutdownNow();
+    }
+
+
+    private void run(MenuGenerationJob job, Supplier<Input> inputLoader) {
+        try {
+            job.moveTo(MenuGenerationStage.LOADING);
+            Input input = transactionTemplate.execute(status -> inputLoader.get());
+            GeneratedMenu result = menuGeneratorService.generate(
+                    input,
+                    menuGeneratorService.solveBudget(input),
+                    job::moveTo
+            );
+            job.done(result, LocalDateTime.now(clock));
+        } catch(CancellationException e) {
+            job.cancel(LocalDateTime.now(clock));
+        } catch(RuntimeException e) {
+            logger.info("Fail to generate menu for job={}", job, e);
+            job.fail(e, LocalDateTime.now(clock));
+        } finally {
+            activeJobs.remove(key(job.getUserId(), job.getMenuName()), job);
+        }
+    }
+
+    private void removeExpiredJobs() {
+        LocalDateTime expiredBefore = LocalDateTime.now(clock).
+                minusMinutes(configData.menuGenerator().finishedJobLifeTimeInMinutes());
+        jobs.values().removeIf(job -> job.getFinishedAt().
+                map(finishedAt -> finishedAt.isBefore(expiredBefore)).
+                orElse(false));
+    }
+
+    private String key(UUID userId, String menuName) {
+        return userId + ":" + menuName;
+    }
+
+}
@@ -0,0 +1,149 @@
+package com.bakuard.nutritionManager.service.menuGenerator;
+
+import com.bakuard.nutritionManager.validation.ValidateException;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Сеанс подбора меню, позволяющий изменять отдельные ограничения и повторно подбирать меню (см.
+ * {@link MenuGeneratorService#openSession(Input)}). Блюда пользователя загружаются один раз при создании
+ * исходных данных {@link Input}, а каждое изменение ограничений создает их копию без обращения к БД (см.
+ * {@link Input#withProductConstraint(String, String, BigDecimal)}). <br/><br/>
+ * Последнее подобранное меню используется как начальное решение при следующем подборе: если оно удовлетворяет
+ * измененным ограничениям, поиск любого допустимого меню пропускается, а решатель отсекает все меню не дешевле
+ * него (если решатель это поддерживает, см. {@link MilpSolver#solve(MilpProblem, long[])}). Если за отведенное
+ * время не удалось найти меню дешевле, возвращается последнее подобранное меню. Если изменения только усиливают
+ * ограничения (например, уменьшают допустимое кол-во продукта) и последнее оптимальное меню им удовлетворяет,
+ * оно возвращается как оптимальное без повторного поиска. <br/><br/>
+ * Объекты данного класса не предназначены для использования из нескольких потоков одновременно.
+ */
+public class MenuGenerationSession {
+
+    private final MenuGeneratorService menuGeneratorService;
+    private final Duration solveBudget;
+    private Input input;
+    private MenuGeneratorService.Solved last;
+
+    MenuGenerationSession(MenuGeneratorService menuGeneratorService, Input input, Duration solveBudget) {
+        this.menuGeneratorService = menuGeneratorService;
+        this.input = input;
+        this.solveBudget = solveBudget;
+    }
+
+    /**
+     * Подбирает меню для текущих ограничений сеанса. Время подбора ограничено значением
+     * conf.menuGenerator.solveBudgetMillis (подробнее см. {@link #generate(Duration)}).
+     * @return новое меню и сведения о его оптимальности.
+     * @throws ValidateException если выполняется хотя бы одно из условий перечисленных для
+     *                           {@link MenuGeneratorService#generate(Input)}.
+     */
+    public GeneratedMenu generate() {
+        return generate(solveBudget);
+    }
+
+    /**
+     * Подбирает меню для текущих ограничений сеанса, используя последнее подобранное в этом сеансе меню как
+     * начальное решение. Если подобрать меню не удалось, последнее подобранное меню остается начальным решением
+     * для следующего подбора.
+     * @param solveBudget максимальное время подбора меню.
+     * @return новое меню и сведения о его оптимальности.
+     * @throws ValidateException если выполняется хотя бы одно из условий перечисленных для
+     *                           {@link MenuGeneratorService#generate(Input, Duration)}.
+     */
+    public GeneratedMenu generate(Duration solveBudget) {
+        last = menuGeneratorService.generate(input, solveBudget, stage -> {}, last);
+        return last.generatedMenu();
+    }
+
+    /**
+     * Заменяет все ограничения на кол-во продуктов категории category с отношением relation указанным
+     * ограничением. Например, ограничение "курица <= 2 кг" заменяется ограничением "курица <= 1.5 кг", а
+     * ограничение "курица >= 1 кг" остается без изменений.
+     * @param category категория продуктов.
+     * @param relation отношение "lessOrEqual" или "greaterOrEqual".
+     * @param quantity кол-во продуктов.
+     * @return ссылку на этот же объект.
+     * @throws ValidateException если нарушено одно из условий перечисленных для
+     *                           {@link Input#withProductConstraint(String, String, BigDecimal)}. В этом случае
+     *                           ограничения сеанса не изменяются.
+     */
+    public MenuGenerationSession setProductConstraint(String category, String relation, BigDecimal quantity) {
+        input = input.withProductConstraint(category, relation, quantity);
+        return this;
+    }
+
+    /**
+     * Удаляет все ограничения на кол-во продуктов категории category с отношением relation.
+     * @param category категория продуктов.
+     * @param relation отношение "lessOrEqual" или "greaterOrEqual".
+     * @return ссылку на этот же объект.
+     */
+    public MenuGenerationSession removeProductConstraint(String category, String relation) {
+        input = input.withoutProductConstraint(category, relation);
+        return this;
+    }
+
+    /**
+     * Заменяет все ограничения на кол-во блюд с тегом dishTag и отношением relation указанным ограничением.
+     * @param dishTag тег блюда.
+     * @param relation отношение "lessOrEqual" или "greaterOrEqual".
+     * @param quantity кол-во блюд.
+     * @return ссылку на этот же объект.
+     * @throws ValidateException если нарушено одно из условий перечисленных для
+     *                           {@link Input#withDishConstraint(String, String, BigDecimal)}. В этом случае
+     *                           ограничения сеанса не изменяются.
+     */
+    public MenuGenerationSession setDishConstraint(String dishTag, String relation, BigDecimal quantity) {
+        input = input.withDishConstraint(dishTag, relation, quantity);
+        return this;
+    }
+
+    /**
+     * Удаляет все ограничения на кол-во блюд с тегом dishTag и отношением relation.
+     * @param dishTag тег блюда.
+     * @param relation отношение "lessOrEqual" или "greaterOrEqual".
+     * @return ссылку на этот же объект.
+     */
+    public MenuGenerationSession removeDishConstraint(String dishTag, String relation) {
+        input = input.withoutDishConstraint(dishTag, relation);
+        return this;
+    }
+
+    /**
+     * Устанавливает минимальное кол-во приемов пищи на одного человека.
+     * @param minMealsNumber минимальное кол-во приемов пищи на одного человека.
+     * @return ссылку на этот же объект.
+     * @throws ValidateException если minMealsNumber отрицательное значение или равен нулю. В этом случае
+     *                           ограничения сеанса не изменяются.
+     */
+    public MenuGenerationSession setMinMealsNumber(int minMealsNumber) {
+        input = input.withMinMealsNumber(minMealsNumber);
+        return this;
+    }
+
+    /**
+     * Возвращает текущие ограничения сеанса.
+     */
+    public Input getInput() {
+        return input;
+    }
+
+    /**
+     * Возвращает последнее подобранное в этом сеансе меню.
+     * @return последнее подобранное меню или пустой Optional, если меню в этом сеансе еще не подбиралось.
+     */
+    public Optional<GeneratedMenu> getLastGeneratedMenu() {
+        return Optional.ofNullable(last).map(MenuGeneratorService.Solved::generatedMenu);
+    }
+
+    @Override
+    public String toString() {
+        return "MenuGenerationSession{" +
+                "input=" + input +
+                ", lastGeneratedMenu=" + getLastGeneratedMenu().orElse(null) +
+                '}';
+    }
+
+}
@@ -0,0 +1,45 @@
+package com.bakuard.nutritionManager.service.menuGenerator;
+
+/**
+ * Этапы выполнения задачи подбора меню (см. {@link MenuGenerationJob}).
+ */
+public enum MenuGenerationStage {
+
+    /**
+     * Задача ожидает в очереди.
+     */
+    QUEUED,
+    /**
+     * Загружаются данные необходимые для подбора меню (см. {@link Input}).
+     */
+    LOADING,
+    /**
+     * Выполняется упрощение задачи подбора меню.
+     */
+    PRESOLVE,
+    /**
+     * Выполняется поиск меню минимальной стоимости.
+     */
+    SOLVING,
+    /**
+     * Меню успешно подобрано.
+     */
+    DONE,
+    /**
+     * Подобрать меню не удалось.
+     */
+    FAILED,
+    /**
+     * Задача была отменена.
+     */
+    CANCELLED;
+
+    /**
+     * Проверяет - является ли данный этап завершающим.
+     * @return true - если задача на данном этапе завершена (успешно или нет), иначе - false.
+     */
+    public boolean isFinal() {
+        return this == DONE || this == FAILED || this == CANCELLED;
+    }
+
+}
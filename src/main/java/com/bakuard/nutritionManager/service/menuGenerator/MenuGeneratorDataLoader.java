@@ -0,0 +1,64 @@
+package com.bakuard.nutritionManager.service.menuGenerator;
+
+import com.bakuard.nutritionManager.dal.DishRepository;
+import com.bakuard.nutritionManager.model.Dish;
+import com.bakuard.nutritionManager.service.DishPriceSummaryService;
+import com.bakuard.nutritionManager.validation.ValidateException;
+import com.bakuard.nutritionManager.validation.Validator;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static com.bakuard.nutritionManager.validation.Rule.notNull;
+
+/**
+ * Загружает данные о блюдах пользователя необходимые для подбора нового меню (см. {@link Input}).
+ * Кол-во запросов к БД не зависит от кол-ва блюд пользователя: все блюда загружаются вместе с тегами и
+ * ингредиентами (см. {@link DishRepository#getAllDishes(UUID)}), а минимальная стоимость блюд берется из
+ * предварительно рассчитанных данных или рассчитывается одним пакетным запросом для всех блюд сразу.
+ */
+public class MenuGeneratorDataLoader {
+
+    private final DishRepository dishRepository;
+    private final DishPriceSummaryService dishPriceSummaryService;
+
+    /**
+     * @param dishRepository репозиторий блюд.
+     * @param dishPriceSummaryService сервис данных о стоимости блюд. Может быть null - в этом случае минимальная
+     *                                стоимость блюд рассчитывается при каждой загрузке.
+     */
+    public MenuGeneratorDataLoader(DishRepository dishRepository,
+                                   DishPriceSummaryService dishPriceSummaryService) {
+        this.dishRepository = dishRepository;
+        this.dishPriceSummaryService = dishPriceSummaryService;
+    }
+
+    /**
+     * Возвращает данные о минимальной стоимости каждого блюда указанного пользователя. Блюда, для которых
+     * невозможно рассчитать минимальную стоимость (ни одному ингредиенту не соответствует ни один продукт),
+     * в итоговый список не попадают.
+     * @param userId уникальный идентификатор пользователя.
+     * @return данные о минимальной стоимости блюд пользователя.
+     * @throws ValidateException если userId является null.
+     */
+    public List<Input.DishMinPrice> loadDishMinPrices(UUID userId) {
+        Validator.check("MenuGeneratorDataLoader.userId", notNull(userId));
+
+        List<Dish> dishes = dishRepository.getAllDishes(userId);
+
+        List<Optional<BigDecimal>> minPrices = dishPriceSummaryService != null ?
+                dishPriceSummaryService.getMinPrices(dishes) :
+                Dish.getPrices(dishes).stream().map(Dish.Prices::minPrice).toList();
+
+        List<Input.DishMinPrice> result = new ArrayList<>();
+        for(int i = 0; i < dishes.size(); i++) {
+            Dish dish = dishes.get(i);
+            minPrices.get(i).ifPresent(minPrice -> result.add(new Input.DishMinPrice(dish, minPrice)));
+        }
+        return result;
+    }
+
+}
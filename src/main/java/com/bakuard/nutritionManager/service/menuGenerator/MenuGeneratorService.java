@@ -3,78 +3,562 @@ package com.bakuard.nutritionManager.service.menuGenerator;
 import com.bakuard.nutritionManager.config.configData.ConfigData;
 import com.bakuard.nutritionManager.model.Menu;
 import com.bakuard.nutritionManager.model.MenuItem;
+import com.bakuard.nutritionManager.validation.Constraint;
 import com.bakuard.nutritionManager.validation.Rule;
 import com.bakuard.nutritionManager.validation.ValidateException;
 import com.bakuard.nutritionManager.validation.Validator;
-import it.ssc.pl.milp.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.math.BigDecimal;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
 
-import static com.bakuard.nutritionManager.validation.Rule.failure;
-import static com.bakuard.nutritionManager.validation.Rule.notNull;
+import static com.bakuard.nutritionManager.validation.Rule.*;
 
 public class MenuGeneratorService {
 
+    private static final Logger logger = LoggerFactory.getLogger(MenuGeneratorService.class);
+    private static final double EPSILON = 1e-9;
+
+    private record Alternative(Subproblem subproblem, long[] values, double cost, double lowerBound) {}
+
+    /*
+     * Результат решения подзадачи поиска очередного меню: alternative равен null, если в подзадаче не найдено
+     * ни одного меню, а lowerBound - нижняя оценка стоимости меню подзадачи (Double.POSITIVE_INFINITY, если
+     * доказано, что в подзадаче нет ни одного меню).
+     */
+    private record Explored(Alternative alternative, double lowerBound) {}
+
+    /**
+     * Результат подбора меню, используемый при повторном подборе меню в рамках одного сеанса
+     * (см. {@link MenuGenerationSession}).
+     * @param input входные данные, для которых было подобрано меню.
+     * @param generatedMenu подобранное меню.
+     * @param values кол-во порций каждого блюда меню (в порядке {@link Input#getAllDishMinPrices()}).
+     * @param lowerBound нижняя оценка стоимости оптимального меню или {@link Double#NaN}, если она не известна.
+     */
+    record Solved(Input input, GeneratedMenu generatedMenu, long[] values, double lowerBound) {}
+
     private final ConfigData configData;
+    private final ThreadPoolExecutor solverExecutor;
+    private final MilpSolverRegistry milpSolvers;
+    private final RelaxAndFix relaxAndFix;
 
+    /**
+     * Создает сервис подбора меню, использующий встроенные решатели (см. {@link MilpSolverRegistry#createDefault}).
+     */
     public MenuGeneratorService(ConfigData configData) {
+        this(configData, MilpSolverRegistry.createDefault(configData.menuGenerator()));
+    }
+
+    /**
+     * Создает сервис подбора меню, использующий решатели из указанного набора.
+     * @param configData общие данные конфигурации приложения.
+     * @param milpSolvers набор решателей, из которых выбирается решатель для подбора меню.
+     * @throws ValidateException если выполняется хотя бы одно из следующих условий: <br/>
+     *         1. Если milpSolvers равен null или не содержит решателя заданного параметром
+     *            conf.menuGenerator.solver. <br/>
+     *         2. Если conf.menuGenerator.solverThreads или conf.menuGenerator.solverQueueCapacity меньше
+     *            или равен нулю. <br/>
+     */
+    public MenuGeneratorService(ConfigData configData, MilpSolverRegistry milpSolvers) {
+        Validator.check("MenuGeneratorService.milpSolvers", notNull(milpSolvers));
+        Validator.check(
+                "MenuGeneratorService.solver", notNull(configData.menuGenerator().solver()).
+                        and(() -> anyMatch(milpSolvers.getNames(), configData.menuGenerator().solver())),
+                "MenuGeneratorService.solverThreads", positiveValue(configData.menuGenerator().solverThreads()),
+                "MenuGeneratorService.solverQueueCapacity",
+                positiveValue(configData.menuGenerator().solverQueueCapacity())
+        );
+
         this.configData = configData;
+        this.milpSolvers = milpSolvers;
+        this.relaxAndFix = new RelaxAndFix();
+        /*
+         * Потоки решателей не завершаются по простою: IsolatedMilpSolver загружает для каждого потока свою
+         * копию классов библиотеки it.ssc, и новый поток загружал бы ее заново.
+         */
+        this.solverExecutor = new ThreadPoolExecutor(
+                configData.menuGenerator().solverThreads(),
+                configData.menuGenerator().solverThreads(),
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(configData.menuGenerator().solverQueueCapacity()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "menu-generator-solver");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+        );
+    }
+
+    /**
+     * Подбирает новое меню. Время подбора ограничено значением {@link Input#getSolveBudget()}, но не больше
+     * conf.menuGenerator.solveBudgetMillis (подробнее см. {@link #generate(Input, Duration)}).
+     * @param input набор ограничений для подбираемого меню (подробнее см. {@link Input}).
+     * @return новое меню и сведения о его оптимальности.
+     * @throws ValidateException если выполняется хотя бы одно из следующих условий: <br/>
+     *         1. Если input равен null. <br/>
+     *         2. Если невозможно подобрать меню с заданными ограничениями. <br/>
+     *         3. Если за отведенное время не было найдено ни одного меню удовлетворяющего заданным
+     *            ограничениям. <br/>
+     */
+    public GeneratedMenu generate(Input input) {
+        Validator.check("MenuGeneratorService.input", notNull(input));
+        return generate(input, solveBudget(input));
     }
 
     /**
      * Подбирает новое меню. При подборе нового меню используется критерий минимальной суммарной стоимости
      * продуктов необходимых для приготовления всех блюд этого меню. Входными данными для данного метода является
      * набор ограничений передаваемых этому методу в виде объекта input. <br/><br/>
+     * Подбор выполняется в два этапа: сначала ищется любое меню удовлетворяющее ограничениям, затем - меню
+     * минимальной стоимости. Если время solveBudget истекло на втором этапе, метод возвращает меню найденное
+     * на первом этапе вместе с оценкой его отклонения от оптимального (см. {@link GeneratedMenu}). Решатель
+     * выбирается из набора решателей данного сервиса (см. {@link MilpSolverRegistry}) по {@link Input#getSolver()}
+     * или, если он не задан, по параметру conf.menuGenerator.solver. Решатель "ssc" не поддерживает прерывание,
+     * поэтому прерванный по времени поиск завершается в фоновом потоке. Кол-во таких потоков ограничено
+     * параметром conf.menuGenerator.solverThreads, а кол-во ожидающих их задач - параметром
+     * conf.menuGenerator.solverQueueCapacity: если все потоки заняты и очередь заполнена, подбор меню сразу
+     * завершается так же, как при истечении времени solveBudget. <br/><br/>
+     * Если кол-во блюд задачи не меньше conf.menuGenerator.relaxAndFixMinDishes (и этот параметр больше нуля),
+     * задача предварительно сокращается: в ней остаются только блюда, которые выгодны согласно решению задачи
+     * без требования целочисленности (подробнее см. {@link RelaxAndFix}), а допустимая доля их приведенной
+     * стоимости задается параметром conf.menuGenerator.relaxAndFixMargin. Если сокращенная задача не имеет
+     * решений, набор блюд расширяется. Меню считается оптимальным, только если это доказывают приведенные
+     * стоимости исключенных блюд. <br/><br/>
      * <strong>ВАЖНО!</strong> В задачи этого метода НЕ входит сохранение созданного им меню.
      * @param input набор ограничений для подбираемого меню (подробнее см. {@link Input}).
-     * @return новое меню.
+     * @param solveBudget максимальное время подбора меню.
+     * @return новое меню и сведения о его оптимальности.
      * @throws ValidateException если выполняется хотя бы одно из следующих условий: <br/>
      *         1. Если input равен null. <br/>
-     *         2. Если невозможно подобрать меню с заданными ограничениями. <br/>
+     *         2. Если solveBudget равен null или отрицательный. <br/>
+     *         3. Если невозможно подобрать меню с заданными ограничениями. <br/>
+     *         4. Если за время solveBudget не было найдено ни одного меню удовлетворяющего заданным
+     *            ограничениям или все потоки решателей заняты. <br/>
+     *         5. Если в наборе решателей данного сервиса нет решателя с наименованием {@link Input#getSolver()}.
+     *            <br/>
+     */
+    public GeneratedMenu generate(Input input, Duration solveBudget) {
+        return generate(input, solveBudget, stage -> {});
+    }
+
+    /**
+     * Аналогичен {@link #generate(Input, Duration)}, но дополнительно сообщает о начале каждого этапа подбора
+     * меню ({@link MenuGenerationStage#PRESOLVE} и {@link MenuGenerationStage#SOLVING}). Если поток, вызвавший
+     * этот метод, был прерван во время поиска меню, то поиск прекращается.
+     * @param input набор ограничений для подбираемого меню (подробнее см. {@link Input}).
+     * @param solveBudget максимальное время подбора меню.
+     * @param stageListener получает этап подбора меню при его начале.
+     * @return новое меню и сведения о его оптимальности.
+     * @throws ValidateException если выполняется хотя бы одно из условий перечисленных для
+     *                           {@link #generate(Input, Duration)} или stageListener равен null.
+     * @throws CancellationException если поток, вызвавший этот метод, был прерван во время поиска меню.
+     */
+    public GeneratedMenu generate(Input input,
+                                  Duration solveBudget,
+                                  Consumer<MenuGenerationStage> stageListener) {
+        return generate(input, solveBudget, stageListener, null).generatedMenu();
+    }
+
+    /**
+     * Открывает сеанс подбора меню для указанных входных данных. Сеанс позволяет изменять отдельные ограничения
+     * и повторно подбирать меню без повторной загрузки блюд пользователя, используя ранее подобранное меню как
+     * начальное решение (подробнее см. {@link MenuGenerationSession}).
+     * @param input исходный набор ограничений для подбираемого меню (подробнее см. {@link Input}).
+     * @return новый сеанс подбора меню.
+     * @throws ValidateException если input равен null.
      */
-    public Menu generate(Input input) {
+    public MenuGenerationSession openSession(Input input) {
         Validator.check("MenuGeneratorService.input", notNull(input));
+        return new MenuGenerationSession(this, input, solveBudget(input));
+    }
+
+
+    /**
+     * Подбирает несколько меню с различным составом блюд в порядке возрастания их стоимости. Первое меню
+     * имеет минимальную стоимость среди всех меню удовлетворяющих ограничениям input, каждое следующее - минимальную
+     * стоимость среди меню, состав блюд которых отличается от состава всех предыдущих меню. Исходные данные
+     * загружаются один раз, а задачи поиска очередного меню решаются параллельно. Общее время подбора ограничено
+     * значением {@link Input#getSolveBudget()}, но не больше conf.menuGenerator.solveBudgetMillis. Если время
+     * истекло или все потоки решателей заняты (см. {@link #generate(Input, Duration)}) после того, как было
+     * подобрано хотя бы одно меню, - метод возвращает уже подобранные меню. Если одна из подзадач поиска
+     * очередного меню не была решена до оптимальности (решатель вернул только допустимое решение, достиг
+     * ограничения на кол-во итераций или завершился с ошибкой), то меню, стоимость которых больше нижней оценки
+     * стоимости меню этой подзадачи, возвращаются как не оптимальные вместе с оценкой их отклонения от
+     * оптимального (см. {@link GeneratedMenu}). <br/><br/>
+     * <strong>ВАЖНО!</strong> В задачи этого метода НЕ входит сохранение созданных им меню.
+     * @param input набор ограничений для подбираемых меню (подробнее см. {@link Input}).
+     * @param menusNumber максимальное кол-во подбираемых меню.
+     * @return меню в порядке возрастания стоимости. Кол-во меню может быть меньше menusNumber, если меню
+     *         с различным составом блюд меньше или истекло время подбора.
+     * @throws ValidateException если выполняется хотя бы одно из следующих условий: <br/>
+     *         1. Если input равен null. <br/>
+     *         2. Если menusNumber меньше или равен нулю. <br/>
+     *         3. Если невозможно подобрать меню с заданными ограничениями. <br/>
+     *         4. Если за отведенное время не было подобрано ни одного меню. <br/>
+     *         5. Если в наборе решателей данного сервиса нет решателя с наименованием {@link Input#getSolver()}.
+     *            <br/>
+     */
+    public List<GeneratedMenu> generateAlternatives(Input input, int menusNumber) {
+        Validator.check(
+                "MenuGeneratorService.input", notNull(input),
+                "MenuGeneratorService.menusNumber", positiveValue(menusNumber)
+        );
+
+        long deadline = System.nanoTime() + solveBudget(input).toNanos();
+        MilpSolver solver = solver(input);
+
+        Presolver.Model model;
+        Alternative first;
+        try {
+            model = new Presolver(false).presolve(goal(input), rows(input));
+            if(model.variables().length == 0) throw new IllegalStateException("All dishes were excluded by presolve");
+
+            MilpSolution solution = solve(solver, problem(model, List.of(), false), null, deadline);
+            if(solution.status() != MilpSolution.Status.OPTIMAL) {
+                throw new IllegalStateException("Solver return " + solution.status());
+            }
+            first = new Alternative(Subproblem.root(), solution.values(), solution.objective(), solution.objective());
+        } catch(TimeoutException e) {
+            throw timeoutException(e);
+        } catch(CancellationException e) {
+            throw e;
+        } catch(Exception e) {
+            throw solutionNotExistsException(e);
+        }
+
+        List<GeneratedMenu> result = new ArrayList<>();
+        PriorityQueue<Alternative> candidates = new PriorityQueue<>(Comparator.comparingDouble(Alternative::cost));
+        candidates.add(first);
+        double unexploredLowerBound = Double.POSITIVE_INFINITY;
+        while(result.size() < menusNumber && !candidates.isEmpty()) {
+            Alternative best = candidates.poll();
+            double lowerBound = Math.min(
+                    Math.min(best.lowerBound(), unexploredLowerBound),
+                    candidates.stream().mapToDouble(Alternative::lowerBound).min().orElse(Double.POSITIVE_INFINITY)
+            );
+            boolean optimal = best.cost() - lowerBound <= EPSILON * Math.max(1, Math.abs(best.cost()));
+            result.add(new GeneratedMenu(
+                    menu(expand(best.values(), model.variables(), input.getAllDishMinPrices().size()), input),
+                    optimal,
+                    optimal ? BigDecimal.ZERO : optimalityGap(best.cost(), lowerBound)
+            ));
+            if(result.size() == menusNumber) break;
+
+            List<Future<Explored>> children = new ArrayList<>();
+            try {
+                for(Subproblem child : best.subproblem().split(best.values())) {
+                    children.add(solverExecutor.submit(() -> solve(solver, model, child)));
+                }
+                for(Future<Explored> child : children) {
+                    Explored explored = child.get(Math.max(0L, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                    if(explored.alternative() != null) candidates.add(explored.alternative());
+                    else unexploredLowerBound = Math.min(unexploredLowerBound, explored.lowerBound());
+                }
+            } catch(TimeoutException e) {
+                children.forEach(child -> child.cancel(true));
+                logger.info("Menu generation time is over. Return {} of {} menus", result.size(), menusNumber);
+                break;
+            } catch(RejectedExecutionException e) {
+                children.forEach(child -> child.cancel(true));
+                logger.info("All solver threads are busy. Return {} of {} menus", result.size(), menusNumber);
+                break;
+            } catch(InterruptedException e) {
+                children.forEach(child -> child.cancel(true));
+                Thread.currentThread().interrupt();
+                throw new CancellationException("Menu generation was interrupted");
+            } catch(ExecutionException e) {
+                children.forEach(child -> child.cancel(true));
+                throw solutionNotExistsException(e);
+            }
+        }
+
+        return result;
+    }
+
+
+    /*
+     * previous - результат предыдущего подбора меню для входных данных с теми же блюдами или null. Если его меню
+     * удовлетворяет ограничениям input, поиск любого допустимого меню пропускается, а меню передается решателю как
+     * начальное решение и возвращается, если решатель не нашел меню дешевле. Если ограничения input не слабее
+     * предыдущих, нижняя оценка предыдущего подбора остается верной, и меню, которое ей соответствует, оптимально
+     * без повторного поиска.
+     */
+    Solved generate(Input input,
+                    Duration solveBudget,
+                    Consumer<MenuGenerationStage> stageListener,
+                    Solved previous) {
+        Validator.check(
+                "MenuGeneratorService.input", notNull(input),
+                "MenuGeneratorService.solveBudget", notNull(solveBudget).
+                        and(() -> notNegative(solveBudget.toMillis())),
+                "MenuGeneratorService.stageListener", notNull(stageListener)
+        );
+
+        long deadline = System.nanoTime() + solveBudget.toNanos();
+        MilpSolver solver = solver(input);
+        double[] goal = goal(input);
+        List<Presolver.Row> rows = rows(input);
+        long[] incumbent = null;
+        double previousLowerBound = Double.NaN;
+        if(previous != null && previous.input().getAllDishMinPrices() == input.getAllDishMinPrices()) {
+            if(isFeasible(previous.values(), rows)) incumbent = previous.values();
+            if(isRestriction(rows, rows(previous.input()))) previousLowerBound = previous.lowerBound();
+        }
+
+        if(incumbent != null && objective(goal, incumbent) - previousLowerBound <= EPSILON) {
+            logger.debug("Previous menu is still optimal");
+            return solved(incumbent, input, true, BigDecimal.ZERO, objective(goal, incumbent));
+        }
+
+        RelaxAndFix.Candidates candidates;
+        MilpSolution feasible = null;
+        try {
+            stageListener.accept(MenuGenerationStage.PRESOLVE);
+            Presolver.Model model = new Presolver().presolve(goal, rows);
+            if(model.variables().length == 0) throw new IllegalStateException("All dishes were excluded by presolve");
+            candidates = candidates(model);
+
+            stageListener.accept(MenuGenerationStage.SOLVING);
+            if(incumbent == null) {
+                feasible = solve(solver, problem(candidates.model(), List.of(), true), null, deadline);
+                while(feasible.status() == MilpSolution.Status.INFEASIBLE && !candidates.isComplete()) {
+                    candidates = relaxAndFix.widen(candidates);
+                    logger.debug("Reduced problem is infeasible. Widen it to {} dishes",
+                            candidates.model().variables().length);
+                    feasible = solve(solver, problem(candidates.model(), List.of(), true), null, deadline);
+                }
+                if(!feasible.hasSolution()) throw new IllegalStateException("Solver return " + feasible.status());
+            }
+        } catch(TimeoutException e) {
+            throw timeoutException(e);
+        } catch(CancellationException e) {
+            throw e;
+        } catch(Exception e) {
+            throw solutionNotExistsException(e);
+        }
+
+        int[] variables = candidates.model().variables();
+        long[] best = incumbent != null ? incumbent : expand(feasible.values(), variables, goal.length);
+        double value = objective(goal, best);
+        double lowerBound = max(
+                feasible != null ? lowerBound(feasible, candidates) : candidates.lowerBound(),
+                previousLowerBound
+        );
+        if(feasible != null && feasible.status() == MilpSolution.Status.OPTIMAL && candidates.isOptimal(value) ||
+                value - lowerBound <= EPSILON) {
+            return solved(best, input, true, BigDecimal.ZERO, value);
+        }
 
         try {
-            LinearObjectiveFunction goal = goal(input);
+            MilpSolution optimal = solve(
+                    solver,
+                    problem(candidates.model(), List.of(), false),
+                    incumbent != null ? project(incumbent, variables) : null,
+                    deadline
+            );
+            if(optimal.status() == MilpSolution.Status.OPTIMAL && candidates.isOptimal(optimal.objective())) {
+                return solved(
+                        expand(optimal.values(), variables, goal.length),
+                        input,
+                        true,
+                        BigDecimal.ZERO,
+                        optimal.objective()
+                );
+            } else if(optimal.status() == MilpSolution.Status.OPTIMAL) {
+                lowerBound = max(
+                        lowerBound,
+                        Math.min(optimal.objective(), candidates.lowerBound() + candidates.excludedReducedCost())
+                );
+            }
+            if(optimal.hasSolution() && optimal.objective() <= value + EPSILON * Math.max(1, Math.abs(value))) {
+                best = expand(optimal.values(), variables, goal.length);
+                value = optimal.objective();
+            }
+        } catch(TimeoutException e) {
+            logger.info("Menu generation time is over. Return the best found menu with cost={}, lowerBound={}",
+                    value, lowerBound);
+        } catch(CancellationException e) {
+            throw e;
+        } catch(Exception e) {
+            if(incumbent == null) throw solutionNotExistsException(e);
+            logger.debug("Fail to improve previous menu with cost={}", value, e);
+        }
 
-            ArrayList<Constraint> allConstraints = new ArrayList<>();
-            allConstraints.add(minServingNumberConstraint(input));
-            allConstraints.add(intConstraint(input));
-            allConstraints.addAll(quantityConstraints(input));
+        return solved(best, input, false, optimalityGap(value, lowerBound), lowerBound);
+    }
 
-            MILP milp = new MILP(goal, allConstraints);
-            milp.resolve();
-            Solution solution = milp.getSolution();
-            Variable[] result = solution.getVariables();
+    /*
+     * Если все потоки решателей заняты и очередь их задач заполнена - сразу выбрасывает TimeoutException,
+     * не дожидаясь истечения времени подбора.
+     */
+    private MilpSolution solve(MilpSolver solver, MilpProblem problem, long[] start, long deadline) throws Exception {
+        Future<MilpSolution> future;
+        try {
+            future = solverExecutor.submit(() -> solver.solve(problem, start));
+        } catch(RejectedExecutionException e) {
+            TimeoutException timeout = new TimeoutException("All solver threads are busy");
+            timeout.initCause(e);
+            throw timeout;
+        }
+        try {
+            MilpSolution solution = future.get(Math.max(0L, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            logger.debug("Solver {} return {}: objective={}, gap={}, solveTime={}",
+                    solver.getClass().getSimpleName(), solution.status(), solution.objective(),
+                    solution.gap(), solution.solveTime());
+            return solution;
+        } catch(TimeoutException e) {
+            future.cancel(true);
+            throw e;
+        } catch(InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Menu generation was interrupted");
+        } catch(ExecutionException e) {
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        }
+    }
 
-            return menu(result, input);
+    /*
+     * Если подзадача не решена до оптимальности, нижней оценкой стоимости ее меню служит оптимальное значение
+     * задачи без требования целочисленности или, если оно не известно, ноль. Если решатель не смог решить
+     * подзадачу - завершился с проверяемым исключением (кроме InterruptedException) или с IllegalStateException
+     * (например, превышено кол-во итераций симплекс метода), - подзадача отбрасывается с нижней оценкой ноль.
+     * Остальные исключения пробрасываются вызывающему коду.
+     */
+    private Explored solve(MilpSolver solver, Presolver.Model model, Subproblem subproblem) throws Exception {
+        MilpProblem problem = problem(model, subproblem.rows(model.variables().length), false);
+        MilpSolution solution;
+        try {
+            solution = solver.solve(problem);
         } catch(Exception e) {
-            throw new ValidateException("Fail to generate menu").
-                    addReason(e).
-                    addReason(Rule.of("MenuGeneratorService.generate",
-                                    failure(com.bakuard.nutritionManager.validation.Constraint.SOLUTION_EXISTS)));
+            boolean solverFailure = e instanceof IllegalStateException ||
+                    !(e instanceof RuntimeException || e instanceof InterruptedException);
+            if(!solverFailure) throw e;
+            logger.warn("Fail to solve subproblem {}. Subproblem is dropped", subproblem, e);
+            return new Explored(null, 0);
+        }
+        if(solution.status() == MilpSolution.Status.INFEASIBLE) return new Explored(null, Double.POSITIVE_INFINITY);
+
+        double lowerBound = solution.status() == MilpSolution.Status.OPTIMAL ? solution.objective() :
+                Double.isNaN(solution.relaxedObjective()) ? 0 : solution.relaxedObjective();
+        if(!solution.hasSolution()) {
+            logger.warn("Subproblem {} is dropped. Solver return {}", subproblem, solution.status());
+            return new Explored(null, lowerBound);
+        } else if(solution.status() != MilpSolution.Status.OPTIMAL) {
+            logger.debug("Subproblem {} is not solved to optimality. Solver return {}",
+                    subproblem, solution.status());
         }
+        return new Explored(
+                new Alternative(subproblem, solution.values(), solution.objective(), lowerBound),
+                lowerBound
+        );
+    }
+
+    /*
+     * Максимальное время подбора меню для input: время заданное input, но не больше
+     * conf.menuGenerator.solveBudgetMillis.
+     */
+    Duration solveBudget(Input input) {
+        Duration maxSolveBudget = Duration.ofMillis(configData.menuGenerator().solveBudgetMillis());
+        return input.getSolveBudget().
+                filter(solveBudget -> solveBudget.compareTo(maxSolveBudget) < 0).
+                orElse(maxSolveBudget);
+    }
+
+    private RelaxAndFix.Candidates candidates(Presolver.Model model) {
+        int minDishes = configData.menuGenerator().relaxAndFixMinDishes();
+        if(minDishes <= 0 || model.variables().length < minDishes) return relaxAndFix.all(model);
+
+        RelaxAndFix.Candidates result = relaxAndFix.select(model, configData.menuGenerator().relaxAndFixMargin());
+        logger.debug("Relax-and-fix keeps {} of {} dishes",
+                result.model().variables().length, model.variables().length);
+        return result;
+    }
+
+    /*
+     * Нижняя оценка, рассчитанная решателем, верна для исходной задачи, только если в задаче остались все блюда.
+     */
+    private double lowerBound(MilpSolution solution, RelaxAndFix.Candidates candidates) {
+        if(!candidates.isComplete() || Double.isNaN(solution.relaxedObjective())) return candidates.lowerBound();
+        if(Double.isNaN(candidates.lowerBound())) return solution.relaxedObjective();
+        return Math.max(solution.relaxedObjective(), candidates.lowerBound());
+    }
+
+    private MilpSolver solver(Input input) {
+        String name = input.getSolver().orElse(configData.menuGenerator().solver());
+        Validator.check("MenuGeneratorService.solver", anyMatch(milpSolvers.getNames(), name));
+        return milpSolvers.get(name).orElseThrow();
+    }
+
+    private MilpProblem problem(Presolver.Model model, List<Presolver.Row> additionalRows, boolean justFeasible) {
+        List<Presolver.Row> allRows = new ArrayList<>(model.rows());
+        allRows.addAll(additionalRows);
+
+        return new MilpProblem(
+                model.costs(),
+                allRows.stream().map(Presolver.Row::coefficients).toArray(double[][]::new),
+                allRows.stream().map(Presolver.Row::relation).toArray(Relationship[]::new),
+                allRows.stream().mapToDouble(Presolver.Row::rhs).toArray(),
+                model.upperBounds(),
+                justFeasible
+        );
     }
 
+    private BigDecimal optimalityGap(double value, double lowerBound) {
+        return BigDecimal.valueOf(MilpSolution.gap(value, lowerBound)).
+                setScale(configData.decimal().numberScale(), RoundingMode.HALF_UP);
+    }
 
-    private Menu menu(Variable[] result, Input input) {
+    private ValidateException solutionNotExistsException(Exception e) {
+        return new ValidateException("Fail to generate menu").
+                addReason(e).
+                addReason(Rule.of("MenuGeneratorService.generate",
+                        failure(Constraint.SOLUTION_EXISTS)));
+    }
+
+    private ValidateException timeoutException(Exception e) {
+        return new ValidateException("Fail to generate menu: solve budget is over").
+                addReason(e).
+                addReason(Rule.of("MenuGeneratorService.generate",
+                        failure(Constraint.SOLUTION_FOUND_IN_TIME)));
+    }
+
+    private Solved solved(long[] values,
+                          Input input,
+                          boolean optimal,
+                          BigDecimal optimalityGap,
+                          double lowerBound) {
+        return new Solved(input, new GeneratedMenu(menu(values, input), optimal, optimalityGap), values, lowerBound);
+    }
+
+    private Menu menu(long[] values, Input input) {
         Menu.Builder menuBuilder = new Menu.Builder().
                 generateId().
                 setUser(input.getUser()).
                 setName(input.getGeneratedMenuName()).
                 setConfig(configData);
-        for(int i = 0; i < result.length; i++) {
-            if(Math.signum(result[i].getValue()) > 0) {
+        for(int i = 0; i < values.length; i++) {
+            if(values[i] > 0) {
                 menuBuilder.addItem(
                         new MenuItem.LoadBuilder().
                                 generateId().
                                 setDish(input.getAllDishMinPrices().get(i).dish()).
                                 setConfig(configData).
-                                setQuantity(BigDecimal.valueOf(result[i].getValue()))
+                                setQuantity(BigDecimal.valueOf(values[i]))
                 );
             }
         }
@@ -82,76 +566,114 @@ public class MenuGeneratorService {
         return menuBuilder.tryBuild();
     }
 
-    private LinearObjectiveFunction goal(Input input) throws LPException {
-        double[] goal = input.getAllDishMinPrices().stream().
-                mapToDouble(dmp -> dmp.minPrice().doubleValue()).
-                toArray();
-
-        return new LinearObjectiveFunction(goal, GoalType.MIN);
-    }
-
-    private List<Constraint> quantityConstraints(Input input) throws SimplexException {
-        List<Constraint> result = new ArrayList<>();
-
-        List<Input.ProductConstraint> productConstraints = input.getConstraintsByAllProducts();
-        List<Input.DishTagConstraint> dishTagConstraints = input.getConstraintsByAllDishTags();
-        int quantityConstraintsNumber = productConstraints.size() + dishTagConstraints.size();
-        int variablesNumber = input.getAllDishMinPrices().size();
-
-        for(int i = 0; i < quantityConstraintsNumber; i++) {
-            double[] vector = new double[variablesNumber];
-            double quantity = 0.0;
-            ConsType consType = ConsType.GE;
-
-            for(int j = 0; j < variablesNumber; j++) {
-                if (i < productConstraints.size()) {
-                    Input.ProductConstraint product = productConstraints.get(i);
-                    vector[j] = input.getQuantity(
-                            input.getAllDishMinPrices().get(j).dish(),
-                            product.productCategory()
-                    ).doubleValue();
-
-                    quantity = product.quantity().doubleValue();
-                    consType = toConsType(product.relation());
-                } else {
-                    int l = i - productConstraints.size();
-                    Input.DishTagConstraint dishTag = dishTagConstraints.get(l);
-                    vector[j] = input.hasTag(
-                            input.getAllDishMinPrices().get(j).dish(),
-                            dishTag.dishTag()
-                    ) ? 1.0 : 0.0;
-
-                    quantity = dishTag.quantity().doubleValue();
-                    consType = toConsType(dishTag.relation());
-                }
-            }
+    /*
+     * Переводит значения переменных упрощенной задачи в кол-во порций каждого блюда входных данных.
+     */
+    private long[] expand(long[] values, int[] variables, int dishesNumber) {
+        long[] result = new long[dishesNumber];
+        for(int i = 0; i < values.length; i++) result[variables[i]] = values[i];
+        return result;
+    }
 
-            result.add(new Constraint(vector, consType, quantity));
+    /*
+     * Возвращает значения переменных упрощенной задачи или null, если в решении есть блюда, не вошедшие в нее.
+     */
+    private long[] project(long[] values, int[] variables) {
+        long[] result = new long[variables.length];
+        long rest = Arrays.stream(values).sum();
+        for(int i = 0; i < variables.length; i++) {
+            result[i] = values[variables[i]];
+            rest -= result[i];
         }
+        return rest == 0 ? result : null;
+    }
 
-        return result;
+    private boolean isFeasible(long[] values, List<Presolver.Row> rows) {
+        if(values.length != rows.get(0).coefficients().length) return false;
+        for(Presolver.Row row : rows) {
+            double activity = 0;
+            for(int j = 0; j < values.length; j++) activity += row.coefficients()[j] * values[j];
+            double tolerance = EPSILON * Math.max(1, Math.abs(row.rhs()));
+            boolean satisfied = row.relation() == Relationship.GREATER_OR_EQUAL ?
+                    activity >= row.rhs() - tolerance :
+                    activity <= row.rhs() + tolerance;
+            if(!satisfied) return false;
+        }
+        return true;
     }
 
-    private Constraint intConstraint(Input input) throws SimplexException {
-        double[] vector = new double[input.getAllDishMinPrices().size()];
-        Arrays.fill(vector, 1.0);
+    /*
+     * Проверяет - является ли каждое ограничение previousRows не более строгим, чем ограничение rows с тем же
+     * ключом и отношением. В этом случае любое решение, удовлетворяющее rows, удовлетворяет и previousRows.
+     */
+    private boolean isRestriction(List<Presolver.Row> rows, List<Presolver.Row> previousRows) {
+        Map<String, Double> strictest = new HashMap<>();
+        for(Presolver.Row row : rows) {
+            strictest.merge(row.key() + ':' + row.relation(), row.rhs(),
+                    row.relation() == Relationship.GREATER_OR_EQUAL ? Math::max : Math::min);
+        }
 
-        return new Constraint(vector, ConsType.INT, Double.NaN);
+        for(Presolver.Row row : previousRows) {
+            Double rhs = strictest.get(row.key() + ':' + row.relation());
+            if(rhs == null) return false;
+            if(row.relation() == Relationship.GREATER_OR_EQUAL ? rhs < row.rhs() : rhs > row.rhs()) return false;
+        }
+        return true;
     }
 
-    private Constraint minServingNumberConstraint(Input input) throws SimplexException {
-        double[] vector = new double[input.getAllDishMinPrices().size()];
-        Arrays.fill(vector, 1.0);
+    /*
+     * В отличие от Math.max, не учитывает значения NaN (неизвестные нижние оценки).
+     */
+    private double max(double a, double b) {
+        if(Double.isNaN(a)) return b;
+        if(Double.isNaN(b)) return a;
+        return Math.max(a, b);
+    }
 
-        return new Constraint(vector, ConsType.GE, input.getMinServingNumber().doubleValue());
+    private double objective(double[] goal, long[] values) {
+        double result = 0;
+        for(int i = 0; i < values.length; i++) result += goal[i] * values[i];
+        return result;
     }
 
-    private ConsType toConsType(Relationship relation) {
-        ConsType result = ConsType.GE;
-        switch(relation) {
-            case GREATER_OR_EQUAL -> result = ConsType.GE;
-            case LESS_OR_EQUAL -> result = ConsType.LE;
+    private double[] goal(Input input) {
+        return input.getAllDishMinPrices().stream().
+                mapToDouble(dmp -> dmp.minPrice().doubleValue()).
+                toArray();
+    }
+
+    private List<Presolver.Row> rows(Input input) {
+        List<Presolver.Row> result = new ArrayList<>();
+
+        double[] servings = new double[input.getAllDishMinPrices().size()];
+        Arrays.fill(servings, 1.0);
+        result.add(new Presolver.Row(
+                "servings",
+                servings,
+                Relationship.GREATER_OR_EQUAL,
+                input.getMinServingNumber().doubleValue()
+        ));
+
+        SparseMatrix quantityMatrix = input.getQuantityMatrix();
+        for(Input.ProductConstraint product : input.getConstraintsByAllProducts()) {
+            result.add(new Presolver.Row(
+                    "category:" + product.categoryIndex(),
+                    quantityMatrix.getDenseRow(product.categoryIndex()),
+                    product.relation(),
+                    product.quantity().doubleValue()
+            ));
+        }
+
+        SparseMatrix dishTagMatrix = input.getDishTagMatrix();
+        for(Input.DishTagConstraint dishTag : input.getConstraintsByAllDishTags()) {
+            result.add(new Presolver.Row(
+                    "tag:" + dishTag.tagIndex(),
+                    dishTagMatrix.getDenseRow(dishTag.tagIndex()),
+                    dishTag.relation(),
+                    dishTag.quantity().doubleValue()
+            ));
         }
+
         return result;
     }
 
@@ -0,0 +1,55 @@
+package com.bakuard.nutritionManager.service.menuGenerator;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Задача минимизации линейной функции от целых неотрицательных переменных с линейными ограничениями.
+ * @param costs коэффициенты целевой функции для каждой переменной.
+ * @param coefficients коэффициенты ограничений: i-я строка соответствует i-му ограничению.
+ * @param relations отношение каждого ограничения.
+ * @param rhs правая часть каждого ограничения.
+ * @param upperBounds верхняя граница каждой переменной или {@link Double#NaN}, если переменная не ограничена сверху.
+ * @param justFeasible true - если достаточно найти любое допустимое решение, а не оптимальное.
+ */
+public record MilpProblem(double[] costs,
+                          double[][] coefficients,
+                          Relationship[] relations,
+                          double[] rhs,
+                          double[] upperBounds,
+                          boolean justFeasible) {
+
+    @Override
+    public boolean equals(Object o) {
+        if(this == o) return true;
+        if(o == null || getClass() != o.getClass()) return false;
+        MilpProblem that = (MilpProblem) o;
+        return justFeasible == that.justFeasible &&
+                Arrays.equals(costs, that.costs) &&
+                Arrays.deepEquals(coefficients, that.coefficients) &&
+                Arrays.equals(relations, that.relations) &&
+                Arrays.equals(rhs, that.rhs) &&
+                Arrays.equals(upperBounds, that.upperBounds);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = Objects.hash(justFeasible);
+        result = 31 * result + Arrays.hashCode(costs);
+        result = 31 * result + Arrays.deepHashCode(coefficients);
+        result = 31 * result + Arrays.hashCode(relations);
+        result = 31 * result + Arrays.hashCode(rhs);
+        result = 31 * result + Arrays.hashCode(upperBounds);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "MilpProblem{" +
+                "variablesNumber=" + costs.length +
+                ", constraintsNumber=" + rhs.length +
+                ", justFeasible=" + justFeasible +
+                '}';
+    }
+
+}
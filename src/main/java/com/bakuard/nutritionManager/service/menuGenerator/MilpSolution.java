@@ -0,0 +1,72 @@
+package com.bakuard.nutritionManager.service.menuGenerator;
+
+import java.time.Duration;
+
+/**
+ * Результат решения задачи целочисленного линейного программирования (см. {@link MilpSolver}).
+ * @param status состояние найденного решения.
+ * @param values значение каждой переменной. Имеет значение null, если решение не найдено.
+ * @param objective значение целевой функции для найденного решения или {@link Double#NaN}, если решение
+ *                  не найдено.
+ * @param relaxedObjective оптимальное значение целевой функции задачи без требования целочисленности
+ *                         переменных (нижняя оценка оптимального значения) или {@link Double#NaN}, если
+ *                         оно не было рассчитано.
+ * @param solveTime время затраченное решателем на решение задачи.
+ */
+public record MilpSolution(Status status,
+                           long[] values,
+                           double objective,
+                           double relaxedObjective,
+                           Duration solveTime) {
+
+    /**
+     * Возвращает относительное отклонение значения целевой функции value от нижней оценки её оптимального
+     * значения lowerBound: (value - lowerBound) / value, ограниченное отрезком [0, 1]. Отрицательная или
+     * не рассчитанная ({@link Double#NaN}) нижняя оценка заменяется нулем.
+     */
+    public static double gap(double value, double lowerBound) {
+        double bound = Double.isNaN(lowerBound) ? 0 : Math.max(lowerBound, 0);
+        double gap = value > 1e-9 ? (value - bound) / value : 0;
+        return Math.min(Math.max(gap, 0), 1);
+    }
+
+    public enum Status {
+        /**
+         * Найдено оптимальное решение.
+         */
+        OPTIMAL,
+        /**
+         * Найдено допустимое решение, оптимальность которого не доказана.
+         */
+        FEASIBLE,
+        /**
+         * Задача не имеет допустимых решений.
+         */
+        INFEASIBLE,
+        /**
+         * Целевая функция не ограничена.
+         */
+        UNBOUNDED,
+        /**
+         * Решение не найдено из-за ограничения на кол-во итераций решателя.
+         */
+        LIMIT_REACHED
+    }
+
+    /**
+     * Проверяет - было ли найдено хотя бы одно допустимое решение.
+     */
+    public boolean hasSolution() {
+        return status == Status.OPTIMAL || status == Status.FEASIBLE;
+    }
+
+    /**
+     * Возвращает относительное отклонение найденного решения от оптимального (см. {@link #gap(double, double)}).
+     * Для оптимального решения возвращает 0, а если решение не найдено - {@link Double#NaN}.
+     */
+    public double gap() {
+        if(status == Status.OPTIMAL) return 0;
+        return hasSolution() ? gap(objective, relaxedObjective) : Double.NaN;
+    }
+
+}
@@ -0,0 +1,30 @@
+package com.bakuard.nutritionManager.service.menuGenerator;
+
+/**
+ * Решает задачи целочисленного линейного программирования (см. {@link MilpProblem}).
+ */
+public interface MilpSolver {
+
+    /**
+     * Решает указанную задачу. Метод блокирует вызывающий поток до получения решения.
+     * @param problem решаемая задача.
+     * @return результат решения задачи.
+     * @throws Exception если в процессе решения задачи возникла ошибка.
+     */
+    MilpSolution solve(MilpProblem problem) throws Exception;
+
+    /**
+     * Решает указанную задачу, используя известное решение start в качестве начального (например, решение
+     * предыдущей задачи, отличающейся от данной несколькими ограничениями). Если start является допустимым
+     * решением задачи, решатель может использовать его стоимость для отсечения заведомо худших решений.
+     * Реализация по умолчанию игнорирует start.
+     * @param problem решаемая задача.
+     * @param start значение каждой переменной задачи или null, если начальное решение не известно.
+     * @return результат решения задачи.
+     * @throws Exception если в процессе решения задачи возникла ошибка.
+     */
+    default MilpSolution solve(MilpProblem problem, long[] start) throws Exception {
+        return solve(problem);
+    }
+
+}
@@ -0,0 +1,108 @@
+package com.bakuard.nutritionManager.service.menuGenerator;
+
+import com.bakuard.nutritionManager.config.configData.MenuGenerator;
+import com.bakuard.nutritionManager.validation.ValidateException;
+import com.bakuard.nutritionManager.validation.Validator;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import java.util.Optional;
+
+import static com.bakuard.nutritionManager.validation.Rule.*;
+
+/**
+ * Набор решателей задач целочисленного линейного программирования, которые могут использоваться для подбора
+ * меню (см. {@link MenuGeneratorService}). Каждый решатель доступен по уникальному наименованию, по которому
+ * его выбирает параметр conf.menuGenerator.solver или отдельный запрос на подбор меню (см.
+ * {@link Input#getSolver()}). Чтобы подключить новый решатель, достаточно реализовать {@link MilpSolver} и
+ * добавить его в набор методом {@link #with(String, MilpSolver)}. Объекты данного класса неизменяемы.
+ */
+public class MilpSolverRegistry {
+
+    /**
+     * Наименование решателя на основе библиотеки it.ssc (см. {@link SscMilpSolver}).
+     */
+    public static final String SSC = "ssc";
+    /**
+     * Наименование встроенного параллельного решателя методом ветвей и границ
+     * (см. {@link BranchAndBoundMilpSolver}).
+     */
+    public static final String BRANCH_AND_BOUND = "branchAndBound";
+
+    /**
+     * Создает набор из всех встроенных решателей: {@link #SSC} и {@link #BRANCH_AND_BOUND}.
+     * @param config настройки подбора меню.
+     * @return набор встроенных решателей.
+     */
+    public static MilpSolverRegistry createDefault(MenuGenerator config) {
+        return new MilpSolverRegistry().
+                with(SSC, new IsolatedMilpSolver()).
+                with(BRANCH_AND_BOUND, new BranchAndBoundMilpSolver(
+                        config.branchAndBoundThreads(),
+                        config.branchAndBoundMaxNodes()
+                ));
+    }
+
+
+    private final ImmutableMap<String, MilpSolver> solvers;
+
+    /**
+     * Создает пустой набор решателей.
+     */
+    public MilpSolverRegistry() {
+        this.solvers = ImmutableMap.of();
+    }
+
+    private MilpSolverRegistry(ImmutableMap<String, MilpSolver> solvers) {
+        this.solvers = solvers;
+    }
+
+    /**
+     * Возвращает новый набор, содержащий все решатели данного набора и указанный решатель.
+     * @param name уникальное наименование решателя.
+     * @param solver добавляемый решатель.
+     * @return новый набор решателей.
+     * @throws ValidateException если выполняется хотя бы одно из следующих условий: <br/>
+     *         1. Если name равен null или является пустой строкой. <br/>
+     *         2. Если в данном наборе уже есть решатель с наименованием name. <br/>
+     *         3. Если solver равен null. <br/>
+     */
+    public MilpSolverRegistry with(String name, MilpSolver solver) {
+        Validator.check(
+                "MilpSolverRegistry.name", notBlank(name).
+                        and(() -> notContainsItem(solvers.keySet(), name)),
+                "MilpSolverRegistry.solver", notNull(solver)
+        );
+
+        return new MilpSolverRegistry(
+                ImmutableMap.<String, MilpSolver>builder().
+                        putAll(solvers).
+                        put(name, solver).
+                        build()
+        );
+    }
+
+    /**
+     * Возвращает решатель с указанным наименованием.
+     * @param name наименование решателя.
+     * @return решатель или пустой Optional, если в данном наборе нет решателя с таким наименованием.
+     */
+    public Optional<MilpSolver> get(String name) {
+        return Optional.ofNullable(name).map(solvers::get);
+    }
+
+    /**
+     * Возвращает наименования всех решателей данного набора в порядке их добавления.
+     */
+    public ImmutableList<String> getNames() {
+        return solvers.keySet().asList();
+    }
+
+    @Override
+    public String toString() {
+        return "MilpSolverRegistry{" +
+                "solvers=" + solvers.keySet() +
+                '}';
+    }
+
+}
@@ -0,0 +1,191 @@
+package com.bakuard.nutritionManager.service.menuGenerator;
+
+import java.util.*;
+
+/**
+ * Упрощает задачу целочисленного линейного программирования, решаемую при подборе меню, до ее передачи
+ * решателю. Все переменные задачи (кол-во порций каждого блюда) целые и неотрицательные, все коэффициенты
+ * ограничений неотрицательные. Упрощение выполняется в следующем порядке: <br/>
+ * 1. Ограничения с одинаковым ключом и отношением объединяются в одно наиболее строгое ограничение. <br/>
+ * 2. Удаляются ограничения, которым удовлетворяет любой набор неотрицательных значений переменных. <br/>
+ * 3. Удаляются доминируемые переменные - переменные, которые можно заменить другой переменной с не большей
+ *    стоимостью без нарушения ограничений. <br/>
+ * 4. По ограничениям вида "меньше или равно" рассчитываются верхние границы переменных. Переменные, верхняя
+ *    граница которых равна нулю, удаляются, а ограничения, которые не могут быть нарушены при найденных
+ *    границах, - отбрасываются. <br/>
+ * Оптимальное значение целевой функции упрощенной задачи совпадает с оптимальным значением исходной задачи.
+ * Удаление доминируемых переменных сохраняет только оптимальное решение, поэтому его можно отключить, если
+ * требуются и другие решения задачи.
+ */
+class Presolver {
+
+    private static final double EPSILON = 1e-9;
+
+    private final boolean removeDominated;
+
+    /**
+     * Создает объект выполняющий все перечисленные упрощения.
+     */
+    public Presolver() {
+        this(true);
+    }
+
+    /**
+     * @param removeDominated false - если доминируемые переменные удалять не требуется.
+     */
+    public Presolver(boolean removeDominated) {
+        this.removeDominated = removeDominated;
+    }
+
+    /**
+     * Ограничение задачи.
+     * @param key ключ ограничения. Ограничения с одинаковым ключом имеют одинаковые коэффициенты.
+     * @param coefficients коэффициенты ограничения для каждой переменной.
+     * @param relation отношение "больше или равно" или "меньше или равно".
+     * @param rhs правая часть ограничения.
+     */
+    record Row(String key, double[] coefficients, Relationship relation, double rhs) {}
+
+    /**
+     * Упрощенная задача.
+     * @param variables индексы переменных исходной задачи, оставшихся в упрощенной задаче.
+     * @param costs стоимость каждой переменной упрощенной задачи.
+     * @param rows ограничения упрощенной задачи (коэффициенты - только для оставшихся переменных).
+     * @param upperBounds верхняя граница каждой переменной упрощенной задачи или {@link Double#NaN},
+     *                    если переменная не ограничена сверху.
+     */
+    record Model(int[] variables, double[] costs, List<Row> rows, double[] upperBounds) {}
+
+
+    /**
+     * Упрощает задачу с указанной целевой функцией (минимизация) и ограничениями.
+     * @param costs стоимость каждой переменной.
+     * @param rows ограничения задачи.
+     * @return упрощенная задача.
+     */
+    public Model presolve(double[] costs, List<Row> rows) {
+        List<Row> result = mergeDuplicates(rows);
+        result.removeIf(this::isTriviallySatisfied);
+
+        boolean[] removed = removeDominated ? removeDominated(costs, result) : new boolean[costs.length];
+
+        double[] upperBounds = new double[costs.length];
+        Arrays.fill(upperBounds, Double.NaN);
+        for(Row row : result) {
+            if(row.relation() != Relationship.LESS_OR_EQUAL) continue;
+            for(int i = 0; i < costs.length; i++) {
+                double coefficient = row.coefficients()[i];
+                if(!removed[i] && coefficient > EPSILON) {
+                    double bound = Math.floor(row.rhs() / coefficient + EPSILON);
+                    if(Double.isNaN(upperBounds[i]) || bound < upperBounds[i]) upperBounds[i] = bound;
+                }
+            }
+        }
+        for(int i = 0; i < costs.length; i++) {
+            if(upperBounds[i] == 0) removed[i] = true;
+        }
+        result.removeIf(row -> isRedundant(row, removed, upperBounds));
+
+        return compact(costs, result, removed, upperBounds);
+    }
+
+
+    private List<Row> mergeDuplicates(List<Row> rows) {
+        Map<String, Row> merged = new LinkedHashMap<>();
+        for(Row row : rows) {
+            merged.merge(
+                    row.key() + ":" + row.relation(),
+                    row,
+                    (a, b) -> {
+                        boolean takeA = a.relation() == Relationship.GREATER_OR_EQUAL ?
+                                a.rhs() >= b.rhs() :
+                                a.rhs() <= b.rhs();
+                        return takeA ? a : b;
+                    }
+            );
+        }
+        return new ArrayList<>(merged.values());
+    }
+
+    private boolean isTriviallySatisfied(Row row) {
+        if(row.relation() == Relationship.GREATER_OR_EQUAL) return row.rhs() <= 0;
+        return Arrays.stream(row.coefficients()).allMatch(c -> c <= 0) && row.rhs() >= 0;
+    }
+
+    /*
+     * Переменная j доминируется переменной k, если стоимость k не больше стоимости j, для каждого
+     * ограничения "больше или равно" коэффициент k не меньше коэффициента j, а для каждого ограничения
+     * "меньше или равно" - не больше. В этом случае любое решение, где j > 0, можно преобразовать, перенеся
+     * значение j на k, без нарушения ограничений и без увеличения стоимости. Из переменных с одинаковыми
+     * коэффициентами и стоимостью остается переменная с наименьшим индексом.
+     */
+    private boolean[] removeDominated(double[] costs, List<Row> rows) {
+        Integer[] order = new Integer[costs.length];
+        for(int i = 0; i < order.length; i++) order[i] = i;
+        Arrays.sort(order, Comparator.<Integer>comparingDouble(i -> costs[i]).thenComparingInt(i -> i));
+
+        boolean[] removed = new boolean[costs.length];
+        List<Integer> kept = new ArrayList<>();
+        for(int j : order) {
+            boolean dominated = false;
+            for(int k : kept) {
+                if(dominates(k, j, rows)) {
+                    dominated = true;
+                    break;
+                }
+            }
+            if(dominated) removed[j] = true;
+            else kept.add(j);
+        }
+        return removed;
+    }
+
+    private boolean dominates(int k, int j, List<Row> rows) {
+        for(Row row : rows) {
+            double a = row.coefficients()[k];
+            double b = row.coefficients()[j];
+            if(row.relation() == Relationship.GREATER_OR_EQUAL && a < b) return false;
+            if(row.relation() == Relationship.LESS_OR_EQUAL && a > b) return false;
+        }
+        return true;
+    }
+
+    private boolean isRedundant(Row row, boolean[] removed, double[] upperBounds) {
+        if(row.relation() != Relationship.LESS_OR_EQUAL) return false;
+
+        double maxActivity = 0;
+        for(int i = 0; i < upperBounds.length; i++) {
+            double coefficient = row.coefficients()[i];
+            if(removed[i] || coefficient == 0) continue;
+            if(Double.isNaN(upperBounds[i])) return false;
+            maxActivity += coefficient * upperBounds[i];
+        }
+        return maxActivity <= row.rhs() + EPSILON;
+    }
+
+    private Model compact(double[] costs, List<Row> rows, boolean[] removed, double[] upperBounds) {
+        int[] variables = new int[costs.length];
+        int size = 0;
+        for(int i = 0; i < costs.length; i++) {
+            if(!removed[i]) variables[size++] = i;
+        }
+        variables = Arrays.copyOf(variables, size);
+
+        double[] resultCosts = new double[size];
+        double[] resultBounds = new double[size];
+        for(int i = 0; i < size; i++) {
+            resultCosts[i] = costs[variables[i]];
+            resultBounds[i] = upperBounds[variables[i]];
+        }
+
+        List<Row> resultRows = new ArrayList<>();
+        for(Row row : rows) {
+            double[] coefficients = new double[size];
+            for(int i = 0; i < size; i++) coefficients[i] = row.coefficients()[variables[i]];
+            resultRows.add(new Row(row.key(), coefficients, row.relation(), row.rhs()));
+        }
+
+        return new Model(variables, resultCosts, resultRows, resultBounds);
+    }
+
+}
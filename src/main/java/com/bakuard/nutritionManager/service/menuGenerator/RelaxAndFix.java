@@ -0,0 +1,194 @@
+package com.bakuard.nutritionManager.service.menuGenerator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Сокращает кол-во переменных (блюд) задачи подбора меню по решению её непрерывной релаксации (задачи без
+ * требования целочисленности переменных). В сокращенной задаче остаются только блюда, которые входят в решение
+ * релаксации, и блюда, приведенная стоимость которых не превышает заданную долю margin от их стоимости. Если
+ * сокращенная задача не имеет допустимых решений, набор блюд расширяется (см. {@link #widen(Candidates)}).
+ * <br/><br/>
+ * Приведенные стоимости позволяют проверить оптимальность решения сокращенной задачи для исходной задачи:
+ * стоимость любого допустимого решения исходной задачи, в которое входит хотя бы одно исключенное блюдо,
+ * не меньше суммы оптимального значения релаксации и наименьшей приведенной стоимости исключенных блюд
+ * (см. {@link Candidates#isOptimal(double)}). Объекты данного класса не имеют состояния и могут использоваться
+ * из нескольких потоков одновременно.
+ */
+class RelaxAndFix {
+
+    /**
+     * Набор блюд, оставшихся в сокращенной задаче.
+     * @param model сокращенная задача. Индексы её переменных (см. {@link Presolver.Model#variables()}) - это
+     *              индексы блюд исходных данных, как и у исходной задачи.
+     * @param fullModel исходная задача.
+     * @param reducedCosts приведенная стоимость каждой переменной исходной задачи или null, если релаксация
+     *                     не была решена.
+     * @param lowerBound оптимальное значение целевой функции релаксации исходной задачи (нижняя оценка
+     *                   оптимального значения исходной задачи) или {@link Double#NaN}, если оно не рассчитано.
+     * @param excludedReducedCost наименьшая приведенная стоимость исключенных блюд или
+     *                            {@link Double#POSITIVE_INFINITY}, если исключенных блюд нет.
+     * @param margin доля стоимости блюда, использованная для отбора блюд.
+     */
+    public record Candidates(Presolver.Model model,
+                             Presolver.Model fullModel,
+                             double[] reducedCosts,
+                             double lowerBound,
+                             double excludedReducedCost,
+                             double margin) {
+
+        /**
+         * Проверяет - содержит ли сокращенная задача все блюда исходной задачи.
+         */
+        public boolean isComplete() {
+            return excludedReducedCost == Double.POSITIVE_INFINITY;
+        }
+
+        /**
+         * Проверяет - является ли оптимальное решение сокращенной задачи с указанным значением целевой
+         * функции оптимальным решением исходной задачи.
+         */
+        public boolean isOptimal(double objective) {
+            return isComplete() ||
+                    objective <= lowerBound + excludedReducedCost + EPSILON * Math.max(1, Math.abs(objective));
+        }
+
+    }
+
+    private static final double EPSILON = 1e-9;
+    private static final double POSITIVE_VALUE = 1e-7;
+
+    private final Simplex simplex;
+
+    public RelaxAndFix() {
+        this.simplex = new Simplex();
+    }
+
+    /**
+     * Решает релаксацию задачи model и возвращает сокращенную задачу. Если релаксация не имеет решения или
+     * его не удалось найти, возвращает задачу model без изменений.
+     * @param model исходная задача.
+     * @param margin доля стоимости блюда, в пределах которой его приведенная стоимость допускает оставить
+     *               блюдо в сокращенной задаче.
+     * @return сокращенная задача.
+     */
+    public Candidates select(Presolver.Model model, double margin) {
+        Simplex.Solution relaxed;
+        try {
+            relaxed = relax(model);
+        } catch(IllegalStateException e) {
+            relaxed = null;
+        }
+        if(relaxed == null || relaxed.status() != MilpSolution.Status.OPTIMAL) return all(model);
+
+        double[] reducedCosts = relaxed.reducedCosts().clone();
+        for(int j = 0; j < reducedCosts.length; j++) {
+            if(relaxed.values()[j] > POSITIVE_VALUE) reducedCosts[j] = 0;
+        }
+        return restrict(model, reducedCosts, relaxed.objective(), margin);
+    }
+
+    /**
+     * Возвращает задачу model без сокращения.
+     */
+    public Candidates all(Presolver.Model model) {
+        return new Candidates(model, model, null, Double.NaN, Double.POSITIVE_INFINITY, 0);
+    }
+
+    /**
+     * Возвращает сокращенную задачу с большим кол-вом блюд, чем у candidates: доля стоимости блюда, используемая
+     * для отбора, удваивается до тех пор, пока набор блюд не расширится.
+     * @param candidates текущая сокращенная задача.
+     * @return расширенная сокращенная задача.
+     */
+    public Candidates widen(Candidates candidates) {
+        if(candidates.isComplete()) return candidates;
+
+        double margin = Math.max(candidates.margin(), EPSILON);
+        Candidates result = candidates;
+        while(!result.isComplete() && result.model().variables().length == candidates.model().variables().length) {
+            margin *= 2;
+            result = restrict(candidates.fullModel(), candidates.reducedCosts(), candidates.lowerBound(), margin);
+        }
+        return result;
+    }
+
+
+    /*
+     * Границы переменных добавляются в задачу только для тех переменных, значение которых превышает границу,
+     * чтобы не увеличивать размер симплекс-таблицы на кол-во блюд. Полученное решение совпадает с решением
+     * релаксации со всеми границами.
+     */
+    private Simplex.Solution relax(Presolver.Model model) {
+        double[][] coefficients = model.rows().stream().map(Presolver.Row::coefficients).toArray(double[][]::new);
+        Relationship[] relations = model.rows().stream().map(Presolver.Row::relation).toArray(Relationship[]::new);
+        double[] rhs = model.rows().stream().mapToDouble(Presolver.Row::rhs).toArray();
+        double[] lower = new double[model.costs().length];
+        double[] upper = new double[model.costs().length];
+        Arrays.fill(upper, Double.POSITIVE_INFINITY);
+
+        while(true) {
+            Simplex.Solution result = simplex.solve(model.costs(), coefficients, relations, rhs, lower, upper);
+            if(result.status() != MilpSolution.Status.OPTIMAL) return result;
+
+            boolean violated = false;
+            for(int j = 0; j < upper.length; j++) {
+                double bound = model.upperBounds()[j];
+                if(!Double.isNaN(bound) && upper[j] > bound && result.values()[j] > bound + EPSILON) {
+                    upper[j] = bound;
+                    violated = true;
+                }
+            }
+            if(!violated) return result;
+        }
+    }
+
+    /*
+     * Стоимость блюда, используемая для отбора, не меньше наименьшей положительной стоимости блюд задачи, чтобы
+     * блюда с нулевой стоимостью тоже попадали в сокращенную задачу при увеличении margin.
+     */
+    private Candidates restrict(Presolver.Model model, double[] reducedCosts, double lowerBound, double margin) {
+        double minCost = Arrays.stream(model.costs()).filter(cost -> cost > EPSILON).min().orElse(1);
+
+        List<Integer> selected = new ArrayList<>();
+        double excludedReducedCost = Double.POSITIVE_INFINITY;
+        for(int j = 0; j < reducedCosts.length; j++) {
+            if(reducedCosts[j] <= margin * Math.max(model.costs()[j], minCost) + EPSILON) {
+                selected.add(j);
+            } else {
+                excludedReducedCost = Math.min(excludedReducedCost, reducedCosts[j]);
+            }
+        }
+        if(selected.size() == reducedCosts.length) {
+            return new Candidates(model, model, reducedCosts, lowerBound, Double.POSITIVE_INFINITY, margin);
+        }
+
+        int[] variables = new int[selected.size()];
+        double[] costs = new double[selected.size()];
+        double[] upperBounds = new double[selected.size()];
+        for(int i = 0; i < variables.length; i++) {
+            int j = selected.get(i);
+            variables[i] = model.variables()[j];
+            costs[i] = model.costs()[j];
+            upperBounds[i] = model.upperBounds()[j];
+        }
+
+        List<Presolver.Row> rows = new ArrayList<>();
+        for(Presolver.Row row : model.rows()) {
+            double[] coefficients = new double[variables.length];
+            for(int i = 0; i < variables.length; i++) coefficients[i] = row.coefficients()[selected.get(i)];
+            rows.add(new Presolver.Row(row.key(), coefficients, row.relation(), row.rhs()));
+        }
+
+        return new Candidates(
+                new Presolver.Model(variables, costs, rows, upperBounds),
+                model,
+                reducedCosts,
+                lowerBound,
+                excludedReducedCost,
+                margin
+        );
+    }
+
+}
@@ -0,0 +1,214 @@
+package com.bakuard.nutritionManager.service.menuGenerator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Решает задачи линейного программирования (минимизации) двухфазным симплекс-методом на плотной симплекс-таблице.
+ * Каждая переменная ограничена снизу и, возможно, сверху. Используется для расчета нижних оценок в
+ * {@link BranchAndBoundMilpSolver} и для отбора блюд в {@link RelaxAndFix}. Для выбора вводимой в базис
+ * переменной используется правило Данцига, а при большом кол-ве итераций - правило Бленда, исключающее
+ * зацикливание. Объекты данного класса не имеют состояния и могут использоваться из нескольких потоков
+ * одновременно.
+ */
+class Simplex {
+
+    /**
+     * Решение задачи линейного программирования.
+     * @param status состояние решения: {@link MilpSolution.Status#OPTIMAL}, {@link MilpSolution.Status#INFEASIBLE}
+     *               или {@link MilpSolution.Status#UNBOUNDED}.
+     * @param values значение каждой переменной. Имеет значение null, если решение не найдено.
+     * @param objective значение целевой функции или {@link Double#NaN}, если решение не найдено.
+     * @param reducedCosts приведенная стоимость каждой переменной для найденного решения: на сколько, как
+     *                     минимум, увеличится значение целевой функции при увеличении значения переменной на
+     *                     единицу. Имеет значение null, если решение не найдено.
+     */
+    public record Solution(MilpSolution.Status status, double[] values, double objective, double[] reducedCosts) {}
+
+    private static final double EPSILON = 1e-9;
+    private static final double FEASIBILITY_EPSILON = 1e-7;
+
+    public Simplex() {
+
+    }
+
+    /**
+     * Решает задачу минимизации линейной функции с линейными ограничениями.
+     * @param costs коэффициенты целевой функции.
+     * @param coefficients коэффициенты ограничений: i-я строка соответствует i-му ограничению.
+     * @param relations отношение каждого ограничения.
+     * @param rhs правая часть каждого ограничения.
+     * @param lower нижняя граница каждой переменной.
+     * @param upper верхняя граница каждой переменной или {@link Double#POSITIVE_INFINITY}.
+     * @return решение задачи.
+     * @throws IllegalStateException если превышено максимальное кол-во итераций.
+     */
+    public Solution solve(double[] costs,
+                          double[][] coefficients,
+                          Relationship[] relations,
+                          double[] rhs,
+                          double[] lower,
+                          double[] upper) {
+        int n = costs.length;
+
+        List<double[]> rows = new ArrayList<>();
+        List<Boolean> lessOrEqual = new ArrayList<>();
+        List<Double> bounds = new ArrayList<>();
+        for(int i = 0; i < rhs.length; i++) {
+            double b = rhs[i];
+            for(int j = 0; j < n; j++) b -= coefficients[i][j] * lower[j];
+            rows.add(coefficients[i]);
+            lessOrEqual.add(relations[i] == Relationship.LESS_OR_EQUAL);
+            bounds.add(b);
+        }
+        for(int j = 0; j < n; j++) {
+            if(upper[j] == Double.POSITIVE_INFINITY) continue;
+
+            double range = upper[j] - lower[j];
+            if(range < -FEASIBILITY_EPSILON) {
+                return new Solution(MilpSolution.Status.INFEASIBLE, null, Double.NaN, null);
+            }
+            double[] unit = new double[n];
+            unit[j] = 1;
+            rows.add(unit);
+            lessOrEqual.add(true);
+            bounds.add(Math.max(range, 0));
+        }
+
+        int m = rows.size();
+        int artificials = 0;
+        for(int i = 0; i < m; i++) {
+            if(bounds.get(i) < 0 == lessOrEqual.get(i)) ++artificials;
+        }
+        int columns = n + m + artificials;
+
+        double[][] table = new double[m][columns + 1];
+        int[] basis = new int[m];
+        int artificial = n + m;
+        for(int i = 0; i < m; i++) {
+            double sign = bounds.get(i) < 0 ? -1 : 1;
+            boolean le = lessOrEqual.get(i) != (sign < 0);
+            for(int j = 0; j < n; j++) table[i][j] = sign * rows.get(i)[j];
+            table[i][n + i] = le ? 1 : -1;
+            table[i][columns] = sign * bounds.get(i);
+            if(le) {
+                basis[i] = n + i;
+            } else {
+                table[i][artificial] = 1;
+                basis[i] = artificial++;
+            }
+        }
+
+        if(artificials > 0) {
+            double[] phaseOneCosts = new double[columns];
+            for(int j = n + m; j < columns; j++) phaseOneCosts[j] = 1;
+            optimize(table, basis, phaseOneCosts, columns);
+
+            double infeasibility = 0;
+            for(int i = 0; i < m; i++) {
+                if(basis[i] >= n + m) infeasibility += table[i][columns];
+            }
+            if(infeasibility > FEASIBILITY_EPSILON) {
+                return new Solution(MilpSolution.Status.INFEASIBLE, null, Double.NaN, null);
+            }
+
+            for(int i = 0; i < m; i++) {
+                if(basis[i] < n + m) continue;
+                for(int j = 0; j < n + m; j++) {
+                    if(Math.abs(table[i][j]) > EPSILON) {
+                        pivot(table, null, basis, i, j);
+                        break;
+                    }
+                }
+            }
+        }
+
+        double[] phaseTwoCosts = new double[columns];
+        System.arraycopy(costs, 0, phaseTwoCosts, 0, n);
+        double[] reduced = optimize(table, basis, phaseTwoCosts, n + m);
+        if(reduced == null) return new Solution(MilpSolution.Status.UNBOUNDED, null, Double.NaN, null);
+
+        double[] values = lower.clone();
+        for(int i = 0; i < m; i++) {
+            if(basis[i] < n) values[basis[i]] += table[i][columns];
+        }
+        double objective = 0;
+        for(int j = 0; j < n; j++) objective += costs[j] * values[j];
+        double[] reducedCosts = new double[n];
+        for(int j = 0; j < n; j++) reducedCosts[j] = Math.max(reduced[j], 0);
+        return new Solution(MilpSolution.Status.OPTIMAL, values, objective, reducedCosts);
+    }
+
+
+    /*
+     * Возвращает приведенную стоимость каждого столбца для найденного решения или null, если целевая функция
+     * не ограничена снизу. В базис вводятся только столбцы с индексом меньше enteringLimit.
+     */
+    private double[] optimize(double[][] table, int[] basis, double[] costs, int enteringLimit) {
+        int m = table.length;
+        int rhs = costs.length;
+
+        double[] reduced = new double[rhs + 1];
+        System.arraycopy(costs, 0, reduced, 0, rhs);
+        for(int i = 0; i < m; i++) {
+            double basisCost = costs[basis[i]];
+            if(basisCost == 0) continue;
+            for(int j = 0; j <= rhs; j++) reduced[j] -= basisCost * table[i][j];
+        }
+
+        long blandAfter = 10L * (m + rhs);
+        long maxIterations = 1000L * (m + rhs) + 1000;
+        for(long iteration = 0; ; iteration++) {
+            if(iteration > maxIterations) throw new IllegalStateException("Simplex iterations limit is exceeded");
+
+            int entering = -1;
+            for(int j = 0; j < enteringLimit; j++) {
+                if(reduced[j] < -EPSILON && (entering == -1 || iteration < blandAfter && reduced[j] < reduced[entering])) {
+                    entering = j;
+                    if(iteration >= blandAfter) break;
+                }
+            }
+            if(entering == -1) return reduced;
+
+            int leaving = -1;
+            double minRatio = Double.POSITIVE_INFINITY;
+            for(int i = 0; i < m; i++) {
+                if(table[i][entering] <= EPSILON) continue;
+                double ratio = table[i][rhs] / table[i][entering];
+                if(ratio < minRatio - EPSILON ||
+                        ratio <= minRatio + EPSILON && leaving != -1 && basis[i] < basis[leaving]) {
+                    minRatio = Math.min(ratio, minRatio);
+                    leaving = i;
+                }
+            }
+            if(leaving == -1) return null;
+
+            pivot(table, reduced, basis, leaving, entering);
+        }
+    }
+
+    private void pivot(double[][] table, double[] reduced, int[] basis, int row, int column) {
+        double[] pivotRow = table[row];
+        double pivot = pivotRow[column];
+        for(int j = 0; j < pivotRow.length; j++) pivotRow[j] /= pivot;
+        pivotRow[column] = 1;
+
+        for(int i = 0; i < table.length; i++) {
+            if(i != row) eliminate(table[i], pivotRow, column);
+        }
+        if(reduced != null) eliminate(reduced, pivotRow, column);
+
+        basis[row] = column;
+    }
+
+    private void eliminate(double[] target, double[] pivotRow, int column) {
+        double factor = target[column];
+        if(factor == 0) return;
+        for(int j = 0; j < target.length; j++) target[j] -= factor * pivotRow[j];
+        target[column] = 0;
+
+        int rhs = target.length - 1;
+        if(Math.abs(target[rhs]) < EPSILON) target[rhs] = 0;
+    }
+
+}
@@ -0,0 +1,187 @@
+package com.bakuard.nutritionManager.service.menuGenerator;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+/**
+ * Разреженная матрица, в которой хранятся только ненулевые значения. Строки и столбцы матрицы
+ * адресуются порядковыми номерами (индексами), начиная с нуля. Значения хранятся построчно (формат CSR):
+ * для каждой строки - упорядоченные по возрастанию индексы столбцов с ненулевыми значениями и сами значения.
+ * Объекты данного класса не изменяемы.
+ */
+public class SparseMatrix {
+
+    private final int rowsNumber;
+    private final int columnsNumber;
+    private final int[] rowOffsets;
+    private final int[] columns;
+    private final BigDecimal[] values;
+
+    private SparseMatrix(int rowsNumber,
+                         int columnsNumber,
+                         int[] rowOffsets,
+                         int[] columns,
+                         BigDecimal[] values) {
+        this.rowsNumber = rowsNumber;
+        this.columnsNumber = columnsNumber;
+        this.rowOffsets = rowOffsets;
+        this.columns = columns;
+        this.values = values;
+    }
+
+    /**
+     * Возвращает кол-во строк матрицы.
+     */
+    public int getRowsNumber() {
+        return rowsNumber;
+    }
+
+    /**
+     * Возвращает кол-во столбцов матрицы.
+     */
+    public int getColumnsNumber() {
+        return columnsNumber;
+    }
+
+    /**
+     * Возвращает кол-во ненулевых значений в указанной строке матрицы.
+     * @param row индекс строки.
+     * @throws IndexOutOfBoundsException если row < 0 или row >= {@link #getRowsNumber()}.
+     */
+    public int getNonZeroNumber(int row) {
+        Objects.checkIndex(row, rowsNumber);
+        return rowOffsets[row + 1] - rowOffsets[row];
+    }
+
+    /**
+     * Возвращает значение ячейки матрицы. Если значение ячейки не было задано - возвращает 0.
+     * @param row индекс строки.
+     * @param column индекс столбца.
+     * @return значение ячейки матрицы.
+     * @throws IndexOutOfBoundsException если индекс строки или столбца выходит за границы матрицы.
+     */
+    public BigDecimal get(int row, int column) {
+        Objects.checkIndex(row, rowsNumber);
+        Objects.checkIndex(column, columnsNumber);
+
+        int index = Arrays.binarySearch(columns, rowOffsets[row], rowOffsets[row + 1], column);
+        return index >= 0 ? values[index] : BigDecimal.ZERO;
+    }
+
+    /**
+     * Возвращает указанную строку матрицы в виде плотного массива длиной {@link #getColumnsNumber()}.
+     * Время работы метода пропорционально кол-ву ненулевых значений строки.
+     * @param row индекс строки.
+     * @return строка матрицы.
+     * @throws IndexOutOfBoundsException если row < 0 или row >= {@link #getRowsNumber()}.
+     */
+    public double[] getDenseRow(int row) {
+        Objects.checkIndex(row, rowsNumber);
+
+        double[] result = new double[columnsNumber];
+        for(int i = rowOffsets[row]; i < rowOffsets[row + 1]; i++) {
+            result[columns[i]] = values[i].doubleValue();
+        }
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if(this == o) return true;
+        if(o == null || getClass() != o.getClass()) return false;
+        SparseMatrix that = (SparseMatrix) o;
+        return rowsNumber == that.rowsNumber &&
+                columnsNumber == that.columnsNumber &&
+                Arrays.equals(rowOffsets, that.rowOffsets) &&
+                Arrays.equals(columns, that.columns) &&
+                Arrays.equals(values, that.values);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = Objects.hash(rowsNumber, columnsNumber);
+        result = 31 * result + Arrays.hashCode(rowOffsets);
+        result = 31 * result + Arrays.hashCode(columns);
+        result = 31 * result + Arrays.hashCode(values);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "SparseMatrix{" +
+                "rowsNumber=" + rowsNumber +
+                ", columnsNumber=" + columnsNumber +
+                ", nonZeroNumber=" + values.length +
+                '}';
+    }
+
+
+    /**
+     * Реализация паттерна "Builder" для {@link SparseMatrix}.
+     */
+    public static class Builder {
+
+        private final int rowsNumber;
+        private final int columnsNumber;
+        private final List<TreeMap<Integer, BigDecimal>> rows;
+
+        /**
+         * Создает построитель матрицы заданного размера, все ячейки которой равны 0.
+         * @param rowsNumber кол-во строк матрицы.
+         * @param columnsNumber кол-во столбцов матрицы.
+         * @throws IllegalArgumentException если rowsNumber или columnsNumber отрицательные.
+         */
+        public Builder(int rowsNumber, int columnsNumber) {
+            if(rowsNumber < 0 || columnsNumber < 0) {
+                throw new IllegalArgumentException("Matrix size must be non-negative");
+            }
+
+            this.rowsNumber = rowsNumber;
+            this.columnsNumber = columnsNumber;
+            rows = new ArrayList<>(rowsNumber);
+            for(int i = 0; i < rowsNumber; i++) rows.add(new TreeMap<>());
+        }
+
+        /**
+         * Устанавливает значение ячейки матрицы. Нулевые значения не хранятся.
+         * @param row индекс строки.
+         * @param column индекс столбца.
+         * @param value значение ячейки.
+         * @return ссылку на этот же объект.
+         * @throws IndexOutOfBoundsException если индекс строки или столбца выходит за границы матрицы.
+         */
+        public Builder set(int row, int column, BigDecimal value) {
+            Objects.checkIndex(row, rowsNumber);
+            Objects.checkIndex(column, columnsNumber);
+
+            if(value.signum() == 0) rows.get(row).remove(column);
+            else rows.get(row).put(column, value);
+            return this;
+        }
+
+        /**
+         * Создает матрицу по заданным значениям.
+         */
+        public SparseMatrix build() {
+            int nonZeroNumber = rows.stream().mapToInt(TreeMap::size).sum();
+            int[] rowOffsets = new int[rowsNumber + 1];
+            int[] columns = new int[nonZeroNumber];
+            BigDecimal[] values = new BigDecimal[nonZeroNumber];
+
+            int offset = 0;
+            for(int i = 0; i < rowsNumber; i++) {
+                rowOffsets[i] = offset;
+                for(Map.Entry<Integer, BigDecimal> cell : rows.get(i).entrySet()) {
+                    columns[offset] = cell.getKey();
+                    values[offset] = cell.getValue();
+                    ++offset;
+                }
+            }
+            rowOffsets[rowsNumber] = offset;
+
+            return new SparseMatrix(rowsNumber, columnsNumber, rowOffsets, columns, values);
+        }
+
+    }
+
+}
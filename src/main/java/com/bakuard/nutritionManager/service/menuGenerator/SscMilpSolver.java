@@ -0,0 +1,100 @@
+package com.bakuard.nutritionManager.service.menuGenerator;
+
+import it.ssc.pl.milp.*;
+
+import java.lang.reflect.Field;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Реализация {@link MilpSolver} на основе библиотеки it.ssc. <br/><br/>
+ * <strong>ВАЖНО!</strong> Библиотека хранит исходную задачу в статическом поле MilpManager.pl_original_zero,
+ * которое заполняется только при первом решении задачи и используется для построения решений всех последующих
+ * задач. Поэтому перед каждым решением это поле сбрасывается, а решать задачи одновременно в нескольких
+ * потоках можно только с разными копиями классов библиотеки (см. {@link IsolatedMilpSolver}). Данный класс
+ * должен быть public, так как загружается отдельным загрузчиком классов.
+ */
+public class SscMilpSolver implements MilpSolver {
+
+    public SscMilpSolver() {
+
+    }
+
+    @Override
+    public MilpSolution solve(MilpProblem problem) throws Exception {
+        long start = System.nanoTime();
+        resetOriginalProblem();
+
+        MILP milp = new MILP(new LinearObjectiveFunction(problem.costs(), GoalType.MIN), constraints(problem));
+        milp.setJustTakeFeasibleSolution(problem.justFeasible());
+        MilpSolution.Status status = toStatus(milp.resolve());
+
+        double relaxedObjective = milp.getRelaxedSolution() != null ?
+                milp.getRelaxedSolution().getOptimumValue() : Double.NaN;
+        if(status != MilpSolution.Status.OPTIMAL && status != MilpSolution.Status.FEASIBLE) {
+            return new MilpSolution(
+                    status,
+                    null,
+                    Double.NaN,
+                    relaxedObjective,
+                    Duration.ofNanos(System.nanoTime() - start)
+            );
+        }
+
+        Solution solution = milp.getSolution();
+        long[] values = Arrays.stream(solution.getVariables()).
+                mapToLong(variable -> Math.round(variable.getValue())).
+                toArray();
+        return new MilpSolution(
+                status,
+                values,
+                solution.getOptimumValue(),
+                relaxedObjective,
+                Duration.ofNanos(System.nanoTime() - start)
+        );
+    }
+
+
+    private void resetOriginalProblem() throws ReflectiveOperationException {
+        Field field = Class.forName("it.ssc.pl.milp.MilpManager").getDeclaredField("pl_original_zero");
+        field.setAccessible(true);
+        field.set(null, null);
+    }
+
+    private ArrayList<Constraint> constraints(MilpProblem problem) throws SimplexException {
+        ArrayList<Constraint> result = new ArrayList<>();
+        for(int i = 0; i < problem.rhs().length; i++) {
+            result.add(new Constraint(problem.coefficients()[i], toConsType(problem.relations()[i]), problem.rhs()[i]));
+        }
+
+        double[] intVector = new double[problem.costs().length];
+        Arrays.fill(intVector, 1.0);
+        result.add(new Constraint(intVector, ConsType.INT, Double.NaN));
+
+        if(Arrays.stream(problem.upperBounds()).anyMatch(bound -> !Double.isNaN(bound))) {
+            result.add(new Constraint(problem.upperBounds(), ConsType.UPPER, Double.NaN));
+        }
+        return result;
+    }
+
+    private ConsType toConsType(Relationship relation) {
+        ConsType result = ConsType.GE;
+        switch(relation) {
+            case GREATER_OR_EQUAL -> result = ConsType.GE;
+            case LESS_OR_EQUAL -> result = ConsType.LE;
+        }
+        return result;
+    }
+
+    private MilpSolution.Status toStatus(SolutionType type) {
+        return switch(type) {
+            case OPTIMUM -> MilpSolution.Status.OPTIMAL;
+            case FEASIBLE -> MilpSolution.Status.FEASIBLE;
+            case VUOTUM -> MilpSolution.Status.INFEASIBLE;
+            case ILLIMITATUM -> MilpSolution.Status.UNBOUNDED;
+            case MAX_ITERATIUM, MAX_NUM_SIMPLEX -> MilpSolution.Status.LIMIT_REACHED;
+        };
+    }
+
+}
@@ -0,0 +1,132 @@
+package com.bakuard.nutritionManager.service.menuGenerator;
+
+import java.util.*;
+
+/**
+ * Часть множества допустимых решений задачи подбора меню, заданная дополнительными ограничениями на состав
+ * блюд: блюда, которые обязательно входят в меню, блюда, которые в меню не входят, и наборы блюд, из которых
+ * в меню должно входить хотя бы одно. Используется для поиска нескольких меню с различным составом блюд
+ * в порядке возрастания стоимости (см. {@link MenuGeneratorService#generateAlternatives(Input, int)}).
+ * Блюда задаются индексами переменных задачи. Объекты данного класса не изменяемы.
+ */
+class Subproblem {
+
+    /**
+     * Возвращает подзадачу, совпадающую со всей исходной задачей.
+     */
+    public static Subproblem root() {
+        return new Subproblem(Set.of(), Set.of(), List.of());
+    }
+
+
+    private final Set<Integer> included;
+    private final Set<Integer> excluded;
+    private final List<Set<Integer>> anyOf;
+
+    private Subproblem(Set<Integer> included, Set<Integer> excluded, List<Set<Integer>> anyOf) {
+        this.included = Set.copyOf(included);
+        this.excluded = Set.copyOf(excluded);
+        this.anyOf = List.copyOf(anyOf);
+    }
+
+    /**
+     * Разбивает данную подзадачу на непересекающиеся подзадачи, допустимые решения которых - это все
+     * допустимые решения данной подзадачи, кроме решений с тем же составом блюд, что и у solution.
+     * Пусть d1, ..., dm - блюда решения solution, не обязательные в данной подзадаче. Тогда i-я подзадача
+     * содержит блюда d1, ..., d(i-1) и не содержит блюдо di, а последняя подзадача содержит все блюда
+     * solution и хотя бы одно блюдо не входящее в solution.
+     * @param solution решение данной подзадачи - кол-во порций каждого блюда.
+     * @return подзадачи.
+     */
+    public List<Subproblem> split(long[] solution) {
+        List<Subproblem> result = new ArrayList<>();
+
+        Set<Integer> childIncluded = new HashSet<>(included);
+        for(int i = 0; i < solution.length; i++) {
+            if(solution[i] > 0 && !included.contains(i)) {
+                Set<Integer> childExcluded = new HashSet<>(excluded);
+                childExcluded.add(i);
+                result.add(new Subproblem(childIncluded, childExcluded, anyOf));
+                childIncluded.add(i);
+            }
+        }
+
+        Set<Integer> outside = new HashSet<>();
+        for(int i = 0; i < solution.length; i++) {
+            if(solution[i] == 0 && !excluded.contains(i)) outside.add(i);
+        }
+        if(!outside.isEmpty()) {
+            List<Set<Integer>> childAnyOf = new ArrayList<>(anyOf);
+            childAnyOf.add(outside);
+            result.add(new Subproblem(childIncluded, excluded, childAnyOf));
+        }
+
+        return result;
+    }
+
+    /**
+     * Возвращает ограничения задающие данную подзадачу.
+     * @param variablesNumber кол-во переменных задачи.
+     * @return ограничения задающие данную подзадачу.
+     */
+    public List<Presolver.Row> rows(int variablesNumber) {
+        List<Presolver.Row> result = new ArrayList<>();
+        for(int variable : included) {
+            result.add(new Presolver.Row(
+                    "included:" + variable,
+                    unit(variablesNumber, Set.of(variable)),
+                    Relationship.GREATER_OR_EQUAL,
+                    1
+            ));
+        }
+        for(int variable : excluded) {
+            result.add(new Presolver.Row(
+                    "excluded:" + variable,
+                    unit(variablesNumber, Set.of(variable)),
+                    Relationship.LESS_OR_EQUAL,
+                    0
+            ));
+        }
+        for(int i = 0; i < anyOf.size(); i++) {
+            result.add(new Presolver.Row(
+                    "anyOf:" + i,
+                    unit(variablesNumber, anyOf.get(i)),
+                    Relationship.GREATER_OR_EQUAL,
+                    1
+            ));
+        }
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if(this == o) return true;
+        if(o == null || getClass() != o.getClass()) return false;
+        Subproblem that = (Subproblem) o;
+        return included.equals(that.included) &&
+                excluded.equals(that.excluded) &&
+                anyOf.equals(that.anyOf);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(included, excluded, anyOf);
+    }
+
+    @Override
+    public String toString() {
+        return "Subproblem{" +
+                "included=" + included +
+                ", excluded=" + excluded +
+                ", anyOf=" + anyOf +
+                '}';
+    }
+
+
+    private double[] unit(int variablesNumber, Set<Integer> variables) {
+        double[] result = new double[variablesNumber];
+        for(int variable : variables) result[variable] = 1;
+        return result;
+    }
+
+}
@@ -37,6 +37,8 @@ public enum Constraint {
     ENTITY_MUST_BE_UNIQUE_IN_DB,
     SUCCESSFUL_MAIL_SENDING,
     SUCCESSFUL_UPLOAD,
-    SOLUTION_EXISTS
+    SOLUTION_EXISTS,
+    SOLUTION_FOUND_IN_TIME,
+    QUEUE_NOT_FULL
 
 }
@@ -0,0 +1,38 @@
+CREATE TABLE DishPriceSummary (
+    dishId UUID NOT NULL,
+    userId UUID NOT NULL,
+    minPrice NUMERIC(16, 6),
+    maxPrice NUMERIC(16, 6),
+    averagePrice NUMERIC(16, 6),
+    productsNumber INT NOT NULL,
+    version BIGINT NOT NULL,
+    stale BOOLEAN NOT NULL,
+    FOREIGN KEY(dishId) REFERENCES Dishes(dishId) ON DELETE CASCADE ON UPDATE CASCADE,
+    FOREIGN KEY(userId) REFERENCES Users(userId) ON DELETE CASCADE ON UPDATE CASCADE,
+    PRIMARY KEY(dishId)
+);
+
+CREATE INDEX dishPriceSummaryStaleIndex ON DishPriceSummary(dishId) WHERE stale;
+
+INSERT INTO DishPriceSummary(dishId, userId, minPrice, maxPrice, averagePrice, productsNumber, version, stale)
+    SELECT Dishes.dishId, Dishes.userId, NULL, NULL, NULL, 0, 0, TRUE
+        FROM Dishes;
+
+CREATE FUNCTION productMatchesFilter(targetProductId UUID, filterQuery VARCHAR(2048))
+    RETURNS BOOLEAN
+	LANGUAGE plpgsql
+    AS $BODY$
+DECLARE
+	res BOOLEAN;
+BEGIN
+	EXECUTE format(
+		'SELECT EXISTS (
+        	SELECT * FROM (%s) AS P
+            	WHERE P.productId = %L
+     	);',
+		filterQuery,
+		targetProductId
+	) INTO res;
+	RETURN res;
+END;
+$BODY$;
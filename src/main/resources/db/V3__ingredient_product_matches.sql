@@ -0,0 +1,18 @@
+CREATE TABLE IngredientProductMatches (
+    ingredientId UUID NOT NULL,
+    productId UUID NOT NULL,
+    price NUMERIC(16, 6) NOT NULL,
+    FOREIGN KEY(ingredientId) REFERENCES DishIngredients(ingredientId) ON DELETE CASCADE ON UPDATE CASCADE,
+    FOREIGN KEY(productId) REFERENCES Products(productId) ON DELETE CASCADE ON UPDATE CASCADE,
+    PRIMARY KEY(ingredientId, productId)
+);
+
+CREATE INDEX ingredientProductMatchesPriceIndex ON IngredientProductMatches(ingredientId, price, productId);
+CREATE INDEX ingredientProductMatchesProductIndex ON IngredientProductMatches(productId);
+
+INSERT INTO IngredientProductMatches(ingredientId, productId, price)
+    SELECT DishIngredients.ingredientId, Products.productId, Products.price
+        FROM DishIngredients
+        INNER JOIN Dishes ON Dishes.dishId = DishIngredients.dishId
+        INNER JOIN Products ON Products.userId = Dishes.userId
+        WHERE productMatchesFilter(Products.productId, DishIngredients.filterQuery);
@@ -0,0 +1,4 @@
+CREATE INDEX productsKeysetIndex ON Products(userId, category, productId);
+CREATE INDEX productsPriceKeysetIndex ON Products(userId, price, productId);
+CREATE INDEX dishesKeysetIndex ON Dishes(userId, name, dishId);
+CREATE INDEX menusKeysetIndex ON Menus(userId, name, menuId);
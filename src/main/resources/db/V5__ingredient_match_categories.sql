@@ -0,0 +1,19 @@
+ALTER TABLE IngredientProductMatches ADD COLUMN dishId UUID;
+ALTER TABLE IngredientProductMatches ADD COLUMN category VARCHAR(256);
+
+UPDATE IngredientProductMatches SET
+    dishId = DishIngredients.dishId,
+    category = Products.category
+    FROM DishIngredients, Products
+    WHERE DishIngredients.ingredientId = IngredientProductMatches.ingredientId
+        AND Products.productId = IngredientProductMatches.productId;
+
+ALTER TABLE IngredientProductMatches ALTER COLUMN dishId SET NOT NULL;
+ALTER TABLE IngredientProductMatches ALTER COLUMN category SET NOT NULL;
+
+CREATE INDEX ingredientProductMatchesCategoryIndex ON IngredientProductMatches(category, dishId);
+
+DROP FUNCTION existProductsForFilter(VARCHAR(256)[], VARCHAR(2048));
+DROP FUNCTION productMatchesFilter(UUID, VARCHAR(2048));
+
+ALTER TABLE DishIngredients DROP COLUMN filterQuery;
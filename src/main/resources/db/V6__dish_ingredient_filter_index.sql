@@ -0,0 +1 @@
+CREATE INDEX dishIngredientsFilterIndex ON DishIngredients USING HASH (filter);
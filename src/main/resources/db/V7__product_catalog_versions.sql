@@ -0,0 +1,96 @@
+CREATE SEQUENCE productCatalogVersionSequence;
+
+CREATE TABLE ProductCatalogVersions (
+    userId UUID NOT NULL,
+    version BIGINT NOT NULL,
+    PRIMARY KEY(userId)
+);
+
+CREATE FUNCTION incrementProductCatalogVersion(targetUserId UUID)
+    RETURNS VOID
+	LANGUAGE plpgsql
+    AS $BODY$
+BEGIN
+	INSERT INTO ProductCatalogVersions(userId, version)
+		VALUES(targetUserId, nextval('productCatalogVersionSequence'))
+		ON CONFLICT (userId) DO UPDATE SET version = EXCLUDED.version;
+END;
+$BODY$;
+
+CREATE FUNCTION onProductsChanged()
+    RETURNS TRIGGER
+	LANGUAGE plpgsql
+    AS $BODY$
+BEGIN
+	IF TG_OP = 'INSERT' THEN
+		PERFORM incrementProductCatalogVersion(Changed.userId)
+			FROM (SELECT DISTINCT userId FROM newProducts) AS Changed;
+	ELSIF TG_OP = 'DELETE' THEN
+		PERFORM incrementProductCatalogVersion(Changed.userId)
+			FROM (SELECT DISTINCT userId FROM oldProducts) AS Changed;
+	ELSE
+		PERFORM incrementProductCatalogVersion(Changed.userId)
+			FROM (SELECT userId FROM newProducts UNION SELECT userId FROM oldProducts) AS Changed;
+	END IF;
+	RETURN NULL;
+END;
+$BODY$;
+
+CREATE FUNCTION onProductTagsChanged()
+    RETURNS TRIGGER
+	LANGUAGE plpgsql
+    AS $BODY$
+BEGIN
+	IF TG_OP = 'INSERT' THEN
+		PERFORM incrementProductCatalogVersion(Changed.userId)
+			FROM (SELECT DISTINCT Products.userId
+					FROM newTags
+					INNER JOIN Products ON Products.productId = newTags.productId) AS Changed;
+	ELSIF TG_OP = 'DELETE' THEN
+		PERFORM incrementProductCatalogVersion(Changed.userId)
+			FROM (SELECT DISTINCT Products.userId
+					FROM oldTags
+					INNER JOIN Products ON Products.productId = oldTags.productId) AS Changed;
+	ELSE
+		PERFORM incrementProductCatalogVersion(Changed.userId)
+			FROM (SELECT Products.userId
+					FROM newTags
+					INNER JOIN Products ON Products.productId = newTags.productId
+				UNION
+				SELECT Products.userId
+					FROM oldTags
+					INNER JOIN Products ON Products.productId = oldTags.productId) AS Changed;
+	END IF;
+	RETURN NULL;
+END;
+$BODY$;
+
+CREATE TRIGGER productsInsertCatalogVersionTrigger
+    AFTER INSERT ON Products
+    REFERENCING NEW TABLE AS newProducts
+    FOR EACH STATEMENT EXECUTE PROCEDURE onProductsChanged();
+
+CREATE TRIGGER productsUpdateCatalogVersionTrigger
+    AFTER UPDATE ON Products
+    REFERENCING OLD TABLE AS oldProducts NEW TABLE AS newProducts
+    FOR EACH STATEMENT EXECUTE PROCEDURE onProductsChanged();
+
+CREATE TRIGGER productsDeleteCatalogVersionTrigger
+    AFTER DELETE ON Products
+    REFERENCING OLD TABLE AS oldProducts
+    FOR EACH STATEMENT EXECUTE PROCEDURE onProductsChanged();
+
+CREATE TRIGGER productTagsInsertCatalogVersionTrigger
+    AFTER INSERT ON ProductTags
+    REFERENCING NEW TABLE AS newTags
+    FOR EACH STATEMENT EXECUTE PROCEDURE onProductTagsChanged();
+
+CREATE TRIGGER productTagsUpdateCatalogVersionTrigger
+    AFTER UPDATE ON ProductTags
+    REFERENCING OLD TABLE AS oldTags NEW TABLE AS newTags
+    FOR EACH STATEMENT EXECUTE PROCEDURE onProductTagsChanged();
+
+CREATE TRIGGER productTagsDeleteCatalogVersionTrigger
+    AFTER DELETE ON ProductTags
+    REFERENCING OLD TABLE AS oldTags
+    FOR EACH STATEMENT EXECUTE PROCEDURE onProductTagsChanged();
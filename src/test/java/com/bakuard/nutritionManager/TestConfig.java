@@ -81,6 +81,11 @@ public class TestConfig {
         return new MenuRepositoryPostgres(dataSource, appConfiguration, dishRepository);
     }
 
+    @Bean
+    public DishPriceSummaryRepository dishPriceSummaryRepository(DataSource dataSource) {
+        return new DishPriceSummaryPostgres(dataSource);
+    }
+
     @Bean
     public UserRepository userRepository(DataSource dataSource) {
         return new UserRepositoryPostgres(dataSource);
@@ -0,0 +1,293 @@
+package com.bakuard.nutritionManager.dal;
+
+import com.bakuard.nutritionManager.AssertUtil;
+import com.bakuard.nutritionManager.TestConfig;
+import com.bakuard.nutritionManager.config.configData.ConfigData;
+import com.bakuard.nutritionManager.dal.impl.ProductRepositoryPostgres;
+import com.bakuard.nutritionManager.dal.projection.DishPriceSummary;
+import com.bakuard.nutritionManager.model.*;
+import com.bakuard.nutritionManager.model.filters.Filter;
+import com.bakuard.nutritionManager.validation.Constraint;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.jdbc.JdbcTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = TestConfig.class)
+@TestPropertySource(locations = "classpath:test.properties")
+class DishPriceSummaryRepositoryTest {
+
+    @Autowired
+    private DishPriceSummaryRepository repository;
+    @Autowired
+    private ProductRepositoryPostgres productRepository;
+    @Autowired
+    private DishRepository dishRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private ConfigData conf;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void beforeEach() {
+        commit(() -> JdbcTestUtils.deleteFromTables(jdbcTemplate,
+                "UsedImages", "JwsBlackList", "DishPriceSummary",
+                "MenuItems", "DishIngredients", "MenuTags", "DishTags", "ProductTags",
+                "Menus", "Dishes", "Products", "Users"));
+    }
+
+    @Test
+    @DisplayName("""
+            getStale(maxNumber):
+             maxNumber is zero
+             => exception
+            """)
+    public void getStale1() {
+        AssertUtil.assertValidateException(
+                () -> commit(() -> repository.getStale(0)),
+                Constraint.POSITIVE_VALUE
+        );
+    }
+
+    @Test
+    @DisplayName("""
+            getStale(maxNumber):
+             dish was added
+             => return stale summary with zero version
+            """)
+    public void getStale2() {
+        User user = createAndSaveUser(1);
+        commit(() -> dishRepository.save(createDish(1, user)));
+
+        List<DishPriceSummary> actual = commit(() -> repository.getStale(10));
+
+        Assertions.assertThat(actual).
+                containsExactly(new DishPriceSummary(toUUID(1), user.getId(), null, null, null, 0, 0, true));
+    }
+
+    @Test
+    @DisplayName("""
+            getStale(maxNumber):
+             summary was refreshed,
+             product matching dish ingredient was added
+             => return stale summary with incremented version
+            """)
+    public void getStale3() {
+        User user = createAndSaveUser(1);
+        commit(() -> dishRepository.save(createDish(1, user)));
+        commit(() -> repository.refresh(List.of(
+                new DishPriceSummary(toUUID(1), user.getId(), null, null, null, 0, 0, false)
+        )));
+
+        commit(() -> productRepository.save(createProduct(1, user, "category A")));
+        List<DishPriceSummary> actual = commit(() -> repository.getStale(10));
+
+        Assertions.assertThat(actual).
+                containsExactly(new DishPriceSummary(toUUID(1), user.getId(), null, null, null, 0, 1, true));
+    }
+
+    @Test
+    @DisplayName("""
+            getStale(maxNumber):
+             summary was refreshed,
+             product NOT matching dish ingredient was added
+             => return empty list
+            """)
+    public void getStale4() {
+        User user = createAndSaveUser(1);
+        commit(() -> dishRepository.save(createDish(1, user)));
+        commit(() -> repository.refresh(List.of(
+                new DishPriceSummary(toUUID(1), user.getId(), null, null, null, 0, 0, false)
+        )));
+
+        commit(() -> productRepository.save(createProduct(1, user, "category B")));
+        List<DishPriceSummary> actual = commit(() -> repository.getStale(10));
+
+        Assertions.assertThat(actual).isEmpty();
+    }
+
+    @Test
+    @DisplayName("""
+            refresh(summaries):
+             summaries is null
+             => exception
+            """)
+    public void refresh1() {
+        AssertUtil.assertValidateException(
+                () -> commit(() -> repository.refresh(null)),
+                Constraint.NOT_NULL
+        );
+    }
+
+    @Test
+    @DisplayName("""
+            refresh(summaries):
+             summary version is outdated
+             => don't refresh summary
+            """)
+    public void refresh2() {
+        User user = createAndSaveUser(1);
+        commit(() -> dishRepository.save(createDish(1, user)));
+        commit(() -> productRepository.save(createProduct(1, user, "category A")));
+
+        int actual = commit(() -> repository.refresh(List.of(
+                new DishPriceSummary(toUUID(1), user.getId(), BigDecimal.ONE, BigDecimal.TEN, new BigDecimal("5.5"), 1, 0, false)
+        )));
+
+        Assertions.assertThat(actual).isZero();
+        Assertions.assertThat(repository.getActual(user.getId(), List.of(toUUID(1)))).
+                containsExactly(Optional.empty());
+    }
+
+    @Test
+    @DisplayName("""
+            getActual(userId, dishIds):
+             userId is null
+             => exception
+            """)
+    public void getActual1() {
+        AssertUtil.assertValidateException(
+                () -> repository.getActual(null, List.of(toUUID(1))),
+                Constraint.NOT_NULL
+        );
+    }
+
+    @Test
+    @DisplayName("""
+            getActual(userId, dishIds):
+             some summaries are refreshed,
+             some summaries are stale
+             => return only refreshed summaries
+            """)
+    public void getActual2() {
+        User user = createAndSaveUser(1);
+        commit(() -> dishRepository.save(createDish(1, user)));
+        commit(() -> dishRepository.save(createDish(2, user)));
+        DishPriceSummary expected = new DishPriceSummary(
+                toUUID(1), user.getId(), BigDecimal.ONE, BigDecimal.TEN, new BigDecimal("5.500000"), 1, 0, false
+        );
+        commit(() -> repository.refresh(List.of(expected)));
+
+        List<Optional<DishPriceSummary>> actual = repository.getActual(
+                user.getId(), List.of(toUUID(2), toUUID(1))
+        );
+
+        Assertions.assertThat(actual).hasSize(2);
+        Assertions.assertThat(actual.get(0)).isEmpty();
+        Assertions.assertThat(actual.get(1)).
+                get().
+                usingRecursiveComparison().
+                withComparatorForType(BigDecimal::compareTo, BigDecimal.class).
+                isEqualTo(expected);
+    }
+
+
+    private <T>T commit(Supplier<T> supplier) {
+        DefaultTransactionDefinition def = new DefaultTransactionDefinition();
+        TransactionStatus status = transactionManager.getTransaction(def);
+        try {
+            T value = supplier.get();
+            transactionManager.commit(status);
+            return value;
+        } catch(RuntimeException e) {
+            transactionManager.rollback(status);
+            throw e;
+        }
+    }
+
+    private void commit(Runnable action) {
+        DefaultTransactionDefinition def = new DefaultTransactionDefinition();
+        TransactionStatus status = transactionManager.getTransaction(def);
+        try {
+            action.run();
+            transactionManager.commit(status);
+        } catch(RuntimeException e) {
+            transactionManager.rollback(status);
+            throw e;
+        }
+    }
+
+    private UUID toUUID(int number) {
+        return UUID.fromString("00000000-0000-0000-0000-" + String.format("%012d", number));
+    }
+
+    private User createAndSaveUser(int userId) {
+        User user = new User.Builder().
+                setId(toUUID(userId)).
+                setName("User#" + userId).
+                setPassword("password" + userId).
+                setEmail("user" + userId + "@confirmationMail.com").
+                tryBuild();
+        commit(() -> userRepository.save(user));
+        return user;
+    }
+
+    private Product createProduct(int productId, User user, String category) {
+        return new Product.Builder().
+                setAppConfiguration(conf).
+                setId(toUUID(productId)).
+                setUser(user).
+                setCategory(category).
+                setShop("shop A").
+                setGrade("variety A").
+                setManufacturer("manufacturer A").
+                setUnit("unitA").
+                setPrice(new BigDecimal(25)).
+                setPackingSize(new BigDecimal("0.5")).
+                setQuantity(BigDecimal.ZERO).
+                setDescription("some description " + productId).
+                setImageUrl("https://nutritionmanager.xyz/products/images?id=" + productId).
+                addTag("common tag").
+                tryBuild();
+    }
+
+    private Dish createDish(int dishId, User user) {
+        return new Dish.Builder().
+                setId(toUUID(dishId)).
+                setUser(user).
+                setName("dish " + dishId).
+                setServingSize(BigDecimal.ONE).
+                setUnit("unit A").
+                setDescription("description " + dishId).
+                setImageUrl("https://nutritionmanager.xyz/dishes/images?id=" + dishId).
+                setConfig(conf).
+                setRepository(productRepository).
+                addTag("common tag").
+                addIngredient(
+                        new DishIngredient.Builder().
+                                setId(toUUID(dishId * 10)).
+                                setFilter(
+                                        Filter.and(
+                                                Filter.user(user.getId()),
+                                                Filter.anyCategory("category A")
+                                        )
+                                ).
+                                setName("ingredient " + dishId).
+                                setQuantity(BigDecimal.TEN).
+                                setConfig(conf)
+                ).
+                tryBuild();
+    }
+
+}
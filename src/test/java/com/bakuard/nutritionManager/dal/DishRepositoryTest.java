@@ -8,6 +8,7 @@ import com.bakuard.nutritionManager.model.*;
 import com.bakuard.nutritionManager.model.filters.Filter;
 import com.bakuard.nutritionManager.model.filters.Sort;
 import com.bakuard.nutritionManager.model.util.Page;
+import com.bakuard.nutritionManager.model.util.PageableByCursor;
 import com.bakuard.nutritionManager.model.util.PageableByNumber;
 import com.bakuard.nutritionManager.validation.Constraint;
 import org.assertj.core.api.Assertions;
@@ -27,6 +28,7 @@ import org.springframework.transaction.support.DefaultTransactionDefinition;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -930,6 +932,59 @@ class DishRepositoryTest {
         Assertions.assertThat(actual).isZero();
     }
 
+    @Test
+    @DisplayName("""
+            getNumberDishes(criteria):
+             user have dishes,
+             products were added after dishes,
+             filter is Ingredients - matching exists
+             => return correct result
+            """)
+    public void getDishesNumber10() {
+        User user = createAndSaveUser(1);
+        createAndSaveDishes(user);
+        createAndSaveProducts(user);
+
+        int actual = dishRepository.getDishesNumber(
+                new Criteria().
+                        setFilter(
+                                Filter.and(
+                                        Filter.user(user.getId()),
+                                        Filter.anyIngredient("name A", "name Z")
+                                )
+                        )
+        );
+
+        Assertions.assertThat(actual).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("""
+            getNumberDishes(criteria):
+             user have dishes,
+             all products were removed,
+             filter is Ingredients
+             => return 0
+            """)
+    public void getDishesNumber11() {
+        User user = createAndSaveUser(1);
+        List<Product> products = createAndSaveProducts(user);
+        createAndSaveDishes(user);
+        commit(() -> products.forEach(product -> productRepository.tryRemove(user.getId(), product.getId())));
+
+        int actual = dishRepository.getDishesNumber(
+                new Criteria().
+                        setFilter(
+                                Filter.and(
+                                        Filter.user(user.getId()),
+                                        Filter.anyIngredient("name A", "name Z")
+                                )
+                        )
+        );
+
+        Assertions.assertThat(actual).isZero();
+    }
+
     @Test
     @DisplayName("""
             getDishes(criteria):
@@ -1209,6 +1264,177 @@ class DishRepositoryTest {
                 isEqualTo(expected);
     }
 
+    @Test
+    @DisplayName("""
+            getDishes(criteria):
+             filter is Ingredients,
+             category of matching product was changed after the dish was saved
+             => return dishes by the new category of product only
+            """)
+    public void getDishes11() {
+        User user = createAndSaveUser(1);
+        dishRepository.save(createDish(1, user));
+        Product.Builder product = new Product.Builder().
+                setAppConfiguration(conf).
+                setId(toUUID(100)).
+                setUser(user).
+                setCategory("name Y").
+                setShop("shop Y").
+                setGrade("variety Y").
+                setManufacturer("manufacturer Y").
+                setUnit("unitA").
+                setPrice(new BigDecimal(25)).
+                setPackingSize(BigDecimal.ONE).
+                setQuantity(BigDecimal.ZERO).
+                addTag("tag B");
+        productRepository.save(product.tryBuild());
+        productRepository.save(product.setCategory("name Z").tryBuild());
+
+        Page<Dish> actualByOldCategory = dishRepository.getDishes(
+                new Criteria().
+                        setFilter(Filter.and(Filter.user(user.getId()), Filter.anyIngredient("name Y"))).
+                        setPageable(PageableByNumber.of(4, 0)).
+                        setSort(Sort.dishDefaultSort())
+        );
+        Page<Dish> actualByNewCategory = dishRepository.getDishes(
+                new Criteria().
+                        setFilter(Filter.and(Filter.user(user.getId()), Filter.anyIngredient("name Z"))).
+                        setPageable(PageableByNumber.of(4, 0)).
+                        setSort(Sort.dishDefaultSort())
+        );
+
+        Assertions.assertThat(actualByOldCategory.getContent()).isEmpty();
+        Assertions.assertThat(actualByNewCategory.getContent()).
+                extracting(Dish::getId).
+                containsExactly(toUUID(1));
+    }
+
+    @Test
+    @DisplayName("""
+            getDishes(criteria):
+             user have dishes,
+             pageable is PageableByCursor,
+             get all pages one by one by next cursor
+             => return all dishes in the same order as PageableByNumber
+            """)
+    public void getDishes12() {
+        User user = createAndSaveUser(1);
+        List<Dish> dishes = createAndSaveDishes(user);
+
+        List<Dish> actual = getAllDishesByCursor(user, Sort.dishDefaultSort(), 3);
+
+        Assertions.assertThat(actual).
+                usingRecursiveComparison().
+                isEqualTo(dishes);
+    }
+
+    @Test
+    @DisplayName("""
+            getDishes(criteria):
+             user have dishes,
+             pageable is PageableByCursor,
+             sort parameters have different directions,
+             get all pages one by one by next cursor
+             => return all dishes in the same order as PageableByNumber
+            """)
+    public void getDishes13() {
+        User user = createAndSaveUser(1);
+        createAndSaveDishes(user);
+        Sort sort = Sort.dishes("name_desc, dishId");
+        Page<Dish> expected = dishRepository.getDishes(
+                new Criteria().
+                        setPageable(PageableByNumber.of(4, 0)).
+                        setFilter(Filter.user(user.getId())).
+                        setSort(sort)
+        );
+
+        List<Dish> actual = getAllDishesByCursor(user, sort, 3);
+
+        Assertions.assertThat(actual).
+                usingRecursiveComparison().
+                isEqualTo(expected.getContent());
+        Assertions.assertThat(actual).
+                extracting(Dish::getName).
+                isSortedAccordingTo(Comparator.reverseOrder());
+    }
+
+    @Test
+    @DisplayName("""
+            getDishes(criteria):
+             pageable is PageableByCursor,
+             cursor doesn't match sort parameters
+             => exception
+            """)
+    public void getDishes14() {
+        User user = createAndSaveUser(1);
+        createAndSaveDishes(user);
+        String cursor = dishRepository.getDishes(
+                new Criteria().
+                        setPageable(PageableByCursor.first(3)).
+                        setFilter(Filter.user(user.getId())).
+                        setSort(Sort.dishes("name_desc, dishId"))
+        ).getMetadata().getNextCursor();
+
+        AssertUtil.assertValidateException(
+                () -> dishRepository.getDishes(
+                        new Criteria().
+                                setPageable(PageableByCursor.of(3, cursor)).
+                                setFilter(Filter.user(user.getId())).
+                                setSort(Sort.dishDefaultSort())
+                ),
+                "PageableByCursor.cursor",
+                Constraint.CORRECT_STRUCTURE
+        );
+    }
+
+    @Test
+    @DisplayName("""
+            getAllDishes(userId):
+             userId is null
+             => exception
+            """)
+    public void getAllDishes1() {
+        AssertUtil.assertValidateException(
+                () -> dishRepository.getAllDishes(null),
+                Constraint.NOT_NULL
+        );
+    }
+
+    @Test
+    @DisplayName("""
+            getAllDishes(userId):
+             user haven't any dishes
+             => return empty list
+            """)
+    public void getAllDishes2() {
+        User user = createAndSaveUser(1);
+        createAndSaveDishes(user);
+        User actualUser = createAndSaveUser(100);
+
+        List<Dish> actual = dishRepository.getAllDishes(actualUser.getId());
+
+        Assertions.assertThat(actual).isEmpty();
+    }
+
+    @Test
+    @DisplayName("""
+            getAllDishes(userId):
+             user have dishes
+             => return all user dishes in correct state and default order
+            """)
+    public void getAllDishes3() {
+        User user = createAndSaveUser(1);
+        List<Dish> dishes = createAndSaveDishes(user);
+        User otherUser = createAndSaveUser(2);
+        commit(() -> dishRepository.save(createDish(100, otherUser)));
+
+        List<Dish> actual = dishRepository.getAllDishes(user.getId());
+
+        Assertions.assertThat(actual).
+                usingRecursiveComparison().
+                isEqualTo(dishes);
+    }
+
     @Test
     @DisplayName("""
             getNumberTags(criteria):
@@ -1535,6 +1761,22 @@ class DishRepositoryTest {
         }
     }
 
+    private List<Dish> getAllDishesByCursor(User user, Sort sort, int pageSize) {
+        List<Dish> result = new ArrayList<>();
+        String cursor = "";
+        while(cursor != null) {
+            Page<Dish> page = dishRepository.getDishes(
+                    new Criteria().
+                            setPageable(PageableByCursor.of(pageSize, cursor)).
+                            setFilter(Filter.user(user.getId())).
+                            setSort(sort)
+            );
+            result.addAll(page.getContent());
+            cursor = page.getMetadata().getNextCursor();
+        }
+        return result;
+    }
+
     private UUID toUUID(int number) {
         return UUID.fromString("00000000-0000-0000-0000-" + String.format("%012d", number));
     }
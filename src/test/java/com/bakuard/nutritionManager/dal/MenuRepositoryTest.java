@@ -9,6 +9,7 @@ import com.bakuard.nutritionManager.model.*;
 import com.bakuard.nutritionManager.model.filters.Filter;
 import com.bakuard.nutritionManager.model.filters.Sort;
 import com.bakuard.nutritionManager.model.util.Page;
+import com.bakuard.nutritionManager.model.util.PageableByCursor;
 import com.bakuard.nutritionManager.model.util.PageableByNumber;
 import com.bakuard.nutritionManager.validation.Constraint;
 import org.assertj.core.api.Assertions;
@@ -28,6 +29,7 @@ import org.springframework.transaction.support.DefaultTransactionDefinition;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -1327,6 +1329,84 @@ class MenuRepositoryTest {
                 isEqualTo(expected);
     }
 
+    @Test
+    @DisplayName("""
+            getMenus(criteria):
+             user have menus,
+             pageable is PageableByCursor,
+             get all pages one by one by next cursor
+             => return all menus in the same order as PageableByNumber
+            """)
+    public void getMenus14() {
+        User user = createAndSaveUser(1);
+        List<Menu> menus = createAndSaveMenus(user);
+
+        List<Menu> actual = getAllMenusByCursor(user, Sort.menuDefaultSort(), 3);
+
+        Assertions.assertThat(actual).
+                usingRecursiveComparison().
+                isEqualTo(menus);
+    }
+
+    @Test
+    @DisplayName("""
+            getMenus(criteria):
+             user have menus,
+             pageable is PageableByCursor,
+             sort parameters have different directions,
+             get all pages one by one by next cursor
+             => return all menus in the same order as PageableByNumber
+            """)
+    public void getMenus15() {
+        User user = createAndSaveUser(1);
+        createAndSaveMenus(user);
+        Sort sort = Sort.menus("name_desc, menuId");
+        Page<Menu> expected = menuRepository.getMenus(
+                new Criteria().
+                        setPageable(PageableByNumber.of(4, 0)).
+                        setFilter(Filter.user(user.getId())).
+                        setSort(sort)
+        );
+
+        List<Menu> actual = getAllMenusByCursor(user, sort, 3);
+
+        Assertions.assertThat(actual).
+                usingRecursiveComparison().
+                isEqualTo(expected.getContent());
+        Assertions.assertThat(actual).
+                extracting(Menu::getName).
+                isSortedAccordingTo(Comparator.reverseOrder());
+    }
+
+    @Test
+    @DisplayName("""
+            getMenus(criteria):
+             pageable is PageableByCursor,
+             cursor doesn't match sort parameters
+             => exception
+            """)
+    public void getMenus16() {
+        User user = createAndSaveUser(1);
+        createAndSaveMenus(user);
+        String cursor = menuRepository.getMenus(
+                new Criteria().
+                        setPageable(PageableByCursor.first(3)).
+                        setFilter(Filter.user(user.getId())).
+                        setSort(Sort.menus("name_desc, menuId"))
+        ).getMetadata().getNextCursor();
+
+        AssertUtil.assertValidateException(
+                () -> menuRepository.getMenus(
+                        new Criteria().
+                                setPageable(PageableByCursor.of(3, cursor)).
+                                setFilter(Filter.user(user.getId())).
+                                setSort(Sort.menuDefaultSort())
+                ),
+                "PageableByCursor.cursor",
+                Constraint.CORRECT_STRUCTURE
+        );
+    }
+
     @Test
     @DisplayName("""
             getTagsNumber(criteria):
@@ -1551,6 +1631,22 @@ class MenuRepositoryTest {
         }
     }
 
+    private List<Menu> getAllMenusByCursor(User user, Sort sort, int pageSize) {
+        List<Menu> result = new ArrayList<>();
+        String cursor = "";
+        while(cursor != null) {
+            Page<Menu> page = menuRepository.getMenus(
+                    new Criteria().
+                            setPageable(PageableByCursor.of(pageSize, cursor)).
+                            setFilter(Filter.user(user.getId())).
+                            setSort(sort)
+            );
+            result.addAll(page.getContent());
+            cursor = page.getMetadata().getNextCursor();
+        }
+        return result;
+    }
+
     private UUID toUUID(int number) {
         return UUID.fromString("00000000-0000-0000-0000-" + String.format("%012d", number));
     }
@@ -0,0 +1,194 @@
+package com.bakuard.nutritionManager.dal;
+
+import com.bakuard.nutritionManager.TestConfig;
+import com.bakuard.nutritionManager.config.configData.ConfigData;
+import com.bakuard.nutritionManager.model.Product;
+import com.bakuard.nutritionManager.model.Tag;
+import com.bakuard.nutritionManager.model.User;
+import com.bakuard.nutritionManager.model.filters.Filter;
+import com.bakuard.nutritionManager.model.filters.ProductFilterCompiler;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.jdbc.JdbcTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Predicate;
+
+/**
+ * Сравнивает время проверки продуктов на соответствие ограничениям через SQL
+ * (см. {@link ProductRepository#getProductsNumber(Criteria)}) и через предикаты
+ * {@link ProductFilterCompiler}. Запускается только при указании -Dbenchmark=true.
+ */
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = TestConfig.class)
+@TestPropertySource(locations = "classpath:test.properties")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ProductFilterBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductFilterBenchmarkTest.class);
+
+    private static final int PRODUCTS_NUMBER = 2000;
+    private static final int ITERATIONS = 50;
+
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private ConfigData conf;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void beforeEach() {
+        commit(() -> JdbcTestUtils.deleteFromTables(jdbcTemplate,
+                "UsedImages", "JwsBlackList", "DishPriceSummary",
+                "MenuItems", "DishIngredients", "MenuTags", "DishTags", "ProductTags",
+                "Menus", "Dishes", "Products", "Users"));
+    }
+
+    @Test
+    @DisplayName("""
+            compile(filter) vs getProductsNumber(criteria):
+             user has many products
+             => both return the same number of products
+            """)
+    public void benchmark() {
+        User user = createAndSaveUser(1);
+        List<Product> products = createAndSaveProducts(user);
+        List<Filter> filters = createFilters(user);
+        ProductFilterCompiler compiler = new ProductFilterCompiler(products);
+
+        long sqlStart = System.nanoTime();
+        List<Integer> sqlResult = new ArrayList<>();
+        for(int i = 0; i < ITERATIONS; i++) {
+            sqlResult.clear();
+            for(Filter filter : filters) {
+                sqlResult.add(productRepository.getProductsNumber(new Criteria().setFilter(filter)));
+            }
+        }
+        long sqlTime = System.nanoTime() - sqlStart;
+
+        long memoryStart = System.nanoTime();
+        List<Integer> memoryResult = new ArrayList<>();
+        for(int i = 0; i < ITERATIONS; i++) {
+            memoryResult.clear();
+            for(Filter filter : filters) {
+                Predicate<Product> predicate = compiler.compile(filter);
+                int count = 0;
+                for(Product product : products) {
+                    if(predicate.test(product)) ++count;
+                }
+                memoryResult.add(count);
+            }
+        }
+        long memoryTime = System.nanoTime() - memoryStart;
+
+        logger.info(
+                "Products = {}, filters = {}, iterations = {}: sql = {} ms, in memory = {} ms",
+                PRODUCTS_NUMBER, filters.size(), ITERATIONS, sqlTime / 1_000_000, memoryTime / 1_000_000
+        );
+        Assertions.assertThat(memoryResult).isEqualTo(sqlResult);
+    }
+
+
+    private List<Filter> createFilters(User user) {
+        return List.of(
+                Filter.user(user.getId()),
+                Filter.and(
+                        Filter.user(user.getId()),
+                        Filter.anyCategory("category 1", "category 2")
+                ),
+                Filter.and(
+                        Filter.user(user.getId()),
+                        Filter.anyShop("shop 3"),
+                        Filter.minTags(new Tag("tag 1"), new Tag("common tag"))
+                ),
+                Filter.or(
+                        Filter.and(
+                                Filter.user(user.getId()),
+                                Filter.anyGrade("grade 0"),
+                                Filter.greater(new BigDecimal(50))
+                        ),
+                        Filter.and(
+                                Filter.user(user.getId()),
+                                Filter.anyManufacturer("manufacturer 4", "manufacturer 5")
+                        )
+                )
+        );
+    }
+
+    private List<Product> createAndSaveProducts(User user) {
+        List<Product> products = new ArrayList<>();
+        for(int i = 0; i < PRODUCTS_NUMBER; i++) {
+            products.add(
+                    new Product.Builder().
+                            setAppConfiguration(conf).
+                            setId(toUUID(i + 1)).
+                            setUser(user).
+                            setCategory("category " + (i % 10)).
+                            setShop("shop " + (i % 7)).
+                            setGrade("grade " + (i % 3)).
+                            setManufacturer("manufacturer " + (i % 11)).
+                            setUnit("unitA").
+                            setPrice(new BigDecimal(i % 100 + 1)).
+                            setPackingSize(BigDecimal.ONE).
+                            setQuantity(new BigDecimal(i % 100)).
+                            setDescription("some description " + i).
+                            setImageUrl("https://nutritionmanager.xyz/products/images?id=" + i).
+                            addTag("tag " + (i % 5)).
+                            addTag("common tag").
+                            tryBuild()
+            );
+        }
+        commit(() -> products.forEach(productRepository::save));
+        return products;
+    }
+
+    private User createAndSaveUser(int userId) {
+        User user = new User.Builder().
+                setId(toUUID(userId)).
+                setName("User#" + userId).
+                setPassword("password" + userId).
+                setEmail("user" + userId + "@confirmationMail.com").
+                tryBuild();
+        commit(() -> userRepository.save(user));
+        return user;
+    }
+
+    private UUID toUUID(int number) {
+        return UUID.fromString("00000000-0000-0000-0000-" + String.format("%012d", number));
+    }
+
+    private void commit(Runnable action) {
+        DefaultTransactionDefinition def = new DefaultTransactionDefinition();
+        TransactionStatus status = transactionManager.getTransaction(def);
+        try {
+            action.run();
+            transactionManager.commit(status);
+        } catch(RuntimeException e) {
+            transactionManager.rollback(status);
+            throw e;
+        }
+    }
+
+}
@@ -3,14 +3,21 @@ package com.bakuard.nutritionManager.dal;
 import com.bakuard.nutritionManager.AssertUtil;
 import com.bakuard.nutritionManager.TestConfig;
 import com.bakuard.nutritionManager.config.configData.ConfigData;
+import com.bakuard.nutritionManager.config.configData.ProductCatalog;
+import com.bakuard.nutritionManager.dal.impl.ProductRepositoryPostgres;
 import com.bakuard.nutritionManager.dal.projection.ProductField;
 import com.bakuard.nutritionManager.dal.projection.ProductFields;
+import com.bakuard.nutritionManager.dal.projection.ProductPriceRange;
+import com.bakuard.nutritionManager.model.Dish;
+import com.bakuard.nutritionManager.model.DishIngredient;
 import com.bakuard.nutritionManager.model.Product;
 import com.bakuard.nutritionManager.model.Tag;
 import com.bakuard.nutritionManager.model.User;
 import com.bakuard.nutritionManager.model.filters.Filter;
 import com.bakuard.nutritionManager.model.filters.Sort;
+import com.bakuard.nutritionManager.model.util.CountMode;
 import com.bakuard.nutritionManager.model.util.Page;
+import com.bakuard.nutritionManager.model.util.PageableByCursor;
 import com.bakuard.nutritionManager.model.util.PageableByNumber;
 import com.bakuard.nutritionManager.validation.Constraint;
 import org.assertj.core.api.Assertions;
@@ -29,8 +36,11 @@ import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.TransactionStatus;
 import org.springframework.transaction.support.DefaultTransactionDefinition;
 
+import javax.sql.DataSource;
 import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -46,11 +56,15 @@ class ProductRepositoryTest {
     @Autowired
     private UserRepository userRepository;
     @Autowired
+    private DishRepository dishRepository;
+    @Autowired
     private PlatformTransactionManager transactionManager;
     @Autowired
     private ConfigData conf;
     @Autowired
     private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private DataSource dataSource;
 
     @BeforeEach
     void beforeEach() {
@@ -1114,6 +1128,121 @@ class ProductRepositoryTest {
         Assertions.assertThat(actual).isEqualTo(0);
     }
 
+    @Test
+    @DisplayName("""
+            getProductsNumber(criteria):
+             product catalog snapshot is enabled,
+             filters use categories, shops, grades, manufacturers, tags and quantity
+             => return the same products number as without snapshot
+            """)
+    void getProductsNumber21() {
+        ProductRepository catalogRepository = createRepositoryWithCatalog(false);
+        User user = createAndSaveUser(1);
+        createAndSaveProducts(user);
+        List<Filter> filters = List.of(
+                Filter.user(user.getId()),
+                Filter.and(
+                        Filter.user(user.getId()),
+                        Filter.minTags(new Tag("common tag"), new Tag("tag A")),
+                        Filter.anyCategory("name A", "name B")
+                ),
+                Filter.and(
+                        Filter.user(user.getId()),
+                        Filter.minTags(new Tag("unknown tag"))
+                ),
+                Filter.or(
+                        Filter.and(
+                                Filter.user(user.getId()),
+                                Filter.anyShop("shop A", "shop B"),
+                                Filter.anyGrade("variety A")
+                        ),
+                        Filter.and(
+                                Filter.user(user.getId()),
+                                Filter.anyManufacturer("manufacturer A"),
+                                Filter.lessOrEqual(BigDecimal.ZERO)
+                        )
+                )
+        );
+
+        List<Integer> actual = filters.stream().
+                map(filter -> catalogRepository.getProductsNumber(new Criteria().setFilter(filter))).
+                toList();
+
+        ProductRepository sqlRepository = createRepositoryWithoutCatalog();
+        Assertions.assertThat(actual).
+                isEqualTo(
+                        filters.stream().
+                                map(filter -> sqlRepository.getProductsNumber(new Criteria().setFilter(filter))).
+                                toList()
+                );
+    }
+
+    @Test
+    @DisplayName("""
+            getProductsNumber(criteria):
+             filter is equal to ingredient filter of saved dish,
+             products were added and removed after dish was saved
+             => return correct result
+            """)
+    void getProductsNumber22() {
+        User user = createAndSaveUser(1);
+        List<Product> products = createAndSaveProducts(user);
+        Filter filterA = Filter.and(
+                Filter.user(user.getId()),
+                Filter.anyCategory("name A")
+        );
+        Filter filterB = Filter.and(
+                Filter.user(user.getId()),
+                Filter.anyCategory("name B"),
+                Filter.minTags(new Tag("tag B"), new Tag("common tag"))
+        );
+        createAndSaveDish(1, user, filterA, filterB);
+        Product newProduct = new Product.Builder().
+                setAppConfiguration(conf).
+                setId(toUUID(100)).
+                setUser(user).
+                setCategory("name A").
+                setShop("shop A").
+                setGrade("variety A").
+                setManufacturer("manufacturer A").
+                setUnit("unitA").
+                setPrice(new BigDecimal("0.5")).
+                setPackingSize(new BigDecimal("0.5")).
+                setQuantity(BigDecimal.ZERO).
+                setDescription("some description").
+                setImageUrl("https://nutritionmanager.xyz/products/images?id=100").
+                addTag("common tag").
+                tryBuild();
+        commit(() -> repository.save(newProduct));
+        commit(() -> repository.tryRemove(user.getId(), products.get(3).getId()));
+
+        int actualA = repository.getProductsNumber(new Criteria().setFilter(filterA));
+        int actualB = repository.getProductsNumber(new Criteria().setFilter(filterB));
+
+        Assertions.assertThat(actualA).isEqualTo(4);
+        Assertions.assertThat(actualB).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("""
+            getProductsNumber(criteria):
+             product catalog snapshot is enabled,
+             user was removed directly from database after previous call
+             => return 0
+            """)
+    void getProductsNumber23() {
+        ProductRepository catalogRepository = createRepositoryWithCatalog(false);
+        User user = createAndSaveUser(1);
+        createAndSaveProducts(user);
+        Criteria criteria = new Criteria().setFilter(Filter.user(user.getId()));
+        catalogRepository.getProductsNumber(criteria);
+        commit(() -> jdbcTemplate.update("DELETE FROM Users WHERE userId = ?;", user.getId()));
+
+        int actual = catalogRepository.getProductsNumber(criteria);
+
+        Assertions.assertThat(actual).isZero();
+    }
+
     @Test
     @DisplayName("""
             getProducts(criteria):
@@ -1967,6 +2096,629 @@ class ProductRepositoryTest {
                 isEqualTo(Page.empty());
     }
 
+    @Test
+    @DisplayName("""
+            getProducts(criteria):
+             user have some products,
+             pageable is PageableByCursor,
+             get all pages one by one by next cursor
+             => return all products in the same order as PageableByNumber
+            """)
+    void getProducts24() {
+        User user = createAndSaveUser(1);
+        List<Product> products = createAndSaveProducts(user);
+
+        List<Product> actual = getAllProductsByCursor(user, Sort.productDefaultSort(), 4);
+
+        Assertions.assertThat(actual).
+                usingRecursiveComparison().
+                isEqualTo(products);
+    }
+
+    @Test
+    @DisplayName("""
+            getProducts(criteria):
+             user have some products,
+             pageable is PageableByCursor,
+             sort parameters have different directions,
+             get all pages one by one by next cursor
+             => return all products in the same order as PageableByNumber
+            """)
+    void getProducts25() {
+        User user = createAndSaveUser(1);
+        createAndSaveProducts(user);
+        Sort sort = Sort.products("category_desc, price");
+        Page<Product> expected = repository.getProducts(
+                new Criteria().
+                        setPageable(PageableByNumber.of(6, 0)).
+                        setFilter(Filter.user(user.getId())).
+                        setSort(sort)
+        );
+
+        List<Product> actual = getAllProductsByCursor(user, sort, 4);
+
+        Assertions.assertThat(actual).
+                usingRecursiveComparison().
+                isEqualTo(expected.getContent());
+    }
+
+    @Test
+    @DisplayName("""
+            getProducts(criteria):
+             pageable is PageableByCursor,
+             cursor doesn't match sort parameters
+             => exception
+            """)
+    void getProducts26() {
+        User user = createAndSaveUser(1);
+        createAndSaveProducts(user);
+        String cursor = repository.getProducts(
+                new Criteria().
+                        setPageable(PageableByCursor.first(4)).
+                        setFilter(Filter.user(user.getId())).
+                        setSort(Sort.products("category, price"))
+        ).getMetadata().getNextCursor();
+
+        AssertUtil.assertValidateException(
+                () -> repository.getProducts(
+                        new Criteria().
+                                setPageable(PageableByCursor.of(4, cursor)).
+                                setFilter(Filter.user(user.getId())).
+                                setSort(Sort.productDefaultSort())
+                ),
+                "PageableByCursor.cursor",
+                Constraint.CORRECT_STRUCTURE
+        );
+    }
+
+    @Test
+    @DisplayName("""
+            getProducts(criteria):
+             user have some products,
+             countMode is NONE,
+             get all pages one by one while page isn't last
+             => return all products,
+                metadata hasn't totalItems
+            """)
+    void getProducts27() {
+        User user = createAndSaveUser(1);
+        List<Product> products = createAndSaveProducts(user);
+
+        List<Product> actual = new ArrayList<>();
+        Page.Metadata metadata = null;
+        for(int i = 0; metadata == null || !metadata.isLast(); i++) {
+            Page<Product> page = repository.getProducts(
+                    new Criteria().
+                            setPageable(PageableByNumber.of(4, i)).
+                            setFilter(Filter.user(user.getId())).
+                            setSort(Sort.productDefaultSort()).
+                            setCountMode(CountMode.NONE)
+            );
+            metadata = page.getMetadata();
+            Assertions.assertThat(metadata.getTotalItems()).isNull();
+            actual.addAll(page.getContent());
+        }
+
+        Assertions.assertThat(actual).
+                usingRecursiveComparison().
+                isEqualTo(products);
+    }
+
+    @Test
+    @DisplayName("""
+            getProducts(criteria):
+             user have some products,
+             countMode is ESTIMATED
+             => return the same products as for EXACT countMode,
+                metadata has totalItems
+            """)
+    void getProducts28() {
+        User user = createAndSaveUser(1);
+        createAndSaveProducts(user);
+        Page<Product> expected = repository.getProducts(
+                new Criteria().
+                        setPageable(PageableByNumber.of(4, 1)).
+                        setFilter(Filter.user(user.getId())).
+                        setSort(Sort.productDefaultSort())
+        );
+
+        Page<Product> actual = repository.getProducts(
+                new Criteria().
+                        setPageable(PageableByNumber.of(4, 1)).
+                        setFilter(Filter.user(user.getId())).
+                        setSort(Sort.productDefaultSort()).
+                        setCountMode(CountMode.ESTIMATED)
+        );
+
+        Assertions.assertThat(actual.getContent()).
+                usingRecursiveComparison().
+                isEqualTo(expected.getContent());
+        Assertions.assertThat(actual.getMetadata().getCountMode()).isEqualTo(CountMode.ESTIMATED);
+        Assertions.assertThat(actual.getMetadata().getTotalItems()).
+                isGreaterThanOrEqualTo(actual.getMetadata().getOffset().add(BigInteger.valueOf(4)));
+    }
+
+    @Test
+    @DisplayName("""
+            getProducts(criteria):
+             user have some products,
+             pageable is PageableByCursor,
+             countMode is NONE,
+             get all pages one by one by next cursor
+             => return all products
+            """)
+    void getProducts29() {
+        User user = createAndSaveUser(1);
+        List<Product> products = createAndSaveProducts(user);
+
+        List<Product> actual = new ArrayList<>();
+        String cursor = "";
+        while(cursor != null) {
+            Page<Product> page = repository.getProducts(
+                    new Criteria().
+                            setPageable(PageableByCursor.of(4, cursor)).
+                            setFilter(Filter.user(user.getId())).
+                            setSort(Sort.productDefaultSort()).
+                            setCountMode(CountMode.NONE)
+            );
+            actual.addAll(page.getContent());
+            cursor = page.getMetadata().getNextCursor();
+        }
+
+        Assertions.assertThat(actual).
+                usingRecursiveComparison().
+                isEqualTo(products);
+    }
+
+    @Test
+    @DisplayName("""
+            getProductPages(criteria):
+             criteria is null
+             => exception
+            """)
+    void getProductPages1() {
+        AssertUtil.assertValidateException(
+                () -> repository.getProductPages(null),
+                Constraint.NOT_NULL
+        );
+    }
+
+    @Test
+    @DisplayName("""
+            getProductPages(criteria):
+             criteria contain null items
+             => exception
+            """)
+    void getProductPages2() {
+        User user = createAndSaveUser(1);
+
+        AssertUtil.assertValidateException(
+                () -> repository.getProductPages(
+                        Arrays.asList(
+                                new Criteria().
+                                        setPageable(PageableByNumber.of(2, 0)).
+                                        setFilter(Filter.user(user.getId())).
+                                        setSort(Sort.products("price")),
+                                null
+                        )
+                ),
+                Constraint.NOT_CONTAINS_NULL
+        );
+    }
+
+    @Test
+    @DisplayName("""
+            getProductPages(criteria):
+             criteria is empty
+             => return empty list
+            """)
+    void getProductPages3() {
+        List<Page<Product>> actual = repository.getProductPages(List.of());
+
+        Assertions.assertThat(actual).isEmpty();
+    }
+
+    @Test
+    @DisplayName("""
+            getProductPages(criteria):
+             user haven't any products
+             => return empty page for each criteria
+            """)
+    void getProductPages4() {
+        User user1 = createAndSaveUser(1);
+        User user2 = createAndSaveUser(2);
+        createAndSaveProducts(user1);
+
+        List<Page<Product>> actual = repository.getProductPages(
+                List.of(
+                        new Criteria().
+                                setPageable(PageableByNumber.of(2, 0)).
+                                setFilter(Filter.user(user2.getId())).
+                                setSort(Sort.products("price")),
+                        new Criteria().
+                                setPageable(PageableByNumber.of(5, 3)).
+                                setFilter(
+                                        Filter.and(
+                                                Filter.user(user2.getId()),
+                                                Filter.anyCategory("name A")
+                                        )
+                                ).
+                                setSort(Sort.products("price"))
+                )
+        );
+
+        Assertions.assertThat(actual).
+                usingRecursiveFieldByFieldElementComparator().
+                containsExactly(Page.empty(), Page.empty());
+    }
+
+    @Test
+    @DisplayName("""
+            getProductPages(criteria):
+             user have some products,
+             several criteria with different filters and pages,
+             some criteria have the same filter and sort
+             => return page for each criteria in the same order
+            """)
+    void getProductPages5() {
+        User user = createAndSaveUser(1);
+        List<Product> products = createAndSaveProducts(user);
+        Filter filterA = Filter.and(
+                Filter.user(user.getId()),
+                Filter.anyCategory("name A")
+        );
+        Filter filterB = Filter.and(
+                Filter.user(user.getId()),
+                Filter.anyCategory("name B")
+        );
+
+        List<Page<Product>> actual = repository.getProductPages(
+                List.of(
+                        new Criteria().
+                                setPageable(PageableByNumber.of(2, 1)).
+                                setFilter(filterA).
+                                setSort(Sort.products("price")),
+                        new Criteria().
+                                setPageable(PageableByNumber.of(2, 0)).
+                                setFilter(filterB).
+                                setSort(Sort.products("price_desc")),
+                        new Criteria().
+                                setPageable(PageableByNumber.ofIndex(1, 2)).
+                                setFilter(filterB).
+                                setSort(Sort.products("price")),
+                        new Criteria().
+                                setPageable(PageableByNumber.of(2, 0)).
+                                setFilter(filterA).
+                                setSort(Sort.products("price")),
+                        new Criteria().
+                                setPageable(PageableByNumber.of(2, 10)).
+                                setFilter(filterB).
+                                setSort(Sort.products("price"))
+                )
+        );
+
+        List<Page<Product>> expected = List.of(
+                PageableByNumber.of(2, 1).
+                        createPageMetadata(3, conf.pagination().productMaxPageSize()).
+                        createPage(List.of(products.get(2))),
+                PageableByNumber.of(2, 0).
+                        createPageMetadata(3, conf.pagination().productMaxPageSize()).
+                        createPage(List.of(products.get(5), products.get(4))),
+                PageableByNumber.ofIndex(1, 2).
+                        createPageMetadata(3, conf.pagination().productMaxPageSize()).
+                        createPage(List.of(products.get(5))),
+                PageableByNumber.of(2, 0).
+                        createPageMetadata(3, conf.pagination().productMaxPageSize()).
+                        createPage(List.of(products.get(0), products.get(1))),
+                PageableByNumber.of(2, 10).
+                        createPageMetadata(3, conf.pagination().productMaxPageSize()).
+                        createPage(List.of(products.get(5)))
+        );
+        Assertions.assertThat(actual).
+                usingRecursiveComparison().
+                isEqualTo(expected);
+    }
+
+    @Test
+    @DisplayName("""
+            getProductPriceRanges(filters):
+             filters is null
+             => exception
+            """)
+    void getProductPriceRanges1() {
+        AssertUtil.assertValidateException(
+                () -> repository.getProductPriceRanges(null),
+                Constraint.NOT_NULL
+        );
+    }
+
+    @Test
+    @DisplayName("""
+            getProductPriceRanges(filters):
+             filters is empty
+             => return empty list
+            """)
+    void getProductPriceRanges2() {
+        List<Optional<ProductPriceRange>> actual = repository.getProductPriceRanges(List.of());
+
+        Assertions.assertThat(actual).isEmpty();
+    }
+
+    @Test
+    @DisplayName("""
+            getProductPriceRanges(filters):
+             user haven't any products
+             => return empty Optional for each filter
+            """)
+    void getProductPriceRanges3() {
+        User user1 = createAndSaveUser(1);
+        User user2 = createAndSaveUser(2);
+        createAndSaveProducts(user1);
+
+        List<Optional<ProductPriceRange>> actual = repository.getProductPriceRanges(
+                List.of(
+                        Filter.user(user2.getId()),
+                        Filter.and(
+                                Filter.user(user2.getId()),
+                                Filter.anyCategory("name A")
+                        )
+                )
+        );
+
+        Assertions.assertThat(actual).containsExactly(Optional.empty(), Optional.empty());
+    }
+
+    @Test
+    @DisplayName("""
+            getProductPriceRanges(filters):
+             user have some products,
+             some filters are repeated,
+             one of filters doesn't match any products
+             => return price range for each filter in the same order
+            """)
+    void getProductPriceRanges4() {
+        User user = createAndSaveUser(1);
+        List<Product> products = createAndSaveProducts(user);
+        Filter filterA = Filter.and(
+                Filter.user(user.getId()),
+                Filter.anyCategory("name A")
+        );
+        Filter filterB = Filter.and(
+                Filter.user(user.getId()),
+                Filter.anyCategory("name B")
+        );
+        Filter unknownFilter = Filter.and(
+                Filter.user(user.getId()),
+                Filter.anyCategory("this name not exists")
+        );
+
+        List<Optional<ProductPriceRange>> actual = repository.getProductPriceRanges(
+                List.of(filterB, unknownFilter, filterA, filterB, Filter.user(user.getId()))
+        );
+
+        Assertions.assertThat(actual).
+                usingRecursiveComparison().
+                isEqualTo(
+                        List.of(
+                                Optional.of(new ProductPriceRange(products.get(3), products.get(5), 3)),
+                                Optional.empty(),
+                                Optional.of(new ProductPriceRange(products.get(0), products.get(2), 3)),
+                                Optional.of(new ProductPriceRange(products.get(3), products.get(5), 3)),
+                                Optional.of(new ProductPriceRange(products.get(0), products.get(5), 6))
+                        )
+                );
+    }
+
+    @Test
+    @DisplayName("""
+            getProductPriceRanges(filters):
+             product catalog snapshot is enabled,
+             user have some products,
+             some filters are repeated,
+             one of filters doesn't match any products
+             => return the same price ranges as without snapshot
+            """)
+    void getProductPriceRanges5() {
+        ProductRepository catalogRepository = createRepositoryWithCatalog(true);
+        User user = createAndSaveUser(1);
+        createAndSaveProducts(user);
+        List<Filter> filters = List.of(
+                Filter.and(
+                        Filter.user(user.getId()),
+                        Filter.anyCategory("name B")
+                ),
+                Filter.and(
+                        Filter.user(user.getId()),
+                        Filter.anyCategory("this name not exists")
+                ),
+                Filter.and(
+                        Filter.user(user.getId()),
+                        Filter.minTags(new Tag("common tag")),
+                        Filter.greaterOrEqual(BigDecimal.ZERO)
+                ),
+                Filter.or(
+                        Filter.and(
+                                Filter.user(user.getId()),
+                                Filter.anyShop("shop A")
+                        ),
+                        Filter.and(
+                                Filter.user(user.getId()),
+                                Filter.anyManufacturer("manufacturer B")
+                        )
+                ),
+                Filter.user(user.getId())
+        );
+
+        List<Optional<ProductPriceRange>> actual = catalogRepository.getProductPriceRanges(filters);
+
+        Assertions.assertThat(actual).
+                usingRecursiveComparison().
+                isEqualTo(createRepositoryWithoutCatalog().getProductPriceRanges(filters));
+    }
+
+    @Test
+    @DisplayName("""
+            getProductPriceRanges(filters):
+             product catalog snapshot is enabled,
+             new cheapest product was saved after previous call
+             => return price ranges with new product
+            """)
+    void getProductPriceRanges6() {
+        ProductRepository catalogRepository = createRepositoryWithCatalog(false);
+        User user = createAndSaveUser(1);
+        List<Product> products = createAndSaveProducts(user);
+        Filter filter = Filter.and(
+                Filter.user(user.getId()),
+                Filter.anyCategory("name A")
+        );
+        catalogRepository.getProductPriceRanges(List.of(filter));
+        Product newProduct = new Product.Builder().
+                setAppConfiguration(conf).
+                setId(toUUID(100)).
+                setUser(user).
+                setCategory("name A").
+                setShop("shop A").
+                setGrade("variety A").
+                setManufacturer("manufacturer A").
+                setUnit("unitA").
+                setPrice(new BigDecimal("0.5")).
+                setPackingSize(new BigDecimal("0.5")).
+                setQuantity(BigDecimal.ZERO).
+                setDescription("some description").
+                setImageUrl("https://nutritionmanager.xyz/products/images?id=100").
+                addTag("common tag").
+                tryBuild();
+        commit(() -> catalogRepository.save(newProduct));
+
+        List<Optional<ProductPriceRange>> actual = catalogRepository.getProductPriceRanges(List.of(filter));
+
+        Assertions.assertThat(actual).
+                usingRecursiveComparison().
+                isEqualTo(List.of(Optional.of(new ProductPriceRange(newProduct, products.get(2), 4))));
+    }
+
+    @Test
+    @DisplayName("""
+            getProductPriceRanges(filters):
+             filters are equal to ingredient filters of saved dish,
+             products were added and removed after dish was saved
+             => return correct result
+            """)
+    void getProductPriceRanges7() {
+        User user = createAndSaveUser(1);
+        List<Product> products = createAndSaveProducts(user);
+        Filter filterA = Filter.and(
+                Filter.user(user.getId()),
+                Filter.anyCategory("name A")
+        );
+        Filter filterB = Filter.and(
+                Filter.user(user.getId()),
+                Filter.anyCategory("name B"),
+                Filter.minTags(new Tag("tag B"), new Tag("common tag"))
+        );
+        createAndSaveDish(1, user, filterA, filterB);
+        Product newProduct = new Product.Builder().
+                setAppConfiguration(conf).
+                setId(toUUID(100)).
+                setUser(user).
+                setCategory("name A").
+                setShop("shop A").
+                setGrade("variety A").
+                setManufacturer("manufacturer A").
+                setUnit("unitA").
+                setPrice(new BigDecimal("0.5")).
+                setPackingSize(new BigDecimal("0.5")).
+                setQuantity(BigDecimal.ZERO).
+                setDescription("some description").
+                setImageUrl("https://nutritionmanager.xyz/products/images?id=100").
+                addTag("common tag").
+                tryBuild();
+        commit(() -> repository.save(newProduct));
+        commit(() -> repository.tryRemove(user.getId(), products.get(3).getId()));
+
+        List<Optional<ProductPriceRange>> actual = repository.getProductPriceRanges(List.of(filterA, filterB));
+
+        Assertions.assertThat(actual).
+                usingRecursiveComparison().
+                isEqualTo(
+                        List.of(
+                                Optional.of(new ProductPriceRange(newProduct, products.get(2), 4)),
+                                Optional.of(new ProductPriceRange(products.get(4), products.get(5), 2))
+                        )
+                );
+        Assertions.assertThat(
+                JdbcTestUtils.countRowsInTableWhere(
+                        jdbcTemplate, "IngredientProductMatches", "productId = '" + newProduct.getId() + "'"
+                )
+        ).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("""
+            getProductPriceRanges(filters):
+             product catalog snapshot is enabled,
+             new cheapest product was saved by other repository instance after previous call
+             => return price ranges with new product
+            """)
+    void getProductPriceRanges8() {
+        ProductRepository catalogRepository = createRepositoryWithCatalog(false);
+        User user = createAndSaveUser(1);
+        List<Product> products = createAndSaveProducts(user);
+        Filter filter = Filter.and(
+                Filter.user(user.getId()),
+                Filter.anyCategory("name A")
+        );
+        catalogRepository.getProductPriceRanges(List.of(filter));
+        Product newProduct = new Product.Builder().
+                setAppConfiguration(conf).
+                setId(toUUID(100)).
+                setUser(user).
+                setCategory("name A").
+                setShop("shop A").
+                setGrade("variety A").
+                setManufacturer("manufacturer A").
+                setUnit("unitA").
+                setPrice(new BigDecimal("0.5")).
+                setPackingSize(new BigDecimal("0.5")).
+                setQuantity(BigDecimal.ZERO).
+                setDescription("some description").
+                setImageUrl("https://nutritionmanager.xyz/products/images?id=100").
+                addTag("common tag").
+                tryBuild();
+        commit(() -> repository.save(newProduct));
+
+        List<Optional<ProductPriceRange>> actual = catalogRepository.getProductPriceRanges(List.of(filter));
+
+        Assertions.assertThat(actual).
+                usingRecursiveComparison().
+                isEqualTo(List.of(Optional.of(new ProductPriceRange(newProduct, products.get(2), 4))));
+    }
+
+    @Test
+    @DisplayName("""
+            getProductPriceRanges(filters):
+             product catalog snapshot is enabled,
+             cheapest product was removed directly from database after previous call
+             => return price ranges without removed product
+            """)
+    void getProductPriceRanges9() {
+        ProductRepository catalogRepository = createRepositoryWithCatalog(false);
+        User user = createAndSaveUser(1);
+        List<Product> products = createAndSaveProducts(user);
+        Filter filter = Filter.and(
+                Filter.user(user.getId()),
+                Filter.anyCategory("name A")
+        );
+        catalogRepository.getProductPriceRanges(List.of(filter));
+        commit(() -> jdbcTemplate.update("DELETE FROM Products WHERE productId = ?;", products.get(0).getId()));
+
+        List<Optional<ProductPriceRange>> actual = catalogRepository.getProductPriceRanges(List.of(filter));
+
+        Assertions.assertThat(actual).
+                usingRecursiveComparison().
+                isEqualTo(List.of(Optional.of(new ProductPriceRange(products.get(1), products.get(2), 2))));
+    }
+
     @Test
     @DisplayName("""
             getTags(criteria):
@@ -6252,10 +7004,77 @@ class ProductRepositoryTest {
                 tryBuild();
     }
 
+    private List<Product> getAllProductsByCursor(User user, Sort sort, int pageSize) {
+        List<Product> result = new ArrayList<>();
+        String cursor = "";
+        while(cursor != null) {
+            Page<Product> page = repository.getProducts(
+                    new Criteria().
+                            setPageable(PageableByCursor.of(pageSize, cursor)).
+                            setFilter(Filter.user(user.getId())).
+                            setSort(sort)
+            );
+            result.addAll(page.getContent());
+            cursor = page.getMetadata().getNextCursor();
+        }
+        return result;
+    }
+
     private UUID toUUID(int number) {
         return UUID.fromString("00000000-0000-0000-0000-" + String.format("%012d", number));
     }
 
+    private ProductRepository createRepositoryWithCatalog(boolean offHeap) {
+        return createRepository(new ProductCatalog(true, 1024 * 1024, offHeap));
+    }
+
+    private ProductRepository createRepositoryWithoutCatalog() {
+        return createRepository(new ProductCatalog(false, 0, false));
+    }
+
+    private ProductRepository createRepository(ProductCatalog productCatalog) {
+        return new ProductRepositoryPostgres(
+                dataSource,
+                new ConfigData(
+                        conf.decimal(),
+                        conf.confirmationMail(),
+                        conf.database(),
+                        conf.aws(),
+                        conf.pagination(),
+                        conf.jws(),
+                        productCatalog,
+                        conf.menuGenerator()
+                )
+        );
+    }
+
+    private Dish createAndSaveDish(int dishId, User user, Filter... ingredientFilters) {
+        Dish.Builder builder = new Dish.Builder().
+                setId(toUUID(dishId)).
+                setUser(user).
+                setName("dish " + dishId).
+                setServingSize(BigDecimal.ONE).
+                setUnit("unit A").
+                setDescription("description " + dishId).
+                setImageUrl("https://nutritionmanager.xyz/dishes/images?id=" + dishId).
+                setConfig(conf).
+                setRepository(repository);
+        for(int i = 0; i < ingredientFilters.length; i++) {
+            builder.addIngredient(
+                    new DishIngredient.Builder().
+                            setId(toUUID(dishId * 100 + i)).
+                            setFilter(ingredientFilters[i]).
+                            setName("ingredient " + i).
+                            setQuantity(BigDecimal.TEN).
+                            setConfig(conf)
+            );
+        }
+
+        Dish dish = builder.tryBuild();
+        commit(() -> dishRepository.save(dish));
+        return dish;
+    }
+
     private List<Product> createAndSaveProducts(User user) {
         ArrayList<Product> products = new ArrayList<>();
 
@@ -5,6 +5,7 @@ import com.bakuard.nutritionManager.TestConfig;
 import com.bakuard.nutritionManager.config.configData.ConfigData;
 import com.bakuard.nutritionManager.dal.Criteria;
 import com.bakuard.nutritionManager.dal.ProductRepository;
+import com.bakuard.nutritionManager.dal.projection.ProductPriceRange;
 import com.bakuard.nutritionManager.model.filters.Filter;
 import com.bakuard.nutritionManager.model.filters.Sort;
 import com.bakuard.nutritionManager.model.util.Page;
@@ -24,12 +25,15 @@ import org.springframework.test.context.junit.jupiter.SpringExtension;
 
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.function.BiFunction;
 import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 @ExtendWith(SpringExtension.class)
 @ContextConfiguration(classes = TestConfig.class)
@@ -945,24 +949,11 @@ class DishTest {
     public void getProductForEachIngredient4() {
         User user = user();
         ProductRepository repository = Mockito.mock(ProductRepository.class);
-        Mockito.when(
-                repository.getProducts(Mockito.eq(criteria(10, filter(user, 0))))
-        ).thenReturn(productPage(user, 10, this::product));
-        Mockito.when(
-                repository.getProductsNumber(Mockito.eq(criteriaNumber(filter(user, 0))))
-        ).thenReturn(1000);
-        Mockito.when(
-                repository.getProducts(Mockito.eq(criteria(0, filter(user, 1))))
-        ).thenReturn(productPage(user, 0, this::product));
-        Mockito.when(
-                repository.getProductsNumber(Mockito.eq(criteriaNumber(filter(user, 1))))
-        ).thenReturn(1000);
-        Mockito.when(
-                repository.getProducts(Mockito.eq(criteria(1, filter(user, 2))))
-        ).thenReturn(productPage(user, 1, this::product));
-        Mockito.when(
-                repository.getProductsNumber(Mockito.eq(criteriaNumber(filter(user, 2))))
-        ).thenReturn(1000);
+        mockProducts(repository, Map.of(
+                filter(user, 0), products(user, 1000, this::product),
+                filter(user, 1), products(user, 1000, this::product),
+                filter(user, 2), products(user, 1000, this::product)
+        ));
         Dish dish = dish(1, user(), repository).
                 addIngredient(ingredient(filter(user, 0), 0)).
                 addIngredient(ingredient(filter(user, 1), 1)).
@@ -992,24 +983,11 @@ class DishTest {
     public void getProductForEachIngredient5() {
         User user = user();
         ProductRepository repository = Mockito.mock(ProductRepository.class);
-        Mockito.when(
-                repository.getProducts(Mockito.eq(criteria(10, filter(user, 0))))
-        ).thenReturn(productPage(user, 10, this::product));
-        Mockito.when(
-                repository.getProductsNumber(Mockito.eq(criteriaNumber(filter(user, 0))))
-        ).thenReturn(1000);
-        Mockito.when(
-                repository.getProducts(Mockito.eq(criteria(0, filter(user, 1))))
-        ).thenReturn(productPage(user, 0, this::product));
-        Mockito.when(
-                repository.getProductsNumber(Mockito.eq(criteriaNumber(filter(user, 1))))
-        ).thenReturn(1000);
-        Mockito.when(
-                repository.getProducts(Mockito.eq(criteria(1, filter(user, 2))))
-        ).thenReturn(productPage(user, 1, this::product));
-        Mockito.when(
-                repository.getProductsNumber(Mockito.eq(criteriaNumber(filter(user, 2))))
-        ).thenReturn(1000);
+        mockProducts(repository, Map.of(
+                filter(user, 0), products(user, 1000, this::product),
+                filter(user, 1), products(user, 1000, this::product),
+                filter(user, 2), products(user, 1000, this::product)
+        ));
         Dish dish = dish(1, user(), repository).
                 addIngredient(ingredient(filter(user, 0), 0)).
                 addIngredient(ingredient(filter(user, 1), 1)).
@@ -1039,24 +1017,11 @@ class DishTest {
     public void getProductForEachIngredient6() {
         User user = user();
         ProductRepository repository = Mockito.mock(ProductRepository.class);
-        Mockito.when(
-                repository.getProducts(Mockito.eq(criteria(10, filter(user, 0))))
-        ).thenReturn(productPage(user, 10, this::product));
-        Mockito.when(
-                repository.getProductsNumber(Mockito.eq(criteriaNumber(filter(user, 0))))
-        ).thenReturn(1000);
-        Mockito.when(
-                repository.getProducts(Mockito.eq(criteria(0, filter(user, 1))))
-        ).thenReturn(productPage(user, 0, this::product));
-        Mockito.when(
-                repository.getProductsNumber(Mockito.eq(criteriaNumber(filter(user, 1))))
-        ).thenReturn(1000);
-        Mockito.when(
-                repository.getProducts(Mockito.eq(criteria(1, filter(user, 2))))
-        ).thenReturn(productPage(user, 1, this::product));
-        Mockito.when(
-                repository.getProductsNumber(Mockito.eq(criteriaNumber(filter(user, 2))))
-        ).thenReturn(1000);
+        mockProducts(repository, Map.of(
+                filter(user, 0), products(user, 1000, this::product),
+                filter(user, 1), products(user, 1000, this::product),
+                filter(user, 2), products(user, 1000, this::product)
+        ));
         Dish dish = dish(1, user(), repository).
                 addIngredient(ingredient(filter(user, 0), 0)).
                 addIngredient(ingredient(filter(user, 1), 1)).
@@ -1086,24 +1051,11 @@ class DishTest {
     public void getProductForEachIngredient7() {
         User user = user();
         ProductRepository repository = Mockito.mock(ProductRepository.class);
-        Mockito.when(
-                repository.getProducts(Mockito.eq(criteria(10, filter(user, 0))))
-        ).thenReturn(productPage(user, 10, this::product));
-        Mockito.when(
-                repository.getProductsNumber(Mockito.eq(criteriaNumber(filter(user, 0))))
-        ).thenReturn(1000);
-        Mockito.when(
-                repository.getProducts(Mockito.eq(criteria(-1, filter(user, 1))))
-        ).thenReturn(productPage(user, 0, this::product));
-        Mockito.when(
-                repository.getProductsNumber(Mockito.eq(criteriaNumber(filter(user, 1))))
-        ).thenReturn(1000);
-        Mockito.when(
-                repository.getProducts(Mockito.eq(criteria(1, filter(user, 2))))
-        ).thenReturn(productPage(user, 1, this::product));
-        Mockito.when(
-                repository.getProductsNumber(Mockito.eq(criteriaNumber(filter(user, 2))))
-        ).thenReturn(1000);
+        mockProducts(repository, Map.of(
+                filter(user, 0), products(user, 1000, this::product),
+                filter(user, 1), products(user, 1000, this::product),
+                filter(user, 2), products(user, 1000, this::product)
+        ));
         Dish dish = dish(1, user(), repository).
                 addIngredient(ingredient(filter(user, 0), 0)).
                 addIngredient(ingredient(filter(user, 1), 1)).
@@ -1133,24 +1085,11 @@ class DishTest {
     public void getProductForEachIngredient8() {
         User user = user();
         ProductRepository repository = Mockito.mock(ProductRepository.class);
-        Mockito.when(
-                repository.getProducts(Mockito.eq(criteria(10, filter(user, 0))))
-        ).thenReturn(productPage(user, this::product, 0,1,2,3,4,5,6,7,8,9,10));
-        Mockito.when(
-                repository.getProductsNumber(Mockito.eq(criteriaNumber(filter(user, 0))))
-        ).thenReturn(11);
-        Mockito.when(
-                repository.getProducts(Mockito.eq(criteria(4, filter(user, 1))))
-        ).thenReturn(productPage(user, this::product, 11,12,13,14));
-        Mockito.when(
-                repository.getProductsNumber(Mockito.eq(criteriaNumber(filter(user, 1))))
-        ).thenReturn(4);
-        Mockito.when(
-                repository.getProducts(Mockito.eq(criteria(1, filter(user, 2))))
-        ).thenReturn(productPage(user, this::product, 100,200,300,400,500,600,700));
-        Mockito.when(
-                repository.getProductsNumber(Mockito.eq(criteriaNumber(filter(user, 2))))
-        ).thenReturn(7);
+        mockProducts(repository, Map.of(
+                filter(user, 0), products(user, this::product, 0,1,2,3,4,5,6,7,8,9,10),
+                filter(user, 1), products(user, this::product, 11,12,13,14),
+                filter(user, 2), products(user, this::product, 100,200,300,400,500,600,700)
+        ));
         Dish dish = dish(1, user(), repository).
                 addIngredient(ingredient(filter(user, 0), 0)).
                 addIngredient(ingredient(filter(user, 1), 1)).
@@ -1180,24 +1119,11 @@ class DishTest {
     public void getProductForEachIngredient9() {
         User user = user();
         ProductRepository repository = Mockito.mock(ProductRepository.class);
-        Mockito.when(
-                repository.getProducts(Mockito.eq(criteria(10, filter(user, 0))))
-        ).thenReturn(productPage(user, this::product, 0,1,2,3,4,5,6,7,8,9,10));
-        Mockito.when(
-                repository.getProductsNumber(Mockito.eq(criteriaNumber(filter(user, 0))))
-        ).thenReturn(11);
-        Mockito.when(
-                repository.getProducts(Mockito.eq(criteria(4, filter(user, 1))))
-        ).thenReturn(productPage(user, this::product, 11,12,13,14));
-        Mockito.when(
-                repository.getProductsNumber(Mockito.eq(criteriaNumber(filter(user, 1))))
-        ).thenReturn(4);
-        Mockito.when(
-                repository.getProducts(Mockito.eq(criteria(1, filter(user, 2))))
-        ).thenReturn(productPage(user, this::product, 100,200,300,400,500,600,700));
-        Mockito.when(
-                repository.getProductsNumber(Mockito.eq(criteriaNumber(filter(user, 2))))
-        ).thenReturn(7);
+        mockProducts(repository, Map.of(
+                filter(user, 0), products(user, this::product, 0,1,2,3,4,5,6,7,8,9,10),
+                filter(user, 1), products(user, this::product, 11,12,13,14),
+                filter(user, 2), products(user, this::product, 100,200,300,400,500,600,700)
+        ));
         Dish dish = dish(1, user(), repository).
                 addIngredient(ingredient(filter(user, 0), 0)).
                 addIngredient(ingredient(filter(user, 1), 1)).
@@ -1227,24 +1153,11 @@ class DishTest {
     public void getProductForEachIngredient10() {
         User user = user();
         ProductRepository repository = Mockito.mock(ProductRepository.class);
-        Mockito.when(
-                repository.getProducts(Mockito.eq(criteria(0, filter(user, 0))))
-        ).thenReturn(Page.empty());
-        Mockito.when(
-                repository.getProductsNumber(Mockito.eq(criteriaNumber(filter(user, 0))))
-        ).thenReturn(0);
-        Mockito.when(
-                repository.getProducts(Mockito.eq(criteria(1, filter(user, 1))))
-        ).thenReturn(productPage(user, 1, this::product));
-        Mockito.when(
-                repository.getProductsNumber(Mockito.eq(criteriaNumber(filter(user, 1))))
-        ).thenReturn(1000);
-        Mockito.when(
-                repository.getProducts(Mockito.eq(criteria(3, filter(user, 2))))
-        ).thenReturn(productPage(user, 3, this::product));
-        Mockito.when(
-                repository.getProductsNumber(Mockito.eq(criteriaNumber(filter(user, 2))))
-        ).thenReturn(1000);
+        mockProducts(repository, Map.of(
+                filter(user, 0), List.of(),
+                filter(user, 1), products(user, 1000, this::product),
+                filter(user, 2), products(user, 1000, this::product)
+        ));
         Dish dish = dish(1, user, repository).
                 addIngredient(ingredient(filter(user, 0), 0)).
                 addIngredient(ingredient(filter(user, 1), 1)).
@@ -1277,24 +1190,11 @@ class DishTest {
     public void getProductForEachIngredient11() {
         User user = user();
         ProductRepository repository = Mockito.mock(ProductRepository.class);
-        Mockito.when(
-                repository.getProducts(Mockito.eq(criteria(0, filter(user, 0))))
-        ).thenReturn(productPage(user, 0, this::product));
-        Mockito.when(
-                repository.getProductsNumber(Mockito.eq(criteriaNumber(filter(user, 0))))
-        ).thenReturn(1000);
-        Mockito.when(
-                repository.getProducts(Mockito.eq(criteria(1, filter(user, 1))))
-        ).thenReturn(productPage(user, 1, this::product));
-        Mockito.when(
-                repository.getProductsNumber(Mockito.eq(criteriaNumber(filter(user, 1))))
-        ).thenReturn(1000);
-        Mockito.when(
-                repository.getProducts(Mockito.eq(criteria(3, filter(user, 2))))
-        ).thenReturn(productPage(user, 3, this::product));
-        Mockito.when(
-                repository.getProductsNumber(Mockito.eq(criteriaNumber(filter(user, 2))))
-        ).thenReturn(1000);
+        mockProducts(repository, Map.of(
+                filter(user, 0), products(user, 1000, this::product),
+                filter(user, 1), products(user, 1000, this::product),
+                filter(user, 2), products(user, 1000, this::product)
+        ));
         Dish dish = dish(1, user, repository).
                 addIngredient(ingredient(filter(user, 0), 0)).
                 addIngredient(ingredient(filter(user, 1), 1)).
@@ -1331,24 +1231,11 @@ class DishTest {
     public void getProductForEachIngredient12() {
         User user = user();
         ProductRepository repository = Mockito.mock(ProductRepository.class);
-        Mockito.when(
-                repository.getProducts(Mockito.eq(criteria(0, filter(user, 0))))
-        ).thenReturn(productPage(user, 0, this::product));
-        Mockito.when(
-                repository.getProductsNumber(Mockito.eq(criteriaNumber(filter(user, 0))))
-        ).thenReturn(1000);
-        Mockito.when(
-                repository.getProducts(Mockito.eq(criteria(0, filter(user, 1))))
-        ).thenReturn(productPage(user, 0, this::product));
-        Mockito.when(
-                repository.getProductsNumber(Mockito.eq(criteriaNumber(filter(user, 1))))
-        ).thenReturn(1000);
-        Mockito.when(
-                repository.getProducts(Mockito.eq(criteria(4, filter(user, 2))))
-        ).thenReturn(productPage(user, 4, this::product));
-        Mockito.when(
-                repository.getProductsNumber(Mockito.eq(criteriaNumber(filter(user, 2))))
-        ).thenReturn(1000);
+        mockProducts(repository, Map.of(
+                filter(user, 0), products(user, 1000, this::product),
+                filter(user, 1), products(user, 1000, this::product),
+                filter(user, 2), products(user, 1000, this::product)
+        ));
         Dish dish = dish(1, user, repository).
                 addIngredient(ingredient(filter(user, 0), 0)).
                 addIngredient(ingredient(filter(user, 1), 1)).
@@ -1394,6 +1281,7 @@ class DishTest {
     public void getNumberIngredientCombinations2() {
         ProductRepository repository = Mockito.mock(ProductRepository.class);
         User user = user();
+        mockProducts(repository, Map.of());
         Dish dish = dish(1, user, repository).
                 addIngredient(ingredient(filter(user, 0), 0)).
                 addIngredient(ingredient(filter(user, 1), 1)).
@@ -1414,18 +1302,10 @@ class DishTest {
     public void getNumberIngredientCombinations3() {
         User user = user();
         ProductRepository repository = Mockito.mock(ProductRepository.class);
-        Mockito.when(
-                        repository.getProductsNumber(Mockito.eq(criteria(filter(user, 0))))
-                ).
-                thenReturn(0);
-        Mockito.when(
-                    repository.getProductsNumber(Mockito.eq(criteria(filter(user, 1))))
-                ).
-                thenReturn(10);
-        Mockito.when(
-                        repository.getProductsNumber(Mockito.eq(criteria(filter(user, 2))))
-                ).
-                thenReturn(5);
+        mockProducts(repository, Map.of(
+                filter(user, 1), products(user, 10, this::product),
+                filter(user, 2), products(user, 5, this::product)
+        ));
         Dish dish = dish(1, user, repository).
                 addIngredient(ingredient(filter(user, 0), 0)).
                 addIngredient(ingredient(filter(user, 1), 1)).
@@ -1446,18 +1326,11 @@ class DishTest {
     public void getNumberIngredientCombinations4() {
         User user = user();
         ProductRepository repository = Mockito.mock(ProductRepository.class);
-        Mockito.when(
-                        repository.getProductsNumber(Mockito.eq(criteria(filter(user, 0))))
-                ).
-                thenReturn(2);
-        Mockito.when(
-                        repository.getProductsNumber(Mockito.eq(criteria(filter(user, 1))))
-                ).
-                thenReturn(10);
-        Mockito.when(
-                        repository.getProductsNumber(Mockito.eq(criteria(filter(user, 2))))
-                ).
-                thenReturn(5);
+        mockProducts(repository, Map.of(
+                filter(user, 0), products(user, 2, this::product),
+                filter(user, 1), products(user, 10, this::product),
+                filter(user, 2), products(user, 5, this::product)
+        ));
         Dish dish = dish(1, user, repository).
                 addIngredient(ingredient(filter(user, 0), 0)).
                 addIngredient(ingredient(filter(user, 1), 1)).
@@ -1494,10 +1367,7 @@ class DishTest {
     public void getMinPrice2() {
         User user = user();
         ProductRepository repository = Mockito.mock(ProductRepository.class);
-        Mockito.when(repository.getProducts(Mockito.any())).
-                thenReturn(Page.empty());
-        Mockito.when(repository.getProductsNumber(Mockito.any())).
-                thenReturn(0);
+        mockProducts(repository, Map.of());
         Dish dish = dish(1, user, repository).
                 addIngredient(ingredient(filter(user, 0), 0)).
                 addIngredient(ingredient(filter(user, 1), 1)).
@@ -1519,27 +1389,13 @@ class DishTest {
     public void getMinPrice3() {
         User user = user();
         ProductRepository repository = Mockito.mock(ProductRepository.class);
-        Mockito.when(repository.getProductsNumber(Mockito.eq(criteriaNumber(filter(user, 0))))).
-                thenReturn(0);
-        Mockito.when(repository.getProductsNumber(Mockito.eq(criteriaNumber(filter(user, 1))))).
-                thenReturn(3);
-        Mockito.when(repository.getProductsNumber(Mockito.eq(criteriaNumber(filter(user, 2))))).
-                thenReturn(3);
-        Mockito.when(
-                repository.getProducts(Mockito.eq(criteria(0, filter(user, 0))))
-        ).thenReturn(Page.empty());
-        Mockito.when(
-                repository.getProducts(Mockito.eq(criteria(0, filter(user, 1))))
-        ).thenReturn(
-                productPage(user,
-                        (u, i) -> product(u, i).setPrice(BigDecimal.ZERO), 25, 50, 501)
-        );
-        Mockito.when(
-                repository.getProducts(Mockito.eq(criteria(0, filter(user, 2))))
-        ).thenReturn(
-                productPage(user,
+        mockProducts(repository, Map.of(
+                filter(user, 0), List.of(),
+                filter(user, 1), products(user,
+                        (u, i) -> product(u, i).setPrice(BigDecimal.ZERO), 25, 50, 501),
+                filter(user, 2), products(user,
                         (u, i) -> product(u, i).setPrice(BigDecimal.ZERO), 44, 45, 46)
-        );
+        ));
         Dish dish = dish(1, user, repository).
                 addIngredient(ingredient(filter(user, 0), 0)).
                 addIngredient(ingredient(filter(user, 1), 1)).
@@ -1564,34 +1420,20 @@ class DishTest {
     public void getMinPrice4() {
         User user = user();
         ProductRepository repository = Mockito.mock(ProductRepository.class);
-        Mockito.when(repository.getProductsNumber(Mockito.eq(criteriaNumber(filter(user, 0))))).
-                thenReturn(0);
-        Mockito.when(repository.getProductsNumber(Mockito.eq(criteriaNumber(filter(user, 1))))).
-                thenReturn(3);
-        Mockito.when(repository.getProductsNumber(Mockito.eq(criteriaNumber(filter(user, 2))))).
-                thenReturn(3);
-        Mockito.when(
-                repository.getProducts(Mockito.eq(criteria(0, filter(user, 0))))
-        ).thenReturn(Page.empty());
-        Mockito.when(
-                repository.getProducts(Mockito.eq(criteria(0, filter(user, 1))))
-        ).thenReturn(
-                productPage(user,
+        mockProducts(repository, Map.of(
+                filter(user, 0), List.of(),
+                filter(user, 1), products(user,
                         (u, i) -> product(u, i).
                                 setPrice(BigDecimal.ZERO).
                                 setQuantity(new BigDecimal(1000)),
-                        100, 101, 102)
-        );
-        Mockito.when(
-                repository.getProducts(Mockito.eq(criteria(0, filter(user, 2))))
-        ).thenReturn(
-                productPage(user,
+                        100, 101, 102),
+                filter(user, 2), products(user,
                         (u, i) -> product(u, i).
                                 setPrice(new BigDecimal(200)).
                                 setPackingSize(BigDecimal.TEN).
                                 setQuantity(new BigDecimal(1000)),
                         10, 11, 12)
-        );
+        ));
         Dish dish = dish(1, user, repository).
                 addIngredient(ingredient(filter(user, 0), 0)).
                 addIngredient(ingredient(filter(user, 1), 1)).
@@ -1616,42 +1458,26 @@ class DishTest {
     public void getMinPrice5() {
         User user = user();
         ProductRepository repository = Mockito.mock(ProductRepository.class);
-        Mockito.when(repository.getProductsNumber(Mockito.eq(criteriaNumber(filter(user, 0))))).
-                thenReturn(3);
-        Mockito.when(repository.getProductsNumber(Mockito.eq(criteriaNumber(filter(user, 1))))).
-                thenReturn(3);
-        Mockito.when(repository.getProductsNumber(Mockito.eq(criteriaNumber(filter(user, 2))))).
-                thenReturn(3);
-        Mockito.when(
-                repository.getProducts(Mockito.eq(criteria(0, filter(user, 0))))
-        ).thenReturn(
-                productPage(user,
+        mockProducts(repository, Map.of(
+                filter(user, 0), products(user,
                         (u, i) -> product(u, i).
                                 setPrice(new BigDecimal(100)).
                                 setPackingSize(BigDecimal.ONE).
                                 setQuantity(new BigDecimal(1000)),
-                        0, 1, 2)
-        );
-        Mockito.when(
-                repository.getProducts(Mockito.eq(criteria(0, filter(user, 1))))
-        ).thenReturn(
-                productPage(user,
+                        0, 1, 2),
+                filter(user, 1), products(user,
                         (u, i) -> product(u, i).
                                 setPrice(new BigDecimal(570)).
                                 setPackingSize(BigDecimal.ONE).
                                 setQuantity(new BigDecimal(1000)),
-                        520, 521, 522)
-        );
-        Mockito.when(
-                repository.getProducts(Mockito.eq(criteria(0, filter(user, 2))))
-        ).thenReturn(
-                productPage(user,
+                        520, 521, 522),
+                filter(user, 2), products(user,
                         (u, i) -> product(u, i).
                                 setPrice(new BigDecimal(200)).
                                 setPackingSize(new BigDecimal(2)).
                                 setQuantity(new BigDecimal(1000)),
                         20, 21, 22)
-        );
+        ));
         Dish dish = dish(1, user, repository).
                 addIngredient(ingredient(filter(user, 0), 0)).
                 addIngredient(ingredient(filter(user, 1), 1)).
@@ -1677,40 +1503,26 @@ class DishTest {
     public void getMinPrice6() {
         User user = user();
         ProductRepository repository = Mockito.mock(ProductRepository.class);
-        Mockito.when(repository.getProductsNumber(Mockito.eq(criteriaNumber(filter(user, 0))))).
-                thenReturn(3);
-        Mockito.when(repository.getProductsNumber(Mockito.eq(criteriaNumber(filter(user, 1))))).
-                thenReturn(3);
-        Mockito.when(repository.getProductsNumber(Mockito.eq(criteriaNumber(filter(user, 2))))).
-                thenReturn(3);
-        Mockito.when(
-                repository.getProducts(Mockito.eq(criteria(0, filter(user, 0))))
-        ).thenReturn(productPage(user,
-                (u, i) -> product(u, i).
+        mockProducts(repository, Map.of(
+                filter(user, 0), products(user,
+                        (u, i) -> product(u, i).
                         setPrice(new BigDecimal(550)).
                         setPackingSize(new BigDecimal(7)).
                         setQuantity(new BigDecimal(6)),
-                0, 1, 2)
-        );
-        Mockito.when(
-                repository.getProducts(Mockito.eq(criteria(0, filter(user, 1))))
-        ).thenReturn(productPage(user,
-                (u, i) -> product(u, i).
+                        0, 1, 2),
+                filter(user, 1), products(user,
+                        (u, i) -> product(u, i).
                         setPrice(new BigDecimal(550)).
                         setPackingSize(new BigDecimal(7)).
                         setQuantity(new BigDecimal(6)),
-                0, 1, 2)
-        );
-        Mockito.when(
-                repository.getProducts(Mockito.eq(criteria(0, filter(user, 2))))
-        ).thenReturn(
-                productPage(user,
+                        0, 1, 2),
+                filter(user, 2), products(user,
                         (u, i) -> product(u, i).
                                 setPrice(new BigDecimal(10)).
                                 setPackingSize(new BigDecimal("0.5")).
                                 setQuantity(new BigDecimal(1000)),
                         20, 21, 22)
-        );
+        ));
         Dish dish = dish(1, user, repository).
                 addIngredient(ingredient(filter(user, 0), 0)).
                 addIngredient(ingredient(filter(user, 1), 1)).
@@ -1750,10 +1562,7 @@ class DishTest {
     public void getMaxPrice2() {
         User user = user();
         ProductRepository repository = Mockito.mock(ProductRepository.class);
-        Mockito.when(repository.getProducts(Mockito.any())).
-                thenReturn(Page.empty());
-        Mockito.when(repository.getProductsNumber(Mockito.any())).
-                thenReturn(0);
+        mockProducts(repository, Map.of());
         Dish dish = dish(1, user, repository).
                 addIngredient(ingredient(filter(user, 0), 0)).
                 addIngredient(ingredient(filter(user, 1), 1)).
@@ -1775,27 +1584,13 @@ class DishTest {
     public void getMaxPrice3() {
         User user = user();
         ProductRepository repository = Mockito.mock(ProductRepository.class);
-        Mockito.when(repository.getProductsNumber(criteriaNumber(filter(user, 0)))).
-                thenReturn(0);
-        Mockito.when(repository.getProductsNumber(criteriaNumber(filter(user, 1)))).
-                thenReturn(3);
-        Mockito.when(repository.getProductsNumber(criteriaNumber(filter(user, 2)))).
-                thenReturn(3);
-        Mockito.when(
-                repository.getProducts(Mockito.eq(criteria(100000, filter(user, 0))))
-        ).thenReturn(Page.empty());
-        Mockito.when(
-                repository.getProducts(Mockito.eq(criteria(100000, filter(user, 1))))
-        ).thenReturn(
-                productPage(user,
-                        (u, i) -> product(u, i).setPrice(BigDecimal.ZERO), 0, 12, 25)
-        );
-        Mockito.when(
-                repository.getProducts(Mockito.eq(criteria(100000, filter(user, 2))))
-        ).thenReturn(
-                productPage(user,
+        mockProducts(repository, Map.of(
+                filter(user, 0), List.of(),
+                filter(user, 1), products(user,
+                        (u, i) -> product(u, i).setPrice(BigDecimal.ZERO), 0, 12, 25),
+                filter(user, 2), products(user,
                         (u, i) -> product(u, i).setPrice(BigDecimal.ZERO), 36, 74, 82)
-        );
+        ));
         Dish dish = dish(1, user, repository).
                 addIngredient(ingredient(filter(user, 0), 0)).
                 addIngredient(ingredient(filter(user, 1), 1)).
@@ -1820,33 +1615,19 @@ class DishTest {
     public void getMaxPrice4() {
         User user = user();
         ProductRepository repository = Mockito.mock(ProductRepository.class);
-        Mockito.when(repository.getProductsNumber(criteriaNumber(filter(user, 0)))).
-                thenReturn(0);
-        Mockito.when(repository.getProductsNumber(criteriaNumber(filter(user, 1)))).
-                thenReturn(3);
-        Mockito.when(repository.getProductsNumber(criteriaNumber(filter(user, 2)))).
-                thenReturn(3);
-        Mockito.when(
-                repository.getProducts(Mockito.eq(criteria(100000, filter(user, 0))))
-        ).thenReturn(Page.empty());
-        Mockito.when(
-                repository.getProducts(Mockito.eq(criteria(100000, filter(user, 1))))
-        ).thenReturn(
-                productPage(user,
+        mockProducts(repository, Map.of(
+                filter(user, 0), List.of(),
+                filter(user, 1), products(user,
                         (u, i) -> product(u, i).
                                 setPrice(BigDecimal.ZERO),
-                        10, 11, 12)
-        );
-        Mockito.when(
-                repository.getProducts(Mockito.eq(criteria(100000, filter(user, 2))))
-        ).thenReturn(
-                productPage(user,
+                        10, 11, 12),
+                filter(user, 2), products(user,
                         (u, i) -> product(u, i).
                                 setPrice(new BigDecimal(1500)).
                                 setPackingSize(new BigDecimal(250)).
                                 setQuantity(new BigDecimal(1000)),
                         203, 204, 205)
-        );
+        ));
         Dish dish = dish(1, user, repository).
                 addIngredient(ingredient(filter(user, 0), 0)).
                 addIngredient(ingredient(filter(user, 1), 1)).
@@ -1871,41 +1652,26 @@ class DishTest {
     public void getMaxPrice5() {
         User user = user();
         ProductRepository repository = Mockito.mock(ProductRepository.class);
-        Mockito.when(repository.getProductsNumber(criteriaNumber(filter(user, 0)))).
-                thenReturn(3);
-        Mockito.when(repository.getProductsNumber(criteriaNumber(filter(user, 1)))).
-                thenReturn(3);
-        Mockito.when(repository.getProductsNumber(criteriaNumber(filter(user, 2)))).
-                thenReturn(3);
-        Mockito.when(
-                repository.getProducts(Mockito.eq(criteria(100000, filter(user, 0))))
-        ).thenReturn(productPage(user,
-                (u, i) -> product(u, i).
-                        setPrice(new BigDecimal(600)).
-                        setPackingSize(new BigDecimal(120)).
-                        setQuantity(new BigDecimal(1000)),
-                0, 1, 2)
-        );
-        Mockito.when(
-                repository.getProducts(Mockito.eq(criteria(100000, filter(user, 1))))
-        ).thenReturn(
-                productPage(user,
+        mockProducts(repository, Map.of(
+                filter(user, 0), products(user,
+                        (u, i) -> product(u, i).
+                                setPrice(new BigDecimal(600)).
+                                setPackingSize(new BigDecimal(120)).
+                                setQuantity(new BigDecimal(1000)),
+                        0, 1, 2),
+                filter(user, 1), products(user,
                         (u, i) -> product(u, i).
                                 setPrice(new BigDecimal(500)).
                                 setPackingSize(new BigDecimal(200)).
                                 setQuantity(new BigDecimal(1000)),
-                        11, 12, 13)
-        );
-        Mockito.when(
-                repository.getProducts(Mockito.eq(criteria(100000, filter(user, 2))))
-        ).thenReturn(
-                productPage(user,
+                        11, 12, 13),
+                filter(user, 2), products(user,
                         (u, i) -> product(u, i).
                                 setPrice(new BigDecimal(250)).
                                 setPackingSize(new BigDecimal(150)).
                                 setQuantity(new BigDecimal(1000)),
                         51, 52, 53)
-        );
+        ));
         Dish dish = dish(1, user, repository).
                 addIngredient(ingredient(filter(user, 0), 0)).
                 addIngredient(ingredient(filter(user, 1), 1)).
@@ -1931,41 +1697,26 @@ class DishTest {
     public void getMaxPrice6() {
         User user = user();
         ProductRepository repository = Mockito.mock(ProductRepository.class);
-        Mockito.when(repository.getProductsNumber(criteriaNumber(filter(user, 0)))).
-                thenReturn(3);
-        Mockito.when(repository.getProductsNumber(criteriaNumber(filter(user, 1)))).
-                thenReturn(3);
-        Mockito.when(repository.getProductsNumber(criteriaNumber(filter(user, 2)))).
-                thenReturn(3);
-        Mockito.when(
-                repository.getProducts(Mockito.eq(criteria(100000, filter(user, 0))))
-        ).thenReturn(productPage(user,
-                (u, i) -> product(u, i).
-                        setPrice(new BigDecimal(600)).
-                        setPackingSize(new BigDecimal(7)).
-                        setQuantity(new BigDecimal(5)),
-                12, 13, 14)
-        );
-        Mockito.when(
-                repository.getProducts(Mockito.eq(criteria(100000, filter(user, 1))))
-        ).thenReturn(
-                productPage(user,
+        mockProducts(repository, Map.of(
+                filter(user, 0), products(user,
                         (u, i) -> product(u, i).
                                 setPrice(new BigDecimal(600)).
                                 setPackingSize(new BigDecimal(7)).
                                 setQuantity(new BigDecimal(5)),
-                        12, 13, 14)
-        );
-        Mockito.when(
-                repository.getProducts(Mockito.eq(criteria(100000, filter(user, 2))))
-        ).thenReturn(
-                productPage(user,
+                        12, 13, 14),
+                filter(user, 1), products(user,
+                        (u, i) -> product(u, i).
+                                setPrice(new BigDecimal(600)).
+                                setPackingSize(new BigDecimal(7)).
+                                setQuantity(new BigDecimal(5)),
+                        12, 13, 14),
+                filter(user, 2), products(user,
                         (u, i) -> product(u, i).
                                 setPrice(new BigDecimal(250)).
                                 setPackingSize(new BigDecimal(15)).
                                 setQuantity(new BigDecimal(1000)),
                         101, 111, 121)
-        );
+        ));
         Dish dish = dish(1, user, repository).
                 addIngredient(ingredient(filter(user, 0), 0)).
                 addIngredient(ingredient(filter(user, 1), 1)).
@@ -2005,10 +1756,7 @@ class DishTest {
     public void getAveragePrice2() {
         User user = user();
         ProductRepository repository = Mockito.mock(ProductRepository.class);
-        Mockito.when(repository.getProducts(Mockito.any())).
-                thenReturn(Page.empty());
-        Mockito.when(repository.getProductsNumber(Mockito.any())).
-                thenReturn(0);
+        mockProducts(repository, Map.of());
         Dish dish = dish(1, user, repository).
                 addIngredient(ingredient(filter(user, 0), 0)).
                 addIngredient(ingredient(filter(user, 1), 1)).
@@ -2030,53 +1778,27 @@ class DishTest {
     public void getAveragePrice3() {
         User user = user();
         ProductRepository repository = Mockito.mock(ProductRepository.class);
-
-        Mockito.when(repository.getProductsNumber(Mockito.eq(criteriaNumber(filter(user, 0))))).
-                thenReturn(0);
-        Mockito.when(repository.getProductsNumber(Mockito.eq(criteriaNumber(filter(user, 1))))).
-                thenReturn(3);
-        Mockito.when(repository.getProductsNumber(Mockito.eq(criteriaNumber(filter(user, 2))))).
-                thenReturn(3);
-
-        Mockito.when(
-                repository.getProducts(Mockito.eq(criteria(0, filter(user, 0))))
-        ).thenReturn(Page.empty());
-        Mockito.when(
-                repository.getProducts(Mockito.eq(criteria(0, filter(user, 1))))
-        ).thenReturn(
-                productPage(user,
-                        (u, i) -> product(u, i).setPrice(BigDecimal.ZERO), 25, 50, 501)
-        );
-        Mockito.when(
-                repository.getProducts(Mockito.eq(criteria(0, filter(user, 2))))
-        ).thenReturn(
-                productPage(user,
-                        (u, i) -> product(u, i).setPrice(BigDecimal.ZERO), 44, 45, 46)
-        );
-
-        Mockito.when(
-                repository.getProducts(Mockito.eq(criteria(100000, filter(user, 0))))
-        ).thenReturn(Page.empty());
-        Mockito.when(
-                repository.getProducts(Mockito.eq(criteria(100000, filter(user, 1))))
-        ).thenReturn(
-                productPage(user,
-                        (u, i) -> product(u, i).setPrice(BigDecimal.ZERO), 0, 12, 25)
-        );
-        Mockito.when(
-                repository.getProducts(Mockito.eq(criteria(100000, filter(user, 2))))
-        ).thenReturn(
-                productPage(user,
-                        (u, i) -> product(u, i).setPrice(BigDecimal.ZERO), 36, 74, 82)
-        );
-
+        mockProducts(repository, Map.of(
+                filter(user, 0), List.of(),
+                filter(user, 1), concat(
+                        products(user,
+                                (u, i) -> product(u, i).setPrice(BigDecimal.ZERO), 25, 50, 501),
+                        products(user,
+                                (u, i) -> product(u, i).setPrice(BigDecimal.ZERO), 0, 12, 25)
+                ),
+                filter(user, 2), concat(
+                        products(user,
+                                (u, i) -> product(u, i).setPrice(BigDecimal.ZERO), 44, 45, 46),
+                        products(user,
+                                (u, i) -> product(u, i).setPrice(BigDecimal.ZERO), 36, 74, 82)
+                )
+        ));
         Dish dish = dish(1, user, repository).
                 addIngredient(ingredient(filter(user, 0), 0)).
                 addIngredient(ingredient(filter(user, 1), 1)).
                 addIngredient(ingredient(filter(user, 2), 2)).
                 tryBuild();
 
-
         Optional<BigDecimal> actual = dish.getAveragePrice();
 
         Assertions.assertThat(actual).
@@ -2095,57 +1817,34 @@ class DishTest {
     public void getAveragePrice4() {
         User user = user();
         ProductRepository repository = Mockito.mock(ProductRepository.class);
-        Mockito.when(repository.getProductsNumber(Mockito.eq(criteriaNumber(filter(user, 0))))).
-                thenReturn(0);
-        Mockito.when(repository.getProductsNumber(Mockito.eq(criteriaNumber(filter(user, 1))))).
-                thenReturn(3);
-        Mockito.when(repository.getProductsNumber(Mockito.eq(criteriaNumber(filter(user, 2))))).
-                thenReturn(3);
-
-        Mockito.when(
-                repository.getProducts(Mockito.eq(criteria(0, filter(user, 0))))
-        ).thenReturn(Page.empty());
-        Mockito.when(
-                repository.getProducts(Mockito.eq(criteria(0, filter(user, 1))))
-        ).thenReturn(
-                productPage(user,
-                        (u, i) -> product(u, i).
-                                setPrice(BigDecimal.ZERO).
-                                setQuantity(new BigDecimal(1000)),
-                        100, 101, 102)
-        );
-        Mockito.when(
-                repository.getProducts(Mockito.eq(criteria(0, filter(user, 2))))
-        ).thenReturn(
-                productPage(user,
-                        (u, i) -> product(u, i).
-                                setPrice(new BigDecimal(200)).
-                                setPackingSize(BigDecimal.TEN).
-                                setQuantity(new BigDecimal(1000)),
-                        10, 11, 12)
-        );
-
-        Mockito.when(
-                repository.getProducts(Mockito.eq(criteria(100000, filter(user, 0))))
-        ).thenReturn(Page.empty());
-        Mockito.when(
-                repository.getProducts(Mockito.eq(criteria(100000, filter(user, 1))))
-        ).thenReturn(
-                productPage(user,
-                        (u, i) -> product(u, i).
-                                setPrice(BigDecimal.ZERO),
-                        10, 11, 12)
-        );
-        Mockito.when(
-                repository.getProducts(Mockito.eq(criteria(100000, filter(user, 2))))
-        ).thenReturn(
-                productPage(user,
-                        (u, i) -> product(u, i).
-                                setPrice(new BigDecimal(1500)).
-                                setPackingSize(new BigDecimal(250)).
-                                setQuantity(new BigDecimal(1000)),
-                        203, 204, 205)
-        );
+        mockProducts(repository, Map.of(
+                filter(user, 0), List.of(),
+                filter(user, 1), concat(
+                        products(user,
+                                (u, i) -> product(u, i).
+                                        setPrice(BigDecimal.ZERO).
+                                        setQuantity(new BigDecimal(1000)),
+                                100, 101, 102),
+                        products(user,
+                                (u, i) -> product(u, i).
+                                        setPrice(BigDecimal.ZERO),
+                                10, 11, 12)
+                ),
+                filter(user, 2), concat(
+                        products(user,
+                                (u, i) -> product(u, i).
+                                        setPrice(new BigDecimal(200)).
+                                        setPackingSize(BigDecimal.TEN).
+                                        setQuantity(new BigDecimal(1000)),
+                                10, 11, 12),
+                        products(user,
+                                (u, i) -> product(u, i).
+                                        setPrice(new BigDecimal(1500)).
+                                        setPackingSize(new BigDecimal(250)).
+                                        setQuantity(new BigDecimal(1000)),
+                                203, 204, 205)
+                )
+        ));
         Dish dish = dish(1, user, repository).
                 addIngredient(ingredient(filter(user, 0), 0)).
                 addIngredient(ingredient(filter(user, 1), 1)).
@@ -2170,73 +1869,50 @@ class DishTest {
     public void getAveragePrice5() {
         User user = user();
         ProductRepository repository = Mockito.mock(ProductRepository.class);
-        Mockito.when(repository.getProductsNumber(Mockito.eq(criteriaNumber(filter(user, 0))))).
-                thenReturn(3);
-        Mockito.when(repository.getProductsNumber(Mockito.eq(criteriaNumber(filter(user, 1))))).
-                thenReturn(3);
-        Mockito.when(repository.getProductsNumber(Mockito.eq(criteriaNumber(filter(user, 2))))).
-                thenReturn(3);
-
-        Mockito.when(
-                repository.getProducts(Mockito.eq(criteria(0, filter(user, 0))))
-        ).thenReturn(
-                productPage(user,
-                        (u, i) -> product(u, i).
-                                setPrice(new BigDecimal(100)).
-                                setPackingSize(BigDecimal.ONE).
-                                setQuantity(new BigDecimal(1000)),
-                        0, 1, 2)
-        );
-        Mockito.when(
-                repository.getProducts(Mockito.eq(criteria(0, filter(user, 1))))
-        ).thenReturn(
-                productPage(user,
-                        (u, i) -> product(u, i).
-                                setPrice(new BigDecimal(570)).
-                                setPackingSize(BigDecimal.ONE).
-                                setQuantity(new BigDecimal(1000)),
-                        520, 521, 522)
-        );
-        Mockito.when(
-                repository.getProducts(Mockito.eq(criteria(0, filter(user, 2))))
-        ).thenReturn(
-                productPage(user,
-                        (u, i) -> product(u, i).
-                                setPrice(new BigDecimal(200)).
-                                setPackingSize(new BigDecimal(2)).
-                                setQuantity(new BigDecimal(1000)),
-                        20, 21, 22)
-        );
-
-        Mockito.when(
-                repository.getProducts(Mockito.eq(criteria(100000, filter(user, 0))))
-        ).thenReturn(productPage(user,
-                (u, i) -> product(u, i).
-                        setPrice(new BigDecimal(600)).
-                        setPackingSize(new BigDecimal(120)).
-                        setQuantity(new BigDecimal(1000)),
-                0, 1, 2)
-        );
-        Mockito.when(
-                repository.getProducts(Mockito.eq(criteria(100000, filter(user, 1))))
-        ).thenReturn(
-                productPage(user,
-                        (u, i) -> product(u, i).
-                                setPrice(new BigDecimal(500)).
-                                setPackingSize(new BigDecimal(200)).
-                                setQuantity(new BigDecimal(1000)),
-                        11, 12, 13)
-        );
-        Mockito.when(
-                repository.getProducts(Mockito.eq(criteria(100000, filter(user, 2))))
-        ).thenReturn(
-                productPage(user,
-                        (u, i) -> product(u, i).
-                                setPrice(new BigDecimal(250)).
-                                setPackingSize(new BigDecimal(150)).
-                                setQuantity(new BigDecimal(1000)),
-                        51, 52, 53)
-        );
+        mockProducts(repository, Map.of(
+                filter(user, 0), concat(
+                        products(user,
+                                (u, i) -> product(u, i).
+                                        setPrice(new BigDecimal(100)).
+                                        setPackingSize(BigDecimal.ONE).
+                                        setQuantity(new BigDecimal(1000)),
+                                0, 1, 2),
+                        products(user,
+                                (u, i) -> product(u, i).
+                                        setPrice(new BigDecimal(600)).
+                                        setPackingSize(new BigDecimal(120)).
+                                        setQuantity(new BigDecimal(1000)),
+                                0, 1, 2)
+                ),
+                filter(user, 1), concat(
+                        products(user,
+                                (u, i) -> product(u, i).
+                                        setPrice(new BigDecimal(570)).
+                                        setPackingSize(BigDecimal.ONE).
+                                        setQuantity(new BigDecimal(1000)),
+                                520, 521, 522),
+                        products(user,
+                                (u, i) -> product(u, i).
+                                        setPrice(new BigDecimal(500)).
+                                        setPackingSize(new BigDecimal(200)).
+                                        setQuantity(new BigDecimal(1000)),
+                                11, 12, 13)
+                ),
+                filter(user, 2), concat(
+                        products(user,
+                                (u, i) -> product(u, i).
+                                        setPrice(new BigDecimal(200)).
+                                        setPackingSize(new BigDecimal(2)).
+                                        setQuantity(new BigDecimal(1000)),
+                                20, 21, 22),
+                        products(user,
+                                (u, i) -> product(u, i).
+                                        setPrice(new BigDecimal(250)).
+                                        setPackingSize(new BigDecimal(150)).
+                                        setQuantity(new BigDecimal(1000)),
+                                51, 52, 53)
+                )
+        ));
         Dish dish = dish(1, user, repository).
                 addIngredient(ingredient(filter(user, 0), 0)).
                 addIngredient(ingredient(filter(user, 1), 1)).
@@ -2262,71 +1938,50 @@ class DishTest {
     public void getAveragePrice6() {
         User user = user();
         ProductRepository repository = Mockito.mock(ProductRepository.class);
-        Mockito.when(repository.getProductsNumber(Mockito.eq(criteriaNumber(filter(user, 0))))).
-                thenReturn(3);
-        Mockito.when(repository.getProductsNumber(Mockito.eq(criteriaNumber(filter(user, 1))))).
-                thenReturn(3);
-        Mockito.when(repository.getProductsNumber(Mockito.eq(criteriaNumber(filter(user, 2))))).
-                thenReturn(3);
-
-        Mockito.when(
-                repository.getProducts(Mockito.eq(criteria(0, filter(user, 0))))
-        ).thenReturn(productPage(user,
-                (u, i) -> product(u, i).
-                        setPrice(new BigDecimal(550)).
-                        setPackingSize(new BigDecimal(7)).
-                        setQuantity(new BigDecimal(6)),
-                0, 1, 2)
-        );
-        Mockito.when(
-                repository.getProducts(Mockito.eq(criteria(0, filter(user, 1))))
-        ).thenReturn(productPage(user,
-                (u, i) -> product(u, i).
-                        setPrice(new BigDecimal(550)).
-                        setPackingSize(new BigDecimal(7)).
-                        setQuantity(new BigDecimal(6)),
-                0, 1, 2)
-        );
-        Mockito.when(
-                repository.getProducts(Mockito.eq(criteria(0, filter(user, 2))))
-        ).thenReturn(
-                productPage(user,
-                        (u, i) -> product(u, i).
-                                setPrice(new BigDecimal(10)).
-                                setPackingSize(new BigDecimal("0.5")).
-                                setQuantity(new BigDecimal(1000)),
-                        20, 21, 22)
-        );
-
-        Mockito.when(
-                repository.getProducts(Mockito.eq(criteria(100000, filter(user, 0))))
-        ).thenReturn(productPage(user,
-                (u, i) -> product(u, i).
-                        setPrice(new BigDecimal(600)).
-                        setPackingSize(new BigDecimal(7)).
-                        setQuantity(new BigDecimal(5)),
-                12, 13, 14)
-        );
-        Mockito.when(
-                repository.getProducts(Mockito.eq(criteria(100000, filter(user, 1))))
-        ).thenReturn(
-                productPage(user,
-                        (u, i) -> product(u, i).
-                                setPrice(new BigDecimal(600)).
+        mockProducts(repository, Map.of(
+                filter(user, 0), concat(
+                        products(user,
+                                (u, i) -> product(u, i).
+                                setPrice(new BigDecimal(550)).
                                 setPackingSize(new BigDecimal(7)).
-                                setQuantity(new BigDecimal(5)),
-                        12, 13, 14)
-        );
-        Mockito.when(
-                repository.getProducts(Mockito.eq(criteria(100000, filter(user, 2))))
-        ).thenReturn(
-                productPage(user,
-                        (u, i) -> product(u, i).
-                                setPrice(new BigDecimal(250)).
-                                setPackingSize(new BigDecimal(15)).
-                                setQuantity(new BigDecimal(1000)),
-                        101, 111, 121)
-        );
+                                setQuantity(new BigDecimal(6)),
+                                0, 1, 2),
+                        products(user,
+                                (u, i) -> product(u, i).
+                                        setPrice(new BigDecimal(600)).
+                                        setPackingSize(new BigDecimal(7)).
+                                        setQuantity(new BigDecimal(5)),
+                                12, 13, 14)
+                ),
+                filter(user, 1), concat(
+                        products(user,
+                                (u, i) -> product(u, i).
+                                setPrice(new BigDecimal(550)).
+                                setPackingSize(new BigDecimal(7)).
+                                setQuantity(new BigDecimal(6)),
+                                0, 1, 2),
+                        products(user,
+                                (u, i) -> product(u, i).
+                                        setPrice(new BigDecimal(600)).
+                                        setPackingSize(new BigDecimal(7)).
+                                        setQuantity(new BigDecimal(5)),
+                                12, 13, 14)
+                ),
+                filter(user, 2), concat(
+                        products(user,
+                                (u, i) -> product(u, i).
+                                        setPrice(new BigDecimal(10)).
+                                        setPackingSize(new BigDecimal("0.5")).
+                                        setQuantity(new BigDecimal(1000)),
+                                20, 21, 22),
+                        products(user,
+                                (u, i) -> product(u, i).
+                                        setPrice(new BigDecimal(250)).
+                                        setPackingSize(new BigDecimal(15)).
+                                        setQuantity(new BigDecimal(1000)),
+                                101, 111, 121)
+                )
+        ));
         Dish dish = dish(1, user, repository).
                 addIngredient(ingredient(filter(user, 0), 0)).
                 addIngredient(ingredient(filter(user, 1), 1)).
@@ -2341,6 +1996,165 @@ class DishTest {
                 isEqualByComparingTo(new BigDecimal(1950));
     }
 
+    @Test
+    @DisplayName("""
+            getAveragePrices(dishes):
+             dishes contains null
+             => exception
+            """)
+    public void getAveragePrices1() {
+        User user = user();
+        ProductRepository repository = Mockito.mock(ProductRepository.class);
+        List<Dish> dishes = new ArrayList<>();
+        dishes.add(dish(1, user, repository).tryBuild());
+        dishes.add(null);
+
+        AssertUtil.assertValidateException(
+                () -> Dish.getAveragePrices(dishes),
+                Constraint.NOT_CONTAINS_NULL
+        );
+    }
+
+    @Test
+    @DisplayName("""
+            getAveragePrices(dishes):
+             dishes is empty
+             => return empty list
+            """)
+    public void getAveragePrices2() {
+        List<Optional<BigDecimal>> actual = Dish.getAveragePrices(List.of());
+
+        Assertions.assertThat(actual).isEmpty();
+    }
+
+    @Test
+    @DisplayName("""
+            getAveragePrices(dishes):
+             some dishes haven't ingredients,
+             some dishes haven't suitable products,
+             some dishes have suitable products
+             => return average price for each dish, load products by one request
+            """)
+    public void getAveragePrices3() {
+        User user = user();
+        ProductRepository repository = Mockito.mock(ProductRepository.class);
+        mockProducts(repository, Map.of(
+                filter(user, 0), List.of(),
+                filter(user, 1), concat(
+                        products(user,
+                                (u, i) -> product(u, i).
+                                        setPrice(BigDecimal.ZERO).
+                                        setQuantity(new BigDecimal(1000)),
+                                100, 101, 102),
+                        products(user,
+                                (u, i) -> product(u, i).
+                                        setPrice(BigDecimal.ZERO),
+                                10, 11, 12)
+                ),
+                filter(user, 2), concat(
+                        products(user,
+                                (u, i) -> product(u, i).
+                                        setPrice(new BigDecimal(200)).
+                                        setPackingSize(BigDecimal.TEN).
+                                        setQuantity(new BigDecimal(1000)),
+                                10, 11, 12),
+                        products(user,
+                                (u, i) -> product(u, i).
+                                        setPrice(new BigDecimal(1500)).
+                                        setPackingSize(new BigDecimal(250)).
+                                        setQuantity(new BigDecimal(1000)),
+                                203, 204, 205)
+                )
+        ));
+        List<Dish> dishes = List.of(
+                dish(1, user, repository).tryBuild(),
+                dish(2, user, repository).
+                        addIngredient(ingredient(filter(user, 0), 0)).
+                        addIngredient(ingredient(filter(user, 1), 1)).
+                        addIngredient(ingredient(filter(user, 2), 2)).
+                        tryBuild(),
+                dish(3, user, repository).
+                        addIngredient(ingredient(filter(user, 3), 3)).
+                        tryBuild()
+        );
+
+        List<Optional<BigDecimal>> actual = Dish.getAveragePrices(dishes);
+
+        Mockito.verify(repository, Mockito.times(1)).getProductPriceRanges(Mockito.anyList());
+        Assertions.assertThat(actual).hasSize(3);
+        Assertions.assertThat(actual.get(0)).isEmpty();
+        Assertions.assertThat(actual.get(1)).
+                isPresent().
+                get(InstanceOfAssertFactories.BIG_DECIMAL).
+                isEqualByComparingTo(new BigDecimal(850));
+        Assertions.assertThat(actual.get(2)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("""
+            getPrices(dishes):
+             some dishes haven't ingredients,
+             some dishes have suitable products
+             => return prices for each dish, load products by one request
+            """)
+    public void getPrices1() {
+        User user = user();
+        ProductRepository repository = Mockito.mock(ProductRepository.class);
+        mockProducts(repository, Map.of(
+                filter(user, 0), List.of(),
+                filter(user, 1), concat(
+                        products(user,
+                                (u, i) -> product(u, i).
+                                        setPrice(BigDecimal.ZERO).
+                                        setQuantity(new BigDecimal(1000)),
+                                100, 101, 102),
+                        products(user,
+                                (u, i) -> product(u, i).
+                                        setPrice(BigDecimal.ZERO),
+                                10, 11, 12)
+                ),
+                filter(user, 2), concat(
+                        products(user,
+                                (u, i) -> product(u, i).
+                                        setPrice(new BigDecimal(200)).
+                                        setPackingSize(BigDecimal.TEN).
+                                        setQuantity(new BigDecimal(1000)),
+                                10, 11, 12),
+                        products(user,
+                                (u, i) -> product(u, i).
+                                        setPrice(new BigDecimal(1500)).
+                                        setPackingSize(new BigDecimal(250)).
+                                        setQuantity(new BigDecimal(1000)),
+                                203, 204, 205)
+                )
+        ));
+        List<Dish> dishes = List.of(
+                dish(1, user, repository).tryBuild(),
+                dish(2, user, repository).
+                        addIngredient(ingredient(filter(user, 0), 0)).
+                        addIngredient(ingredient(filter(user, 1), 1)).
+                        addIngredient(ingredient(filter(user, 2), 2)).
+                        tryBuild()
+        );
+
+        List<Dish.Prices> actual = Dish.getPrices(dishes);
+
+        Mockito.verify(repository, Mockito.times(1)).getProductPriceRanges(Mockito.anyList());
+        Assertions.assertThat(actual).hasSize(2);
+        Assertions.assertThat(actual.get(0)).
+                isEqualTo(new Dish.Prices(Optional.empty(), Optional.empty(), Optional.empty(), 0));
+        Assertions.assertThat(actual.get(1).minPrice()).
+                get(InstanceOfAssertFactories.BIG_DECIMAL).
+                isEqualByComparingTo(new BigDecimal(200));
+        Assertions.assertThat(actual.get(1).maxPrice()).
+                get(InstanceOfAssertFactories.BIG_DECIMAL).
+                isEqualByComparingTo(new BigDecimal(1500));
+        Assertions.assertThat(actual.get(1).averagePrice()).
+                get(InstanceOfAssertFactories.BIG_DECIMAL).
+                isEqualByComparingTo(new BigDecimal(850));
+        Assertions.assertThat(actual.get(1).productsNumber()).isEqualTo(12);
+    }
+
 
     private User user() {
         return new User.Builder().
@@ -2415,10 +2229,6 @@ class DishTest {
         return new Criteria().setFilter(filter);
     }
 
-    private Criteria criteria(Filter filter) {
-        return new Criteria().setFilter(filter);
-    }
-
     private Filter filter(User user, int num) {
         return Filter.and(
                 Filter.user(user.getId()),
@@ -2475,6 +2285,57 @@ class DishTest {
         return metadata.createPage(products);
     }
 
+    private void mockProducts(ProductRepository repository, Map<Filter, List<Product>> productsByFilter) {
+        Mockito.when(repository.getProductPriceRanges(Mockito.anyList())).thenAnswer(invocation -> {
+            List<Filter> filters = invocation.getArgument(0);
+            return filters.stream().
+                    map(filter -> productsByFilter.getOrDefault(filter, List.of())).
+                    map(products -> products.isEmpty() ?
+                            Optional.<ProductPriceRange>empty() :
+                            Optional.of(new ProductPriceRange(
+                                    products.get(0),
+                                    products.get(products.size() - 1),
+                                    products.size()
+                            ))).
+                    toList();
+        });
+        Mockito.when(repository.getProductPages(Mockito.anyList())).thenAnswer(invocation -> {
+            List<Criteria> criteria = invocation.getArgument(0);
+            return criteria.stream().
+                    map(c -> {
+                        List<Product> products = productsByFilter.getOrDefault(c.getFilter(), List.of());
+                        Page.Metadata metadata = c.getPageable(PageableByNumber.class).
+                                createPageMetadata(products.size(), conf.pagination().productMaxPageSize());
+
+                        if(metadata.isEmpty()) return Page.<Product>empty();
+
+                        int offset = metadata.getOffset().intValue();
+                        return metadata.createPage(products.subList(offset, offset + metadata.getActualSize()));
+                    }).
+                    toList();
+        });
+    }
+
+    private List<Product> products(User user,
+                                   int productsNumber,
+                                   BiFunction<User, Integer, Product.Builder> productFactory) {
+        return IntStream.range(0, productsNumber).
+                mapToObj(i -> productFactory.apply(user, i).tryBuild()).
+                toList();
+    }
+
+    private List<Product> products(User user,
+                                   BiFunction<User, Integer, Product.Builder> productFactory,
+                                   int... productIds) {
+        return Arrays.stream(productIds).
+                mapToObj(i -> productFactory.apply(user, i).tryBuild()).
+                toList();
+    }
+
+    private List<Product> concat(List<Product> cheapestProducts, List<Product> mostExpensiveProducts) {
+        return Stream.concat(cheapestProducts.stream(), mostExpensiveProducts.stream()).toList();
+    }
+
     private Dish.IngredientProduct ingredientProduct(Product.Builder builder,
                                                      int ingredientIndex,
                                                      int productIndex) {
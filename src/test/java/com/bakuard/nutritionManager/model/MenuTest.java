@@ -5,6 +5,7 @@ import com.bakuard.nutritionManager.TestConfig;
 import com.bakuard.nutritionManager.config.configData.ConfigData;
 import com.bakuard.nutritionManager.dal.Criteria;
 import com.bakuard.nutritionManager.dal.ProductRepository;
+import com.bakuard.nutritionManager.dal.projection.ProductPriceRange;
 import com.bakuard.nutritionManager.model.filters.Filter;
 import com.bakuard.nutritionManager.model.filters.Sort;
 import com.bakuard.nutritionManager.model.util.Page;
@@ -22,9 +23,11 @@ import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
 import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.util.*;
 import java.util.function.BiFunction;
 import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 @ExtendWith(SpringExtension.class)
 @ContextConfiguration(classes = TestConfig.class)
@@ -754,6 +757,9 @@ class MenuTest {
     public void getMenuItemProducts13() {
         ProductRepository repository = Mockito.mock(ProductRepository.class);
         Mockito.when(repository.getProducts(Mockito.any())).thenReturn(Page.empty());
+        Mockito.when(repository.getProductPages(Mockito.anyList())).thenAnswer(
+                invocation -> Collections.nCopies(invocation.<List<Criteria>>getArgument(0).size(), Page.empty())
+        );
         User user = user(1);
         Menu menu = menu(1, user).
                 addItem(
@@ -3029,6 +3035,105 @@ class MenuTest {
         Assertions.assertThat(actual).isEqualByComparingTo(expected);
     }
 
+    @Test
+    @DisplayName("""
+            getAveragePrices(menus):
+             menus contains null
+             => exception
+            """)
+    public void getAveragePrices1() {
+        List<Menu> menus = new ArrayList<>();
+        menus.add(menu(1, user(1)).tryBuild());
+        menus.add(null);
+
+        AssertUtil.assertValidateException(
+                () -> Menu.getAveragePrices(menus),
+                Constraint.NOT_CONTAINS_NULL
+        );
+    }
+
+    @Test
+    @DisplayName("""
+            getAveragePrices(menus):
+             some menus haven't dishes,
+             some dishes ingredients haven't suitable products
+             => return average price for each menu, load products by one request
+            """)
+    public void getAveragePrices2() {
+        User user = user(1);
+        ProductRepository repository = mockProductRepository(
+                filter(user, 0), productPage(
+                        product(user,0).setPackingSize(new BigDecimal(2)).setPrice(new BigDecimal(50)),
+                        product(user, 10).setPackingSize(new BigDecimal(5)).setPrice(new BigDecimal(150))
+                ),
+                filter(user, 1), productPage(
+                        product(user, 0).setPackingSize(new BigDecimal(2)).setPrice(new BigDecimal(50)),
+                        product(user, 10).setPackingSize(new BigDecimal(5)).setPrice(new BigDecimal(150))
+                ),
+                filter(user, 2), Page.empty(),
+
+                filter(user, 3), Page.empty(),
+                filter(user, 4), productPage(
+                        product(user, 0).setPackingSize(new BigDecimal(2)).setPrice(new BigDecimal(50)),
+                        product(user, 10).setPackingSize(new BigDecimal(5)).setPrice(new BigDecimal(150))
+                ),
+                filter(user, 5), productPage(
+                        product(user, 51).setPackingSize(new BigDecimal("0.5")).setPrice(new BigDecimal(150)),
+                        product(user, 61).setPackingSize(new BigDecimal("0.25")).setPrice(new BigDecimal(150))
+                ),
+
+                filter(user, 6), Page.empty(),
+                filter(user, 7), productPage(
+                        product(user, 0).setPackingSize(new BigDecimal(2)).setPrice(new BigDecimal(50)),
+                        product(user, 10).setPackingSize(new BigDecimal(5)).setPrice(new BigDecimal(150))
+                ),
+                filter(user, 8), Page.empty(),
+                0, 10000
+        );
+        List<Menu> menus = List.of(
+                menu(1, user).
+                        addItem(
+                                menuItem(
+                                        dish(user, 1, repository,
+                                                ingredient(filter(user, 0), new BigDecimal(5), 0),
+                                                ingredient(filter(user, 1), new BigDecimal(2), 1),
+                                                ingredient(filter(user, 2), new BigDecimal(6), 2)),
+                                        new BigDecimal(5), 0)
+                        ).
+                        addItem(
+                                menuItem(
+                                        dish(user, 2, repository,
+                                                ingredient(filter(user, 3), BigDecimal.TEN, 0),
+                                                ingredient(filter(user, 4), new BigDecimal(2), 1),
+                                                ingredient(filter(user, 5), BigDecimal.TEN, 2)),
+                                        BigDecimal.ONE, 1)
+                        ).
+                        addItem(
+                                menuItem(
+                                        dish(user, 3, repository,
+                                                ingredient(filter(user, 6), BigDecimal.ONE, 0),
+                                                ingredient(filter(user, 7), BigDecimal.ONE, 1),
+                                                ingredient(filter(user, 8), new BigDecimal(3), 2)),
+                                        BigDecimal.TEN, 2)
+                        ).
+                        tryBuild(),
+                menu(2, user).tryBuild()
+        );
+
+        List<Optional<BigDecimal>> actual = Menu.getAveragePrices(menus);
+
+        BigDecimal expected = new BigDecimal(1200 + 3000).
+                add(new BigDecimal(1500 + 6000)).
+                divide(new BigDecimal(2), conf.decimal().mathContext());
+        Mockito.verify(repository, Mockito.times(1)).getProductPriceRanges(Mockito.anyList());
+        Assertions.assertThat(actual).hasSize(2);
+        Assertions.assertThat(actual.get(0)).
+                isPresent().
+                get(InstanceOfAssertFactories.BIG_DECIMAL).
+                isEqualByComparingTo(expected);
+        Assertions.assertThat(actual.get(1)).isEmpty();
+    }
+
 
     private User user(int userId) {
         return new User.Builder().
@@ -3169,6 +3274,51 @@ class MenuTest {
         Mockito.when(repository.getProductsNumber(Mockito.eq(criteriaNumber(filter22)))).
                 thenReturn(page22.getMetadata().getTotalItems().intValueExact());
 
+        Map<Filter, Page<Product>> pages = new HashMap<>();
+        pages.put(filter00, page00);
+        pages.put(filter01, page01);
+        pages.put(filter02, page02);
+        pages.put(filter10, page10);
+        pages.put(filter11, page11);
+        pages.put(filter12, page12);
+        pages.put(filter20, page20);
+        pages.put(filter21, page21);
+        pages.put(filter22, page22);
+        Mockito.when(repository.getProductPriceRanges(Mockito.anyList())).thenAnswer(invocation -> {
+            List<Filter> filters = invocation.getArgument(0);
+            return filters.stream().
+                    map(filter -> pages.getOrDefault(filter, Page.empty())).
+                    map(page -> page.getMetadata().isEmpty() ?
+                            Optional.<ProductPriceRange>empty() :
+                            Optional.of(new ProductPriceRange(
+                                    page.getByGlobalIndex(0).orElseThrow(),
+                                    page.getByGlobalIndex(
+                                            page.getMetadata().getTotalItems().subtract(BigInteger.ONE)
+                                    ).orElseThrow(),
+                                    page.getMetadata().getTotalItems().intValueExact()
+                            ))).
+                    toList();
+        });
+        Mockito.when(repository.getProductPages(Mockito.anyList())).thenAnswer(invocation -> {
+            List<Criteria> criteria = invocation.getArgument(0);
+            return criteria.stream().
+                    map(c -> {
+                        Page<Product> page = pages.getOrDefault(c.getFilter(), Page.empty());
+                        Page.Metadata metadata = c.getPageable(PageableByNumber.class).
+                                createPageMetadata(page.getMetadata().getTotalItems(), conf.pagination().productMaxPageSize());
+
+                        if(metadata.isEmpty()) return Page.<Product>empty();
+
+                        return metadata.createPage(
+                                Stream.iterate(metadata.getOffset(), index -> index.add(BigInteger.ONE)).
+                                        limit(metadata.getActualSize()).
+                                        map(index -> page.getByGlobalIndex(index).orElseThrow()).
+                                        toList()
+                        );
+                    }).
+                    toList();
+        });
+
         for(int pageNumber : pageNumbers) {
             Mockito.when(repository.getProducts(Mockito.eq(criteria(filter00, pageNumber)))).
                     thenReturn(page00);
@@ -0,0 +1,282 @@
+package com.bakuard.nutritionManager.model.filters;
+
+import com.bakuard.nutritionManager.AssertUtil;
+import com.bakuard.nutritionManager.TestConfig;
+import com.bakuard.nutritionManager.config.configData.ConfigData;
+import com.bakuard.nutritionManager.model.Product;
+import com.bakuard.nutritionManager.model.Tag;
+import com.bakuard.nutritionManager.model.User;
+import com.bakuard.nutritionManager.validation.Constraint;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Predicate;
+
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = TestConfig.class)
+@TestPropertySource(locations = "classpath:test.properties")
+class ProductFilterCompilerTest {
+
+    @Autowired
+    private ConfigData conf;
+
+    @Test
+    @DisplayName("""
+            compile(filter):
+             filter is null
+             => exception
+            """)
+    public void compile1() {
+        ProductFilterCompiler compiler = new ProductFilterCompiler();
+
+        AssertUtil.assertValidateException(
+                () -> compiler.compile(null),
+                Constraint.NOT_NULL
+        );
+    }
+
+    @Test
+    @DisplayName("""
+            compile(filter):
+             filter contains constraint that is not applicable to products
+             => exception
+            """)
+    public void compile2() {
+        ProductFilterCompiler compiler = new ProductFilterCompiler();
+
+        Assertions.assertThatExceptionOfType(UnsupportedOperationException.class).
+                isThrownBy(() -> compiler.compile(
+                        Filter.and(
+                                Filter.user(toUUID(1)),
+                                Filter.anyDish("dish A")
+                        )
+                ));
+    }
+
+    @Test
+    @DisplayName("""
+            compile(filter):
+             filter is AND of user, category, shop, grade and manufacturer
+             => predicate matches only products satisfying all constraints
+            """)
+    public void compile3() {
+        User user = createUser(1);
+        User otherUser = createUser(2);
+        List<Product> products = List.of(
+                product(user, 1, "category A", "shop A", "grade A", "manufacturer A", "10", "tag A"),
+                product(user, 2, "category A", "shop B", "grade A", "manufacturer A", "10", "tag A"),
+                product(user, 3, "category B", "shop A", "grade A", "manufacturer A", "10", "tag A"),
+                product(otherUser, 4, "category A", "shop A", "grade A", "manufacturer A", "10", "tag A"),
+                product(user, 5, "category C", "shop C", "grade A", "manufacturer A", "10", "tag A")
+        );
+        ProductFilterCompiler compiler = new ProductFilterCompiler();
+
+        Predicate<Product> actual = compiler.compile(
+                Filter.and(
+                        Filter.user(user.getId()),
+                        Filter.anyCategory("category A", "category C"),
+                        Filter.anyShop("shop A", "shop C"),
+                        Filter.anyGrade("grade A"),
+                        Filter.anyManufacturer("manufacturer A")
+                )
+        );
+
+        Assertions.assertThat(products.stream().filter(actual).map(Product::getId)).
+                containsExactly(toUUID(1), toUUID(5));
+    }
+
+    @Test
+    @DisplayName("""
+            compile(filter):
+             filter contains min tags constraint
+             => predicate matches only products containing all tags
+            """)
+    public void compile4() {
+        User user = createUser(1);
+        List<Product> products = List.of(
+                product(user, 1, "category A", "shop A", "grade A", "manufacturer A", "10", "tag A", "tag B"),
+                product(user, 2, "category A", "shop A", "grade A", "manufacturer A", "10", "tag A"),
+                product(user, 3, "category A", "shop A", "grade A", "manufacturer A", "10", "tag B", "tag C", "tag A"),
+                product(user, 4, "category A", "shop A", "grade A", "manufacturer A", "10", "tag C", "tag D")
+        );
+        ProductFilterCompiler compiler = new ProductFilterCompiler();
+
+        Predicate<Product> actual = compiler.compile(
+                Filter.and(
+                        Filter.user(user.getId()),
+                        Filter.minTags(new Tag("tag A"), new Tag("tag B"))
+                )
+        );
+
+        Assertions.assertThat(products.stream().filter(actual).map(Product::getId)).
+                containsExactly(toUUID(1), toUUID(3));
+    }
+
+    @Test
+    @DisplayName("""
+            compile(filter):
+             filter contains quantity constraints
+             => predicate compares product quantity
+            """)
+    public void compile5() {
+        User user = createUser(1);
+        List<Product> products = List.of(
+                product(user, 1, "category A", "shop A", "grade A", "manufacturer A", "5", "tag A"),
+                product(user, 2, "category A", "shop A", "grade A", "manufacturer A", "10.00", "tag A"),
+                product(user, 3, "category A", "shop A", "grade A", "manufacturer A", "15", "tag A")
+        );
+        ProductFilterCompiler compiler = new ProductFilterCompiler();
+
+        Assertions.assertThat(products.stream().filter(compiler.compile(Filter.less(BigDecimal.TEN))).map(Product::getId)).
+                containsExactly(toUUID(1));
+        Assertions.assertThat(products.stream().filter(compiler.compile(Filter.lessOrEqual(BigDecimal.TEN))).map(Product::getId)).
+                containsExactly(toUUID(1), toUUID(2));
+        Assertions.assertThat(products.stream().filter(compiler.compile(Filter.greater(BigDecimal.TEN))).map(Product::getId)).
+                containsExactly(toUUID(3));
+        Assertions.assertThat(products.stream().filter(compiler.compile(Filter.greaterOrEqual(BigDecimal.TEN))).map(Product::getId)).
+                containsExactly(toUUID(2), toUUID(3));
+        Assertions.assertThat(products.stream().filter(compiler.compile(Filter.equal(BigDecimal.TEN))).map(Product::getId)).
+                containsExactly(toUUID(2));
+    }
+
+    @Test
+    @DisplayName("""
+            compile(filter, sample):
+             filter is OR of several AND constraints
+             => predicate matches products satisfying any of AND constraints
+            """)
+    public void compile6() {
+        User user = createUser(1);
+        List<Product> products = List.of(
+                product(user, 1, "category A", "shop A", "grade A", "manufacturer A", "10", "tag A"),
+                product(user, 2, "category B", "shop B", "grade A", "manufacturer A", "10", "tag A"),
+                product(user, 3, "category C", "shop A", "grade A", "manufacturer A", "10", "tag B"),
+                product(user, 4, "category D", "shop D", "grade A", "manufacturer A", "10", "tag B")
+        );
+        ProductFilterCompiler compiler = new ProductFilterCompiler();
+
+        Predicate<Product> actual = compiler.compile(
+                Filter.or(
+                        Filter.and(
+                                Filter.user(user.getId()),
+                                Filter.anyCategory("category A", "category B"),
+                                Filter.anyShop("shop B")
+                        ),
+                        Filter.and(
+                                Filter.user(user.getId()),
+                                Filter.minTags(new Tag("tag B")),
+                                Filter.anyShop("shop D")
+                        )
+                ),
+                products
+        );
+
+        Assertions.assertThat(products.stream().filter(actual).map(Product::getId)).
+                containsExactly(toUUID(2), toUUID(4));
+    }
+
+    @Test
+    @DisplayName("""
+            compile(filter, sample):
+             sample contains null
+             => exception
+            """)
+    public void compile7() {
+        ProductFilterCompiler compiler = new ProductFilterCompiler();
+        List<Product> sample = new ArrayList<>();
+        sample.add(null);
+
+        AssertUtil.assertValidateException(
+                () -> compiler.compile(Filter.user(toUUID(1)), sample),
+                Constraint.NOT_CONTAINS_NULL
+        );
+    }
+
+    @Test
+    @DisplayName("""
+            ProductFilterCompiler(products), compile(filter):
+             filter contains min tags constraint,
+             some checked products were not passed to constructor
+             => predicate matches only products containing all tags
+            """)
+    public void compile8() {
+        User user = createUser(1);
+        List<Product> indexedProducts = List.of(
+                product(user, 1, "category A", "shop A", "grade A", "manufacturer A", "10", "tag A", "tag B"),
+                product(user, 2, "category A", "shop A", "grade A", "manufacturer A", "10", "tag A"),
+                product(user, 3, "category A", "shop A", "grade A", "manufacturer A", "10", "tag B", "tag C", "tag A")
+        );
+        List<Product> otherProducts = List.of(
+                product(user, 4, "category A", "shop A", "grade A", "manufacturer A", "10", "tag D", "tag A", "tag B"),
+                product(user, 5, "category A", "shop A", "grade A", "manufacturer A", "10", "tag B")
+        );
+        ProductFilterCompiler compiler = new ProductFilterCompiler(indexedProducts);
+
+        Predicate<Product> actual = compiler.compile(
+                Filter.and(
+                        Filter.user(user.getId()),
+                        Filter.minTags(new Tag("tag A"), new Tag("tag B"))
+                )
+        );
+        Predicate<Product> unknownTag = compiler.compile(Filter.minTags(new Tag("tag A"), new Tag("tag D")));
+
+        Assertions.assertThat(indexedProducts.stream().filter(actual).map(Product::getId)).
+                containsExactly(toUUID(1), toUUID(3));
+        Assertions.assertThat(otherProducts.stream().filter(actual).map(Product::getId)).
+                containsExactly(toUUID(4));
+        Assertions.assertThat(indexedProducts.stream().filter(unknownTag)).isEmpty();
+        Assertions.assertThat(otherProducts.stream().filter(unknownTag).map(Product::getId)).
+                containsExactly(toUUID(4));
+    }
+
+
+    private UUID toUUID(int number) {
+        return UUID.fromString("00000000-0000-0000-0000-" + String.format("%012d", number));
+    }
+
+    private User createUser(int userId) {
+        return new User.Builder().
+                setId(toUUID(userId)).
+                setName("User#" + userId).
+                setPassword("password" + userId).
+                setEmail("user" + userId + "@confirmationMail.com").
+                tryBuild();
+    }
+
+    private Product product(User user,
+                            int id,
+                            String category,
+                            String shop,
+                            String grade,
+                            String manufacturer,
+                            String quantity,
+                            String... tags) {
+        Product.Builder builder = new Product.Builder().
+                setAppConfiguration(conf).
+                setId(toUUID(id)).
+                setUser(user).
+                setCategory(category).
+                setShop(shop).
+                setGrade(grade).
+                setManufacturer(manufacturer).
+                setUnit("unitA").
+                setPrice(BigDecimal.TEN).
+                setPackingSize(BigDecimal.ONE).
+                setQuantity(new BigDecimal(quantity)).
+                setDescription("some description " + id).
+                setImageUrl("https://nutritionmanager.xyz/products/images?id=" + id);
+        for(String tag : tags) builder.addTag(tag);
+        return builder.tryBuild();
+    }
+
+}
@@ -0,0 +1,116 @@
+package com.bakuard.nutritionManager.model.util;
+
+import com.bakuard.nutritionManager.config.configData.Decimal;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.Random;
+
+/**
+ * Сравнивает время и объем выделяемой памяти при расчете стоимости продуктов над {@link BigDecimal} и
+ * с использованием {@link FixedPointPricing}. Запускается только при указании -Dbenchmark=true.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class FixedPointPricingBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(FixedPointPricingBenchmarkTest.class);
+
+    private static final int PRODUCTS_NUMBER = 1000;
+    private static final int ITERATIONS = 2000;
+    private static final Decimal DECIMAL = new Decimal("CEILING", "16", "6");
+
+    @Test
+    @DisplayName("""
+            FixedPointPricing vs BigDecimal:
+             many products
+             => both return the same total price
+            """)
+    public void benchmark() {
+        Random random = new Random(100);
+        BigDecimal[] quantities = new BigDecimal[PRODUCTS_NUMBER];
+        BigDecimal[] packingSizes = new BigDecimal[PRODUCTS_NUMBER];
+        BigDecimal[] prices = new BigDecimal[PRODUCTS_NUMBER];
+        for(int i = 0; i < PRODUCTS_NUMBER; i++) {
+            quantities[i] = BigDecimal.valueOf(1 + random.nextInt(10_000_000), 6);
+            packingSizes[i] = BigDecimal.valueOf(1 + random.nextInt(1_000_000), 6);
+            prices[i] = BigDecimal.valueOf(1 + random.nextInt(100_000_000), 6);
+        }
+        BigDecimal servingNumber = new BigDecimal("2.5");
+        FixedPointPricing pricing = new FixedPointPricing(DECIMAL);
+
+        BigDecimal expected = null;
+        long bigDecimalBytes = allocatedBytes();
+        long bigDecimalStart = System.nanoTime();
+        for(int i = 0; i < ITERATIONS; i++) {
+            expected = priceByBigDecimal(quantities, packingSizes, prices, servingNumber);
+        }
+        long bigDecimalTime = System.nanoTime() - bigDecimalStart;
+        bigDecimalBytes = allocatedBytes() - bigDecimalBytes;
+
+        BigDecimal actual = null;
+        long fixedPointBytes = allocatedBytes();
+        long fixedPointStart = System.nanoTime();
+        for(int i = 0; i < ITERATIONS; i++) {
+            actual = priceByFixedPoint(pricing, quantities, packingSizes, prices, servingNumber);
+        }
+        long fixedPointTime = System.nanoTime() - fixedPointStart;
+        fixedPointBytes = allocatedBytes() - fixedPointBytes;
+
+        logger.info(
+                "Products = {}, iterations = {}: BigDecimal = {} ms, {} bytes; fixed point = {} ms, {} bytes",
+                PRODUCTS_NUMBER, ITERATIONS,
+                bigDecimalTime / 1_000_000, bigDecimalBytes,
+                fixedPointTime / 1_000_000, fixedPointBytes
+        );
+        Assertions.assertThat(actual).isEqualTo(expected);
+    }
+
+
+    private BigDecimal priceByBigDecimal(BigDecimal[] quantities,
+                                         BigDecimal[] packingSizes,
+                                         BigDecimal[] prices,
+                                         BigDecimal servingNumber) {
+        MathContext mc = DECIMAL.mathContext();
+        BigDecimal result = BigDecimal.ZERO.setScale(DECIMAL.numberScale());
+        for(int i = 0; i < quantities.length; i++) {
+            BigDecimal packages = quantities[i].multiply(servingNumber, mc).
+                    divide(packingSizes[i], mc).
+                    setScale(0, RoundingMode.UP);
+            result = result.add(prices[i].multiply(packages, mc));
+        }
+        return result;
+    }
+
+    private BigDecimal priceByFixedPoint(FixedPointPricing pricing,
+                                         BigDecimal[] quantities,
+                                         BigDecimal[] packingSizes,
+                                         BigDecimal[] prices,
+                                         BigDecimal servingNumber) {
+        long serving = pricing.toUnscaledWithOwnScale(servingNumber);
+        int quantityScale = pricing.scale() + servingNumber.scale();
+        long result = 0;
+        for(int i = 0; i < quantities.length; i++) {
+            long packages = pricing.packagesNumber(
+                    pricing.multiply(pricing.toUnscaled(quantities[i]), serving),
+                    quantityScale,
+                    pricing.toUnscaled(packingSizes[i])
+            );
+            result = Math.addExact(result, pricing.multiply(pricing.toUnscaled(prices[i]), packages));
+        }
+        return pricing.toBigDecimal(result, pricing.scale());
+    }
+
+    private long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).
+                getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+}
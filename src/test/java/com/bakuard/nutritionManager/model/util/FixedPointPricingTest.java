@@ -0,0 +1,160 @@
+package com.bakuard.nutritionManager.model.util;
+
+import com.bakuard.nutritionManager.config.configData.Decimal;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+
+class FixedPointPricingTest {
+
+    private static final Decimal DECIMAL = new Decimal("CEILING", "16", "6");
+
+    @Test
+    @DisplayName("""
+            isApplicable():
+             rounding mode is HALF_EVEN
+             => return false
+            """)
+    public void isApplicable1() {
+        FixedPointPricing pricing = new FixedPointPricing(new Decimal("HALF_EVEN", "16", "6"));
+
+        Assertions.assertThat(pricing.isApplicable()).isFalse();
+    }
+
+    @Test
+    @DisplayName("""
+            isApplicable():
+             precision is greater than 18
+             => return false
+            """)
+    public void isApplicable2() {
+        FixedPointPricing pricing = new FixedPointPricing(new Decimal("CEILING", "19", "6"));
+
+        Assertions.assertThat(pricing.isApplicable()).isFalse();
+    }
+
+    @Test
+    @DisplayName("""
+            isApplicable():
+             rounding mode is CEILING, precision is 16, scale is 6
+             => return true
+            """)
+    public void isApplicable3() {
+        FixedPointPricing pricing = new FixedPointPricing(DECIMAL);
+
+        Assertions.assertThat(pricing.isApplicable()).isTrue();
+    }
+
+    @Test
+    @DisplayName("""
+            toUnscaled(value):
+             value can't be represented with scale 6 without rounding
+             => exception
+            """)
+    public void toUnscaled1() {
+        FixedPointPricing pricing = new FixedPointPricing(DECIMAL);
+
+        Assertions.assertThatExceptionOfType(ArithmeticException.class).
+                isThrownBy(() -> pricing.toUnscaled(new BigDecimal("0.0000001")));
+    }
+
+    @Test
+    @DisplayName("""
+            multiply(a, b):
+             result exceeds precision
+             => exception
+            """)
+    public void multiply1() {
+        FixedPointPricing pricing = new FixedPointPricing(DECIMAL);
+
+        Assertions.assertThatExceptionOfType(ArithmeticException.class).
+                isThrownBy(() -> pricing.multiply(100_000_000L, 100_000_000L));
+    }
+
+    @Test
+    @DisplayName("""
+            packagesNumber(quantity, quantityScale, packingSize):
+             random quantities and packing sizes
+             => return the same result as BigDecimal division
+            """)
+    public void packagesNumber1() {
+        FixedPointPricing pricing = new FixedPointPricing(DECIMAL);
+        Random random = new Random(100);
+
+        for(int i = 0; i < 10000; i++) {
+            int quantityScale = 6 + random.nextInt(7);
+            long quantity = 1 + (long) (random.nextDouble() * 1_000_000_000_000L);
+            long packingSize = 1 + random.nextInt(10_000_000);
+
+            BigDecimal expected = BigDecimal.valueOf(quantity, quantityScale).
+                    divide(BigDecimal.valueOf(packingSize, 6), DECIMAL.mathContext()).
+                    setScale(0, RoundingMode.UP);
+            long actual = pricing.packagesNumber(quantity, quantityScale, packingSize);
+
+            Assertions.assertThat(pricing.toBigDecimal(actual, 0)).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    @DisplayName("""
+            rescale(value, fromScale):
+             random values
+             => return the same result as BigDecimal.setScale()
+            """)
+    public void rescale1() {
+        FixedPointPricing pricing = new FixedPointPricing(DECIMAL);
+        Random random = new Random(100);
+
+        for(int i = 0; i < 10000; i++) {
+            int fromScale = 6 + random.nextInt(13);
+            long value = 1 + (long) (random.nextDouble() * 1_000_000_000_000_000L);
+
+            BigDecimal expected = BigDecimal.valueOf(value, fromScale).
+                    setScale(DECIMAL.numberScale(), DECIMAL.roundingMode());
+            long actual = pricing.rescale(value, fromScale);
+
+            Assertions.assertThat(pricing.toBigDecimal(actual, 6)).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    @DisplayName("""
+            average(min, max):
+             random values
+             => return the same result (value and scale) as BigDecimal division
+            """)
+    public void average1() {
+        FixedPointPricing pricing = new FixedPointPricing(DECIMAL);
+        Random random = new Random(100);
+
+        for(int i = 0; i < 10000; i++) {
+            long min = (long) (random.nextDouble() * 1_000_000_000_000L);
+            long max = min + (long) (random.nextDouble() * 1_000_000_000_000L);
+
+            BigDecimal expected = BigDecimal.valueOf(min, 6).
+                    add(BigDecimal.valueOf(max, 6)).
+                    divide(new BigDecimal(2), DECIMAL.mathContext());
+            BigDecimal actual = pricing.average(min, max);
+
+            Assertions.assertThat(actual).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    @DisplayName("""
+            average(min, max):
+             result requires rounding to precision
+             => exception
+            """)
+    public void average2() {
+        FixedPointPricing pricing = new FixedPointPricing(DECIMAL);
+
+        Assertions.assertThatExceptionOfType(ArithmeticException.class).
+                isThrownBy(() -> pricing.average(4_000_000_000_000_000L, 1L));
+    }
+
+}
@@ -0,0 +1,122 @@
+package com.bakuard.nutritionManager.model.util;
+
+import com.bakuard.nutritionManager.AssertUtil;
+import com.bakuard.nutritionManager.validation.Constraint;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.util.List;
+
+class PageableByCursorTest {
+
+    @Test
+    @DisplayName("""
+            of(expectedPageSize, cursor):
+             cursor is null
+             => return first page
+            """)
+    public void of1() {
+        PageableByCursor actual = PageableByCursor.of(5, null);
+
+        Assertions.assertThat(actual).isEqualTo(PageableByCursor.first(5));
+        Assertions.assertThat(actual.isFirst()).isTrue();
+    }
+
+    @Test
+    @DisplayName("""
+            of(expectedPageSize, cursor):
+             cursor is blank
+             => return first page
+            """)
+    public void of2() {
+        PageableByCursor actual = PageableByCursor.of(5, "  ");
+
+        Assertions.assertThat(actual).isEqualTo(PageableByCursor.first(5));
+    }
+
+    @Test
+    @DisplayName("""
+            of(expectedPageSize, cursor):
+             cursor has incorrect format
+             => exception
+            """)
+    public void of3() {
+        AssertUtil.assertValidateException(
+                () -> PageableByCursor.of(5, "not a cursor"),
+                "PageableByCursor.cursor",
+                Constraint.CORRECT_STRUCTURE
+        );
+    }
+
+    @Test
+    @DisplayName("""
+            of(expectedPageSize, cursor):
+             cursor from createPageMetadata(...)
+             => return pageable with the same keys and offset of next page
+            """)
+    public void of4() {
+        String cursor = PageableByCursor.first(5).
+                createPageMetadata(12, 30, 5, List.of("name.A", "25.500000", "00000000-0000-0000-0000-000000000005")).
+                getNextCursor();
+
+        PageableByCursor actual = PageableByCursor.of(5, cursor);
+
+        Assertions.assertThat(actual.getKeys()).
+                containsExactly("name.A", "25.500000", "00000000-0000-0000-0000-000000000005");
+        Assertions.assertThat(actual.getOffset()).isEqualTo(BigInteger.valueOf(5));
+    }
+
+    @Test
+    @DisplayName("""
+            createPageMetadata(totalItems, maxPageSize, actualSize, lastKeys):
+             page is full,
+             there are items after page
+             => return metadata with next cursor
+            """)
+    public void createPageMetadata1() {
+        Page.Metadata actual = PageableByCursor.first(5).
+                createPageMetadata(12, 30, 5, List.of("name A", "00000000-0000-0000-0000-000000000005"));
+
+        Assertions.assertThat(actual.getNextCursor()).isNotNull();
+        Assertions.assertThat(actual.isFirst()).isTrue();
+        Assertions.assertThat(actual.isLast()).isFalse();
+        Assertions.assertThat(actual.getTotalPages()).isEqualTo(BigInteger.valueOf(3));
+    }
+
+    @Test
+    @DisplayName("""
+            createPageMetadata(totalItems, maxPageSize, actualSize, lastKeys):
+             page isn't full
+             => return metadata without next cursor
+            """)
+    public void createPageMetadata2() {
+        String cursor = PageableByCursor.first(5).
+                createPageMetadata(7, 30, 5, List.of("name A", "00000000-0000-0000-0000-000000000005")).
+                getNextCursor();
+
+        Page.Metadata actual = PageableByCursor.of(5, cursor).
+                createPageMetadata(7, 30, 2, List.of("name B", "00000000-0000-0000-0000-000000000007"));
+
+        Assertions.assertThat(actual.getNextCursor()).isNull();
+        Assertions.assertThat(actual.isLast()).isTrue();
+        Assertions.assertThat(actual.getOffset()).isEqualTo(BigInteger.valueOf(5));
+        Assertions.assertThat(actual.getActualNumber()).isEqualTo(BigInteger.ONE);
+    }
+
+    @Test
+    @DisplayName("""
+            createPageMetadata(totalItems, maxPageSize, actualSize, lastKeys):
+             expectedPageSize greater than maxPageSize,
+             actualSize greater than maxPageSize
+             => exception
+            """)
+    public void createPageMetadata3() {
+        Assertions.assertThatIllegalArgumentException().
+                isThrownBy(
+                        () -> PageableByCursor.first(50).createPageMetadata(100, 30, 31, List.of())
+                );
+    }
+
+}
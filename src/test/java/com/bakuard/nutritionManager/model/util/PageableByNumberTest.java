@@ -4,6 +4,8 @@ import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import java.math.BigInteger;
+
 class PageableByNumberTest {
 
     @Test
@@ -110,4 +112,70 @@ class PageableByNumberTest {
                 isThrownBy(() -> PageableByNumber.of(20, null));
     }
 
+    @Test
+    @DisplayName("""
+            createPageMetadata(countMode, totalItems, maxPageSize, actualSize, hasNext):
+             countMode is NONE,
+             totalItems is null,
+             hasNext is true
+             => return metadata with unknown totalItems and totalPages
+            """)
+    public void createPageMetadataWithCountMode1() {
+        Page.Metadata actual = PageableByNumber.of(10, 2).
+                createPageMetadata(CountMode.NONE, null, 30, 10, true);
+
+        Assertions.assertThat(actual.getTotalItems()).isNull();
+        Assertions.assertThat(actual.getTotalPages()).isNull();
+        Assertions.assertThat(actual.getOffset()).isEqualTo(BigInteger.valueOf(20));
+        Assertions.assertThat(actual.getActualNumber()).isEqualTo(BigInteger.TWO);
+        Assertions.assertThat(actual.isLast()).isFalse();
+    }
+
+    @Test
+    @DisplayName("""
+            createPageMetadata(countMode, totalItems, maxPageSize, actualSize, hasNext):
+             countMode is NONE,
+             totalItems is null,
+             hasNext is false
+             => return last page metadata
+            """)
+    public void createPageMetadataWithCountMode2() {
+        Page.Metadata actual = PageableByNumber.of(10, 2).
+                createPageMetadata(CountMode.NONE, null, 30, 4, false);
+
+        Assertions.assertThat(actual.isLast()).isTrue();
+        Assertions.assertThat(actual.getActualSize()).isEqualTo(4);
+        Assertions.assertThat(actual.getCountMode()).isEqualTo(CountMode.NONE);
+    }
+
+    @Test
+    @DisplayName("""
+            createPageMetadata(countMode, totalItems, maxPageSize, actualSize, hasNext):
+             countMode is ESTIMATED,
+             totalItems less than items number of this and all previous pages
+             => return metadata with totalItems not less than items number of this and all previous pages
+            """)
+    public void createPageMetadataWithCountMode3() {
+        Page.Metadata actual = PageableByNumber.of(10, 2).
+                createPageMetadata(CountMode.ESTIMATED, BigInteger.valueOf(5), 30, 10, true);
+
+        Assertions.assertThat(actual.getTotalItems()).isEqualTo(BigInteger.valueOf(31));
+        Assertions.assertThat(actual.getTotalPages()).isEqualTo(BigInteger.valueOf(4));
+        Assertions.assertThat(actual.getActualNumber()).isEqualTo(BigInteger.TWO);
+    }
+
+    @Test
+    @DisplayName("""
+            createPageMetadata(countMode, totalItems, maxPageSize, actualSize, hasNext):
+             actualSize greater than page size
+             => exception
+            """)
+    public void createPageMetadataWithCountMode4() {
+        Assertions.assertThatIllegalArgumentException().
+                isThrownBy(
+                        () -> PageableByNumber.of(10, 0).
+                                createPageMetadata(CountMode.NONE, null, 30, 11, true)
+                );
+    }
+
 }
\ No newline at end of file
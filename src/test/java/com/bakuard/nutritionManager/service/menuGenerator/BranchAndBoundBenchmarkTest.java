@@ -0,0 +1,86 @@
+package com.bakuard.nutritionManager.service.menuGenerator;
+
+import org.assertj.core.api.Assertions;
+import org.assertj.core.data.Offset;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Сравнивает время решения задачи подбора меню {@link BranchAndBoundMilpSolver} при разном кол-ве потоков.
+ * Задача подобрана так, что поиск останавливается по ограничению на кол-во узлов, поэтому время решения
+ * показывает пропускную способность обработки узлов. Запускается только при указании -Dbenchmark=true.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class BranchAndBoundBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(BranchAndBoundBenchmarkTest.class);
+
+    private static final int DISHES_NUMBER = 200;
+    private static final int CATEGORIES_NUMBER = 20;
+    private static final long MAX_NODES = 20_000;
+    private static final int[] PARALLELISM = {1, 2, 4, 8};
+
+    @Test
+    @DisplayName("""
+            BranchAndBoundMilpSolver:
+             different parallelism
+             => return solutions with the same objective if all solutions are optimal
+            """)
+    public void benchmark() throws Exception {
+        MilpProblem problem = problem(new Random(100));
+
+        MilpSolution expected = null;
+        for(int parallelism : PARALLELISM) {
+            BranchAndBoundMilpSolver solver = new BranchAndBoundMilpSolver(parallelism, MAX_NODES);
+
+            long start = System.nanoTime();
+            MilpSolution actual = solver.solve(problem);
+            long time = System.nanoTime() - start;
+
+            logger.info(
+                    ("Dishes = %d, categories = %d, threads = %d: %d ms, status = %s, " +
+                            "objective = %.2f, lower bound = %.2f").formatted(
+                            DISHES_NUMBER, CATEGORIES_NUMBER, parallelism,
+                            time / 1_000_000, actual.status(), actual.objective(), actual.relaxedObjective()
+                    )
+            );
+
+            if(expected == null) {
+                expected = actual;
+            } else if(expected.status() == MilpSolution.Status.OPTIMAL &&
+                    actual.status() == MilpSolution.Status.OPTIMAL) {
+                Assertions.assertThat(actual.objective()).isCloseTo(expected.objective(), Offset.offset(1e-6));
+            }
+        }
+    }
+
+
+    private MilpProblem problem(Random random) {
+        double[] costs = new double[DISHES_NUMBER];
+        for(int i = 0; i < DISHES_NUMBER; i++) costs[i] = 100 + random.nextInt(20);
+
+        double[][] coefficients = new double[CATEGORIES_NUMBER + 1][DISHES_NUMBER];
+        Relationship[] relations = new Relationship[CATEGORIES_NUMBER + 1];
+        double[] rhs = new double[CATEGORIES_NUMBER + 1];
+        Arrays.fill(coefficients[0], 1);
+        relations[0] = Relationship.GREATER_OR_EQUAL;
+        rhs[0] = 40;
+        for(int i = 1; i <= CATEGORIES_NUMBER; i++) {
+            for(int j = 0; j < DISHES_NUMBER; j++) coefficients[i][j] = random.nextInt(4) == 0 ? 1 + random.nextInt(3) : 0;
+            relations[i] = Relationship.GREATER_OR_EQUAL;
+            rhs[i] = 3 + random.nextInt(8);
+        }
+
+        double[] upperBounds = new double[DISHES_NUMBER];
+        Arrays.fill(upperBounds, 5);
+
+        return new MilpProblem(costs, coefficients, relations, rhs, upperBounds, false);
+    }
+
+}
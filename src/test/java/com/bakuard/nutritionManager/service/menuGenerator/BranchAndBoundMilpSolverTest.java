@@ -0,0 +1,245 @@
+package com.bakuard.nutritionManager.service.menuGenerator;
+
+import org.assertj.core.api.Assertions;
+import org.assertj.core.api.SoftAssertions;
+import org.assertj.core.data.Offset;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+class BranchAndBoundMilpSolverTest {
+
+    @Test
+    @DisplayName("""
+            solve(problem):
+             problem has optimal solution
+             => return optimal solution
+            """)
+    public void solve1() throws Exception {
+        BranchAndBoundMilpSolver solver = new BranchAndBoundMilpSolver(2, 100_000);
+
+        MilpSolution actual = solver.solve(new MilpProblem(
+                new double[]{5, 4, 3, 7},
+                new double[][]{{1, 1, 1, 1}, {2, 0, 1, 3}, {0, 1, 0, 0}},
+                new Relationship[]{
+                        Relationship.GREATER_OR_EQUAL,
+                        Relationship.GREATER_OR_EQUAL,
+                        Relationship.LESS_OR_EQUAL
+                },
+                new double[]{4, 5, 1},
+                new double[]{Double.NaN, Double.NaN, Double.NaN, Double.NaN},
+                false
+        ));
+
+        Assertions.assertThat(actual.status()).isEqualTo(MilpSolution.Status.OPTIMAL);
+        Assertions.assertThat(actual.objective()).isCloseTo(14, Offset.offset(1e-9));
+        Assertions.assertThat(actual.relaxedObjective()).isLessThanOrEqualTo(actual.objective());
+    }
+
+    @Test
+    @DisplayName("""
+            solve(problem):
+             random problems,
+             different parallelism
+             => return solutions with the same objective as ssc solver
+            """)
+    public void solve2() throws Exception {
+        IsolatedMilpSolver expectedSolver = new IsolatedMilpSolver();
+        BranchAndBoundMilpSolver single = new BranchAndBoundMilpSolver(1, 100_000);
+        BranchAndBoundMilpSolver parallel = new BranchAndBoundMilpSolver(4, 100_000);
+        Random random = new Random(17);
+
+        SoftAssertions assertions = new SoftAssertions();
+        for(int i = 0; i < 30; i++) {
+            MilpProblem problem = randomProblem(random, 4 + random.nextInt(6), 1 + random.nextInt(4));
+
+            MilpSolution expected = expectedSolver.solve(problem);
+            for(MilpSolution actual : new MilpSolution[]{single.solve(problem), parallel.solve(problem)}) {
+                assertions.assertThat(actual.status()).as(problem.toString()).isEqualTo(expected.status());
+                if(expected.hasSolution()) {
+                    assertions.assertThat(actual.objective()).as(problem.toString()).
+                            isCloseTo(expected.objective(), Offset.offset(1e-6));
+                    assertions.assertThat(isFeasible(problem, actual.values())).as(problem.toString()).isTrue();
+                }
+            }
+        }
+        assertions.assertAll();
+    }
+
+    @Test
+    @DisplayName("""
+            solve(problem):
+             justFeasible = true
+             => return feasible solution with status FEASIBLE
+            """)
+    public void solve3() throws Exception {
+        BranchAndBoundMilpSolver solver = new BranchAndBoundMilpSolver(2, 100_000);
+        MilpProblem problem = randomProblem(new Random(3), 8, 3);
+        MilpProblem justFeasible = new MilpProblem(
+                problem.costs(),
+                problem.coefficients(),
+                problem.relations(),
+                problem.rhs(),
+                problem.upperBounds(),
+                true
+        );
+
+        MilpSolution actual = solver.solve(justFeasible);
+
+        Assertions.assertThat(actual.status()).isEqualTo(MilpSolution.Status.FEASIBLE);
+        Assertions.assertThat(isFeasible(justFeasible, actual.values())).isTrue();
+    }
+
+    @Test
+    @DisplayName("""
+            solve(problem):
+             problem hasn't feasible solutions
+             => return solution with status INFEASIBLE
+            """)
+    public void solve4() throws Exception {
+        BranchAndBoundMilpSolver solver = new BranchAndBoundMilpSolver(2, 100_000);
+
+        MilpSolution actual = solver.solve(new MilpProblem(
+                new double[]{1, 1},
+                new double[][]{{2, 2}},
+                new Relationship[]{Relationship.GREATER_OR_EQUAL},
+                new double[]{3},
+                new double[]{0.5, 0.5},
+                false
+        ));
+
+        Assertions.assertThat(actual.status()).isEqualTo(MilpSolution.Status.INFEASIBLE);
+        Assertions.assertThat(actual.hasSolution()).isFalse();
+    }
+
+    @Test
+    @DisplayName("""
+            solve(problem):
+             nodes number limit is exceeded,
+             feasible solution was found
+             => return best found solution with status FEASIBLE
+            """)
+    public void solve5() throws Exception {
+        BranchAndBoundMilpSolver solver = new BranchAndBoundMilpSolver(1, 1);
+        MilpProblem problem = new MilpProblem(
+                new double[]{3, 5},
+                new double[][]{{2, 3}},
+                new Relationship[]{Relationship.GREATER_OR_EQUAL},
+                new double[]{7},
+                new double[]{Double.NaN, Double.NaN},
+                false
+        );
+
+        MilpSolution actual = solver.solve(problem);
+
+        Assertions.assertThat(actual.status()).isEqualTo(MilpSolution.Status.FEASIBLE);
+        Assertions.assertThat(isFeasible(problem, actual.values())).isTrue();
+        Assertions.assertThat(actual.relaxedObjective()).isLessThanOrEqualTo(actual.objective());
+    }
+
+
+    @Test
+    @DisplayName("""
+            solve(problem, start):
+             random problems,
+             start is solution of another problem with the same variables
+             => return solutions with the same objective as without start
+            """)
+    public void solve6() throws Exception {
+        BranchAndBoundMilpSolver solver = new BranchAndBoundMilpSolver(2, 100_000);
+        Random random = new Random(23);
+
+        SoftAssertions assertions = new SoftAssertions();
+        for(int i = 0; i < 30; i++) {
+            MilpProblem previous = randomProblem(random, 6, 3);
+            MilpSolution start = solver.solve(previous);
+            if(!start.hasSolution()) continue;
+            double[] rhs = previous.rhs().clone();
+            rhs[0] += random.nextInt(5) - 2;
+            MilpProblem problem = new MilpProblem(
+                    previous.costs(),
+                    previous.coefficients(),
+                    previous.relations(),
+                    rhs,
+                    previous.upperBounds(),
+                    false
+            );
+
+            MilpSolution expected = solver.solve(problem);
+            MilpSolution actual = solver.solve(problem, start.values());
+
+            assertions.assertThat(actual.status()).as(problem.toString()).isEqualTo(expected.status());
+            if(expected.hasSolution()) {
+                assertions.assertThat(actual.objective()).as(problem.toString()).
+                        isCloseTo(expected.objective(), Offset.offset(1e-6));
+                assertions.assertThat(isFeasible(problem, actual.values())).as(problem.toString()).isTrue();
+            }
+        }
+        assertions.assertAll();
+    }
+
+    @Test
+    @DisplayName("""
+            solve(problem, start):
+             justFeasible = true,
+             start is feasible solution
+             => return start with status FEASIBLE
+            """)
+    public void solve7() throws Exception {
+        BranchAndBoundMilpSolver solver = new BranchAndBoundMilpSolver(2, 100_000);
+        MilpProblem problem = new MilpProblem(
+                new double[]{3, 5},
+                new double[][]{{2, 3}},
+                new Relationship[]{Relationship.GREATER_OR_EQUAL},
+                new double[]{7},
+                new double[]{Double.NaN, Double.NaN},
+                true
+        );
+
+        MilpSolution actual = solver.solve(problem, new long[]{0, 3});
+
+        Assertions.assertThat(actual.status()).isEqualTo(MilpSolution.Status.FEASIBLE);
+        Assertions.assertThat(actual.values()).containsExactly(0, 3);
+    }
+
+    private MilpProblem randomProblem(Random random, int variablesNumber, int categoriesNumber) {
+        double[] costs = new double[variablesNumber];
+        for(int i = 0; i < variablesNumber; i++) costs[i] = 1 + random.nextInt(50);
+
+        double[][] coefficients = new double[categoriesNumber + 1][variablesNumber];
+        Relationship[] relations = new Relationship[categoriesNumber + 1];
+        double[] rhs = new double[categoriesNumber + 1];
+        Arrays.fill(coefficients[0], 1);
+        relations[0] = Relationship.GREATER_OR_EQUAL;
+        rhs[0] = 2 + random.nextInt(8);
+        for(int i = 1; i <= categoriesNumber; i++) {
+            for(int j = 0; j < variablesNumber; j++) coefficients[i][j] = random.nextInt(4);
+            relations[i] = random.nextInt(3) == 0 ? Relationship.LESS_OR_EQUAL : Relationship.GREATER_OR_EQUAL;
+            rhs[i] = relations[i] == Relationship.GREATER_OR_EQUAL ? random.nextInt(6) : 4 + random.nextInt(10);
+        }
+
+        double[] upperBounds = new double[variablesNumber];
+        for(int j = 0; j < variablesNumber; j++) upperBounds[j] = random.nextBoolean() ? Double.NaN : 3;
+
+        return new MilpProblem(costs, coefficients, relations, rhs, upperBounds, false);
+    }
+
+    private boolean isFeasible(MilpProblem problem, long[] values) {
+        for(int j = 0; j < values.length; j++) {
+            double upper = problem.upperBounds()[j];
+            if(values[j] < 0 || !Double.isNaN(upper) && values[j] > upper) return false;
+        }
+        for(int i = 0; i < problem.rhs().length; i++) {
+            double activity = 0;
+            for(int j = 0; j < values.length; j++) activity += problem.coefficients()[i][j] * values[j];
+            boolean satisfied = problem.relations()[i] == Relationship.GREATER_OR_EQUAL ?
+                    activity >= problem.rhs()[i] - 1e-9 :
+                    activity <= problem.rhs()[i] + 1e-9;
+            if(!satisfied) return false;
+        }
+        return true;
+    }
+
+}
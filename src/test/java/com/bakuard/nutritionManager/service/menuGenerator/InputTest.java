@@ -7,6 +7,7 @@ import com.bakuard.nutritionManager.dal.Criteria;
 import com.bakuard.nutritionManager.dal.DishRepository;
 import com.bakuard.nutritionManager.dal.MenuRepository;
 import com.bakuard.nutritionManager.dal.ProductRepository;
+import com.bakuard.nutritionManager.dal.projection.ProductPriceRange;
 import com.bakuard.nutritionManager.model.*;
 import com.bakuard.nutritionManager.model.filters.Filter;
 import com.bakuard.nutritionManager.model.filters.Sort;
@@ -26,6 +27,7 @@ import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.*;
 
 @ExtendWith(SpringExtension.class)
@@ -787,6 +789,56 @@ class InputTest {
         );
     }
 
+    @Test
+    @DisplayName("""
+            Input.Builder.build():
+             solver is blank
+             => exception
+            """)
+    public void buildInput23() {
+        Input.Builder builder = new Input.Builder().
+                setUser(user).
+                setGeneratedMenuName("New menu #1").
+                setMinMealsNumber(10).
+                setServingNumberPerMeal(new BigDecimal(3)).
+                addProductConstraint("Картофель", "greaterOrEqual", new BigDecimal(2)).
+                addDishConstraint("суп", "greaterOrEqual", BigDecimal.ZERO).
+                setSolver("   ").
+                setDishRepository(dishRepository).
+                setMenuRepository(menuRepository);
+
+        AssertUtil.assertValidateException(
+                builder::tryBuild,
+                new Pair<>("Input.solver[MUST_BE_NULL]", Constraint.MUST_BE_NULL),
+                new Pair<>("Input.solver[NOT_BLANK]", Constraint.NOT_BLANK)
+        );
+    }
+
+    @Test
+    @DisplayName("""
+            Input.Builder.build():
+             solveBudget is zero
+             => exception
+            """)
+    public void buildInput24() {
+        Input.Builder builder = new Input.Builder().
+                setUser(user).
+                setGeneratedMenuName("New menu #1").
+                setMinMealsNumber(10).
+                setServingNumberPerMeal(new BigDecimal(3)).
+                addProductConstraint("Картофель", "greaterOrEqual", new BigDecimal(2)).
+                addDishConstraint("суп", "greaterOrEqual", BigDecimal.ZERO).
+                setSolveBudget(Duration.ZERO).
+                setDishRepository(dishRepository).
+                setMenuRepository(menuRepository);
+
+        AssertUtil.assertValidateException(
+                builder::tryBuild,
+                new Pair<>("Input.solveBudget[MUST_BE_NULL]", Constraint.MUST_BE_NULL),
+                new Pair<>("Input.solveBudget[POSITIVE_VALUE]", Constraint.POSITIVE_VALUE)
+        );
+    }
+
     @Test
     @DisplayName("""
             getMinServingNumber():
@@ -1029,9 +1081,9 @@ class InputTest {
 
         Assertions.assertThat(input.getConstraintsByAllDishTags()).
                 containsExactly(
-                        tagConstraint("жаренное", Relationship.GREATER_OR_EQUAL, new BigDecimal(2)),
-                        tagConstraint("закуска", Relationship.GREATER_OR_EQUAL, new BigDecimal(5)),
-                        tagConstraint("суп", Relationship.GREATER_OR_EQUAL, new BigDecimal(8))
+                        tagConstraint(input, "жаренное", Relationship.GREATER_OR_EQUAL, new BigDecimal(2)),
+                        tagConstraint(input, "закуска", Relationship.GREATER_OR_EQUAL, new BigDecimal(5)),
+                        tagConstraint(input, "суп", Relationship.GREATER_OR_EQUAL, new BigDecimal(8))
                 );
     }
 
@@ -1062,9 +1114,9 @@ class InputTest {
 
         Assertions.assertThat(input.getConstraintsByAllDishTags()).
                 containsExactly(
-                        tagConstraint("жаренное", Relationship.GREATER_OR_EQUAL, new BigDecimal(2)),
-                        tagConstraint("закуска", Relationship.GREATER_OR_EQUAL, BigDecimal.ZERO),
-                        tagConstraint("суп", Relationship.GREATER_OR_EQUAL, BigDecimal.ZERO)
+                        tagConstraint(input, "жаренное", Relationship.GREATER_OR_EQUAL, new BigDecimal(2)),
+                        tagConstraint(input, "закуска", Relationship.GREATER_OR_EQUAL, BigDecimal.ZERO),
+                        tagConstraint(input, "суп", Relationship.GREATER_OR_EQUAL, BigDecimal.ZERO)
                 );
     }
 
@@ -1097,14 +1149,14 @@ class InputTest {
 
         Assertions.assertThat(input.getConstraintsByAllProducts()).
                 containsExactlyInAnyOrder(
-                        productConstraint("соль", Relationship.GREATER_OR_EQUAL, BigDecimal.TEN),
-                        productConstraint("Картофель", Relationship.GREATER_OR_EQUAL, new BigDecimal(2)),
-                        productConstraint("Растительное масло", Relationship.GREATER_OR_EQUAL, BigDecimal.ONE),
-                        productConstraint("Крахмал", Relationship.GREATER_OR_EQUAL, BigDecimal.TEN),
-                        productConstraint("Лук", Relationship.GREATER_OR_EQUAL, new BigDecimal(2)),
-                        productConstraint("Хлеб", Relationship.GREATER_OR_EQUAL, BigDecimal.TEN),
-                        productConstraint("Масло", Relationship.GREATER_OR_EQUAL, BigDecimal.TEN),
-                        productConstraint("Яйца", Relationship.GREATER_OR_EQUAL,new BigDecimal(3))
+                        productConstraint(input, "соль", Relationship.GREATER_OR_EQUAL, BigDecimal.TEN),
+                        productConstraint(input, "Картофель", Relationship.GREATER_OR_EQUAL, new BigDecimal(2)),
+                        productConstraint(input, "Растительное масло", Relationship.GREATER_OR_EQUAL, BigDecimal.ONE),
+                        productConstraint(input, "Крахмал", Relationship.GREATER_OR_EQUAL, BigDecimal.TEN),
+                        productConstraint(input, "Лук", Relationship.GREATER_OR_EQUAL, new BigDecimal(2)),
+                        productConstraint(input, "Хлеб", Relationship.GREATER_OR_EQUAL, BigDecimal.TEN),
+                        productConstraint(input, "Масло", Relationship.GREATER_OR_EQUAL, BigDecimal.TEN),
+                        productConstraint(input, "Яйца", Relationship.GREATER_OR_EQUAL,new BigDecimal(3))
                 );
     }
 
@@ -1133,14 +1185,14 @@ class InputTest {
 
         Assertions.assertThat(input.getConstraintsByAllProducts()).
                 containsExactlyInAnyOrder(
-                        productConstraint("соль", Relationship.GREATER_OR_EQUAL, BigDecimal.ZERO),
-                        productConstraint("Картофель", Relationship.GREATER_OR_EQUAL, new BigDecimal(2)),
-                        productConstraint("Растительное масло", Relationship.GREATER_OR_EQUAL, BigDecimal.ONE),
-                        productConstraint("Крахмал", Relationship.GREATER_OR_EQUAL, BigDecimal.ZERO),
-                        productConstraint("Лук", Relationship.GREATER_OR_EQUAL, BigDecimal.ZERO),
-                        productConstraint("Хлеб", Relationship.GREATER_OR_EQUAL, BigDecimal.ZERO),
-                        productConstraint("Масло", Relationship.GREATER_OR_EQUAL, BigDecimal.ZERO),
-                        productConstraint("Яйца", Relationship.GREATER_OR_EQUAL, BigDecimal.ZERO)
+                        productConstraint(input, "соль", Relationship.GREATER_OR_EQUAL, BigDecimal.ZERO),
+                        productConstraint(input, "Картофель", Relationship.GREATER_OR_EQUAL, new BigDecimal(2)),
+                        productConstraint(input, "Растительное масло", Relationship.GREATER_OR_EQUAL, BigDecimal.ONE),
+                        productConstraint(input, "Крахмал", Relationship.GREATER_OR_EQUAL, BigDecimal.ZERO),
+                        productConstraint(input, "Лук", Relationship.GREATER_OR_EQUAL, BigDecimal.ZERO),
+                        productConstraint(input, "Хлеб", Relationship.GREATER_OR_EQUAL, BigDecimal.ZERO),
+                        productConstraint(input, "Масло", Relationship.GREATER_OR_EQUAL, BigDecimal.ZERO),
+                        productConstraint(input, "Яйца", Relationship.GREATER_OR_EQUAL, BigDecimal.ZERO)
                 );
     }
 
@@ -1179,6 +1231,108 @@ class InputTest {
     }
 
 
+    @Test
+    @DisplayName("""
+            withProductConstraint(category, relation, quantity):
+             input has constraints with the same category and different relations
+             => replace only constraints with the same relation,
+                don't load dishes again
+            """)
+    public void withProductConstraint1() {
+        Input previous = new Input.Builder().
+                setUser(user).
+                setGeneratedMenuName("Новое меню").
+                setMinMealsNumber(10).
+                setServingNumberPerMeal(new BigDecimal(3)).
+                addProductConstraint("Картофель", "greaterOrEqual", BigDecimal.ONE).
+                addProductConstraint("Картофель", "lessOrEqual", BigDecimal.TEN).
+                addProductConstraint("Картофель", "lessOrEqual", new BigDecimal(8)).
+                setDishRepository(dishRepository).
+                setMenuRepository(menuRepository).
+                tryBuild();
+
+        Input input = previous.withProductConstraint("Картофель", "lessOrEqual", new BigDecimal(5));
+
+        Assertions.assertThat(input.getConstraintsByAllProducts()).
+                contains(
+                        productConstraint(input, "Картофель", Relationship.GREATER_OR_EQUAL, BigDecimal.ONE),
+                        productConstraint(input, "Картофель", Relationship.LESS_OR_EQUAL, new BigDecimal(5))
+                ).
+                doesNotContain(
+                        productConstraint(input, "Картофель", Relationship.LESS_OR_EQUAL, BigDecimal.TEN),
+                        productConstraint(input, "Картофель", Relationship.LESS_OR_EQUAL, new BigDecimal(8))
+                );
+        Assertions.assertThat(input.getAllDishMinPrices()).isSameAs(previous.getAllDishMinPrices());
+        Mockito.verify(dishRepository, Mockito.times(1)).getAllDishes(user.getId());
+    }
+
+    @Test
+    @DisplayName("""
+            withoutDishConstraint(dishTag, relation):
+             input has constraint with this dish tag and relation
+             => return input with default constraint for this tag
+            """)
+    public void withoutDishConstraint1() {
+        Input previous = new Input.Builder().
+                setUser(user).
+                setGeneratedMenuName("Новое меню").
+                setMinMealsNumber(10).
+                setServingNumberPerMeal(new BigDecimal(3)).
+                addDishConstraint("суп", "greaterOrEqual", new BigDecimal(8)).
+                setDishRepository(dishRepository).
+                setMenuRepository(menuRepository).
+                tryBuild();
+
+        Input input = previous.withoutDishConstraint("суп", "greaterOrEqual");
+
+        Assertions.assertThat(input.getConstraintsByAllDishTags()).
+                contains(tagConstraint(input, "суп", Relationship.GREATER_OR_EQUAL, BigDecimal.ZERO)).
+                doesNotContain(tagConstraint(input, "суп", Relationship.GREATER_OR_EQUAL, new BigDecimal(8)));
+    }
+
+    @Test
+    @DisplayName("""
+            withMinMealsNumber(minMealsNumber):
+             minMealsNumber is zero
+             => exception
+            """)
+    public void withMinMealsNumber1() {
+        Input input = new Input.Builder().
+                setUser(user).
+                setGeneratedMenuName("Новое меню").
+                setMinMealsNumber(10).
+                setServingNumberPerMeal(new BigDecimal(3)).
+                setDishRepository(dishRepository).
+                setMenuRepository(menuRepository).
+                tryBuild();
+
+        AssertUtil.assertValidateException(
+                () -> input.withMinMealsNumber(0),
+                "Input.minMeals[POSITIVE_VALUE]",
+                Constraint.POSITIVE_VALUE
+        );
+    }
+
+    @Test
+    @DisplayName("""
+            withMinMealsNumber(minMealsNumber):
+             minMealsNumber is positive
+             => return input with recalculated min serving number
+            """)
+    public void withMinMealsNumber2() {
+        Input input = new Input.Builder().
+                setUser(user).
+                setGeneratedMenuName("Новое меню").
+                setMinMealsNumber(10).
+                setServingNumberPerMeal(new BigDecimal(3)).
+                setDishRepository(dishRepository).
+                setMenuRepository(menuRepository).
+                tryBuild();
+
+        Assertions.assertThat(input.withMinMealsNumber(4).getMinServingNumber()).
+                isEqualByComparingTo(new BigDecimal(12));
+    }
+
     private UUID toUUID(int number) {
         return UUID.fromString("00000000-0000-0000-0000-" + String.format("%012d", number));
     }
@@ -1642,18 +1796,37 @@ class InputTest {
                         thenReturn(Page.empty());
             }
         }
+        Mockito.when(repository.getProductPriceRanges(Mockito.anyList())).thenAnswer(invocation -> {
+            List<Filter> requestedFilters = invocation.getArgument(0);
+            return requestedFilters.stream().
+                    map(filters::indexOf).
+                    map(filterIndex -> products.isEmpty() || filterIndex == -1 ?
+                            Optional.<ProductPriceRange>empty() :
+                            Optional.of(new ProductPriceRange(products.get(filterIndex), products.get(filterIndex), 1))).
+                    toList();
+        });
+        Mockito.when(repository.getProductPages(Mockito.anyList())).thenAnswer(invocation -> {
+            List<Criteria> criteria = invocation.getArgument(0);
+            return criteria.stream().
+                    map(c -> {
+                        int filterIndex = filters.indexOf(c.getFilter());
+                        if(products.isEmpty() || filterIndex == -1) return Page.<Product>empty();
+
+                        return c.getPageable(PageableByNumber.class).
+                                createPageMetadata(1, conf.pagination().productMaxPageSize()).
+                                createPage(List.of(products.get(filterIndex)));
+                    }).
+                    toList();
+        });
 
         return repository;
     }
 
     private DishRepository mockDishRepository(User user, List<Dish> dishes) {
         DishRepository repository = Mockito.mock(DishRepository.class);
-        Filter filter = Filter.user(user.getId());
 
-        Mockito.when(repository.getDishesNumber(criteriaNumber(filter))).
-                thenReturn(dishes.size());
-        Mockito.when(repository.getDishes(dishCriteria(filter))).
-                thenReturn(dishPage(dishes.toArray(length -> new Dish[length])));
+        Mockito.when(repository.getAllDishes(user.getId())).
+                thenReturn(dishes);
 
         return repository;
     }
@@ -1683,15 +1856,6 @@ class InputTest {
         return metadata.createPage(resultProducts);
     }
 
-    private Page<Dish> dishPage(Dish... dishes) {
-        Page.Metadata metadata = PageableByNumber.of(30 , 0).
-                createPageMetadata(dishes.length, conf.pagination().dishMaxPageSize());
-
-        List<Dish> resultDishes = Arrays.asList(dishes);
-
-        return metadata.createPage(resultDishes);
-    }
-
     private Criteria criteriaNumber(Filter filter) {
         return new Criteria().setFilter(filter);
     }
@@ -1703,19 +1867,24 @@ class InputTest {
                 setSort(Sort.products("price"));
     }
 
-    private Criteria dishCriteria(Filter filter) {
-        return new Criteria().
-                setPageable(PageableByNumber.of(30, 0)).
-                setFilter(filter).
-                setSort(Sort.dishDefaultSort());
+    private Input.DishTagConstraint tagConstraint(Input input,
+                                                  String dishTag,
+                                                  Relationship relation,
+                                                  BigDecimal quantity) {
+        Tag tag = new Tag(dishTag);
+        return new Input.DishTagConstraint(tag, input.getAllDishTags().indexOf(tag), relation, quantity);
     }
 
-    private Input.DishTagConstraint tagConstraint(String dishTag, Relationship relation, BigDecimal quantity) {
-        return new Input.DishTagConstraint(new Tag(dishTag), relation, quantity);
-    }
-
-    private Input.ProductConstraint productConstraint(String productCategory, Relationship relation, BigDecimal quantity) {
-        return new Input.ProductConstraint(productCategory, relation, quantity);
+    private Input.ProductConstraint productConstraint(Input input,
+                                                      String productCategory,
+                                                      Relationship relation,
+                                                      BigDecimal quantity) {
+        return new Input.ProductConstraint(
+                productCategory,
+                input.getAllProductCategories().indexOf(productCategory),
+                relation,
+                quantity
+        );
     }
 
     private Input.DishMinPrice dishMinPrice(Dish dish, BigDecimal minPrice) {
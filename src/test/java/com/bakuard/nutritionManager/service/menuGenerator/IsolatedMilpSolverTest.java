@@ -0,0 +1,124 @@
+package com.bakuard.nutritionManager.service.menuGenerator;
+
+import org.assertj.core.api.Assertions;
+import org.assertj.core.api.SoftAssertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+class IsolatedMilpSolverTest {
+
+    @Test
+    @DisplayName("""
+            solve(problem):
+             solve several problems with different variables number in one thread
+             => return optimal solution for each problem
+            """)
+    public void solve1() throws Exception {
+        IsolatedMilpSolver solver = new IsolatedMilpSolver();
+
+        MilpSolution first = solver.solve(smallProblem());
+        MilpSolution second = solver.solve(bigProblem());
+        MilpSolution third = solver.solve(smallProblem());
+
+        SoftAssertions assertions = new SoftAssertions();
+        assertSmallProblemSolution(assertions, first);
+        assertBigProblemSolution(assertions, second);
+        assertSmallProblemSolution(assertions, third);
+        assertions.assertAll();
+    }
+
+    @Test
+    @DisplayName("""
+            solve(problem):
+             solve different problems concurrently
+             => return optimal solution for each problem
+            """)
+    public void solve2() throws Exception {
+        IsolatedMilpSolver solver = new IsolatedMilpSolver();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        try {
+            List<Future<MilpSolution>> small = new ArrayList<>();
+            List<Future<MilpSolution>> big = new ArrayList<>();
+            for(int i = 0; i < 8; i++) {
+                small.add(executor.submit(() -> solver.solve(smallProblem())));
+                big.add(executor.submit(() -> solver.solve(bigProblem())));
+            }
+
+            SoftAssertions assertions = new SoftAssertions();
+            for(Future<MilpSolution> solution : small) assertSmallProblemSolution(assertions, solution.get());
+            for(Future<MilpSolution> solution : big) assertBigProblemSolution(assertions, solution.get());
+            assertions.assertAll();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("""
+            solve(problem):
+             problem hasn't feasible solutions
+             => return solution with status INFEASIBLE
+            """)
+    public void solve3() throws Exception {
+        IsolatedMilpSolver solver = new IsolatedMilpSolver();
+
+        MilpSolution actual = solver.solve(new MilpProblem(
+                new double[]{1, 1},
+                new double[][]{{1, 1}, {1, 1}},
+                new Relationship[]{Relationship.GREATER_OR_EQUAL, Relationship.LESS_OR_EQUAL},
+                new double[]{3, 2},
+                new double[]{Double.NaN, Double.NaN},
+                false
+        ));
+
+        Assertions.assertThat(actual.status()).isEqualTo(MilpSolution.Status.INFEASIBLE);
+        Assertions.assertThat(actual.hasSolution()).isFalse();
+    }
+
+
+    private MilpProblem smallProblem() {
+        return new MilpProblem(
+                new double[]{3, 2},
+                new double[][]{{1, 1}},
+                new Relationship[]{Relationship.GREATER_OR_EQUAL},
+                new double[]{3},
+                new double[]{Double.NaN, 2},
+                false
+        );
+    }
+
+    private MilpProblem bigProblem() {
+        return new MilpProblem(
+                new double[]{5, 4, 3, 7},
+                new double[][]{{1, 1, 1, 1}, {2, 0, 1, 3}, {0, 1, 0, 0}},
+                new Relationship[]{
+                        Relationship.GREATER_OR_EQUAL,
+                        Relationship.GREATER_OR_EQUAL,
+                        Relationship.LESS_OR_EQUAL
+                },
+                new double[]{4, 5, 1},
+                new double[]{Double.NaN, Double.NaN, Double.NaN, Double.NaN},
+                false
+        );
+    }
+
+    private void assertSmallProblemSolution(SoftAssertions assertions, MilpSolution actual) {
+        assertions.assertThat(actual.status()).isEqualTo(MilpSolution.Status.OPTIMAL);
+        assertions.assertThat(actual.values()).containsExactly(1, 2);
+        assertions.assertThat(actual.objective()).isEqualTo(7);
+    }
+
+    private void assertBigProblemSolution(SoftAssertions assertions, MilpSolution actual) {
+        assertions.assertThat(actual.status()).isEqualTo(MilpSolution.Status.OPTIMAL);
+        assertions.assertThat(actual.values()).containsExactly(1, 0, 3, 0);
+        assertions.assertThat(actual.objective()).isEqualTo(14);
+    }
+
+}
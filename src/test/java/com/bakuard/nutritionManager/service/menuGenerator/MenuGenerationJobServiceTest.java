@@ -0,0 +1,285 @@
+package com.bakuard.nutritionManager.service.menuGenerator;
+
+import com.bakuard.nutritionManager.AssertUtil;
+import com.bakuard.nutritionManager.TestConfig;
+import com.bakuard.nutritionManager.config.configData.ConfigData;
+import com.bakuard.nutritionManager.config.configData.MenuGenerator;
+import com.bakuard.nutritionManager.validation.Constraint;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = TestConfig.class)
+@TestPropertySource(locations = "classpath:test.properties")
+class MenuGenerationJobServiceTest {
+
+    @Autowired
+    private ConfigData conf;
+    private MenuGeneratorService menuGeneratorService;
+    private CountDownLatch generationLatch;
+    private MenuGenerationJobService jobService;
+
+    @BeforeEach
+    public void beforeEach() {
+        generationLatch = new CountDownLatch(1);
+        menuGeneratorService = Mockito.mock(MenuGeneratorService.class);
+        Mockito.when(menuGeneratorService.generate(Mockito.any(), Mockito.any(), Mockito.any())).
+                thenAnswer(invocation -> {
+                    try {
+                        generationLatch.await();
+                    } catch(InterruptedException e) {
+                        throw new CancellationException();
+                    }
+                    return new GeneratedMenu(null, true, BigDecimal.ZERO);
+                });
+        jobService = jobService(2, 10);
+    }
+
+    @AfterEach
+    public void afterEach() {
+        jobService.close();
+    }
+
+    @Test
+    @DisplayName("""
+            submit(userId, menuName, inputLoader):
+             userId is null
+             => exception
+            """)
+    public void submit1() {
+        AssertUtil.assertValidateException(
+                () -> jobService.submit(null, "menu", () -> null),
+                "MenuGenerationJobService.userId[NOT_NULL]", Constraint.NOT_NULL
+        );
+    }
+
+    @Test
+    @DisplayName("""
+            submit(userId, menuName, inputLoader):
+             generation finished successfully
+             => job stage is DONE, job contains result
+            """)
+    public void submit2() throws Exception {
+        generationLatch.countDown();
+
+        MenuGenerationJob job = jobService.submit(toUUID(1), "menu", () -> null);
+
+        Assertions.assertThat(awaitFinish(job)).isEqualTo(MenuGenerationStage.DONE);
+        Assertions.assertThat(job.getResult()).isPresent();
+        Assertions.assertThat(job.getError()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("""
+            submit(userId, menuName, inputLoader):
+             input loader throws exception
+             => job stage is FAILED, job contains error
+            """)
+    public void submit3() throws Exception {
+        MenuGenerationJob job = jobService.submit(toUUID(1), "menu", () -> {
+            throw new IllegalStateException();
+        });
+
+        Assertions.assertThat(awaitFinish(job)).isEqualTo(MenuGenerationStage.FAILED);
+        Assertions.assertThat(job.getResult()).isEmpty();
+        Assertions.assertThat(job.getError()).containsInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    @DisplayName("""
+            submit(userId, menuName, inputLoader):
+             job with the same user and menu name is running
+             => return running job
+            """)
+    public void submit4() {
+        MenuGenerationJob expected = jobService.submit(toUUID(1), "menu", () -> null);
+
+        MenuGenerationJob actual = jobService.submit(toUUID(1), "menu", () -> null);
+
+        Assertions.assertThat(actual).isSameAs(expected);
+    }
+
+    @Test
+    @DisplayName("""
+            submit(userId, menuName, inputLoader):
+             job with the same menu name is running for other user
+             => return new job
+            """)
+    public void submit5() {
+        MenuGenerationJob other = jobService.submit(toUUID(1), "menu", () -> null);
+
+        MenuGenerationJob actual = jobService.submit(toUUID(2), "menu", () -> null);
+
+        Assertions.assertThat(actual.getId()).isNotEqualTo(other.getId());
+    }
+
+    @Test
+    @DisplayName("""
+            submit(userId, menuName, inputLoader):
+             job queue is full
+             => exception
+            """)
+    public void submit6() {
+        jobService.close();
+        jobService = jobService(1, 1);
+        jobService.submit(toUUID(1), "menu 1", () -> null);
+        jobService.submit(toUUID(1), "menu 2", () -> null);
+
+        AssertUtil.assertValidateException(
+                () -> jobService.submit(toUUID(1), "menu 3", () -> null),
+                "MenuGenerationJobService.submit[QUEUE_NOT_FULL]", Constraint.QUEUE_NOT_FULL
+        );
+    }
+
+    @Test
+    @DisplayName("""
+            submit(userId, menuName, inputLoader):
+             listener of job blocks on every stage change
+             => job is finished without waiting for listener
+            """)
+    public void submit7() throws Exception {
+        CountDownLatch listenerLatch = new CountDownLatch(1);
+        MenuGenerationJob job = jobService.submit(toUUID(1), "menu", () -> null);
+        job.addListener(changedJob -> {
+            try {
+                listenerLatch.await();
+            } catch(InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        try {
+            generationLatch.countDown();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while(!job.getStage().isFinal() && System.nanoTime() < deadline) Thread.sleep(10);
+
+            Assertions.assertThat(job.getStage()).isEqualTo(MenuGenerationStage.DONE);
+        } finally {
+            listenerLatch.countDown();
+        }
+    }
+
+    @Test
+    @DisplayName("""
+            tryGetJob(userId, jobId):
+             job belongs to other user
+             => exception
+            """)
+    public void tryGetJob1() {
+        MenuGenerationJob job = jobService.submit(toUUID(1), "menu", () -> null);
+
+        AssertUtil.assertValidateException(
+                () -> jobService.tryGetJob(toUUID(2), job.getId()),
+                "MenuGenerationJobService.jobId[ENTITY_MUST_EXISTS_IN_DB]", Constraint.ENTITY_MUST_EXISTS_IN_DB
+        );
+    }
+
+    @Test
+    @DisplayName("""
+            cancel(userId, jobId):
+             job is running
+             => job stage is CANCELLED, new job with the same menu name can be submitted
+            """)
+    public void cancel1() throws Exception {
+        MenuGenerationJob job = jobService.submit(toUUID(1), "menu", () -> null);
+
+        jobService.cancel(toUUID(1), job.getId());
+
+        Assertions.assertThat(awaitFinish(job)).isEqualTo(MenuGenerationStage.CANCELLED);
+        Assertions.assertThat(jobService.submit(toUUID(1), "menu", () -> null).getId()).
+                isNotEqualTo(job.getId());
+    }
+
+    @Test
+    @DisplayName("""
+            cancel(userId, jobId):
+             job is running,
+             job listener is blocked
+             => job stage is CANCELLED without waiting for listener
+            """)
+    public void cancel2() throws Exception {
+        CountDownLatch listenerCalled = new CountDownLatch(1);
+        CountDownLatch listenerLatch = new CountDownLatch(1);
+        MenuGenerationJob job = jobService.submit(toUUID(1), "menu", () -> null);
+        CompletableFuture.runAsync(() -> job.addListener(changedJob -> {
+            listenerCalled.countDown();
+            try {
+                listenerLatch.await();
+            } catch(InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+
+        try {
+            Assertions.assertThat(listenerCalled.await(5, TimeUnit.SECONDS)).isTrue();
+            CompletableFuture.runAsync(() -> jobService.cancel(toUUID(1), job.getId())).get(5, TimeUnit.SECONDS);
+
+            Assertions.assertThat(job.getStage()).isEqualTo(MenuGenerationStage.CANCELLED);
+        } finally {
+            listenerLatch.countDown();
+        }
+    }
+
+
+    private MenuGenerationJobService jobService(int threads, int queueCapacity) {
+        ConfigData configData = new ConfigData(
+                conf.decimal(),
+                conf.confirmationMail(),
+                conf.database(),
+                conf.aws(),
+                conf.pagination(),
+                conf.jws(),
+                conf.productCatalog(),
+                new MenuGenerator(
+                        conf.menuGenerator().solveBudgetMillis(),
+                        threads,
+                        queueCapacity,
+                        30,
+                        conf.menuGenerator().solver(),
+                        conf.menuGenerator().solverThreads(),
+                        conf.menuGenerator().solverQueueCapacity(),
+                        conf.menuGenerator().branchAndBoundThreads(),
+                        conf.menuGenerator().branchAndBoundMaxNodes(),
+                        conf.menuGenerator().relaxAndFixMinDishes(),
+                        conf.menuGenerator().relaxAndFixMargin()
+                )
+        );
+        return new MenuGenerationJobService(
+                menuGeneratorService,
+                Mockito.mock(PlatformTransactionManager.class),
+                configData,
+                Clock.systemUTC()
+        );
+    }
+
+    private MenuGenerationStage awaitFinish(MenuGenerationJob job) throws Exception {
+        CompletableFuture<MenuGenerationStage> finished = new CompletableFuture<>();
+        job.addListener(changedJob -> {
+            if(changedJob.getStage().isFinal()) finished.complete(changedJob.getStage());
+        });
+        return finished.get(5, TimeUnit.SECONDS);
+    }
+
+    private UUID toUUID(int number) {
+        return UUID.fromString("00000000-0000-0000-0000-" + String.format("%012d", number));
+    }
+
+}
@@ -3,16 +3,20 @@ package com.bakuard.nutritionManager.service.menuGenerator;
 import com.bakuard.nutritionManager.AssertUtil;
 import com.bakuard.nutritionManager.TestConfig;
 import com.bakuard.nutritionManager.config.configData.ConfigData;
+import com.bakuard.nutritionManager.config.configData.MenuGenerator;
 import com.bakuard.nutritionManager.dal.Criteria;
 import com.bakuard.nutritionManager.dal.DishRepository;
 import com.bakuard.nutritionManager.dal.MenuRepository;
 import com.bakuard.nutritionManager.dal.ProductRepository;
+import com.bakuard.nutritionManager.dal.projection.ProductPriceRange;
 import com.bakuard.nutritionManager.model.*;
 import com.bakuard.nutritionManager.model.filters.Filter;
 import com.bakuard.nutritionManager.model.filters.Sort;
 import com.bakuard.nutritionManager.model.util.Page;
 import com.bakuard.nutritionManager.model.util.PageableByNumber;
+import com.bakuard.nutritionManager.model.util.Pair;
 import com.bakuard.nutritionManager.validation.Constraint;
+import org.assertj.core.api.Assertions;
 import org.assertj.core.api.InstanceOfAssertFactories;
 import org.assertj.core.api.SoftAssertions;
 import org.junit.jupiter.api.BeforeEach;
@@ -26,7 +30,14 @@ import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
 
 @ExtendWith(SpringExtension.class)
 @ContextConfiguration(classes = TestConfig.class)
@@ -101,7 +112,7 @@ class MenuGeneratorServiceTest {
                 setMenuRepository(menuRepository).
                 tryBuild();
 
-        Menu actual = service.generate(input);
+        Menu actual = service.generate(input).menu();
 
         SoftAssertions assertions = new SoftAssertions();
         assertions.assertThat(actual.getName()).
@@ -196,7 +207,7 @@ class MenuGeneratorServiceTest {
                 setMenuRepository(menuRepository).
                 tryBuild();
 
-        Menu actual = service.generate(input);
+        Menu actual = service.generate(input).menu();
 
         SoftAssertions assertions = new SoftAssertions();
         assertions.assertThat(actual.getName()).
@@ -256,7 +267,7 @@ class MenuGeneratorServiceTest {
                 setMenuRepository(menuRepository).
                 tryBuild();
 
-        Menu actual = service.generate(input);
+        Menu actual = service.generate(input).menu();
 
         SoftAssertions assertions = new SoftAssertions();
         assertions.assertThat(actual.getName()).
@@ -284,6 +295,736 @@ class MenuGeneratorServiceTest {
         assertions.assertAll();
     }
 
+    @Test
+    @DisplayName("""
+            generate(input, solveBudget):
+             solveBudget is null
+             => exception
+            """)
+    public void generate6() {
+        MenuGeneratorService service = new MenuGeneratorService(conf);
+        Input input = generalInput();
+
+        AssertUtil.assertValidateException(
+                () -> service.generate(input, null),
+                "MenuGeneratorService.solveBudget[NOT_NULL]", Constraint.NOT_NULL
+        );
+    }
+
+    @Test
+    @DisplayName("""
+            generate(input, solveBudget):
+             solveBudget is negative
+             => exception
+            """)
+    public void generate7() {
+        MenuGeneratorService service = new MenuGeneratorService(conf);
+        Input input = generalInput();
+
+        AssertUtil.assertValidateException(
+                () -> service.generate(input, Duration.ofMillis(-1)),
+                "MenuGeneratorService.solveBudget[NOT_NEGATIVE_VALUE]", Constraint.NOT_NEGATIVE_VALUE
+        );
+    }
+
+    @Test
+    @DisplayName("""
+            generate(input, solveBudget):
+             solution exists,
+             solve budget is over before any solution was found
+             => exception
+            """)
+    public void generate8() {
+        MenuGeneratorService service = new MenuGeneratorService(conf);
+        Input input = generalInput();
+
+        AssertUtil.assertValidateException(
+                () -> service.generate(input, Duration.ZERO),
+                "MenuGeneratorService.generate[SOLUTION_FOUND_IN_TIME]", Constraint.SOLUTION_FOUND_IN_TIME
+        );
+    }
+
+    @Test
+    @DisplayName("""
+            generate(input, solveBudget):
+             solution exists,
+             solve budget is enough
+             => return optimal menu with zero optimality gap
+            """)
+    public void generate9() {
+        MenuGeneratorService service = new MenuGeneratorService(conf);
+        Input input = generalInput();
+
+        GeneratedMenu actual = service.generate(input, Duration.ofSeconds(30));
+
+        SoftAssertions assertions = new SoftAssertions();
+        assertions.assertThat(actual.optimal()).isTrue();
+        assertions.assertThat(actual.optimalityGap()).isEqualByComparingTo(BigDecimal.ZERO);
+        assertions.assertThat(actual.menu().getMenuItem("Луковый суп")).isPresent();
+        assertions.assertAll();
+    }
+
+    @Test
+    @DisplayName("""
+            generate(input, solveBudget):
+             all solver threads are busy with not interruptible solves,
+             solver queue is full
+             => exception without waiting for solve budget
+            """)
+    public void generate10() {
+        CountDownLatch release = new CountDownLatch(1);
+        MenuGeneratorService service = new MenuGeneratorService(
+                solverPoolConf(1, 1),
+                MilpSolverRegistry.createDefault(conf.menuGenerator()).
+                        with("blocking", problem -> {
+                            boolean released = false;
+                            while(!released) {
+                                try {
+                                    released = release.await(1, TimeUnit.SECONDS);
+                                } catch(InterruptedException ignored) {
+                                }
+                            }
+                            return new BranchAndBoundMilpSolver(1, 100_000).solve(problem);
+                        })
+        );
+        Input input = scenarioInput("blocking", builder -> builder.
+                addDishConstraint("суп", "greaterOrEqual", BigDecimal.ONE));
+
+        try {
+            AssertUtil.assertValidateException(
+                    () -> service.generate(input, Duration.ofMillis(100)),
+                    "MenuGeneratorService.generate[SOLUTION_FOUND_IN_TIME]", Constraint.SOLUTION_FOUND_IN_TIME
+            );
+            AssertUtil.assertValidateException(
+                    () -> service.generate(input, Duration.ofMillis(100)),
+                    "MenuGeneratorService.generate[SOLUTION_FOUND_IN_TIME]", Constraint.SOLUTION_FOUND_IN_TIME
+            );
+            assertTimeoutPreemptively(
+                    Duration.ofSeconds(10),
+                    () -> AssertUtil.assertValidateException(
+                            () -> service.generate(input, Duration.ofMinutes(1)),
+                            "MenuGeneratorService.generate[SOLUTION_FOUND_IN_TIME]", Constraint.SOLUTION_FOUND_IN_TIME
+                    )
+            );
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    @DisplayName("""
+            solveBudget(input):
+             input.solveBudget is greater than conf.menuGenerator.solveBudgetMillis
+             => use conf.menuGenerator.solveBudgetMillis
+            """)
+    public void solveBudget1() {
+        MenuGeneratorService service = new MenuGeneratorService(conf);
+        Input input = scenarioInput("ssc", builder -> builder.
+                setSolveBudget(Duration.ofMillis(conf.menuGenerator().solveBudgetMillis() + 1)));
+
+        Duration actual = service.solveBudget(input);
+
+        Assertions.assertThat(actual).isEqualTo(Duration.ofMillis(conf.menuGenerator().solveBudgetMillis()));
+    }
+
+    @Test
+    @DisplayName("""
+            solveBudget(input):
+             input.solveBudget is less than conf.menuGenerator.solveBudgetMillis
+             => use input.solveBudget
+            """)
+    public void solveBudget2() {
+        MenuGeneratorService service = new MenuGeneratorService(conf);
+        Input input = scenarioInput("ssc", builder -> builder.setSolveBudget(Duration.ofMillis(1)));
+
+        Duration actual = service.solveBudget(input);
+
+        Assertions.assertThat(actual).isEqualTo(Duration.ofMillis(1));
+    }
+
+
+    @Test
+    @DisplayName("""
+            generateAlternatives(input, menusNumber):
+             menusNumber is zero
+             => exception
+            """)
+    public void generateAlternatives1() {
+        MenuGeneratorService service = new MenuGeneratorService(conf);
+        Input input = generalInput();
+
+        AssertUtil.assertValidateException(
+                () -> service.generateAlternatives(input, 0),
+                "MenuGeneratorService.menusNumber[POSITIVE_VALUE]", Constraint.POSITIVE_VALUE
+        );
+    }
+
+    @Test
+    @DisplayName("""
+            generateAlternatives(input, menusNumber):
+             several menus with different dishes exist
+             => return menus with pairwise different dishes, first menu is optimal
+            """)
+    public void generateAlternatives2() {
+        MenuGeneratorService service = new MenuGeneratorService(conf);
+        Input input = generalInput();
+
+        List<GeneratedMenu> actual = service.generateAlternatives(input, 3);
+
+        SoftAssertions assertions = new SoftAssertions();
+        assertions.assertThat(actual).hasSize(3);
+        assertions.assertThat(actual).allMatch(GeneratedMenu::optimal);
+        assertions.assertThat(actual.get(0).menu().getMenuItem("Луковый суп")).isPresent();
+        assertions.assertThat(actual.stream().map(menu -> dishNames(menu.menu())).distinct()).hasSize(3);
+        assertions.assertAll();
+    }
+
+    @Test
+    @DisplayName("""
+            generateAlternatives(input, menusNumber):
+             several menus with different dishes exist,
+             solver doesn't prove optimality of next menus
+             => return menus with pairwise different dishes, only first menu is optimal
+            """)
+    public void generateAlternatives3() {
+        AtomicInteger solvesNumber = new AtomicInteger();
+        BranchAndBoundMilpSolver delegate = new BranchAndBoundMilpSolver(1, 100_000);
+        MenuGeneratorService service = new MenuGeneratorService(
+                conf,
+                MilpSolverRegistry.createDefault(conf.menuGenerator()).
+                        with("feasibleOnly", problem -> {
+                            MilpSolution solution = delegate.solve(problem);
+                            if(solvesNumber.getAndIncrement() == 0 || !solution.hasSolution()) return solution;
+                            return new MilpSolution(
+                                    MilpSolution.Status.FEASIBLE,
+                                    solution.values(),
+                                    solution.objective(),
+                                    Double.NaN,
+                                    solution.solveTime()
+                            );
+                        })
+        );
+        Input input = scenarioInput("feasibleOnly", builder -> builder.
+                addProductConstraint("Картофель", "greaterOrEqual", new BigDecimal(2)).
+                addProductConstraint("Лук", "greaterOrEqual", new BigDecimal(2)).
+                addDishConstraint("суп", "greaterOrEqual", BigDecimal.ONE));
+
+        List<GeneratedMenu> actual = service.generateAlternatives(input, 3);
+
+        SoftAssertions assertions = new SoftAssertions();
+        assertions.assertThat(actual).hasSize(3);
+        assertions.assertThat(actual.get(0).optimal()).isTrue();
+        assertions.assertThat(actual.get(0).optimalityGap()).isEqualByComparingTo(BigDecimal.ZERO);
+        assertions.assertThat(actual.subList(1, actual.size())).noneMatch(GeneratedMenu::optimal);
+        assertions.assertThat(actual.subList(1, actual.size())).
+                allMatch(menu -> menu.optimalityGap().signum() > 0);
+        assertions.assertThat(actual.stream().map(menu -> dishNames(menu.menu())).distinct()).hasSize(3);
+        assertions.assertAll();
+    }
+
+    @Test
+    @DisplayName("""
+            generateAlternatives(input, menusNumber):
+             solver fails with checked exception for every subproblem
+             => return only first menu
+            """)
+    public void generateAlternatives4() {
+        AtomicInteger solvesNumber = new AtomicInteger();
+        BranchAndBoundMilpSolver delegate = new BranchAndBoundMilpSolver(1, 100_000);
+        MenuGeneratorService service = new MenuGeneratorService(
+                conf,
+                MilpSolverRegistry.createDefault(conf.menuGenerator()).
+                        with("failing", problem -> {
+                            if(solvesNumber.getAndIncrement() == 0) return delegate.solve(problem);
+                            throw new Exception("Solver failure");
+                        })
+        );
+        Input input = scenarioInput("failing", builder -> builder.
+                addProductConstraint("Картофель", "greaterOrEqual", new BigDecimal(2)).
+                addProductConstraint("Лук", "greaterOrEqual", new BigDecimal(2)).
+                addDishConstraint("суп", "greaterOrEqual", BigDecimal.ONE));
+
+        List<GeneratedMenu> actual = service.generateAlternatives(input, 3);
+
+        Assertions.assertThat(actual).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("""
+            generateAlternatives(input, menusNumber):
+             solver fails with unexpected runtime exception for subproblem
+             => exception
+            """)
+    public void generateAlternatives5() {
+        AtomicInteger solvesNumber = new AtomicInteger();
+        BranchAndBoundMilpSolver delegate = new BranchAndBoundMilpSolver(1, 100_000);
+        MenuGeneratorService service = new MenuGeneratorService(
+                conf,
+                MilpSolverRegistry.createDefault(conf.menuGenerator()).
+                        with("failing", problem -> {
+                            if(solvesNumber.getAndIncrement() == 0) return delegate.solve(problem);
+                            throw new NullPointerException();
+                        })
+        );
+        Input input = scenarioInput("failing", builder -> builder.
+                addProductConstraint("Картофель", "greaterOrEqual", new BigDecimal(2)).
+                addProductConstraint("Лук", "greaterOrEqual", new BigDecimal(2)).
+                addDishConstraint("суп", "greaterOrEqual", BigDecimal.ONE));
+
+        AssertUtil.assertValidateException(
+                () -> service.generateAlternatives(input, 3),
+                "MenuGeneratorService.generate[SOLUTION_EXISTS]", Constraint.SOLUTION_EXISTS
+        );
+    }
+
+    @Test
+    @DisplayName("""
+            generate(input):
+             input.solver is branchAndBound,
+             solution exists
+             => return menu with the same cost as ssc solver
+            """)
+    public void generateByBranchAndBound1() {
+        MenuGeneratorService service = new MenuGeneratorService(conf);
+        Input expectedInput = scenarioInput("ssc", builder -> builder.
+                addProductConstraint("соль", "greaterOrEqual", BigDecimal.ZERO).
+                addProductConstraint("Картофель", "greaterOrEqual", new BigDecimal(2)).
+                addProductConstraint("Растительное масло", "lessOrEqual", new BigDecimal(4)).
+                addProductConstraint("Крахмал", "greaterOrEqual", BigDecimal.ZERO).
+                addProductConstraint("Лук", "greaterOrEqual", new BigDecimal(2)).
+                addProductConstraint("Хлеб", "greaterOrEqual", BigDecimal.ZERO).
+                addProductConstraint("Масло", "greaterOrEqual", BigDecimal.ONE).
+                addProductConstraint("Яйца", "greaterOrEqual", BigDecimal.ZERO).
+                addDishConstraint("жаренное", "lessOrEqual", BigDecimal.TEN).
+                addDishConstraint("закуска", "greaterOrEqual", BigDecimal.ZERO).
+                addDishConstraint("суп", "greaterOrEqual", BigDecimal.ONE));
+        Input actualInput = scenarioInput("branchAndBound", builder -> builder.
+                addProductConstraint("соль", "greaterOrEqual", BigDecimal.ZERO).
+                addProductConstraint("Картофель", "greaterOrEqual", new BigDecimal(2)).
+                addProductConstraint("Растительное масло", "lessOrEqual", new BigDecimal(4)).
+                addProductConstraint("Крахмал", "greaterOrEqual", BigDecimal.ZERO).
+                addProductConstraint("Лук", "greaterOrEqual", new BigDecimal(2)).
+                addProductConstraint("Хлеб", "greaterOrEqual", BigDecimal.ZERO).
+                addProductConstraint("Масло", "greaterOrEqual", BigDecimal.ONE).
+                addProductConstraint("Яйца", "greaterOrEqual", BigDecimal.ZERO).
+                addDishConstraint("жаренное", "lessOrEqual", BigDecimal.TEN).
+                addDishConstraint("закуска", "greaterOrEqual", BigDecimal.ZERO).
+                addDishConstraint("суп", "greaterOrEqual", BigDecimal.ONE));
+
+        GeneratedMenu expected = service.generate(expectedInput);
+        GeneratedMenu actual = service.generate(actualInput);
+
+        SoftAssertions assertions = new SoftAssertions();
+        assertions.assertThat(actual.optimal()).isTrue();
+        assertions.assertThat(cost(actualInput, actual.menu())).
+                isEqualByComparingTo(cost(expectedInput, expected.menu()));
+        assertions.assertThat(actual.menu().getMenuItem("Луковый суп")).isPresent();
+        assertions.assertThat(actual.menu().getMenuItem("Луковые кольца")).isEmpty();
+        assertions.assertAll();
+    }
+
+    @Test
+    @DisplayName("""
+            generate(input):
+             input.solver is branchAndBound,
+             solution not exists
+             => exception
+            """)
+    public void generateByBranchAndBound2() {
+        MenuGeneratorService service = new MenuGeneratorService(conf);
+        Input input = scenarioInput("branchAndBound", builder -> builder.
+                addProductConstraint("соль", "lessOrEqual", BigDecimal.ZERO).
+                addProductConstraint("Картофель", "greaterOrEqual", new BigDecimal(2)).
+                addProductConstraint("Растительное масло", "lessOrEqual", new BigDecimal(4)).
+                addProductConstraint("Крахмал", "greaterOrEqual", BigDecimal.ZERO).
+                addProductConstraint("Лук", "greaterOrEqual", new BigDecimal(2)).
+                addProductConstraint("Хлеб", "greaterOrEqual", BigDecimal.ZERO).
+                addProductConstraint("Масло", "greaterOrEqual", BigDecimal.ONE).
+                addProductConstraint("Яйца", "greaterOrEqual", BigDecimal.ZERO).
+                addDishConstraint("жаренное", "lessOrEqual", BigDecimal.TEN).
+                addDishConstraint("закуска", "greaterOrEqual", BigDecimal.ZERO).
+                addDishConstraint("суп", "greaterOrEqual", BigDecimal.ONE));
+
+        AssertUtil.assertValidateException(
+                () -> service.generate(input),
+                "MenuGeneratorService.generate[SOLUTION_EXISTS]", Constraint.SOLUTION_EXISTS
+        );
+    }
+
+    @Test
+    @DisplayName("""
+            generate(input):
+             input.solver is branchAndBound,
+             some constraints have the same product category and relationship but different quantity
+             => return menu with the same cost as ssc solver
+            """)
+    public void generateByBranchAndBound3() {
+        MenuGeneratorService service = new MenuGeneratorService(conf);
+        Input expectedInput = scenarioInput("ssc", builder -> builder.
+                addProductConstraint("Картофель", "greaterOrEqual", new BigDecimal(2)).
+                addProductConstraint("Картофель", "greaterOrEqual", BigDecimal.ZERO).
+                addProductConstraint("Растительное масло", "lessOrEqual", new BigDecimal(4)).
+                addProductConstraint("Растительное масло", "lessOrEqual", new BigDecimal(8)).
+                addProductConstraint("Лук", "greaterOrEqual", new BigDecimal(2)).
+                addProductConstraint("Масло", "greaterOrEqual", BigDecimal.ONE).
+                addDishConstraint("жаренное", "lessOrEqual", BigDecimal.TEN).
+                addDishConstraint("суп", "greaterOrEqual", BigDecimal.ONE).
+                addDishConstraint("суп", "greaterOrEqual", BigDecimal.ZERO));
+        Input actualInput = scenarioInput("branchAndBound", builder -> builder.
+                addProductConstraint("Картофель", "greaterOrEqual", new BigDecimal(2)).
+                addProductConstraint("Картофель", "greaterOrEqual", BigDecimal.ZERO).
+                addProductConstraint("Растительное масло", "lessOrEqual", new BigDecimal(4)).
+                addProductConstraint("Растительное масло", "lessOrEqual", new BigDecimal(8)).
+                addProductConstraint("Лук", "greaterOrEqual", new BigDecimal(2)).
+                addProductConstraint("Масло", "greaterOrEqual", BigDecimal.ONE).
+                addDishConstraint("жаренное", "lessOrEqual", BigDecimal.TEN).
+                addDishConstraint("суп", "greaterOrEqual", BigDecimal.ONE).
+                addDishConstraint("суп", "greaterOrEqual", BigDecimal.ZERO));
+
+        GeneratedMenu expected = service.generate(expectedInput);
+        GeneratedMenu actual = service.generate(actualInput);
+
+        SoftAssertions assertions = new SoftAssertions();
+        assertions.assertThat(actual.optimal()).isTrue();
+        assertions.assertThat(cost(actualInput, actual.menu())).
+                isEqualByComparingTo(cost(expectedInput, expected.menu()));
+        assertions.assertThat(actual.menu().getMenuItem("Яичница")).isEmpty();
+        assertions.assertAll();
+    }
+
+    @Test
+    @DisplayName("""
+            generateAlternatives(input, menusNumber):
+             input.solver is branchAndBound
+             => return menus with the same costs as ssc solver
+            """)
+    public void generateByBranchAndBound4() {
+        MenuGeneratorService service = new MenuGeneratorService(conf);
+        Input expectedInput = scenarioInput("ssc", builder -> builder.
+                addProductConstraint("Картофель", "greaterOrEqual", new BigDecimal(2)).
+                addProductConstraint("Лук", "greaterOrEqual", new BigDecimal(2)).
+                addDishConstraint("суп", "greaterOrEqual", BigDecimal.ONE));
+        Input actualInput = scenarioInput("branchAndBound", builder -> builder.
+                addProductConstraint("Картофель", "greaterOrEqual", new BigDecimal(2)).
+                addProductConstraint("Лук", "greaterOrEqual", new BigDecimal(2)).
+                addDishConstraint("суп", "greaterOrEqual", BigDecimal.ONE));
+
+        List<BigDecimal> expected = service.generateAlternatives(expectedInput, 3).stream().
+                map(menu -> cost(expectedInput, menu.menu())).
+                toList();
+        List<BigDecimal> actual = service.generateAlternatives(actualInput, 3).stream().
+                map(menu -> cost(actualInput, menu.menu())).
+                toList();
+
+        Assertions.assertThat(actual).
+                usingElementComparator(BigDecimal::compareTo).
+                containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    @DisplayName("""
+            generate(input):
+             service hasn't solver with name input.solver
+             => exception
+            """)
+    public void generateBySolver1() {
+        MenuGeneratorService service = new MenuGeneratorService(conf);
+        Input input = scenarioInput("unknown", builder -> builder.
+                addDishConstraint("суп", "greaterOrEqual", BigDecimal.ONE));
+
+        AssertUtil.assertValidateException(
+                () -> service.generate(input),
+                "MenuGeneratorService.solver[ANY_MATCH]", Constraint.ANY_MATCH
+        );
+    }
+
+    @Test
+    @DisplayName("""
+            generate(input):
+             input.solver is name of additionally registered solver
+             => use this solver,
+                return menu with the same cost as ssc solver
+            """)
+    public void generateBySolver2() {
+        List<MilpProblem> solvedProblems = Collections.synchronizedList(new ArrayList<>());
+        BranchAndBoundMilpSolver delegate = new BranchAndBoundMilpSolver(1, 100_000);
+        MenuGeneratorService service = new MenuGeneratorService(
+                conf,
+                MilpSolverRegistry.createDefault(conf.menuGenerator()).
+                        with("custom", problem -> {
+                            solvedProblems.add(problem);
+                            return delegate.solve(problem);
+                        })
+        );
+        Input expectedInput = scenarioInput("ssc", builder -> builder.
+                addProductConstraint("Картофель", "greaterOrEqual", new BigDecimal(2)).
+                addDishConstraint("суп", "greaterOrEqual", BigDecimal.ONE));
+        Input actualInput = scenarioInput("custom", builder -> builder.
+                addProductConstraint("Картофель", "greaterOrEqual", new BigDecimal(2)).
+                addDishConstraint("суп", "greaterOrEqual", BigDecimal.ONE));
+
+        GeneratedMenu expected = service.generate(expectedInput);
+        GeneratedMenu actual = service.generate(actualInput);
+
+        SoftAssertions assertions = new SoftAssertions();
+        assertions.assertThat(solvedProblems).isNotEmpty();
+        assertions.assertThat(cost(actualInput, actual.menu())).
+                isEqualByComparingTo(cost(expectedInput, expected.menu()));
+        assertions.assertAll();
+    }
+
+    @Test
+    @DisplayName("""
+            generate(input):
+             relax-and-fix is enabled for any dishes number,
+             margin is zero
+             => return menu with the same cost as without relax-and-fix
+            """)
+    public void generateByRelaxAndFix1() {
+        MenuGeneratorService expectedService = new MenuGeneratorService(conf);
+        MenuGeneratorService actualService = new MenuGeneratorService(relaxAndFixConf(1, 0));
+        Input input = scenarioInput("branchAndBound", builder -> builder.
+                addProductConstraint("Картофель", "greaterOrEqual", new BigDecimal(2)).
+                addProductConstraint("Растительное масло", "lessOrEqual", new BigDecimal(4)).
+                addProductConstraint("Лук", "greaterOrEqual", new BigDecimal(2)).
+                addDishConstraint("суп", "greaterOrEqual", BigDecimal.ONE));
+
+        GeneratedMenu expected = expectedService.generate(input);
+        GeneratedMenu actual = actualService.generate(input);
+
+        Assertions.assertThat(cost(input, actual.menu())).
+                isEqualByComparingTo(cost(input, expected.menu()));
+    }
+
+    @Test
+    @DisplayName("""
+            generate(input):
+             relax-and-fix is enabled for any dishes number,
+             solution not exists
+             => exception
+            """)
+    public void generateByRelaxAndFix2() {
+        MenuGeneratorService service = new MenuGeneratorService(relaxAndFixConf(1, 0));
+        Input input = scenarioInput("branchAndBound", builder -> builder.
+                addProductConstraint("соль", "lessOrEqual", BigDecimal.ZERO).
+                addProductConstraint("Картофель", "greaterOrEqual", new BigDecimal(2)).
+                addProductConstraint("Растительное масло", "lessOrEqual", new BigDecimal(4)).
+                addProductConstraint("Крахмал", "greaterOrEqual", BigDecimal.ZERO).
+                addProductConstraint("Лук", "greaterOrEqual", new BigDecimal(2)).
+                addProductConstraint("Хлеб", "greaterOrEqual", BigDecimal.ZERO).
+                addProductConstraint("Масло", "greaterOrEqual", BigDecimal.ONE).
+                addProductConstraint("Яйца", "greaterOrEqual", BigDecimal.ZERO).
+                addDishConstraint("жаренное", "lessOrEqual", BigDecimal.TEN).
+                addDishConstraint("закуска", "greaterOrEqual", BigDecimal.ZERO).
+                addDishConstraint("суп", "greaterOrEqual", BigDecimal.ONE));
+
+        AssertUtil.assertValidateException(
+                () -> service.generate(input),
+                "MenuGeneratorService.generate[SOLUTION_EXISTS]", Constraint.SOLUTION_EXISTS
+        );
+    }
+
+    @Test
+    @DisplayName("""
+            openSession(input):
+             input is null
+             => exception
+            """)
+    public void openSession1() {
+        MenuGeneratorService service = new MenuGeneratorService(conf);
+
+        AssertUtil.assertValidateException(
+                () -> service.openSession(null),
+                "MenuGeneratorService.input[NOT_NULL]", Constraint.NOT_NULL
+        );
+    }
+
+    @Test
+    @DisplayName("""
+            MenuGenerationSession.generate():
+             constraint was tightened,
+             previous optimal menu satisfies new constraints
+             => return previous menu as optimal without solving
+            """)
+    public void generateBySession1() {
+        List<MilpProblem> solvedProblems = Collections.synchronizedList(new ArrayList<>());
+        BranchAndBoundMilpSolver delegate = new BranchAndBoundMilpSolver(1, 100_000);
+        MenuGeneratorService service = new MenuGeneratorService(
+                conf,
+                MilpSolverRegistry.createDefault(conf.menuGenerator()).
+                        with("custom", problem -> {
+                            solvedProblems.add(problem);
+                            return delegate.solve(problem);
+                        })
+        );
+        MenuGenerationSession session = service.openSession(scenarioInput("custom", builder -> builder.
+                addProductConstraint("Картофель", "greaterOrEqual", new BigDecimal(2)).
+                addDishConstraint("жаренное", "lessOrEqual", new BigDecimal(100)).
+                addDishConstraint("суп", "greaterOrEqual", BigDecimal.ONE)));
+        GeneratedMenu expected = session.generate();
+        solvedProblems.clear();
+
+        GeneratedMenu actual = session.
+                setDishConstraint("жаренное", "lessOrEqual", new BigDecimal(50)).
+                generate();
+
+        SoftAssertions assertions = new SoftAssertions();
+        assertions.assertThat(solvedProblems).isEmpty();
+        assertions.assertThat(actual.optimal()).isTrue();
+        assertions.assertThat(dishNames(actual.menu())).isEqualTo(dishNames(expected.menu()));
+        assertions.assertThat(cost(session.getInput(), actual.menu())).
+                isEqualByComparingTo(cost(session.getInput(), expected.menu()));
+        assertions.assertAll();
+    }
+
+    @Test
+    @DisplayName("""
+            MenuGenerationSession.generate():
+             minMealsNumber and product constraint were changed
+             => return menu with the same cost as menu generated from scratch
+            """)
+    public void generateBySession2() {
+        MenuGeneratorService service = new MenuGeneratorService(conf);
+        Input expectedInput = scenarioInput("branchAndBound", builder -> builder.
+                setMinMealsNumber(3).
+                addProductConstraint("Картофель", "greaterOrEqual", new BigDecimal(3)).
+                addProductConstraint("Лук", "greaterOrEqual", new BigDecimal(2)).
+                addDishConstraint("суп", "greaterOrEqual", BigDecimal.ONE));
+        MenuGenerationSession session = service.openSession(scenarioInput("branchAndBound", builder -> builder.
+                addProductConstraint("Картофель", "greaterOrEqual", new BigDecimal(2)).
+                addProductConstraint("Лук", "greaterOrEqual", new BigDecimal(2)).
+                addDishConstraint("суп", "greaterOrEqual", BigDecimal.ONE)));
+        session.generate();
+
+        GeneratedMenu expected = service.generate(expectedInput);
+        GeneratedMenu actual = session.
+                setMinMealsNumber(3).
+                setProductConstraint("Картофель", "greaterOrEqual", new BigDecimal(3)).
+                generate();
+
+        SoftAssertions assertions = new SoftAssertions();
+        assertions.assertThat(actual.optimal()).isTrue();
+        assertions.assertThat(session.getInput().getMinServingNumber()).isEqualByComparingTo(new BigDecimal(9));
+        assertions.assertThat(cost(session.getInput(), actual.menu())).
+                isEqualByComparingTo(cost(expectedInput, expected.menu()));
+        assertions.assertThat(session.getLastGeneratedMenu()).containsSame(actual);
+        assertions.assertAll();
+    }
+
+    @Test
+    @DisplayName("""
+            MenuGenerationSession.setProductConstraint(category, relation, quantity):
+             category isn't used in any dish
+             => exception,
+                session constraints are not changed
+            """)
+    public void generateBySession3() {
+        MenuGeneratorService service = new MenuGeneratorService(conf);
+        Input input = scenarioInput("branchAndBound", builder -> builder.
+                addDishConstraint("суп", "greaterOrEqual", BigDecimal.ONE));
+        MenuGenerationSession session = service.openSession(input);
+
+        AssertUtil.assertValidateException(
+                () -> session.setProductConstraint("unknown", "lessOrEqual", BigDecimal.ONE),
+                new Pair<>("Input.product.category[ANY_MATCH]", Constraint.ANY_MATCH),
+                new Pair<>("Input.products[DOES_NOT_THROW]", Constraint.DOES_NOT_THROW)
+        );
+        Assertions.assertThat(session.getInput()).isSameAs(input);
+    }
+
+    private Input generalInput() {
+        return new Input.Builder().
+                setUser(user).
+                setGeneratedMenuName("Новое меню").
+                setMinMealsNumber(2).
+                setServingNumberPerMeal(new BigDecimal(3)).
+                addProductConstraint("Картофель", "greaterOrEqual", new BigDecimal(2)).
+                addProductConstraint("Лук", "greaterOrEqual", new BigDecimal(2)).
+                addDishConstraint("суп", "greaterOrEqual", BigDecimal.ONE).
+                setDishRepository(dishRepository).
+                setMenuRepository(menuRepository).
+                tryBuild();
+    }
+
+    private Input scenarioInput(String solver, Consumer<Input.Builder> constraints) {
+        Input.Builder builder = new Input.Builder().
+                setUser(user).
+                setGeneratedMenuName("Новое меню").
+                setMinMealsNumber(2).
+                setServingNumberPerMeal(new BigDecimal(3)).
+                setSolver(solver).
+                setDishRepository(dishRepository).
+                setMenuRepository(menuRepository);
+        constraints.accept(builder);
+        return builder.tryBuild();
+    }
+
+    private ConfigData relaxAndFixConf(int minDishes, double margin) {
+        return new ConfigData(
+                conf.decimal(),
+                conf.confirmationMail(),
+                conf.database(),
+                conf.aws(),
+                conf.pagination(),
+                conf.jws(),
+                conf.productCatalog(),
+                new MenuGenerator(
+                        conf.menuGenerator().solveBudgetMillis(),
+                        conf.menuGenerator().jobThreads(),
+                        conf.menuGenerator().jobQueueCapacity(),
+                        conf.menuGenerator().finishedJobLifeTimeInMinutes(),
+                        conf.menuGenerator().solver(),
+                        conf.menuGenerator().solverThreads(),
+                        conf.menuGenerator().solverQueueCapacity(),
+                        conf.menuGenerator().branchAndBoundThreads(),
+                        conf.menuGenerator().branchAndBoundMaxNodes(),
+                        minDishes,
+                        margin
+                )
+        );
+    }
+
+    private ConfigData solverPoolConf(int solverThreads, int solverQueueCapacity) {
+        return new ConfigData(
+                conf.decimal(),
+                conf.confirmationMail(),
+                conf.database(),
+                conf.aws(),
+                conf.pagination(),
+                conf.jws(),
+                conf.productCatalog(),
+                new MenuGenerator(
+                        conf.menuGenerator().solveBudgetMillis(),
+                        conf.menuGenerator().jobThreads(),
+                        conf.menuGenerator().jobQueueCapacity(),
+                        conf.menuGenerator().finishedJobLifeTimeInMinutes(),
+                        conf.menuGenerator().solver(),
+                        solverThreads,
+                        solverQueueCapacity,
+                        conf.menuGenerator().branchAndBoundThreads(),
+                        conf.menuGenerator().branchAndBoundMaxNodes(),
+                        conf.menuGenerator().relaxAndFixMinDishes(),
+                        conf.menuGenerator().relaxAndFixMargin()
+                )
+        );
+    }
+
+    private BigDecimal cost(Input input, Menu menu) {
+        BigDecimal result = BigDecimal.ZERO;
+        for(Input.DishMinPrice dishMinPrice : input.getAllDishMinPrices()) {
+            Optional<MenuItem> item = menu.getMenuItem(dishMinPrice.dish().getName());
+            if(item.isPresent()) {
+                result = result.add(dishMinPrice.minPrice().multiply(item.get().getNecessaryQuantity(BigDecimal.ONE)));
+            }
+        }
+        return result;
+    }
+
+    private Set<String> dishNames(Menu menu) {
+        Set<String> result = new HashSet<>();
+        menu.getItems().forEach(item -> result.add(item.getDish().getName()));
+        return result;
+    }
 
     private UUID toUUID(int number) {
         return UUID.fromString("00000000-0000-0000-0000-" + String.format("%012d", number));
@@ -829,18 +1570,37 @@ class MenuGeneratorServiceTest {
                         thenReturn(Page.empty());
             }
         }
+        Mockito.when(repository.getProductPriceRanges(Mockito.anyList())).thenAnswer(invocation -> {
+            List<Filter> requestedFilters = invocation.getArgument(0);
+            return requestedFilters.stream().
+                    map(filters::indexOf).
+                    map(filterIndex -> products.isEmpty() || filterIndex == -1 ?
+                            Optional.<ProductPriceRange>empty() :
+                            Optional.of(new ProductPriceRange(products.get(filterIndex), products.get(filterIndex), 1))).
+                    toList();
+        });
+        Mockito.when(repository.getProductPages(Mockito.anyList())).thenAnswer(invocation -> {
+            List<Criteria> criteria = invocation.getArgument(0);
+            return criteria.stream().
+                    map(c -> {
+                        int filterIndex = filters.indexOf(c.getFilter());
+                        if(products.isEmpty() || filterIndex == -1) return Page.<Product>empty();
+
+                        return c.getPageable(PageableByNumber.class).
+                                createPageMetadata(1, conf.pagination().productMaxPageSize()).
+                                createPage(List.of(products.get(filterIndex)));
+                    }).
+                    toList();
+        });
 
         return repository;
     }
 
     private DishRepository mockDishRepository(User user, List<Dish> dishes) {
         DishRepository repository = Mockito.mock(DishRepository.class);
-        Filter filter = Filter.user(user.getId());
 
-        Mockito.when(repository.getDishesNumber(criteriaNumber(filter))).
-                thenReturn(dishes.size());
-        Mockito.when(repository.getDishes(dishCriteria(filter))).
-                thenReturn(dishPage(dishes.toArray(length -> new Dish[length])));
+        Mockito.when(repository.getAllDishes(user.getId())).
+                thenReturn(dishes);
 
         return repository;
     }
@@ -870,15 +1630,6 @@ class MenuGeneratorServiceTest {
         return metadata.createPage(resultProducts);
     }
 
-    private Page<Dish> dishPage(Dish... dishes) {
-        Page.Metadata metadata = PageableByNumber.of(30 , 0).
-                createPageMetadata(dishes.length, conf.pagination().dishMaxPageSize());
-
-        List<Dish> resultDishes = Arrays.asList(dishes);
-
-        return metadata.createPage(resultDishes);
-    }
-
     private Criteria criteriaNumber(Filter filter) {
         return new Criteria().setFilter(filter);
     }
@@ -890,11 +1641,4 @@ class MenuGeneratorServiceTest {
                 setSort(Sort.products("price"));
     }
 
-    private Criteria dishCriteria(Filter filter) {
-        return new Criteria().
-                setPageable(PageableByNumber.of(30, 0)).
-                setFilter(filter).
-                setSort(Sort.dishDefaultSort());
-    }
-
 }
\ No newline at end of file
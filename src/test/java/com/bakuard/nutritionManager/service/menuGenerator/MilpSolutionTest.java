@@ -0,0 +1,70 @@
+package com.bakuard.nutritionManager.service.menuGenerator;
+
+import org.assertj.core.api.Assertions;
+import org.assertj.core.data.Offset;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+class MilpSolutionTest {
+
+    @Test
+    @DisplayName("""
+            gap():
+             status is OPTIMAL
+             => return 0
+            """)
+    public void gap1() {
+        MilpSolution solution = new MilpSolution(
+                MilpSolution.Status.OPTIMAL, new long[]{1, 2}, 10, Double.NaN, Duration.ZERO
+        );
+
+        Assertions.assertThat(solution.gap()).isZero();
+    }
+
+    @Test
+    @DisplayName("""
+            gap():
+             status is FEASIBLE,
+             relaxedObjective is known
+             => return relative difference between objective and relaxedObjective
+            """)
+    public void gap2() {
+        MilpSolution solution = new MilpSolution(
+                MilpSolution.Status.FEASIBLE, new long[]{1, 2}, 10, 8, Duration.ZERO
+        );
+
+        Assertions.assertThat(solution.gap()).isCloseTo(0.2, Offset.offset(1e-9));
+    }
+
+    @Test
+    @DisplayName("""
+            gap():
+             status is FEASIBLE,
+             relaxedObjective is NaN
+             => return 1
+            """)
+    public void gap3() {
+        MilpSolution solution = new MilpSolution(
+                MilpSolution.Status.FEASIBLE, new long[]{1, 2}, 10, Double.NaN, Duration.ZERO
+        );
+
+        Assertions.assertThat(solution.gap()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("""
+            gap():
+             solution not found
+             => return NaN
+            """)
+    public void gap4() {
+        MilpSolution solution = new MilpSolution(
+                MilpSolution.Status.INFEASIBLE, null, Double.NaN, Double.NaN, Duration.ZERO
+        );
+
+        Assertions.assertThat(solution.gap()).isNaN();
+    }
+
+}
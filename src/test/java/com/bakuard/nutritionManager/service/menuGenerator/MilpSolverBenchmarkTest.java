@@ -0,0 +1,155 @@
+package com.bakuard.nutritionManager.service.menuGenerator;
+
+import com.bakuard.nutritionManager.config.configData.MenuGenerator;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Сравнивает все решатели из {@link MilpSolverRegistry#createDefault(MenuGenerator)} на задачах подбора меню
+ * увеличивающегося размера (кол-во блюд, категорий продуктов и тегов блюд). Задачи имеют ту же структуру, что и
+ * задачи строящиеся {@link MenuGeneratorService} по {@link Input}: ограничение на кол-во порций, ограничения на
+ * кол-во продуктов каждой категории и на кол-во блюд с каждым тегом. Для каждого решателя выводится время решения,
+ * объем выделенной памяти всеми потоками, состояние решения, значение целевой функции и отклонение от
+ * оптимального значения. Запускается только при указании -Dbenchmark=true.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class MilpSolverBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(MilpSolverBenchmarkTest.class);
+
+    private record Size(int dishes, int categories, int tags) {}
+
+    private static final List<Size> SIZES = List.of(
+            new Size(20, 5, 3),
+            new Size(50, 10, 5),
+            new Size(100, 20, 8),
+            new Size(200, 30, 10)
+    );
+    private static final long TIMEOUT_SECONDS = 60;
+
+    @Test
+    @DisplayName("""
+            MilpSolverRegistry.createDefault(config):
+             problems of increasing size
+             => print solve time, memory and objective for every solver
+            """)
+    public void benchmark() throws Exception {
+        MilpSolverRegistry registry = MilpSolverRegistry.createDefault(
+                new MenuGenerator(5000L, 1, 1, 1L, MilpSolverRegistry.SSC, 4, 32, 4, 1_000_000L, 0, 0.05)
+        );
+        ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "milp-solver-benchmark");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try {
+            Random random = new Random(100);
+            for(Size size : SIZES) {
+                MilpProblem problem = problem(random, size);
+                for(String name : registry.getNames()) {
+                    MilpSolver solver = registry.get(name).orElseThrow();
+
+                    long bytes = allocatedBytes();
+                    long start = System.nanoTime();
+                    Future<MilpSolution> future = executor.submit(() -> solver.solve(problem));
+                    try {
+                        MilpSolution solution = future.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+                        long time = System.nanoTime() - start;
+                        bytes = allocatedBytes() - bytes;
+
+                        logger.info(
+                                ("Dishes = %d, categories = %d, tags = %d, solver = %s: %d ms, %d bytes, " +
+                                        "status = %s, objective = %.2f, gap = %.4f").formatted(
+                                        size.dishes(), size.categories(), size.tags(), name,
+                                        time / 1_000_000, bytes,
+                                        solution.status(), solution.objective(), solution.gap()
+                                )
+                        );
+                    } catch(TimeoutException e) {
+                        future.cancel(true);
+                        logger.info(
+                                "Dishes = {}, categories = {}, tags = {}, solver = {}: timeout {} s",
+                                size.dishes(), size.categories(), size.tags(), name, TIMEOUT_SECONDS
+                        );
+                    }
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+
+    private MilpProblem problem(Random random, Size size) {
+        double[] costs = new double[size.dishes()];
+        for(int i = 0; i < costs.length; i++) costs[i] = 50 + random.nextInt(450) + random.nextInt(100) / 100.0;
+
+        List<Presolver.Row> rows = new ArrayList<>();
+        double[] servings = new double[size.dishes()];
+        Arrays.fill(servings, 1);
+        rows.add(new Presolver.Row("servings", servings, Relationship.GREATER_OR_EQUAL, 3 * 7));
+
+        for(int i = 0; i < size.categories(); i++) {
+            double[] quantities = new double[size.dishes()];
+            for(int j = 0; j < quantities.length; j++) {
+                if(random.nextInt(5) == 0) quantities[j] = (1 + random.nextInt(50)) / 100.0;
+            }
+            boolean lessOrEqual = random.nextInt(4) == 0;
+            rows.add(new Presolver.Row(
+                    "category:" + i,
+                    quantities,
+                    lessOrEqual ? Relationship.LESS_OR_EQUAL : Relationship.GREATER_OR_EQUAL,
+                    lessOrEqual ? 3 + random.nextInt(5) : 1 + random.nextInt(2)
+            ));
+        }
+
+        for(int i = 0; i < size.tags(); i++) {
+            double[] tags = new double[size.dishes()];
+            for(int j = 0; j < tags.length; j++) tags[j] = random.nextInt(4) == 0 ? 1 : 0;
+            boolean lessOrEqual = random.nextBoolean();
+            rows.add(new Presolver.Row(
+                    "tag:" + i,
+                    tags,
+                    lessOrEqual ? Relationship.LESS_OR_EQUAL : Relationship.GREATER_OR_EQUAL,
+                    lessOrEqual ? 10 + random.nextInt(5) : 1 + random.nextInt(3)
+            ));
+        }
+
+        Presolver.Model model = new Presolver().presolve(costs, rows);
+        return new MilpProblem(
+                model.costs(),
+                model.rows().stream().map(Presolver.Row::coefficients).toArray(double[][]::new),
+                model.rows().stream().map(Presolver.Row::relation).toArray(Relationship[]::new),
+                model.rows().stream().mapToDouble(Presolver.Row::rhs).toArray(),
+                model.upperBounds(),
+                false
+        );
+    }
+
+    /*
+     * Объем памяти, выделенной всеми потоками приложения. Память потоков, завершившихся между вызовами, не
+     * учитывается.
+     */
+    private long allocatedBytes() {
+        com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        return Arrays.stream(bean.getThreadAllocatedBytes(bean.getAllThreadIds())).
+                filter(bytes -> bytes > 0).
+                sum();
+    }
+
+}
@@ -0,0 +1,93 @@
+package com.bakuard.nutritionManager.service.menuGenerator;
+
+import com.bakuard.nutritionManager.AssertUtil;
+import com.bakuard.nutritionManager.validation.Constraint;
+import org.assertj.core.api.Assertions;
+import org.assertj.core.api.SoftAssertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class MilpSolverRegistryTest {
+
+    @Test
+    @DisplayName("""
+            with(name, solver):
+             name is blank
+             => exception
+            """)
+    public void with1() {
+        MilpSolverRegistry registry = new MilpSolverRegistry();
+
+        AssertUtil.assertValidateException(
+                () -> registry.with("  ", new BranchAndBoundMilpSolver(1, 10)),
+                "MilpSolverRegistry.name[NOT_BLANK]", Constraint.NOT_BLANK
+        );
+    }
+
+    @Test
+    @DisplayName("""
+            with(name, solver):
+             registry already contains solver with the same name
+             => exception
+            """)
+    public void with2() {
+        MilpSolverRegistry registry = new MilpSolverRegistry().
+                with("custom", new BranchAndBoundMilpSolver(1, 10));
+
+        AssertUtil.assertValidateException(
+                () -> registry.with("custom", new BranchAndBoundMilpSolver(1, 10)),
+                "MilpSolverRegistry.name[NOT_CONTAINS_ITEM]", Constraint.NOT_CONTAINS_ITEM
+        );
+    }
+
+    @Test
+    @DisplayName("""
+            with(name, solver):
+             solver is null
+             => exception
+            """)
+    public void with3() {
+        MilpSolverRegistry registry = new MilpSolverRegistry();
+
+        AssertUtil.assertValidateException(
+                () -> registry.with("custom", null),
+                "MilpSolverRegistry.solver[NOT_NULL]", Constraint.NOT_NULL
+        );
+    }
+
+    @Test
+    @DisplayName("""
+            with(name, solver):
+             name is unique
+             => return new registry with all solvers in the order of addition,
+                don't change source registry
+            """)
+    public void with4() {
+        MilpSolver first = new BranchAndBoundMilpSolver(1, 10);
+        MilpSolver second = new BranchAndBoundMilpSolver(1, 10);
+        MilpSolverRegistry source = new MilpSolverRegistry().with("first", first);
+
+        MilpSolverRegistry actual = source.with("second", second);
+
+        SoftAssertions assertions = new SoftAssertions();
+        assertions.assertThat(actual.getNames()).containsExactly("first", "second");
+        assertions.assertThat(actual.get("first")).containsSame(first);
+        assertions.assertThat(actual.get("second")).containsSame(second);
+        assertions.assertThat(source.getNames()).containsExactly("first");
+        assertions.assertAll();
+    }
+
+    @Test
+    @DisplayName("""
+            get(name):
+             registry hasn't solver with this name
+             => return empty Optional
+            """)
+    public void get1() {
+        MilpSolverRegistry registry = new MilpSolverRegistry().
+                with("custom", new BranchAndBoundMilpSolver(1, 10));
+
+        Assertions.assertThat(registry.get("unknown")).isEmpty();
+    }
+
+}
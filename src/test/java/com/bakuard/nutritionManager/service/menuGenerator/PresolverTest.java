@@ -0,0 +1,135 @@
+package com.bakuard.nutritionManager.service.menuGenerator;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+class PresolverTest {
+
+    @Test
+    @DisplayName("""
+            presolve(costs, rows):
+             several rows with the same key and relation
+             => keep only the strictest row
+            """)
+    public void presolve1() {
+        Presolver.Model actual = new Presolver().presolve(
+                new double[]{1, 2},
+                List.of(
+                        new Presolver.Row("a", new double[]{1, 2}, Relationship.GREATER_OR_EQUAL, 3),
+                        new Presolver.Row("a", new double[]{1, 2}, Relationship.GREATER_OR_EQUAL, 5),
+                        new Presolver.Row("a", new double[]{1, 2}, Relationship.GREATER_OR_EQUAL, 4)
+                )
+        );
+
+        Assertions.assertThat(actual.rows()).hasSize(1);
+        Assertions.assertThat(actual.rows().get(0).rhs()).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("""
+            presolve(costs, rows):
+             some rows are satisfied by any non-negative variables
+             => remove these rows
+            """)
+    public void presolve2() {
+        Presolver.Model actual = new Presolver().presolve(
+                new double[]{1, 1},
+                List.of(
+                        new Presolver.Row("a", new double[]{1, 0}, Relationship.GREATER_OR_EQUAL, 0),
+                        new Presolver.Row("b", new double[]{0, 0}, Relationship.LESS_OR_EQUAL, 2),
+                        new Presolver.Row("c", new double[]{1, 1}, Relationship.GREATER_OR_EQUAL, 2)
+                )
+        );
+
+        Assertions.assertThat(actual.rows()).
+                extracting(Presolver.Row::key).
+                containsExactly("c");
+    }
+
+    @Test
+    @DisplayName("""
+            presolve(costs, rows):
+             variable has greater cost and not better coefficients than other variable
+             => remove dominated variable
+            """)
+    public void presolve3() {
+        Presolver.Model actual = new Presolver().presolve(
+                new double[]{5, 3, 4},
+                List.of(
+                        new Presolver.Row("a", new double[]{1, 2, 1}, Relationship.GREATER_OR_EQUAL, 4),
+                        new Presolver.Row("b", new double[]{0, 1, 3}, Relationship.GREATER_OR_EQUAL, 1)
+                )
+        );
+
+        Assertions.assertThat(actual.variables()).containsExactly(1, 2);
+        Assertions.assertThat(actual.costs()).containsExactly(3, 4);
+        Assertions.assertThat(actual.rows().get(0).coefficients()).containsExactly(2, 1);
+    }
+
+    @Test
+    @DisplayName("""
+            presolve(costs, rows):
+             rows "less or equal" bound variables
+             => return upper bounds, remove variables with zero upper bound
+            """)
+    public void presolve4() {
+        Presolver.Model actual = new Presolver().presolve(
+                new double[]{1, 2, 3},
+                List.of(
+                        new Presolver.Row("a", new double[]{1, 1, 1}, Relationship.GREATER_OR_EQUAL, 1),
+                        new Presolver.Row("b", new double[]{2, 0, 5}, Relationship.LESS_OR_EQUAL, 7),
+                        new Presolver.Row("c", new double[]{0, 3, 4}, Relationship.LESS_OR_EQUAL, 2)
+                )
+        );
+
+        Assertions.assertThat(actual.variables()).containsExactly(0);
+        Assertions.assertThat(actual.upperBounds()).containsExactly(3);
+    }
+
+    @Test
+    @DisplayName("""
+            presolve(costs, rows):
+             row "less or equal" can't be violated with found upper bounds
+             => remove this row
+            """)
+    public void presolve5() {
+        Presolver.Model actual = new Presolver().presolve(
+                new double[]{1, 1},
+                List.of(
+                        new Presolver.Row("a", new double[]{1, 1}, Relationship.GREATER_OR_EQUAL, 2),
+                        new Presolver.Row("b", new double[]{1, 0}, Relationship.LESS_OR_EQUAL, 2),
+                        new Presolver.Row("c", new double[]{0, 1}, Relationship.LESS_OR_EQUAL, 1),
+                        new Presolver.Row("d", new double[]{1, 1}, Relationship.LESS_OR_EQUAL, 3),
+                        new Presolver.Row("e", new double[]{1, 2}, Relationship.LESS_OR_EQUAL, 3)
+                )
+        );
+
+        Assertions.assertThat(actual.rows()).
+                extracting(Presolver.Row::key).
+                containsExactly("a", "e");
+        Assertions.assertThat(actual.upperBounds()).containsExactly(2, 1);
+    }
+
+    @Test
+    @DisplayName("""
+            presolve(costs, rows):
+             variable is dominated by other variable,
+             removing dominated variables is disabled
+             => keep dominated variable
+            """)
+    public void presolve6() {
+        Presolver.Model actual = new Presolver(false).presolve(
+                new double[]{5, 3, 4},
+                List.of(
+                        new Presolver.Row("a", new double[]{1, 2, 1}, Relationship.GREATER_OR_EQUAL, 4),
+                        new Presolver.Row("b", new double[]{0, 1, 3}, Relationship.GREATER_OR_EQUAL, 1)
+                )
+        );
+
+        Assertions.assertThat(actual.variables()).containsExactly(0, 1, 2);
+    }
+
+}
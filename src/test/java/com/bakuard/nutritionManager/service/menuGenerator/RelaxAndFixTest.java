@@ -0,0 +1,106 @@
+package com.bakuard.nutritionManager.service.menuGenerator;
+
+import org.assertj.core.api.Assertions;
+import org.assertj.core.api.SoftAssertions;
+import org.assertj.core.data.Offset;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+class RelaxAndFixTest {
+
+    @Test
+    @DisplayName("""
+            select(model, margin):
+             some dishes have big reduced cost
+             => exclude these dishes,
+                return lower bound and min reduced cost of excluded dishes
+            """)
+    public void select1() {
+        RelaxAndFix.Candidates actual = new RelaxAndFix().select(model(), 0.1);
+
+        SoftAssertions assertions = new SoftAssertions();
+        assertions.assertThat(actual.model().variables()).containsExactly(10, 11);
+        assertions.assertThat(actual.model().costs()).containsExactly(1, 2);
+        assertions.assertThat(actual.model().rows().get(0).coefficients()).containsExactly(1, 1);
+        assertions.assertThat(actual.model().upperBounds()).containsExactly(1, Double.NaN);
+        assertions.assertThat(actual.lowerBound()).isCloseTo(5, Offset.offset(1e-9));
+        assertions.assertThat(actual.excludedReducedCost()).isCloseTo(8, Offset.offset(1e-9));
+        assertions.assertThat(actual.isComplete()).isFalse();
+        assertions.assertAll();
+    }
+
+    @Test
+    @DisplayName("""
+            select(model, margin):
+             reduced cost of all dishes is within margin
+             => return all dishes
+            """)
+    public void select2() {
+        RelaxAndFix.Candidates actual = new RelaxAndFix().select(model(), 1);
+
+        SoftAssertions assertions = new SoftAssertions();
+        assertions.assertThat(actual.model().variables()).containsExactly(10, 11, 12, 13);
+        assertions.assertThat(actual.isComplete()).isTrue();
+        assertions.assertAll();
+    }
+
+    @Test
+    @DisplayName("""
+            widen(candidates):
+             candidates don't contain all dishes
+             => add dishes with the least reduced cost
+            """)
+    public void widen1() {
+        RelaxAndFix relaxAndFix = new RelaxAndFix();
+        RelaxAndFix.Candidates candidates = relaxAndFix.select(model(), 0.1);
+
+        RelaxAndFix.Candidates actual = relaxAndFix.widen(candidates);
+
+        SoftAssertions assertions = new SoftAssertions();
+        assertions.assertThat(actual.model().variables()).containsExactly(10, 11, 12);
+        assertions.assertThat(actual.excludedReducedCost()).isCloseTo(18, Offset.offset(1e-9));
+        assertions.assertThat(actual.lowerBound()).isCloseTo(5, Offset.offset(1e-9));
+        assertions.assertAll();
+    }
+
+    @Test
+    @DisplayName("""
+            isOptimal(objective):
+             objective is not greater than lower bound plus min reduced cost of excluded dishes
+             => return true
+            """)
+    public void isOptimal1() {
+        RelaxAndFix.Candidates candidates = new RelaxAndFix().select(model(), 0.1);
+
+        Assertions.assertThat(candidates.isOptimal(13)).isTrue();
+    }
+
+    @Test
+    @DisplayName("""
+            isOptimal(objective):
+             objective is greater than lower bound plus min reduced cost of excluded dishes
+             => return false
+            """)
+    public void isOptimal2() {
+        RelaxAndFix.Candidates candidates = new RelaxAndFix().select(model(), 0.1);
+
+        Assertions.assertThat(candidates.isOptimal(13.5)).isFalse();
+    }
+
+
+    /*
+     * Оптимальное решение релаксации: x0 = 1, x1 = 2 со значением 5. Приведенная стоимость третьего блюда - 8,
+     * четвертого - 18.
+     */
+    private Presolver.Model model() {
+        return new Presolver.Model(
+                new int[]{10, 11, 12, 13},
+                new double[]{1, 2, 10, 20},
+                List.of(new Presolver.Row("servings", new double[]{1, 1, 1, 1}, Relationship.GREATER_OR_EQUAL, 3)),
+                new double[]{1, Double.NaN, Double.NaN, Double.NaN}
+        );
+    }
+
+}
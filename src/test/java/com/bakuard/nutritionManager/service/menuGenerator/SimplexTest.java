@@ -0,0 +1,132 @@
+package com.bakuard.nutritionManager.service.menuGenerator;
+
+import org.assertj.core.api.Assertions;
+import org.assertj.core.data.Offset;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class SimplexTest {
+
+    private static final double INF = Double.POSITIVE_INFINITY;
+
+    @Test
+    @DisplayName("""
+            solve(costs, coefficients, relations, rhs, lower, upper):
+             problem has optimal solution
+             => return optimal solution
+            """)
+    public void solve1() {
+        Simplex.Solution actual = new Simplex().solve(
+                new double[]{2, 3},
+                new double[][]{{1, 1}, {1, 2}},
+                new Relationship[]{Relationship.GREATER_OR_EQUAL, Relationship.GREATER_OR_EQUAL},
+                new double[]{4, 6},
+                new double[]{0, 0},
+                new double[]{INF, INF}
+        );
+
+        Assertions.assertThat(actual.status()).isEqualTo(MilpSolution.Status.OPTIMAL);
+        Assertions.assertThat(actual.values()).containsExactly(new double[]{2, 2}, Offset.offset(1e-9));
+        Assertions.assertThat(actual.objective()).isCloseTo(10, Offset.offset(1e-9));
+    }
+
+    @Test
+    @DisplayName("""
+            solve(costs, coefficients, relations, rhs, lower, upper):
+             variables have lower and upper bounds
+             => return optimal solution within bounds
+            """)
+    public void solve2() {
+        Simplex.Solution actual = new Simplex().solve(
+                new double[]{1, 3},
+                new double[][]{{1, 1}},
+                new Relationship[]{Relationship.GREATER_OR_EQUAL},
+                new double[]{5},
+                new double[]{0, 1},
+                new double[]{2.5, INF}
+        );
+
+        Assertions.assertThat(actual.status()).isEqualTo(MilpSolution.Status.OPTIMAL);
+        Assertions.assertThat(actual.values()).containsExactly(new double[]{2.5, 2.5}, Offset.offset(1e-9));
+        Assertions.assertThat(actual.objective()).isCloseTo(10, Offset.offset(1e-9));
+    }
+
+    @Test
+    @DisplayName("""
+            solve(costs, coefficients, relations, rhs, lower, upper):
+             constraints contradict each other
+             => return INFEASIBLE
+            """)
+    public void solve3() {
+        Simplex.Solution actual = new Simplex().solve(
+                new double[]{1, 1},
+                new double[][]{{1, 1}, {1, 1}},
+                new Relationship[]{Relationship.GREATER_OR_EQUAL, Relationship.LESS_OR_EQUAL},
+                new double[]{3, 2},
+                new double[]{0, 0},
+                new double[]{INF, INF}
+        );
+
+        Assertions.assertThat(actual.status()).isEqualTo(MilpSolution.Status.INFEASIBLE);
+    }
+
+    @Test
+    @DisplayName("""
+            solve(costs, coefficients, relations, rhs, lower, upper):
+             lower bound of variable greater than upper bound
+             => return INFEASIBLE
+            """)
+    public void solve4() {
+        Simplex.Solution actual = new Simplex().solve(
+                new double[]{1},
+                new double[][]{{1}},
+                new Relationship[]{Relationship.GREATER_OR_EQUAL},
+                new double[]{1},
+                new double[]{3},
+                new double[]{2}
+        );
+
+        Assertions.assertThat(actual.status()).isEqualTo(MilpSolution.Status.INFEASIBLE);
+    }
+
+    @Test
+    @DisplayName("""
+            solve(costs, coefficients, relations, rhs, lower, upper):
+             objective function is unbounded
+             => return UNBOUNDED
+            """)
+    public void solve5() {
+        Simplex.Solution actual = new Simplex().solve(
+                new double[]{-1, 1},
+                new double[][]{{1, -1}},
+                new Relationship[]{Relationship.GREATER_OR_EQUAL},
+                new double[]{1},
+                new double[]{0, 0},
+                new double[]{INF, INF}
+        );
+
+        Assertions.assertThat(actual.status()).isEqualTo(MilpSolution.Status.UNBOUNDED);
+    }
+
+    @Test
+    @DisplayName("""
+            solve(costs, coefficients, relations, rhs, lower, upper):
+             problem has optimal solution
+             => return reduced cost of each variable
+            """)
+    public void solve6() {
+        Simplex.Solution actual = new Simplex().solve(
+                new double[]{1, 2, 10},
+                new double[][]{{1, 1, 1}},
+                new Relationship[]{Relationship.GREATER_OR_EQUAL},
+                new double[]{3},
+                new double[]{0, 0, 0},
+                new double[]{1, INF, INF}
+        );
+
+        Assertions.assertThat(actual.status()).isEqualTo(MilpSolution.Status.OPTIMAL);
+        Assertions.assertThat(actual.values()).containsExactly(new double[]{1, 2, 0}, Offset.offset(1e-9));
+        Assertions.assertThat(actual.reducedCosts()).containsExactly(new double[]{0, 0, 8}, Offset.offset(1e-9));
+    }
+
+}
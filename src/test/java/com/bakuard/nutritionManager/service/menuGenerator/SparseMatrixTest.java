@@ -0,0 +1,75 @@
+package com.bakuard.nutritionManager.service.menuGenerator;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+class SparseMatrixTest {
+
+    @Test
+    @DisplayName("""
+            get(row, column):
+             cell value wasn't set
+             => return 0
+            """)
+    public void get1() {
+        SparseMatrix matrix = new SparseMatrix.Builder(2, 3).
+                set(0, 1, BigDecimal.TEN).
+                build();
+
+        Assertions.assertThat(matrix.get(0, 0)).isEqualTo(BigDecimal.ZERO);
+        Assertions.assertThat(matrix.get(1, 1)).isEqualTo(BigDecimal.ZERO);
+    }
+
+    @Test
+    @DisplayName("""
+            get(row, column):
+             cell value was set several times
+             => return last value
+            """)
+    public void get2() {
+        SparseMatrix matrix = new SparseMatrix.Builder(2, 3).
+                set(1, 2, BigDecimal.ONE).
+                set(1, 0, new BigDecimal("0.5")).
+                set(1, 2, BigDecimal.TEN).
+                build();
+
+        Assertions.assertThat(matrix.get(1, 2)).isEqualTo(BigDecimal.TEN);
+        Assertions.assertThat(matrix.get(1, 0)).isEqualTo(new BigDecimal("0.5"));
+        Assertions.assertThat(matrix.getNonZeroNumber(1)).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("""
+            get(row, column):
+             column out of bounds
+             => exception
+            """)
+    public void get3() {
+        SparseMatrix matrix = new SparseMatrix.Builder(2, 3).build();
+
+        Assertions.assertThatExceptionOfType(IndexOutOfBoundsException.class).
+                isThrownBy(() -> matrix.get(0, 3));
+    }
+
+    @Test
+    @DisplayName("""
+            getDenseRow(row):
+             row contains zero and non-zero values
+             => return row with zeros in unset cells
+            """)
+    public void getDenseRow1() {
+        SparseMatrix matrix = new SparseMatrix.Builder(2, 4).
+                set(0, 3, new BigDecimal("2.5")).
+                set(0, 1, BigDecimal.ONE).
+                set(0, 2, BigDecimal.ZERO).
+                set(1, 0, BigDecimal.TEN).
+                build();
+
+        Assertions.assertThat(matrix.getDenseRow(0)).containsExactly(0.0, 1.0, 0.0, 2.5);
+        Assertions.assertThat(matrix.getDenseRow(1)).containsExactly(10.0, 0.0, 0.0, 0.0);
+    }
+
+}
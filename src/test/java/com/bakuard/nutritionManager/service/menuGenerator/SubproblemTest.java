@@ -0,0 +1,69 @@
+package com.bakuard.nutritionManager.service.menuGenerator;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+class SubproblemTest {
+
+    @Test
+    @DisplayName("""
+            split(solution):
+             root subproblem
+             => for each dish of solution: subproblem without this dish and with previous dishes,
+                last subproblem: with all dishes of solution and at least one other dish
+            """)
+    public void split1() {
+        List<Subproblem> actual = Subproblem.root().split(new long[]{2, 0, 1, 0});
+
+        Assertions.assertThat(actual).hasSize(3);
+        Assertions.assertThat(actual.get(0).rows(4)).
+                extracting(Presolver.Row::key).
+                containsExactlyInAnyOrder("excluded:0");
+        Assertions.assertThat(actual.get(1).rows(4)).
+                extracting(Presolver.Row::key).
+                containsExactlyInAnyOrder("included:0", "excluded:2");
+        Assertions.assertThat(actual.get(2).rows(4)).
+                extracting(Presolver.Row::key).
+                containsExactlyInAnyOrder("included:0", "included:2", "anyOf:0");
+        Assertions.assertThat(actual.get(2).rows(4)).
+                filteredOn(row -> row.key().equals("anyOf:0")).
+                singleElement().
+                satisfies(row -> {
+                    Assertions.assertThat(row.coefficients()).containsExactly(0, 1, 0, 1);
+                    Assertions.assertThat(row.relation()).isEqualTo(Relationship.GREATER_OR_EQUAL);
+                    Assertions.assertThat(row.rhs()).isEqualTo(1);
+                });
+    }
+
+    @Test
+    @DisplayName("""
+            split(solution):
+             subproblem already includes some dishes of solution,
+             solution contains all dishes
+             => split only by not included dishes, without subproblem with other dishes
+            """)
+    public void split2() {
+        Subproblem subproblem = Subproblem.root().split(new long[]{1, 1, 0}).get(2);
+
+        List<Subproblem> actual = subproblem.split(new long[]{1, 1, 1});
+
+        Assertions.assertThat(actual).hasSize(1);
+        Assertions.assertThat(actual.get(0).rows(3)).
+                extracting(Presolver.Row::key).
+                containsExactlyInAnyOrder("included:0", "included:1", "excluded:2", "anyOf:0");
+    }
+
+    @Test
+    @DisplayName("""
+            rows(variablesNumber):
+             root subproblem
+             => return empty list
+            """)
+    public void rows1() {
+        Assertions.assertThat(Subproblem.root().rows(3)).isEmpty();
+    }
+
+}